@@ -1,18 +1,34 @@
 package delegate;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.atilf.delegate.enrichment.analyzer.TermsuitePipelineBuilderDelegate;
+import org.atilf.models.enrichment.TermsuiteDocument;
+import org.atilf.models.enrichment.TextAnalyzer;
+import org.atilf.module.tools.FilesUtils;
 import org.atilf.runner.TermithResourceManager;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
-import java.io.IOException;
+import java.io.File;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TermsuitePipelineDelegateTest extends IntegrationTasks {
+    /*
+    the words of a fixture are repeated in its document : the terms must pass the frequency thresholds of the pipeline
+     */
+    private static final int REPETITIONS = 5;
     private TermsuitePipelineBuilderDelegate _t = new TermsuitePipelineBuilderDelegate();
+    private ObjectMapper _mapper = new ObjectMapper();
+    private List<Path> _fixtures;
     @Rule
     public TemporaryFolder _temporaryFolder = new TemporaryFolder();
 
@@ -21,19 +37,53 @@ public class TermsuitePipelineDelegateTest extends IntegrationTasks {
         TermithResourceManager.addToClasspath("src/main/resources/termith-resources");
         _t.setLang("fr");
         _t.setOutputPath(_temporaryFolder.getRoot().toPath().toString());
-        _temporaryFolder.newFolder("json");
-        Files.list(Paths.get("src/integrationTest/resources/termsuiteJson")).forEach(
-                el -> {
-                    try {
-                        Files.copy(el, Paths.get(_temporaryFolder.getRoot() + "/json/" + el.getFileName().toString()));
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-        );
+        try (Stream<Path> files = Files.list(Paths.get("src/integrationTest/resources/termsuiteJson"))) {
+            _fixtures = files.sorted().collect(Collectors.toList());
+        }
+        /*
+        the termsuite json files are given to the pipeline as the morphologies written by the TreeTaggerWorker
+         */
+        int cumulatedSize = 0;
+        for (int i = 0; i < _fixtures.size(); i++) {
+            String id = FilesUtils.nameNormalizer(_fixtures.get(i).toString());
+            TermsuiteDocument document = termsuiteDocument(id, _mapper.readTree(_fixtures.get(i).toFile()), i,
+                    cumulatedSize);
+            cumulatedSize += document.getText().length();
+            _termithIndex.getTermsuiteDocument().put(id, FilesUtils.writeObject(
+                    document, _temporaryFolder.getRoot().toPath(), "termsuiteDocument", id));
+        }
     }
+
     @Test
     public void executeTasks() throws Exception {
         executeTasksTest(_t);
+        JsonNode terminology = _mapper.readTree(new File(_temporaryFolder.getRoot() + "/terminology.json"));
+        Assert.assertEquals("each document must be read by the pipeline",
+                _fixtures.size(), terminology.get("input_sources").size());
+        Assert.assertTrue("the terminology must not be empty", terminology.get("terms").size() > 0);
+        Assert.assertTrue("the morphologies must be released", _termithIndex.getTermsuiteDocument().isEmpty());
+    }
+
+    private TermsuiteDocument termsuiteDocument(String id, JsonNode json, int index, int cumulatedSize) {
+        String coveredText = json.get("covered_text").asText();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < REPETITIONS; i++) {
+            text.append(coveredText).append('\n');
+        }
+        int size = text.length();
+        TermsuiteDocument document = new TermsuiteDocument(
+                "file:/corpus/txt/" + id + ".txt",
+                text.toString(),
+                new TextAnalyzer(size, _fixtures.size(), size, index, cumulatedSize + size,
+                        size * _fixtures.size(), index == _fixtures.size() - 1)
+        );
+        for (int i = 0; i < REPETITIONS; i++) {
+            int shift = i * (coveredText.length() + 1);
+            for (JsonNode word : json.get("word_annotations")) {
+                document.addWord(shift + word.get("begin").asInt(), shift + word.get("end").asInt(),
+                        word.get("tag").asText(), word.get("cat").asText(), word.get("lemma").asText());
+            }
+        }
+        return document;
     }
 }
@@ -3,6 +3,7 @@ package delegate;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.atilf.delegate.enrichment.analyzer.TreeTaggerWorkerDelegate;
+import org.atilf.models.enrichment.TermsuiteDocument;
 import org.atilf.module.tools.FilesUtils;
 import org.atilf.runner.TermithResourceManager;
 import org.junit.Assert;
@@ -30,6 +31,7 @@ public class TreeTaggerDelegateTest extends IntegrationTasks{
         TermithResource.setLang("fr");
         _t.setLang("fr");
         _t.setOutputPath(_temporaryFolder.getRoot().toPath());
+        _t.setMorphologyJson(true);
 
         for (int i = 1; i < 100; i++) {
 
@@ -57,5 +59,21 @@ public class TreeTaggerDelegateTest extends IntegrationTasks{
                 String.join("\n",Files.readAllLines(Paths.get("src/integrationTest/resources/treetaggerWorker/text1.json"))),
                 actualObj.get("word_annotations").toString()
                 );
+
+        /*
+        the morphology handed to the termsuite pipeline has the same words as the json file
+         */
+        JsonNode expected = mapper.readTree(new File("src/integrationTest/resources/treetaggerWorker/text1.json"));
+        TermsuiteDocument document = FilesUtils.readObject(
+                _termithIndex.getTermsuiteDocument().get("text85"), TermsuiteDocument.class);
+        Assert.assertEquals(expected.size(), document.size());
+        for (int i = 0; i < document.size(); i++) {
+            JsonNode word = expected.get(i);
+            Assert.assertEquals(word.get("tag").asText(), document.getTag(i));
+            Assert.assertEquals(word.get("cat").asText(), document.getCategory(i));
+            Assert.assertEquals(word.get("lemma").asText(), document.getLemma(i));
+            Assert.assertEquals(word.get("begin").asInt(), document.getBegin(i));
+            Assert.assertEquals(word.get("end").asInt(), document.getEnd(i));
+        }
     }
 }
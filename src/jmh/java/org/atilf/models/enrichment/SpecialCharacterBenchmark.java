@@ -0,0 +1,112 @@
+package org.atilf.models.enrichment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * compare the xml escaping of the lemmas and the translation of the lines with the stream implementations they
+ * replaced. The allocations are reported with the gc profiler, e.g.
+ * gradle jmh -PjmhArgs="SpecialCharacterBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpecialCharacterBenchmark {
+
+    private static final Map<String, String> XML_ESCAPES = new HashMap<>();
+    private static final Map<ByteBuffer, String> APOSTROPHES = new HashMap<>();
+
+    static {
+        XML_ESCAPES.put("\"", "&quot;");
+        XML_ESCAPES.put("&", "&amp;");
+        XML_ESCAPES.put("'", "&apos;");
+        XML_ESCAPES.put("<", "&lt;");
+        XML_ESCAPES.put(">", "&gt;");
+        APOSTROPHES.put(ByteBuffer.wrap("ʼ".getBytes()), "'");
+        APOSTROPHES.put(ByteBuffer.wrap("’".getBytes()), "'");
+        APOSTROPHES.put(ByteBuffer.wrap("՚".getBytes()), "'");
+    }
+
+    /*
+    a lemma, a term with special characters and a line of a tei file
+     */
+    @Param({"lemma", "term", "line"})
+    private String _input;
+
+    private String _string;
+    private final CharArrayWriter _writer = new CharArrayWriter(1024);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (_input) {
+            case "lemma":
+                _string = "désambiguïsation";
+                break;
+            case "term":
+                _string = "l'œil & \"la\" <main>";
+                break;
+            default:
+                _string = "<p rend=\"italic\">Les résultats de l’annotation sont indiqués à l’aide de " +
+                        "l’attribut ana, la signification de chacune des valeurs est décrite.</p>";
+        }
+    }
+
+    @Benchmark
+    public String escapeStream() {
+        return Stream.of(_string.split(""))
+                .map(c -> XML_ESCAPES.getOrDefault(c, c))
+                .reduce("", String::concat);
+    }
+
+    @Benchmark
+    public String escape() {
+        return SpecialChXmlEscape.replaceChar(_string);
+    }
+
+    @Benchmark
+    public CharArrayWriter escapeWriter() throws IOException {
+        _writer.reset();
+        SpecialChXmlEscape.replaceChar(_string, _writer);
+        return _writer;
+    }
+
+    @Benchmark
+    public String translateStream() {
+        return Stream.of(_string.split(""))
+                .map(el -> APOSTROPHES.getOrDefault(ByteBuffer.wrap(el.getBytes()), el))
+                .reduce("", String::concat);
+    }
+
+    @Benchmark
+    public String translate() {
+        return SpecialCharacter.replaceChar(_string);
+    }
+
+    @Benchmark
+    public CharArrayWriter translateWriter() throws IOException {
+        _writer.reset();
+        SpecialCharacter.replaceChar(_string, _writer);
+        return _writer;
+    }
+}
@@ -0,0 +1,94 @@
+package org.atilf.module.enrichment.analyzer;
+
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.atilf.models.enrichment.MultiWordsOffsetId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * compare the alignment of the term occurrences on the words with two sorted maps, as it was done before, with the
+ * sweep of the TerminologyStandOff
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TerminologyStandOffBenchmark {
+
+    @Param({"10000", "100000", "500000"})
+    private int _words;
+
+    private List<MorphologyOffsetId> _morphology;
+    private List<MultiWordsOffsetId> _terminology;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        _morphology = new ArrayList<>(_words);
+        _terminology = new ArrayList<>();
+        int offset = 0;
+        for (int i = 0; i < _words; i++) {
+            int length = 2 + random.nextInt(8);
+            _morphology.add(new MorphologyOffsetId(offset, offset + length, "mot", "NOM", i + 1));
+            offset += length + 1;
+        }
+        /*
+        a term occurrence of one to five words begins at one word out of five
+         */
+        for (int i = 0; i < _words; i += 5) {
+            int last = Math.min(_words - 1, i + random.nextInt(5));
+            _terminology.add(new MultiWordsOffsetId(_morphology.get(i).getBegin(), _morphology.get(last).getEnd(),
+                    i, "terme"));
+        }
+    }
+
+    @Benchmark
+    public List<MultiWordsOffsetId> sweep() {
+        List<MultiWordsOffsetId> terminology = copy();
+        new TerminologyStandOff(_morphology, terminology).execute();
+        return terminology;
+    }
+
+    @Benchmark
+    public List<MultiWordsOffsetId> sortedMaps() {
+        List<MultiWordsOffsetId> terminology = copy();
+        NavigableMap<Integer, List<Integer>> beginMap = new TreeMap<>();
+        NavigableMap<Integer, List<Integer>> endMap = new TreeMap<>();
+        _morphology.forEach(el -> {
+            beginMap.put(el.getBegin(), el.getIds());
+            endMap.put(el.getEnd(), el.getIds());
+        });
+        terminology.forEach(el -> {
+            List<Integer> ids = beginMap.subMap(el.getBegin(), el.getEnd()).values().stream()
+                    .flatMap(List::stream).collect(Collectors.toList());
+            ids.retainAll(endMap.subMap(el.getBegin(), false, el.getEnd(), true).values().stream()
+                    .flatMap(List::stream).collect(Collectors.toList()));
+            el.setIds(ids);
+        });
+        return terminology;
+    }
+
+    private List<MultiWordsOffsetId> copy() {
+        return _terminology.stream().map(MultiWordsOffsetId::new).collect(Collectors.toList());
+    }
+}
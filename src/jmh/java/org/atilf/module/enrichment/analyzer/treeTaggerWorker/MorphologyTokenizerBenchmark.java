@@ -0,0 +1,88 @@
+package org.atilf.module.enrichment.analyzer.treeTaggerWorker;
+
+import org.atilf.models.enrichment.MorphologyParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measure the tokenization of the text element of a document. The allocations are reported with the gc profiler,
+ * e.g. gradle jmh -PjmhArgs="MorphologyTokenizerBenchmark -prof gc" (see gc.alloc.rate.norm). The morphology parser
+ * is filled by the benchmark because the tokenizer consumes it, its tokens are counted in the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MorphologyTokenizerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int _words;
+
+    private StringBuilder _txt;
+    private StringBuilder _xml;
+    private int[] _begins;
+    private int[] _ends;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _txt = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        _begins = new int[_words];
+        _ends = new int[_words];
+        for (int i = 0; i < _words; i++) {
+            String word = "mot" + (i % 5000);
+            _begins[i] = _txt.length();
+            _txt.append(word);
+            _ends[i] = _txt.length();
+            /*
+            some words are split by an element or contain an entity
+             */
+            if (i % 10 == 0) {
+                body.append("<hi>").append(word, 0, 2).append("</hi>").append(word, 2, word.length());
+            }
+            else if (i % 10 == 5) {
+                _txt.setCharAt(_txt.length() - 1, '&');
+                body.append(word, 0, word.length() - 1).append("&amp;");
+            }
+            else {
+                body.append(word);
+            }
+            if (i % 50 == 49) {
+                _txt.append('\n');
+                body.append("</p>\n<p>");
+            }
+            else {
+                _txt.append(' ');
+                body.append(' ');
+            }
+        }
+        _xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<TEI><teiHeader/>\n<text><body><p>")
+                .append(body).append("</p></body></text>\n</TEI>");
+    }
+
+    @Benchmark
+    public StringBuilder tokenize() throws Exception {
+        MorphologyParser morphologyParser = new MorphologyParser(new File("benchmark"));
+        for (int i = 0; i < _words; i++) {
+            morphologyParser.createToken("NOM", "mot", _begins[i], _ends[i]);
+        }
+        MorphologyTokenizer morphologyTokenizer = new MorphologyTokenizer(_txt, _xml, morphologyParser);
+        morphologyTokenizer.execute();
+        return morphologyTokenizer.getTokenizeBuffer();
+    }
+}
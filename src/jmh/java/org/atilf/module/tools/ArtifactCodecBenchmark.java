@@ -0,0 +1,131 @@
+package org.atilf.module.tools;
+
+import org.apache.commons.io.FileUtils;
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare the java serialization used before the ArtifactCodec with the binary format on the morphology list and
+ * the text of a document
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArtifactCodecBenchmark {
+
+    @Param({"1000", "100000"})
+    private int _words;
+
+    private Path _folder;
+    private List<MorphologyOffsetId> _morphology;
+    private StringBuilder _text;
+    private Path _serializedMorphology;
+    private Path _serializedText;
+    private Path _binaryMorphology;
+    private Path _binaryText;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String[] tags = {"NOM", "VER", "DET", "PRP", "ADJ", "PUN"};
+        _folder = Files.createTempDirectory("artifactCodecBenchmark");
+        _morphology = new ArrayList<>(_words);
+        _text = new StringBuilder();
+        for (int i = 0; i < _words; i++) {
+            String word = "mot" + (i % 5000);
+            _morphology.add(new MorphologyOffsetId(_text.length(), _text.length() + word.length(), word,
+                    tags[i % tags.length], i + 1));
+            _text.append(word).append(' ');
+        }
+        _serializedMorphology = _folder.resolve("serializedMorphology");
+        _serializedText = _folder.resolve("serializedText");
+        _binaryMorphology = _folder.resolve("binaryMorphology");
+        _binaryText = _folder.resolve("binaryText");
+        serialize(_morphology, _serializedMorphology);
+        serialize(_text, _serializedText);
+        ArtifactCodec.writeMorphology(_morphology, _binaryMorphology);
+        ArtifactCodec.writeText(_text, _binaryText);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(_folder.toFile());
+    }
+
+    @Benchmark
+    public void writeMorphologySerialization() throws IOException {
+        serialize(_morphology, _folder.resolve("morphology"));
+    }
+
+    @Benchmark
+    public void writeMorphologyCodec() throws IOException {
+        ArtifactCodec.writeMorphology(_morphology, _folder.resolve("morphology"));
+    }
+
+    @Benchmark
+    public Object readMorphologySerialization() throws IOException, ClassNotFoundException {
+        return deserialize(_serializedMorphology);
+    }
+
+    @Benchmark
+    public Object readMorphologyCodec() throws IOException {
+        return ArtifactCodec.readMorphology(_binaryMorphology);
+    }
+
+    @Benchmark
+    public void writeTextSerialization() throws IOException {
+        serialize(_text, _folder.resolve("text"));
+    }
+
+    @Benchmark
+    public void writeTextCodec() throws IOException {
+        ArtifactCodec.writeText(_text, _folder.resolve("text"));
+    }
+
+    @Benchmark
+    public Object readTextSerialization() throws IOException, ClassNotFoundException {
+        return deserialize(_serializedText);
+    }
+
+    @Benchmark
+    public Object readTextCodec() throws IOException {
+        return ArtifactCodec.readText(_binaryText);
+    }
+
+    private static void serialize(Object o, Path path) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path.toFile()))) {
+            oos.writeObject(o);
+        }
+    }
+
+    private static Object deserialize(Path path) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(path.toFile()))) {
+            return in.readObject();
+        }
+    }
+}
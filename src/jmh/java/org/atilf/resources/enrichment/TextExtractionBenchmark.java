@@ -0,0 +1,72 @@
+package org.atilf.resources.enrichment;
+
+import org.atilf.runner.TermithResourceManager.TermithResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare the extraction of the plain text of a tei file with the extractText.xsl stylesheet and with the stax
+ * extraction. The xslt benchmark needs the stylesheet of the termith resources in the classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextExtractionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int _paragraphs;
+
+    @Param({"xslt", "stax"})
+    private String _method;
+
+    private File _file;
+    private TextExtraction _textExtraction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        _file = File.createTempFile("textExtraction", ".xml");
+        try (BufferedWriter writer = Files.newBufferedWriter(_file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<TEI xmlns=\"http://www.tei-c.org/ns/1.0\">\n" +
+                    "<teiHeader><fileDesc><titleStmt><title>benchmark</title></titleStmt></fileDesc></teiHeader>\n" +
+                    "<text>\n<body>\n<div>\n");
+            for (int i = 0; i < _paragraphs; i++) {
+                writer.write("<p>Les résultats de l&apos;annotation sont indiqués à l’aide de l’attribut " +
+                        "<hi rend=\"italic\">ana</hi>, la signification de chacune des valeurs est décrite " +
+                        "dans l&apos;en-tête du fichier.</p>\n");
+            }
+            writer.write("</div>\n</body>\n<back/>\n</text>\n</TEI>\n");
+        }
+        _textExtraction = TextExtraction.of(_method, TermithResource.TEXT_XSL.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_file.toPath());
+    }
+
+    @Benchmark
+    public StringBuilder extract() throws IOException {
+        return _textExtraction.extract(_file);
+    }
+}
@@ -43,12 +43,44 @@ public class TermithTreeTaggerCLI {
         debug.setArgs(0);
         Option resource = new Option("r","resource",true,"set Resource path");
         resource.setRequired(true);
+        Option pipelined = new Option("p","pipelined",false,
+                "each document goes through the stages without waiting the other documents");
+        pipelined.setRequired(false);
+        Option resume = new Option("rs","resume",false,
+                "resume an interrupted process from the last checkpoint of the output folder");
+        resume.setRequired(false);
+        Option checkpoint = new Option("ck","checkpoint",false,
+                "save a checkpoint in the output folder after each step, an interrupted process can be resumed");
+        checkpoint.setRequired(false);
+        Option cache = new Option("c","cache",true,
+                "folder of the tagging cache kept between the runs, only the new documents are tagged");
+        cache.setRequired(false);
+        Option direct = new Option("dr","direct",false,
+                "run the delegates one after another without the flowable engine");
+        direct.setRequired(false);
+        Option noTranslation = new Option("nt","no-translation",false,
+                "keep the special characters of the corpus, the files are linked instead of copied");
+        noTranslation.setRequired(false);
+        Option textExtraction = new Option("te","text-extraction",true,
+                "extraction of the plain text : xslt (default) or stax");
+        textExtraction.setRequired(false);
+        Option morphologyJson = new Option("mj","morphology-json",false,
+                "write the termsuite json file of the morphology of each document in the json folder");
+        morphologyJson.setRequired(false);
 
         options.addOption(in);
         options.addOption(out);
         options.addOption(debug);
         options.addOption(lang);
         options.addOption(resource);
+        options.addOption(pipelined);
+        options.addOption(resume);
+        options.addOption(checkpoint);
+        options.addOption(cache);
+        options.addOption(direct);
+        options.addOption(noTranslation);
+        options.addOption(textExtraction);
+        options.addOption(morphologyJson);
 
         try {
             CommandLine line = parser.parse( options, args );
@@ -57,7 +89,19 @@ public class TermithTreeTaggerCLI {
                 CLIUtils.setGlobalLogLevel(Level.DEBUG);
             }
 
-            run(line.getOptionValue("r"), line.getOptionValue("i"), line.getOptionValue("l"),line.getOptionValue("o"));
+            RunnerBuilder runnerBuilder = new RunnerBuilder()
+                    .setPipelined(line.hasOption("pipelined"))
+                    .setResume(line.hasOption("resume"))
+                    .setCheckpoint(line.hasOption("checkpoint"))
+                    .setDirect(line.hasOption("direct"))
+                    .setTranslation(!line.hasOption("no-translation"))
+                    .setTextExtraction(line.getOptionValue("text-extraction", "xslt"))
+                    .setMorphologyJson(line.hasOption("morphology-json"));
+            if (line.hasOption("cache")) {
+                runnerBuilder.setTaggingCache(line.getOptionValue("cache"));
+            }
+            run(runnerBuilder, line.getOptionValue("r"), line.getOptionValue("i"), line.getOptionValue("l"),
+                    line.getOptionValue("o"));
         } catch (ParseException e) {
             LOGGER.error("There are some problems during running : ",e);
         } catch (Exception e) {
@@ -66,7 +110,12 @@ public class TermithTreeTaggerCLI {
     }
 
     public static void run(String resource, String base, String language, String output) throws Exception {
-        Runner runner = new RunnerBuilder()
+        run(new RunnerBuilder(), resource, base, language, output);
+    }
+
+    private static void run(RunnerBuilder runnerBuilder, String resource, String base, String language,
+                            String output) throws Exception {
+        Runner runner = runnerBuilder
                 .setLang(language)
                 .setResourceManager(resource)
                 .setBase(base)
@@ -0,0 +1,138 @@
+package org.atilf.delegate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * the AdmissionExecutorService bounds the tasks submitted by a delegate. The thread which submits a task waits while
+ * the maximum number of tasks in flight (queued or running) is reached, or while the free heap is under a threshold
+ * and another task can release memory by finishing. The peak heap of a delegate grows with the pool size and not
+ * with the size of the corpus.
+ */
+public class AdmissionExecutorService extends AbstractExecutorService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionExecutorService.class.getName());
+    private final ExecutorService _executorService;
+    private final Semaphore _inFlight;
+    private final int _maxInFlightTasks;
+    private final long _minFreeHeap;
+    private final LongSupplier _freeHeap;
+    private final Object _lock = new Object();
+
+    /**
+     * constructor for AdmissionExecutorService
+     * @param executorService the executor service which runs the tasks
+     * @param maxInFlightTasks the maximum number of tasks queued or running
+     * @param minFreeHeap the minimum free heap in bytes needed to admit a task
+     */
+    public AdmissionExecutorService(ExecutorService executorService, int maxInFlightTasks, long minFreeHeap) {
+        this(executorService, maxInFlightTasks, minFreeHeap, AdmissionExecutorService::freeHeap);
+    }
+
+    AdmissionExecutorService(ExecutorService executorService, int maxInFlightTasks, long minFreeHeap,
+                             LongSupplier freeHeap) {
+        _executorService = executorService;
+        _maxInFlightTasks = Math.max(1, maxInFlightTasks);
+        _inFlight = new Semaphore(_maxInFlightTasks);
+        _minFreeHeap = minFreeHeap;
+        _freeHeap = freeHeap;
+    }
+
+    /**
+     * the heap which can still be allocated by the jvm
+     * @return the free heap in bytes
+     */
+    static long freeHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    /**
+     * @return the number of tasks queued or running
+     */
+    public int getInFlightTasks() {
+        return _maxInFlightTasks - _inFlight.availablePermits();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            _inFlight.acquire();
+            waitFreeHeap();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting to submit a task", e);
+        }
+        try {
+            _executorService.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * wait that a task is finished while the free heap is under the threshold. The task is admitted anyway if it is
+     * the only one in flight
+     * @throws InterruptedException thrown if the thread is interrupted while waiting
+     */
+    private void waitFreeHeap() throws InterruptedException {
+        synchronized (_lock) {
+            boolean logged = false;
+            while (_freeHeap.getAsLong() < _minFreeHeap && getInFlightTasks() > 1) {
+                if (!logged) {
+                    LOGGER.debug("free heap is low, waiting that one of the {} tasks in flight is finished",
+                            getInFlightTasks() - 1);
+                    logged = true;
+                }
+                _lock.wait(TimeUnit.SECONDS.toMillis(1));
+            }
+        }
+    }
+
+    private void release() {
+        _inFlight.release();
+        synchronized (_lock) {
+            _lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        _executorService.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return _executorService.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return _executorService.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return _executorService.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return _executorService.awaitTermination(timeout, unit);
+    }
+}
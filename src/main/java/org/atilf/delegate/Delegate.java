@@ -4,12 +4,15 @@ import com.google.common.eventbus.EventBus;
 import org.atilf.models.TermithIndex;
 import org.atilf.monitor.observer.MemoryPerformanceEvent;
 import org.atilf.monitor.observer.TimePerformanceEvent;
+import org.atilf.runner.TermithCheckpoint;
+import org.atilf.runner.TermithScheduler;
 import org.flowable.engine.delegate.DelegateExecution;
 import org.flowable.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -26,6 +29,10 @@ public abstract class Delegate implements JavaDelegate{
     private DelegateExecution _execution;
     protected TermithIndex _termithIndex;
     protected ExecutorService _executorService;
+    protected boolean _pipelined = false;
+    private TermithScheduler _scheduler;
+    private TermithCheckpoint _checkpoint;
+    private List<String> _executedDelegates;
     private TimePerformanceEvent _timePerformanceEvent;
     private MemoryPerformanceEvent _memoryPerformanceEvent;
     protected final Logger _logger = LoggerFactory.getLogger(this.getClass().getName());
@@ -55,6 +62,92 @@ public abstract class Delegate implements JavaDelegate{
         _executorService = executorService;
     }
 
+    public void setScheduler(TermithScheduler scheduler) {
+        _scheduler = scheduler;
+    }
+
+    /**
+     * the lane of the scheduler used by the tasks of this delegate. The delegates whose tasks wait on external
+     * processes must return the BLOCKING lane
+     * @return the lane of the delegate
+     */
+    protected TermithScheduler.Lane getLane() {
+        return TermithScheduler.Lane.CPU;
+    }
+
+    /**
+     * create an executor service for a stage. The stage is run by the scheduler of the runner if it exists,
+     * otherwise by a fixed thread pool
+     * @param stage the name of the stage
+     * @param lane the lane of the stage
+     * @return the executor service
+     */
+    protected ExecutorService createExecutorService(String stage, TermithScheduler.Lane lane) {
+        if (_scheduler != null) {
+            return _scheduler.newStage(stage, lane);
+        }
+        return Executors.newFixedThreadPool(getFlowableVariable("poolSize",0));
+    }
+
+    public void setCheckpoint(TermithCheckpoint checkpoint) {
+        _checkpoint = checkpoint;
+    }
+
+    public void setPipelined(boolean pipelined) {
+        _pipelined = pipelined;
+    }
+
+    /**
+     * mark some delegates of the bpmn diagram as executed, their tasks are not run when the runner calls them.
+     * It is used when a delegate runs the tasks of the next service tasks (e.g. with the document pipeline)
+     * @param delegates the classes of the delegates
+     */
+    @SafeVarargs
+    protected final void markAsExecuted(Class<? extends Delegate>... delegates) {
+        if (_executedDelegates != null) {
+            for (Class<? extends Delegate> delegate : delegates) {
+                _executedDelegates.add(delegate.getName());
+            }
+        }
+    }
+
+    /**
+     * check if the tasks of this delegate have already been executed by another delegate or by a previous run of an
+     * interrupted process
+     * @return true if the tasks must not be run
+     */
+    private boolean isExecuted() {
+        return (_executedDelegates != null && _executedDelegates.contains(this.getClass().getName())) ||
+                (_checkpoint != null && _checkpoint.isCompleted(this.getClass().getName()));
+    }
+
+    /**
+     * check if the tasks of this delegate have written the artifacts of every document. The tasks log and discard
+     * the errors of a document, a delegate with such documents is not marked as completed by the checkpoint
+     * @return true if every document has been processed
+     */
+    protected boolean isComplete() {
+        return true;
+    }
+
+    /**
+     * save the checkpoint of the process after the tasks of this delegate
+     */
+    private void complete() {
+        if (_checkpoint != null) {
+            _checkpoint.complete(this.getClass().getName(), _termithIndex);
+        }
+    }
+
+    /**
+     * save the checkpoint of the process without marking this delegate as completed
+     */
+    private void incomplete() {
+        if (_checkpoint != null) {
+            _checkpoint.incomplete(this.getClass().getName(), _termithIndex);
+        }
+    }
+
     protected void setTimePerformanceEvent(TimePerformanceEvent timePerformanceEvent) {
         _timePerformanceEvent = timePerformanceEvent;
     }
@@ -67,9 +160,21 @@ public abstract class Delegate implements JavaDelegate{
     public void execute(DelegateExecution execution) {
         try {
             initialize(execution);
+            if (isExecuted()) {
+                _logger.info("the tasks of {} have already been executed", this.getClass().getSimpleName());
+                _executorService.shutdown();
+                complete();
+                return;
+            }
             executeTasks();
             _eventBus.post(_timePerformanceEvent);
             _eventBus.post(_memoryPerformanceEvent);
+            if (isComplete()) {
+                complete();
+            }
+            else {
+                incomplete();
+            }
         } catch (IOException | InterruptedException | ExecutionException e) {
             _logger.error("there are some errors during execution of " + this.getClass().getName() + " :",e);
         }
@@ -79,7 +184,15 @@ public abstract class Delegate implements JavaDelegate{
         _execution = execution;
 
         _termithIndex = getFlowableVariable("termithIndex",null);
-        _executorService = Executors.newFixedThreadPool(getFlowableVariable("poolSize",0));
+        _scheduler = getFlowableVariable("scheduler",null);
+        _checkpoint = getFlowableVariable("checkpoint",null);
+        _executorService = new AdmissionExecutorService(
+                createExecutorService(this.getClass().getSimpleName(), getLane()),
+                getFlowableVariable("maxInFlightTasks",getFlowableVariable("poolSize",0) * 2),
+                getFlowableVariable("minFreeHeap",Runtime.getRuntime().maxMemory() / 10)
+        );
+        _pipelined = getFlowableVariable("pipelined",false);
+        _executedDelegates = getFlowableVariable("executedDelegates",null);
 
         _timePerformanceEvent = new TimePerformanceEvent(
                 this.getClass().getSimpleName(),
@@ -0,0 +1,244 @@
+package org.atilf.delegate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * the DocumentPipeline runs several stages on each document of the corpus. Unlike the delegates, a stage does not
+ * wait that the previous stage has treated all the documents : each document flows through the stages over bounded
+ * queues. A stage returns the identifier given to the next stage or null to remove a document of the pipeline.
+ * When a stage throws an exception, the error is logged and the document is removed of the pipeline. The workers
+ * wait on the queues through a managed blocker, so a stage run by a ForkJoinPool does not starve the other stages
+ * sharing the pool. When the last worker of a stage is interrupted or dies, the documents left in its queue are
+ * removed and the end of the pipeline is still given to the next stage.
+ */
+public class DocumentPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentPipeline.class.getName());
+    /*
+    this identifier is sent after the last document and stops the workers of a stage
+     */
+    private static final String END = new String("end of pipeline");
+    private final int _queueCapacity;
+    private final List<Stage> _stages = new ArrayList<>();
+
+    /**
+     * constructor for DocumentPipeline
+     * @param queueCapacity the maximum number of documents waiting between two stages
+     */
+    public DocumentPipeline(int queueCapacity) {
+        _queueCapacity = queueCapacity;
+    }
+
+    /**
+     * add a stage at the end of the pipeline
+     * @param name the name of the stage used in logs
+     * @param executorService the executor service which runs the workers of the stage
+     * @param workers the number of documents treated at the same time by the stage
+     * @param task the task applied on a document
+     * @return this pipeline
+     */
+    public DocumentPipeline addStage(String name, ExecutorService executorService, int workers,
+                                     UnaryOperator<String> task) {
+        _stages.add(new Stage(name, executorService, workers, task));
+        return this;
+    }
+
+    /**
+     * send the documents into the pipeline and wait that all stages are finished
+     * @param documents the identifiers of the documents given to the first stage
+     * @throws InterruptedException thrown if the thread is interrupted while waiting
+     */
+    public void execute(Iterable<String> documents) throws InterruptedException {
+        if (_stages.isEmpty()) {
+            return;
+        }
+        BlockingQueue<String> input = new ArrayBlockingQueue<>(_queueCapacity);
+        BlockingQueue<String> stageInput = input;
+        for (int i = 0; i < _stages.size(); i++) {
+            BlockingQueue<String> stageOutput =
+                    i == _stages.size() - 1 ? null : new ArrayBlockingQueue<>(_queueCapacity);
+            _stages.get(i).start(stageInput, stageOutput);
+            stageInput = stageOutput;
+        }
+        for (String document : documents) {
+            input.put(document);
+        }
+        input.put(END);
+        for (Stage stage : _stages) {
+            stage._finished.await();
+            LOGGER.info("{} stage is finished : {} documents treated, {} documents failed", stage._name,
+                    stage._treated.get(), stage._failed.get());
+        }
+    }
+
+    private static class Stage {
+        private final String _name;
+        private final ExecutorService _executorService;
+        private final int _workers;
+        private final UnaryOperator<String> _task;
+        private final AtomicInteger _runningWorkers = new AtomicInteger();
+        private final AtomicInteger _treated = new AtomicInteger();
+        private final AtomicInteger _failed = new AtomicInteger();
+        private final CountDownLatch _finished = new CountDownLatch(1);
+
+        Stage(String name, ExecutorService executorService, int workers, UnaryOperator<String> task) {
+            _name = name;
+            _executorService = executorService;
+            _workers = Math.max(1, workers);
+            _task = task;
+        }
+
+        void start(BlockingQueue<String> input, BlockingQueue<String> output) {
+            _runningWorkers.set(_workers);
+            for (int i = 0; i < _workers; i++) {
+                _executorService.submit(() -> work(input, output));
+            }
+        }
+
+        private void work(BlockingQueue<String> input, BlockingQueue<String> output) {
+            boolean ended = false;
+            try {
+                String document = take(input);
+                while (document != END) {
+                    String next = apply(document);
+                    if (next != null && output != null) {
+                        put(output, next);
+                    }
+                    document = take(input);
+                }
+                ended = true;
+                /*
+                the other workers of the stage must also see the end of the pipeline, the place of the taken END is
+                free
+                 */
+                input.offer(END);
+            } catch (InterruptedException e) {
+                LOGGER.error("{} stage is interrupted", _name, e);
+                Thread.currentThread().interrupt();
+            } catch (Error e) {
+                LOGGER.error("a worker of the {} stage has failed", _name, e);
+                throw e;
+            } finally {
+                if (_runningWorkers.decrementAndGet() == 0) {
+                    finish(input, output, ended);
+                }
+            }
+        }
+
+        /**
+         * called by the last worker of the stage. If it has not seen the end of the pipeline, the documents left in
+         * the input are removed : the previous stage must not wait on a queue without worker.
+         */
+        private void finish(BlockingQueue<String> input, BlockingQueue<String> output, boolean ended) {
+            boolean interrupted = Thread.interrupted();
+            try {
+                if (!ended) {
+                    String document = input.take();
+                    while (document != END) {
+                        LOGGER.error("the document {} is removed, the {} stage has no worker", document, _name);
+                        _failed.incrementAndGet();
+                        document = input.take();
+                    }
+                }
+                if (output != null) {
+                    output.put(END);
+                }
+            } catch (InterruptedException e) {
+                LOGGER.error("{} stage cannot send the end of the pipeline", _name, e);
+                interrupted = true;
+            } finally {
+                _finished.countDown();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private static String take(BlockingQueue<String> queue) throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            QueueBlocker blocker = new QueueBlocker(queue, null);
+            ForkJoinPool.managedBlock(blocker);
+            return blocker._document;
+        }
+
+        private static void put(BlockingQueue<String> queue, String document) throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            ForkJoinPool.managedBlock(new QueueBlocker(queue, document));
+        }
+
+        /**
+         * apply the task of the stage, a failed document is removed of the pipeline
+         */
+        private String apply(String document) {
+            try {
+                String next = _task.apply(document);
+                _treated.incrementAndGet();
+                return next;
+            } catch (RuntimeException e) {
+                LOGGER.error("error during the {} stage for the document {}", _name, document, e);
+                _failed.incrementAndGet();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * takes a document from a queue or puts a document into a queue. The ForkJoinPool running the worker can start
+     * another thread while the worker is blocked
+     */
+    private static class QueueBlocker implements ForkJoinPool.ManagedBlocker {
+        private final BlockingQueue<String> _queue;
+        private final boolean _put;
+        private String _document;
+        private boolean _done = false;
+
+        QueueBlocker(BlockingQueue<String> queue, String document) {
+            _queue = queue;
+            _put = document != null;
+            _document = document;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!_done) {
+                if (_put) {
+                    _queue.put(_document);
+                }
+                else {
+                    _document = _queue.take();
+                }
+                _done = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!_done) {
+                if (_put) {
+                    _done = _queue.offer(_document);
+                }
+                else {
+                    _document = _queue.poll();
+                    _done = _document != null;
+                }
+            }
+            return _done;
+        }
+    }
+}
@@ -31,7 +31,7 @@ public class CommonWordsPosLemmaCleanerDelegate extends Delegate {
         /*
         Common PosLemma cleaner
          */
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         _termithIndex.getContextLexicon().forEach(
                 (key,value) ->
                 {
@@ -43,7 +43,7 @@ public class ContextExtractorDelegate extends Delegate {
         authorizedTag.add("VER:impf");
         authorizedTag.add("VER:subi");
 
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         _termithIndex.getLearningTransformedFile().values().forEach(
                 file -> futures.add(_executorService.submit(
                         new ContextExtractor(file.toString(),
@@ -51,7 +51,7 @@ public class ThresholdLexiconCleanerDelegate extends Delegate {
         Threshold cleaner
          */
         if (_thresholdMin != 0 || _thresholdMax != 0) {
-            List<Future> futures = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
             _termithIndex.getContextLexicon().keySet().forEach(
                     key -> futures.add(_executorService.submit(new ThresholdLexiconCleaner(
                             key,
@@ -51,7 +51,7 @@ public class DisambiguationExporterDelegate extends Delegate {
     @Override
     public void executeTasks() throws IOException, InterruptedException {
 
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         Files.list(_evaluationPath).forEach(
                 p -> futures.add(
                         _executorService.submit(
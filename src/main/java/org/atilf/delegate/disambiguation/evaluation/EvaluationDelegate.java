@@ -29,7 +29,7 @@ public class EvaluationDelegate extends Delegate {
         /*
         Evaluation phase
          */
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         _termithIndex.getEvaluationLexicon().forEach(
                 (p,value) -> futures.add(_executorService.submit(new Evaluation(p, _termithIndex)))
         );
@@ -46,7 +46,7 @@ public class EvaluationXslTransformerDelegate extends Delegate {
     @Override
     public void executeTasks() throws IOException, InterruptedException {
         DisambiguationXslResources xslResources = new DisambiguationXslResources(TermithResource.DISAMBIGUATION_XSL.getPath());
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         /*
         Transformation phase
          */
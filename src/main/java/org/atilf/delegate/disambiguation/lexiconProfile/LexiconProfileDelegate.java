@@ -6,6 +6,7 @@ import org.atilf.models.disambiguation.RLexicon;
 import org.atilf.resources.disambiguation.RResources;
 import org.atilf.module.disambiguation.lexiconProfile.SpecCoefficientInjector;
 import org.atilf.runner.TermithResourceManager.TermithResource;
+import org.atilf.runner.TermithScheduler;
 import org.flowable.engine.delegate.DelegateExecution;
 
 import java.io.IOException;
@@ -33,6 +34,15 @@ public class LexiconProfileDelegate extends Delegate {
         _outputPath = outputPath;
     }
 
+    /**
+     * the tasks wait on the R server
+     * @return the BLOCKING lane
+     */
+    @Override
+    protected TermithScheduler.Lane getLane() {
+        return TermithScheduler.Lane.BLOCKING;
+    }
+
     @Override
     public void initialize(DelegateExecution execution) {
         super.initialize(execution);
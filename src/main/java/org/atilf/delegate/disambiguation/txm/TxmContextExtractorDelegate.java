@@ -53,7 +53,7 @@ public class TxmContextExtractorDelegate extends Delegate{
         includeElement.add("note");
         includeElement.add("q");
 
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         Files.list(_outputPath).forEach(
                 file -> futures.add(_executorService.submit(
                         new TxmContextExtractor(file.toString(),
@@ -30,7 +30,7 @@ public class TxmExporterDelegate extends Delegate {
 
     @Override
     public void executeTasks() throws IOException, InterruptedException {
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         if (_termithIndex.getTermsTxmContext().isEmpty()){
             throw  new InterruptedException("no context are extracted by the txmContextExtractor, perhaps the " +
                     "annotation argument are not well-formed : " + getFlowableVariable("annotation","")
@@ -45,7 +45,7 @@ public class TxmXslTransformerDelegate extends Delegate {
     @Override
     public void executeTasks() throws IOException, InterruptedException, ExecutionException {
         DisambiguationXslResources _xslResources = new TxmXslResource(TermithResource.TXM_XSL.getPath());
-        List<Future> _futures = new ArrayList<>();
+        List<Future<?>> _futures = new ArrayList<>();
         /*
         Transformation phase
          */
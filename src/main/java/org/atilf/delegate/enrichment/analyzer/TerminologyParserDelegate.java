@@ -6,8 +6,10 @@ import org.atilf.module.enrichment.analyzer.TerminologyStandOff;
 import org.atilf.module.enrichment.analyzer.TermsuitePipelineBuilder;
 import org.atilf.module.enrichment.analyzer.TreeTaggerWorker;
 import org.atilf.monitor.timer.TermithProgressTimer;
+import org.flowable.engine.delegate.DelegateExecution;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -25,6 +27,17 @@ import java.util.concurrent.TimeUnit;
  */
 public class TerminologyParserDelegate extends Delegate {
 
+    private Path _outputPath;
+
+    public void setOutputPath(Path outputPath) {
+        _outputPath = outputPath;
+    }
+
+    @Override
+    public void initialize(DelegateExecution execution) {
+        super.initialize(execution);
+        _outputPath = getFlowableVariable("out",null);
+    }
 
     /**
      *  Firstly, the method create two timer inherited objects. These objects show the progress of the tokenization jobs
@@ -43,9 +56,9 @@ public class TerminologyParserDelegate extends Delegate {
      */
     @Override
     public void executeTasks() throws InterruptedException, IOException, ExecutionException {
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
 
-        futures.add(_executorService.submit(new TerminologyParser(_termithIndex)));
+        futures.add(_executorService.submit(new TerminologyParser(_termithIndex, _outputPath)));
         new TermithProgressTimer(futures,this.getClass(),_executorService).start();
 
         _executorService.shutdown();
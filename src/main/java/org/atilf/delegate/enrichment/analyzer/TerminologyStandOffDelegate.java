@@ -1,15 +1,36 @@
 package org.atilf.delegate.enrichment.analyzer;
 
 import org.atilf.delegate.Delegate;
+import org.atilf.delegate.DocumentPipeline;
+import org.atilf.delegate.enrichment.exporter.ExporterDelegate;
+import org.atilf.delegate.enrichment.lexical.resource.projection.PhraseologyProjectorDelegate;
+import org.atilf.delegate.enrichment.lexical.resource.projection.TransdisciplinaryLexiconsProjectorDelegate;
 import org.atilf.module.enrichment.analyzer.TerminologyParser;
 import org.atilf.module.enrichment.analyzer.TerminologyStandOff;
 import org.atilf.module.enrichment.analyzer.TermsuitePipelineBuilder;
 import org.atilf.module.enrichment.analyzer.TreeTaggerWorker;
+import org.atilf.module.enrichment.exporter.StandOffExporter;
+import org.atilf.monitor.timer.TermithProgressTimer;
+import org.atilf.resources.enrichment.ResourceProjection;
+import org.atilf.resources.enrichment.StandOffResources;
+import org.atilf.resources.enrichment.TransdisciplinaryResourceProjection;
+import org.atilf.runner.TermithScheduler;
+import org.flowable.engine.delegate.DelegateExecution;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import static org.atilf.runner.TermithResourceManager.TermithResource;
+
 /**
  * The TerminologyStandOffDelegate calls several modules classes which analyzer the morphology of each file in the corpus and the
  * terminology of the corpus. The morphology is analyzed with a treetagger wrapper. The result is serialized to
@@ -21,6 +42,24 @@ import java.util.concurrent.TimeUnit;
  */
 public class TerminologyStandOffDelegate extends Delegate {
 
+    private Path _outputPath;
+    private boolean _fused = false;
+
+    public void setOutputPath(Path outputPath) {
+        _outputPath = outputPath;
+    }
+
+    public void setFused(boolean fused) {
+        _fused = fused;
+    }
+
+    @Override
+    public void initialize(DelegateExecution execution) {
+        super.initialize(execution);
+        _outputPath = getFlowableVariable("out",null);
+        _fused = getFlowableVariable("fused",true);
+    }
+
     /**
      *  Firstly, the method create two timer inherited objects. These objects show the progress of the tokenization jobs
      *  and the Json serialization jobs. Secondly, a corpusAnalyzer object is initialized : it contains the several
@@ -38,16 +77,129 @@ public class TerminologyStandOffDelegate extends Delegate {
      */
     @Override
     public void executeTasks() throws InterruptedException, IOException, ExecutionException {
+        if (_pipelined) {
+            executePipeline();
+            return;
+        }
+        if (_fused) {
+            executeFused();
+            return;
+        }
         /*
         deserialize the termsuite terminology
          */
         _termithIndex.getMorphologyStandOff().forEach(
                 (id,value) -> _executorService.submit(
-                        new TerminologyStandOff(id,_termithIndex)
+                        new TerminologyStandOff(id, _termithIndex, _outputPath)
                 )
         );
         _executorService.shutdown();
         _executorService.awaitTermination(1L,TimeUnit.DAYS);
         _logger.info("convert terminology into standOff is finished");
     }
+
+    /**
+     * each document is converted into standOff, projected on the phraseology and the transdisciplinary lexicons and
+     * exported by a single task : the morphology of a document is read once instead of once per delegate.
+     * @throws InterruptedException throws java concurrent executorService exception
+     */
+    private void executeFused() throws InterruptedException {
+        ResourceProjection phraseology = new ResourceProjection(TermithResource.PHRASEOLOGY.getPath());
+        ResourceProjection transdisciplinary = new TransdisciplinaryResourceProjection(
+                TermithResource.LST.getPath()
+        );
+        StandOffResources.init(TermithResource.STANDOFF_FRAGMENTS.getPath());
+        List<Future<?>> futures = new ArrayList<>();
+        _termithIndex.getMorphologyStandOff().forEach((id, value) -> {
+            if (!isExported(id)) {
+                futures.add(_executorService.submit(
+                        new StandOffExporter(id, _termithIndex, phraseology, transdisciplinary, _outputPath.toString())
+                ));
+            }
+        });
+        new TermithProgressTimer(futures, this.getClass(), _executorService).start();
+        _logger.info("waiting that all files are converted into standOff and exported");
+        _executorService.shutdown();
+        _executorService.awaitTermination(1L, TimeUnit.DAYS);
+        markAsExecuted(
+                PhraseologyProjectorDelegate.class,
+                TransdisciplinaryLexiconsProjectorDelegate.class,
+                ExporterDelegate.class
+        );
+        _logger.info("convert terminology into standOff and export is finished");
+    }
+
+    /**
+     * each document is converted into standOff, projected on the phraseology and the transdisciplinary lexicons and
+     * exported without waiting the other documents of the corpus. The morphology read by the projection stage is
+     * kept until the document is written by the TeiWriter stage.
+     * @throws InterruptedException throws java concurrent executorService exception
+     */
+    private void executePipeline() throws InterruptedException {
+        int poolSize = getFlowableVariable("poolSize", Runtime.getRuntime().availableProcessors());
+        ResourceProjection phraseology = new ResourceProjection(TermithResource.PHRASEOLOGY.getPath());
+        ResourceProjection transdisciplinary = new TransdisciplinaryResourceProjection(
+                TermithResource.LST.getPath()
+        );
+        StandOffResources.init(TermithResource.STANDOFF_FRAGMENTS.getPath());
+        Map<String, StandOffExporter> projected = new ConcurrentHashMap<>();
+        List<ExecutorService> executorServices = new ArrayList<>();
+        executorServices.add(createExecutorService("StandOffProjection", TermithScheduler.Lane.CPU));
+        executorServices.add(createExecutorService("TeiWriter", TermithScheduler.Lane.BLOCKING));
+        /*
+        the workers of the pipeline run until the last document, they are not bounded by the admission control of
+        the delegate executor service
+         */
+        _executorService.shutdown();
+
+        _logger.info("document pipeline started for {} documents", _termithIndex.getMorphologyStandOff().size());
+        new DocumentPipeline(poolSize * 2)
+                .addStage("StandOffProjection", executorServices.get(0), poolSize, id -> {
+                    if (isExported(id)) {
+                        return null;
+                    }
+                    StandOffExporter standOffExporter = new StandOffExporter(id, _termithIndex, phraseology,
+                            transdisciplinary, _outputPath.toString());
+                    standOffExporter.project();
+                    projected.put(id, standOffExporter);
+                    return id;
+                })
+                .addStage("TeiWriter", executorServices.get(1), poolSize, id -> {
+                    projected.remove(id).write();
+                    return id;
+                })
+                .execute(new ArrayList<>(_termithIndex.getMorphologyStandOff().keySet()));
+
+        for (ExecutorService executorService : executorServices) {
+            executorService.shutdown();
+            executorService.awaitTermination(1L, TimeUnit.DAYS);
+        }
+        markAsExecuted(
+                PhraseologyProjectorDelegate.class,
+                TransdisciplinaryLexiconsProjectorDelegate.class,
+                ExporterDelegate.class
+        );
+        _logger.info("document pipeline finished");
+    }
+
+    /**
+     * the documents whose export has failed are exported again when the process is resumed
+     * @return true if every document has been exported by the fused or the pipelined mode
+     */
+    @Override
+    protected boolean isComplete() {
+        return (!_fused && !_pipelined) || _termithIndex.getMorphologyStandOff().keySet().stream()
+                .allMatch(id -> Files.exists(_outputPath.resolve(id + ".xml")));
+    }
+
+    /**
+     * the files exported by a previous run of an interrupted process are kept, their morphology has been released
+     */
+    private boolean isExported(String id) {
+        if (Files.exists(_outputPath.resolve(id + ".xml"))) {
+            _logger.debug("{} has already been exported", id);
+            return true;
+        }
+        return false;
+    }
 }
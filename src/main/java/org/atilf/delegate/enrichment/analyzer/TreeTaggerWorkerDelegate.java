@@ -2,8 +2,11 @@ package org.atilf.delegate.enrichment.analyzer;
 
 import org.atilf.delegate.Delegate;
 import org.atilf.models.enrichment.CorpusAnalyzer;
+import org.atilf.models.enrichment.TaggingCache;
 import org.atilf.models.enrichment.TagNormalizer;
+import org.atilf.models.enrichment.TextLength;
 import org.atilf.models.enrichment.TreeTaggerParameter;
+import org.atilf.models.enrichment.TreeTaggerProcessPool;
 import org.atilf.module.enrichment.analyzer.TerminologyParser;
 import org.atilf.module.enrichment.analyzer.TerminologyStandOff;
 import org.atilf.module.enrichment.analyzer.TermsuitePipelineBuilder;
@@ -11,6 +14,7 @@ import org.atilf.module.enrichment.analyzer.TreeTaggerWorker;
 import org.atilf.module.enrichment.initializer.TextExtractor;
 import org.atilf.module.tools.FilesUtils;
 import org.atilf.monitor.timer.TermithProgressTimer;
+import org.atilf.runner.TermithScheduler;
 import org.flowable.engine.delegate.DelegateExecution;
 
 import java.io.IOException;
@@ -20,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -28,7 +33,8 @@ import static org.atilf.runner.TermithResourceManager.TermithResource;
 /**
  * The TreeTaggerWorkerDelegate calls several modules classes which analyzer the morphology of each file in the corpus and the
  * terminology of the corpus. The morphology is analyzed with a treetagger wrapper. The result is serialized to
- * the json termsuite format. The terminology uses the json files write during the analyzer of the morphology.
+ * the morphology read by the termsuite pipeline (and to the json termsuite format if it is required). The terminology
+ * uses the morphologies written during the analyzer of the morphology.
  * The terminology is export as two json and tbx files. Finally the result of the phase is prepared in order to
  * write them into the tei files of the corpus
  * @author Simon Meoni
@@ -38,6 +44,9 @@ public class TreeTaggerWorkerDelegate extends Delegate {
 
     private String _lang;
     private Path _outputPath;
+    private int _poolSize = Runtime.getRuntime().availableProcessors();
+    private Path _taggingCache;
+    private boolean _morphologyJson = false;
 
     public void setLang(String lang) {
         _lang = lang;
@@ -47,29 +56,52 @@ public class TreeTaggerWorkerDelegate extends Delegate {
         _outputPath = outputPath;
     }
 
+    public void setTaggingCache(Path taggingCache) {
+        _taggingCache = taggingCache;
+    }
+
+    public void setMorphologyJson(boolean morphologyJson) {
+        _morphologyJson = morphologyJson;
+    }
+
+    /**
+     * the TreeTagger tasks wait on the TreeTagger processes
+     * @return the BLOCKING lane
+     */
+    @Override
+    protected TermithScheduler.Lane getLane() {
+        return TermithScheduler.Lane.BLOCKING;
+    }
+
     @Override
     public void initialize(DelegateExecution execution) {
         super.initialize(execution);
         _lang = getFlowableVariable("lang",null);
         _outputPath  = getFlowableVariable("out",null);
+        _poolSize = getFlowableVariable("poolSize",_poolSize);
+        _taggingCache = getFlowableVariable("taggingCache",null);
+        _morphologyJson = getFlowableVariable("morphologyJson",_morphologyJson);
     }
 
     /**
-     * this method return the result of the InitializerThread.
-     * @return it returns a hashMap who contains the extracted text of the previous step of each files
+     * this method return the lengths of the texts extracted by the InitializerThread. The texts are not read, the
+     * lengths are recorded by the extraction : a text is only read when it is tagged. The text of a document without
+     * recorded length (e.g. recovered from the artifact store) is read to compute it
+     * @return it returns a hashMap who contains the length of the extracted text of each files
      * @see TextExtractor
      */
-    private Map<String,StringBuilder> createTextHashMap(){
-        Map<String,StringBuilder> textMap = new HashMap<>();
+    private Map<String,TextLength> createTextLengthHashMap(){
+        Map<String,TextLength> textLengthMap = new HashMap<>();
 
         /*
-        read extracted text of the previous phase and put the result to the hashMap. the filename is
-        the key of each entries
+        the filename is the key of each entries
          */
-        _termithIndex.getExtractedText().forEach(
-                (key,value) -> textMap.put(key,FilesUtils.readObject(value, StringBuilder.class))
-        );
-        return textMap;
+        _termithIndex.getExtractedText().forEach((key,value) -> {
+            TextLength textLength = _termithIndex.getExtractedTextLength().get(key);
+            textLengthMap.put(key, textLength != null ? textLength :
+                    TextLength.of(FilesUtils.readObject(value, StringBuilder.class)));
+        });
+        return textLengthMap;
     }
 
     /**
@@ -93,30 +125,91 @@ public class TreeTaggerWorkerDelegate extends Delegate {
         Build Corpus analyzer
          */
 
-        CorpusAnalyzer corpusAnalyzer = new CorpusAnalyzer(createTextHashMap());
+        CorpusAnalyzer corpusAnalyzer = CorpusAnalyzer.fromLengths(createTextLengthHashMap());
         TagNormalizer tagNormalizer = new TagNormalizer(TermithResource.TREE_TAGGER_MULTEX.getPath());
         TreeTaggerParameter treeTaggerParameter =  new TreeTaggerParameter(
                 false,
                 _lang,
                 TermithResource.TREETAGGER_HOME.getPath()
         );
-        List<Future> futures = new ArrayList<>();
         /*
-        Write morphology json file
+        the long-lived TreeTagger processes ignore the sgml sentinels between documents
          */
-        _termithIndex.getExtractedText().forEach((key, txt) ->
-                futures.add(_executorService.submit(new TreeTaggerWorker(
-                        _termithIndex,
-                        corpusAnalyzer,
-                        key,
-                        _outputPath.toString(),
-                        tagNormalizer,
-                        treeTaggerParameter
-                )))
-        );
+        TreeTaggerProcessPool treeTaggerProcessPool = new TreeTaggerProcessPool(_poolSize, new TreeTaggerParameter(
+                true,
+                _lang,
+                TermithResource.TREETAGGER_HOME.getPath()
+        ));
+        /*
+        the documents of the cache are not tagged again, their morphologies are written from the cached outputs
+         */
+        TaggingCache taggingCache = _taggingCache != null ? new TaggingCache(_taggingCache, treeTaggerParameter) : null;
+        /*
+        the documents found in the cache do not borrow a TreeTagger process, they are not run on the blocking lane
+         */
+        ExecutorService cachedExecutorService = createExecutorService("TaggingCache", TermithScheduler.Lane.CPU);
+        List<Future<?>> futures = new ArrayList<>();
+        /*
+        Write the morphology of each document
+         */
+        _termithIndex.getExtractedText().forEach((key, txt) -> {
+            if (isTagged(key)) {
+                _logger.debug("{} has already been tagged", key);
+                return;
+            }
+            String taggingKey = _termithIndex.getTaggingKey().get(key);
+            boolean cached = taggingCache != null && taggingKey != null && taggingCache.contains(taggingKey);
+            futures.add((cached ? cachedExecutorService : _executorService).submit(new TreeTaggerWorker(
+                    _termithIndex,
+                    corpusAnalyzer,
+                    key,
+                    _outputPath.toString(),
+                    tagNormalizer,
+                    treeTaggerParameter,
+                    treeTaggerProcessPool,
+                    taggingCache,
+                    _morphologyJson
+            )));
+        });
         _logger.info("waiting that all json files are serialized");
         new TermithProgressTimer(futures,TreeTaggerWorker.class,_executorService).start();
         _executorService.shutdown();
+        cachedExecutorService.shutdown();
+        cachedExecutorService.awaitTermination(1L,TimeUnit.DAYS);
         _executorService.awaitTermination(1L,TimeUnit.DAYS);
+        treeTaggerProcessPool.close();
+        if (taggingCache != null) {
+            _logger.info("tagging cache : {} documents found, {} documents tagged", taggingCache.getHits(),
+                    taggingCache.getMisses());
+        }
+        /*
+        the extracted texts and their offset maps are released when all the documents are tagged : an interrupted
+        process needs all of them to build the corpus analyzer when it is resumed
+         */
+        if (isComplete()) {
+            _termithIndex.getExtractedText().values().forEach(FilesUtils::deleteObject);
+            _termithIndex.getTextOffsetMap().values().forEach(FilesUtils::deleteObject);
+        }
+    }
+
+    /**
+     * the documents whose tagging has failed are tagged again when the process is resumed
+     * @return true if every extracted text has been tagged
+     */
+    @Override
+    protected boolean isComplete() {
+        return _termithIndex.getExtractedText().keySet().stream().allMatch(this::isTagged);
+    }
+
+    /**
+     * check if a document has been tagged by a previous run of an interrupted process. The morphology of a tagged
+     * document is retained in the termithIndex
+     * @param key the document
+     * @return true if the termsuite document, the tokenized body and the morphology of the document are written
+     */
+    private boolean isTagged(String key) {
+        return _termithIndex.getTermsuiteDocument().containsKey(key) &&
+                _termithIndex.getTokenizeTeiBody().containsKey(key) &&
+                _termithIndex.getMorphologyStandOff().containsKey(key);
     }
 }
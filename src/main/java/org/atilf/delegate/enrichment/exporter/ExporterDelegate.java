@@ -7,7 +7,9 @@ import org.atilf.monitor.timer.TermithProgressTimer;
 import org.atilf.runner.TermithResourceManager.TermithResource;
 import org.flowable.engine.delegate.DelegateExecution;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -43,17 +45,30 @@ public class ExporterDelegate extends Delegate {
          */
 
         StandOffResources.init(TermithResource.STANDOFF_FRAGMENTS.getPath());
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         /*
-        export result
+        export result. The files exported by a previous run of an interrupted process are kept
          */
-        _termithIndex.getXmlCorpus().forEach(
-                (key,value) -> futures.add(_executorService.submit(new TeiWriter(key, _termithIndex,
-                        _outputPath.toString())))
-        );
+        _termithIndex.getXmlCorpus().forEach((key,value) -> {
+            if (Files.exists(Paths.get(_outputPath + "/" + key + ".xml"))) {
+                _logger.debug("{} has already been exported", key);
+                return;
+            }
+            futures.add(_executorService.submit(new TeiWriter(key, _termithIndex, _outputPath.toString())));
+        });
         new TermithProgressTimer(futures,this.getClass(),_executorService).start();
         _logger.info("Waiting exporters tasks to finish");
         _executorService.shutdown();
         _executorService.awaitTermination(1L, TimeUnit.DAYS);
     }
+
+    /**
+     * the documents whose export has failed are exported again when the process is resumed
+     * @return true if every document of the corpus has been exported
+     */
+    @Override
+    protected boolean isComplete() {
+        return _termithIndex.getXmlCorpus().keySet().stream()
+                .allMatch(key -> Files.exists(Paths.get(_outputPath + "/" + key + ".xml")));
+    }
 }
@@ -1,13 +1,31 @@
 package org.atilf.delegate.enrichment.initializer;
 
 import org.atilf.delegate.Delegate;
+import org.atilf.delegate.DocumentPipeline;
+import org.atilf.delegate.tools.SpecialCharacterTranslatorDelegate;
+import org.atilf.models.enrichment.TaggingCache;
+import org.atilf.models.enrichment.TreeTaggerParameter;
+import org.atilf.models.enrichment.TreeTaggerProcessPool;
+import org.atilf.module.enrichment.analyzer.TextTagger;
 import org.atilf.module.enrichment.initializer.CorpusInitializer;
+import org.atilf.module.enrichment.initializer.TextExtractor;
+import org.atilf.module.tools.FilesUtils;
+import org.atilf.resources.enrichment.TextExtraction;
+import org.atilf.runner.TermithScheduler;
 import org.flowable.engine.delegate.DelegateExecution;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.atilf.runner.TermithResourceManager.TermithResource;
 
 /**
  * Extract the plain text of an xml file and retained the xml corpus file path into a map
@@ -18,6 +36,7 @@ public class CorpusInitializerDelegate extends Delegate {
 
     private Path _outputPath;
     private Path _base;
+    private boolean _translation = true;
 
     public void setOutputPath(Path outputPath) {
         _outputPath = outputPath;
@@ -27,30 +46,118 @@ public class CorpusInitializerDelegate extends Delegate {
         _base = base;
     }
 
+    public void setTranslation(boolean translation) {
+        _translation = translation;
+    }
+
+    /**
+     * the tasks copy the corpus files and wait on the TreeTagger processes in the pipelined mode
+     * @return the BLOCKING lane
+     */
+    @Override
+    protected TermithScheduler.Lane getLane() {
+        return TermithScheduler.Lane.BLOCKING;
+    }
+
     @Override
     public void initialize(DelegateExecution execution) {
         super.initialize(execution);
         _outputPath = getFlowableVariable("out",null);
         _base = getFlowableVariable("base",null);
+        _translation = getFlowableVariable("translation", true);
     }
 
     /**
-     * executeTasks the extraction text task with the help of inner InitializerWorker class
+     * executeTasks the extraction text task with the help of inner InitializerWorker class. The special characters
+     * are translated while the files are copied, or the files are linked if they are not translated : the
+     * SpecialCharacterTranslatorDelegate is skipped
      * @throws IOException throws exception if a file is not find
      * @throws InterruptedException throws java concurrent executorService exception
      */
     @Override
     public void executeTasks() throws IOException, InterruptedException {
+        if (_pipelined) {
+            executePipeline();
+            return;
+        }
         /*
         extract the text and map the path of the corpus into hashMap with identifier
          */
         Files.list(_base).filter(el -> el.toString().contains(".xml")).forEach(
-                p -> _executorService.submit(new CorpusInitializer(p, _outputPath,_termithIndex))
+                p -> _executorService.submit(new CorpusInitializer(p, _outputPath,_termithIndex, _translation))
         );
         _logger.info("Waiting initCorpusWorker executors to finish");
         _executorService.shutdown();
         _executorService.awaitTermination(1L, TimeUnit.DAYS);
+        markAsExecuted(SpecialCharacterTranslatorDelegate.class);
         _logger.info("initCorpusWorker finished");
     }
 
+    /**
+     * each document is copied and translated in a single pass, extracted and tagged without waiting the other documents of the corpus.
+     * The TreeTaggerWorkerDelegate uses the TreeTagger outputs to write the json morphology files.
+     * @throws IOException throws exception if a file is not find
+     * @throws InterruptedException throws java concurrent executorService exception
+     */
+    private void executePipeline() throws IOException, InterruptedException {
+        int poolSize = getFlowableVariable("poolSize", Runtime.getRuntime().availableProcessors());
+        String lang = getFlowableVariable("lang", null);
+        TextExtraction textExtraction = TextExtraction.of(getFlowableVariable("textExtraction", "xslt"),
+                TermithResource.TEXT_XSL.getPath());
+        TreeTaggerParameter treeTaggerParameter = new TreeTaggerParameter(
+                false,
+                lang,
+                TermithResource.TREETAGGER_HOME.getPath()
+        );
+        TreeTaggerProcessPool treeTaggerProcessPool = new TreeTaggerProcessPool(poolSize, new TreeTaggerParameter(
+                true,
+                lang,
+                TermithResource.TREETAGGER_HOME.getPath()
+        ));
+        Path taggingCachePath = getFlowableVariable("taggingCache", null);
+        TaggingCache taggingCache = taggingCachePath != null ?
+                new TaggingCache(taggingCachePath, treeTaggerParameter) : null;
+        List<ExecutorService> executorServices = new ArrayList<>();
+        executorServices.add(createExecutorService("CorpusInitializer", TermithScheduler.Lane.BLOCKING));
+        executorServices.add(createExecutorService("TextExtractor", TermithScheduler.Lane.CPU));
+        executorServices.add(createExecutorService("TextTagger", TermithScheduler.Lane.BLOCKING));
+        /*
+        the workers of the pipeline run until the last document, they are not bounded by the admission control of
+        the delegate executor service
+         */
+        _executorService.shutdown();
+
+        List<String> documents;
+        try (Stream<Path> files = Files.list(_base)) {
+            documents = files.filter(el -> el.toString().contains(".xml"))
+                    .map(Path::toString)
+                    .collect(Collectors.toList());
+        }
+        _logger.info("document pipeline started for {} documents", documents.size());
+        new DocumentPipeline(poolSize * 2)
+                .addStage("CorpusInitializer", executorServices.get(0), poolSize, file -> {
+                    Path path = Paths.get(file);
+                    new CorpusInitializer(path, _outputPath, _termithIndex, _translation).run();
+                    return FilesUtils.nameNormalizer(path.getFileName().toString());
+                })
+                .addStage("TextExtractor", executorServices.get(1), poolSize, id -> {
+                    new TextExtractor(id, _termithIndex, _outputPath, textExtraction, taggingCache).run();
+                    return _termithIndex.getExtractedText().containsKey(id) ? id : null;
+                })
+                .addStage("TextTagger", executorServices.get(2), poolSize, id -> {
+                    new TextTagger(id, _termithIndex, _outputPath.toString(), treeTaggerParameter,
+                            treeTaggerProcessPool, taggingCache).run();
+                    return id;
+                })
+                .execute(documents);
+
+        for (ExecutorService executorService : executorServices) {
+            executorService.shutdown();
+            executorService.awaitTermination(1L, TimeUnit.DAYS);
+        }
+        treeTaggerProcessPool.close();
+        markAsExecuted(SpecialCharacterTranslatorDelegate.class, TextExtractorDelegate.class);
+        _logger.info("document pipeline finished");
+    }
+
 }
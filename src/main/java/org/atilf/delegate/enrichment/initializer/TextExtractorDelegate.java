@@ -1,9 +1,11 @@
 package org.atilf.delegate.enrichment.initializer;
 
 import org.atilf.delegate.Delegate;
+import org.atilf.models.enrichment.TaggingCache;
+import org.atilf.models.enrichment.TreeTaggerParameter;
 import org.atilf.module.enrichment.initializer.TextExtractor;
 import org.atilf.monitor.timer.TermithProgressTimer;
-import org.atilf.resources.enrichment.XslResources;
+import org.atilf.resources.enrichment.TextExtraction;
 import org.flowable.engine.delegate.DelegateExecution;
 
 import java.io.IOException;
@@ -23,15 +25,33 @@ import static org.atilf.runner.TermithResourceManager.TermithResource;
 public class TextExtractorDelegate extends Delegate {
 
     private Path _output;
+    private String _textExtraction = "xslt";
+    private String _lang;
+    private Path _taggingCache;
 
     public void setOutput(Path output) {
         _output = output;
     }
 
+    public void setTextExtraction(String textExtraction) {
+        _textExtraction = textExtraction;
+    }
+
+    public void setLang(String lang) {
+        _lang = lang;
+    }
+
+    public void setTaggingCache(Path taggingCache) {
+        _taggingCache = taggingCache;
+    }
+
     @Override
     public void initialize(DelegateExecution execution) {
         super.initialize(execution);
         _output = getFlowableVariable("out",null);
+        _textExtraction = getFlowableVariable("textExtraction", "xslt");
+        _lang = getFlowableVariable("lang", null);
+        _taggingCache = getFlowableVariable("taggingCache", null);
     }
 
     /**
@@ -42,17 +62,29 @@ public class TextExtractorDelegate extends Delegate {
     @Override
     public void executeTasks() throws IOException, InterruptedException {
         /*
-        initialize XslResource & ExtractTextTimer
+        initialize the text extraction of the run & ExtractTextTimer
+         */
+        TextExtraction textExtraction = TextExtraction.of(_textExtraction, TermithResource.TEXT_XSL.getPath());
+        /*
+        the tagging cache key of a text is computed when it is extracted, the TreeTaggerWorkerDelegate does not read
+        the documents found in the cache again
          */
-        XslResources xslResources = new XslResources(TermithResource.TEXT_XSL.getPath());
-        List<Future> futures = new ArrayList<>();
+        TaggingCache taggingCache = _taggingCache != null ? new TaggingCache(_taggingCache, new TreeTaggerParameter(
+                false,
+                _lang,
+                TermithResource.TREETAGGER_HOME.getPath()
+        )) : null;
+        List<Future<?>> futures = new ArrayList<>();
         /*
-        extract the text and map the path of the corpus into hashMap with identifier
+        extract the text and map the path of the corpus into hashMap with identifier. The texts extracted by a
+        previous run of an interrupted process are kept
          */
-        _termithIndex.getXmlCorpus().forEach(
-                (key,value) -> futures.add(_executorService.submit(new TextExtractor(key, _termithIndex,
-                        _output,xslResources)))
-        );
+        _termithIndex.getXmlCorpus().forEach((key,value) -> {
+            if (!_termithIndex.getExtractedText().containsKey(key)) {
+                futures.add(_executorService.submit(new TextExtractor(key, _termithIndex, _output, textExtraction,
+                        taggingCache)));
+            }
+        });
         new TermithProgressTimer(futures,this.getClass(),_executorService).start();
         _logger.info("Waiting text Extractor tasks executors to finish");
         _executorService.shutdown();
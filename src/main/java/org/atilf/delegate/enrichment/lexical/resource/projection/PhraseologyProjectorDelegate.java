@@ -22,7 +22,7 @@ public class PhraseologyProjectorDelegate extends Delegate {
             ResourceProjection resourceProjection = new ResourceProjection(
                     TermithResourceManager.TermithResource.PHRASEOLOGY.getPath()
             );
-            List<Future> futures = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
             _termithIndex.getMorphologyStandOff().forEach(
                     (id, value) -> {
                         _termithIndex.getPhraseoOffsetId().put(id, new ArrayList<>());
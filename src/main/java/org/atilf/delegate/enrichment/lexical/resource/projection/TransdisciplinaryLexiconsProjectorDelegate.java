@@ -22,7 +22,7 @@ public class TransdisciplinaryLexiconsProjectorDelegate extends Delegate {
     @Override
     public void executeTasks() throws IOException, InterruptedException, ExecutionException {
         ResourceProjection resourceProjection = new TransdisciplinaryResourceProjection(TermithResource.LST.getPath());
-        List<Future> futures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         _termithIndex.getMorphologyStandOff().forEach(
                 (id,value) -> {
                     _termithIndex.getTransdisciplinaryOffsetId().put(id,new ArrayList<>());
@@ -0,0 +1,54 @@
+package org.atilf.models;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * the ArtifactHandle locates an intermediate artifact of a document (e.g. an extracted text or a morphology list)
+ * written in a segment file of the ArtifactStore.
+ * @see org.atilf.module.tools.ArtifactStore
+ */
+public class ArtifactHandle implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final String _segment;
+    private final String _key;
+    private final long _offset;
+    private final int _length;
+
+    /**
+     * constructor for ArtifactHandle
+     * @param segment the path of the segment file
+     * @param key the document of the artifact
+     * @param offset the position of the artifact in the segment file
+     * @param length the size of the artifact in bytes
+     */
+    public ArtifactHandle(Path segment, String key, long offset, int length) {
+        _segment = segment.toString();
+        _key = key;
+        _offset = offset;
+        _length = length;
+    }
+
+    public Path getSegment() {
+        return Paths.get(_segment);
+    }
+
+    public String getKey() {
+        return _key;
+    }
+
+    public long getOffset() {
+        return _offset;
+    }
+
+    public int getLength() {
+        return _length;
+    }
+
+    @Override
+    public String toString() {
+        return _segment + "[" + _offset + "," + (_offset + _length) + "] (" + _key + ")";
+    }
+}
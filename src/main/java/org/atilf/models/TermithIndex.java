@@ -5,6 +5,7 @@ import org.atilf.models.disambiguation.EvaluationProfile;
 import org.atilf.models.disambiguation.LexiconProfile;
 import org.atilf.models.disambiguation.TxmContext;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
+import org.atilf.models.enrichment.TextLength;
 
 import java.nio.file.Path;
 import java.util.List;
@@ -23,10 +24,17 @@ public class TermithIndex {
     Termith fields
      */
     private List<Path> _terminologies = new CopyOnWriteArrayList<>();
-    private Map<String, Path> _tokenizeTeiBody = new ConcurrentHashMap<>();
-    private Map<String, Path> _morphologyStandOff = new ConcurrentHashMap<>();
+    private Map<String, ArtifactHandle> _tokenizeTeiBody = new ConcurrentHashMap<>();
+    private Map<String, ArtifactHandle> _morphologyStandOff = new ConcurrentHashMap<>();
     private Map<String, List<MultiWordsOffsetId>> _terminologyStandOff = new ConcurrentHashMap<>();
-    private Map<String, Path> _extractedText = new ConcurrentHashMap<>();
+    private Map<String, ArtifactHandle> _extractedText = new ConcurrentHashMap<>();
+    private Map<String, TextLength> _extractedTextLength = new ConcurrentHashMap<>();
+    private Map<String, String> _taggingKey = new ConcurrentHashMap<>();
+    private Map<String, ArtifactHandle> _textOffsetMap = new ConcurrentHashMap<>();
+    private Map<String, ArtifactHandle> _treeTaggerOutput = new ConcurrentHashMap<>();
+    private Map<String, ArtifactHandle> _termsuiteDocument = new ConcurrentHashMap<>();
+    private Map<String, List<ArtifactHandle>> _terminologyShards = new ConcurrentHashMap<>();
+    private Map<String, ArtifactHandle> _resolvedTerminology = new ConcurrentHashMap<>();
     private Map<String, Path> _xmlCorpus = new ConcurrentHashMap<>();
     private List<Path> _serializeJson = new CopyOnWriteArrayList<>();
     private List<Path> _outputFile = new CopyOnWriteArrayList<>();
@@ -93,9 +101,9 @@ public class TermithIndex {
 
     /**
      * return serialized MorphologyStandOff object
-     * @return return Map of String/Path
+     * @return return Map of String/ArtifactHandle
      */
-    public Map<String, Path> getMorphologyStandOff() {
+    public Map<String, ArtifactHandle> getMorphologyStandOff() {
         return _morphologyStandOff;
     }
 
@@ -109,9 +117,9 @@ public class TermithIndex {
 
     /**
      * return the Tokenize bodies of xml files
-     * @return return a map of String/Path
+     * @return return a map of String/ArtifactHandle
      */
-    public Map<String, Path> getTokenizeTeiBody() {
+    public Map<String, ArtifactHandle> getTokenizeTeiBody() {
         return _tokenizeTeiBody;
     }
 
@@ -162,13 +170,79 @@ public class TermithIndex {
     }
 
     /**
-     * return the map who contains the path of extracted text
-     * @return return the map of String/Path
+     * return the map who contains the handle of extracted text
+     * @return return the map of String/ArtifactHandle
      */
-    public Map<String, Path> getExtractedText() {
+    public Map<String, ArtifactHandle> getExtractedText() {
         return _extractedText;
     }
 
+    /**
+     * return the map who contains the length of the extracted texts, it is recorded when the text is written
+     * @return return the map of String/TextLength
+     */
+    public Map<String, TextLength> getExtractedTextLength() {
+        return _extractedTextLength;
+    }
+
+    /**
+     * return the map who contains the tagging cache key of the extracted texts, it is computed when the text is
+     * written if the tagging cache is used
+     * @return return the map of String/String
+     * @see org.atilf.models.enrichment.TaggingCache
+     */
+    public Map<String, String> getTaggingKey() {
+        return _taggingKey;
+    }
+
+    /**
+     * return the map who contains the handle of the offset map of the extracted text, the extractions which do not
+     * record the characters they insert have no offset map
+     * @return return the map of String/ArtifactHandle
+     * @see org.atilf.models.enrichment.TextOffsetMap
+     */
+    public Map<String, ArtifactHandle> getTextOffsetMap() {
+        return _textOffsetMap;
+    }
+
+    /**
+     * return the map who contains the handle of the TreeTagger output of a text tagged before the TreeTaggerWorker
+     * task (e.g. by the document pipeline)
+     * @return return the map of String/ArtifactHandle
+     */
+    public Map<String, ArtifactHandle> getTreeTaggerOutput() {
+        return _treeTaggerOutput;
+    }
+
+    /**
+     * return the map who contains the handle of the morphology of each tagged document, the morphologies are the
+     * input of the termsuite pipeline
+     * @return return the map of String/ArtifactHandle
+     * @see org.atilf.models.enrichment.TermsuiteDocument
+     */
+    public Map<String, ArtifactHandle> getTermsuiteDocument() {
+        return _termsuiteDocument;
+    }
+
+    /**
+     * return the map who contains the handles of the shards of the terminology occurrences of each document
+     * @return return the map of String/List of ArtifactHandle
+     * @see org.atilf.module.enrichment.analyzer.TerminologyParser
+     */
+    public Map<String, List<ArtifactHandle>> getTerminologyShards() {
+        return _terminologyShards;
+    }
+
+    /**
+     * return the map who contains the handle of the terminology occurrences of each document linked to the ids of
+     * the morphology, the occurrences are read and released by the TeiWriter
+     * @return return the map of String/ArtifactHandle
+     * @see org.atilf.module.enrichment.analyzer.TerminologyStandOff
+     */
+    public Map<String, ArtifactHandle> getResolvedTerminology() {
+        return _resolvedTerminology;
+    }
+
     /*
     Setter
      */
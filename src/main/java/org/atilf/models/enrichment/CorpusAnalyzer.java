@@ -3,7 +3,9 @@ package org.atilf.models.enrichment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -26,16 +28,27 @@ public class CorpusAnalyzer {
      * @param extractedText all extracted texts of a corpus
      */
     public CorpusAnalyzer(Map<String, StringBuilder> extractedText){
+        this(lengths(extractedText).entrySet());
+    }
+
+    /**
+     * the constructor of Corpus analyzer, the metadata are computed from the lengths of the texts and the texts are not
+     * read. The documents are indexed in the iteration order of the lengths
+     * @param textLengths the lengths of the extracted texts of a corpus
+     */
+    private CorpusAnalyzer(Collection<Map.Entry<String, TextLength>> textLengths){
         LOGGER.debug("CorpusAnalyzer object building started");
-        _totalSize = totalSize(extractedText);
+        _totalSize = 0;
+        for (Map.Entry<String, TextLength> textLength : textLengths) {
+            _totalSize += documentSize(textLength.getValue());
+        }
         _sumSize = 0;
         _lastDocs = false;
         _index = 1;
+        int nbDocs = textLengths.size();
 
-        extractedText.forEach((id,content) ->
-        {
-            int documentSize = documentSize(extractedText,id);
-            int nbDocs = nbOfDocs(extractedText);
+        for (Map.Entry<String, TextLength> textLength : textLengths) {
+            int documentSize = documentSize(textLength.getValue());
             _sumSize += documentSize;
             if (_index == nbDocs){
                 _lastDocs = true;
@@ -43,9 +56,9 @@ public class CorpusAnalyzer {
 
             TextAnalyzer textAnalyzer =
                     new TextAnalyzer(
-                            documentSize(extractedText,id),
+                            documentSize,
                             nbDocs,
-                            end(extractedText,id),
+                            textLength.getValue().getLength(),
                             _index,
                             _sumSize,
                             _totalSize,
@@ -53,11 +66,34 @@ public class CorpusAnalyzer {
                     );
 
             _index++;
-            _analyzedTexts.put(id,textAnalyzer);
-        });
+            _analyzedTexts.put(textLength.getKey(),textAnalyzer);
+        }
         LOGGER.debug("CorpusAnalyzer object building ended");
     }
 
+    /**
+     * build the Corpus analyzer from the lengths of the texts recorded by the extraction
+     * @param textLengths the lengths of the extracted texts of a corpus
+     * @return the corpus analyzer
+     * @see TextLength
+     */
+    public static CorpusAnalyzer fromLengths(Map<String, TextLength> textLengths) {
+        return new CorpusAnalyzer(textLengths.entrySet());
+    }
+
+    private static Map<String, TextLength> lengths(Map<String, StringBuilder> extractedText) {
+        Map<String, TextLength> textLengths = new LinkedHashMap<>();
+        extractedText.forEach((id, text) -> textLengths.put(id, TextLength.of(text)));
+        return textLengths;
+    }
+
+    /**
+     * the size of a document is the number of bytes of its text and of the separator of the documents
+     */
+    private static int documentSize(TextLength textLength) {
+        return textLength.getByteLength() + 1;
+    }
+
     /**
      * return the metadata of each files
      * @return return analyzedText fields
@@ -73,7 +109,7 @@ public class CorpusAnalyzer {
     public int totalSize(Map<String, StringBuilder> extractedText) {
         int totalSize = 0;
         for (StringBuilder text : extractedText.values()){
-            totalSize += text.toString().getBytes().length + 1;
+            totalSize += TextLength.utf8Length(text) + 1;
         }
         return totalSize;
     }
@@ -82,8 +118,7 @@ public class CorpusAnalyzer {
      * @return return the current document size
      */
     public int documentSize(Map<String, StringBuilder> extractedText, String id){
-        return extractedText.get(id)
-                .toString().getBytes().length + 1;
+        return TextLength.utf8Length(extractedText.get(id)) + 1;
     }
 
     /**
@@ -97,6 +132,6 @@ public class CorpusAnalyzer {
      * @return return the uima offset of a document
      */
     public int end(Map<String, StringBuilder> extractedText, String id){
-        return extractedText.get(id).toString().length();
+        return extractedText.get(id).length();
     }
 }
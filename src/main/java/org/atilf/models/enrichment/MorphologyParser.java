@@ -8,21 +8,25 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Arrays;
 
 import static eu.project.ttc.readers.JsonCasConstants.*;
 
 /**
- * parse morphology json file
+ * parse morphology json file, the tokens are stored in a TokenBuffer. The tokens are read in the order of the text
+ * with a cursor
  * @author Simon Meoni
  *         Created on 25/08/16.
  */
 public class MorphologyParser {
 
-    private Queue<Token> _tokenQueue = new LinkedList<>();
+    private final TokenBuffer _tokens;
+    private int _cursor = -1;
+    /*
+    the beginning offsets set by the tokenizer, the columns of the buffer are copied when an offset is set first
+     */
+    private int[] _begins;
     private File _file;
-    private Token _pollToken;
     private final JsonFactory _factory = new JsonFactory();
     private final static Logger LOGGER = LoggerFactory.getLogger(MorphologyParser.class);
 
@@ -33,27 +37,40 @@ public class MorphologyParser {
      */
     public MorphologyParser(File file) {
         _file = file;
+        _tokens = new TokenBuffer();
+    }
+
+    /**
+     * constructor for MorphologyParser, the tokens are the word annotations of the document : they are read without
+     * copy and the parser does not need to be executed
+     * @param document the morphology of the document
+     */
+    public MorphologyParser(TermsuiteDocument document) {
+        _tokens = document.getWords();
     }
 
     /**
-     * getter for _tokenQueue field
-     * @return return Queue<Token>
+     * getter for _tokens field
+     * @return return the TokenBuffer
      */
-    public Queue<Token> getTokenQueue() {
-        return _tokenQueue;
+    public TokenBuffer getTokens() {
+        return _tokens;
     }
 
     /**
      * parse json file with streaming library and get in word_annotations the words annotations like : _lemma, _pos,
-     * the ending offset and the beginning offset
+     * the ending offset and the beginning offset. The values are added to the TokenBuffer at the end of each word
+     * annotation
      */
     public void execute() {
-        try {
+        try (JsonParser parser = _factory.createParser(_file)) {
             LOGGER.debug("Json browsing started");
-            JsonParser parser = _factory.createParser(_file);
 
             JsonToken jsonToken;
-            Token token = new Token();
+            String pos = null;
+            String lemma = null;
+            int begin = 0;
+            int end = 0;
             boolean inWa = false;
 
             while ((jsonToken = parser.nextToken()) != null) {
@@ -62,10 +79,30 @@ public class MorphologyParser {
                     if (jsonToken == JsonToken.END_ARRAY)
                         break;
                     else if (jsonToken == JsonToken.END_OBJECT) {
-                        _tokenQueue.add(token);
-                        token = new Token();
+                        _tokens.add(begin, end, pos, null, lemma);
+                        pos = null;
+                        lemma = null;
+                        begin = 0;
+                        end = 0;
+                    }
+                    else if (jsonToken == JsonToken.FIELD_NAME) {
+                        switch (parser.getCurrentName()){
+                            case F_LEMMA :
+                                lemma = parser.nextTextValue();
+                                break;
+                            case F_TAG :
+                                pos = parser.nextTextValue();
+                                break;
+                            case F_BEGIN :
+                                begin = parser.nextIntValue(0);
+                                break;
+                            case F_END :
+                                end = parser.nextIntValue(0);
+                                break;
+                            default:
+                                break;
+                        }
                     }
-                    setToken(parser, jsonToken, token);
                 }
 
                 else if ("word_annotations".equals(parser.getParsingContext().getCurrentName())) {
@@ -79,10 +116,23 @@ public class MorphologyParser {
     }
 
     /**
-     * get next token from _tokenQueue field
+     * move to the next token
      */
     public void pollToken(){
-        _pollToken =  _tokenQueue.poll();
+        if (_cursor < _tokens.size()) {
+            _cursor++;
+        }
+    }
+
+    /**
+     * @return return the number of tokens after the cursor
+     */
+    public int remaining() {
+        return _tokens.size() - Math.min(_cursor + 1, _tokens.size());
+    }
+
+    private boolean hasCurrent() {
+        return _cursor >= 0 && _cursor < _tokens.size();
     }
 
     /**
@@ -90,19 +140,24 @@ public class MorphologyParser {
      * @return the ending offset
      */
     public int getCurrentTokenEnd(){
-        if (_pollToken != null)
-            return _pollToken.getEnd();
+        if (hasCurrent())
+            return _tokens.getEnd(_cursor);
         else
             return -1;
     }
 
     /**
-     * set the current _begin offset
+     * set the current _begin offset, the morphology of the document is not modified
      * @param i the value to set
      */
     public void setCurrentTokenBegin(int i){
-        if (_pollToken != null)
-            _pollToken.setBegin(i);
+        if (hasCurrent()) {
+            if (_begins == null) {
+                _begins = new int[_tokens.size()];
+                Arrays.setAll(_begins, _tokens::getBegin);
+            }
+            _begins[_cursor] = i;
+        }
     }
 
     /**
@@ -110,8 +165,8 @@ public class MorphologyParser {
      * @return return the _lemma
      */
     public String getCurrentLemma(){
-        if (_pollToken != null)
-            return _pollToken.getLemma();
+        if (hasCurrent())
+            return _tokens.getLemma(_cursor);
         else
             return "";
     }
@@ -121,8 +176,8 @@ public class MorphologyParser {
      * @return return the _pos
      */
     public String getCurrentPos(){
-        if (_pollToken != null)
-            return _pollToken.getPos();
+        if (hasCurrent())
+            return _tokens.getTag(_cursor);
         else
             return "";
     }
@@ -133,143 +188,20 @@ public class MorphologyParser {
      * @return the ending offset
      */
     public int getCurrentTokenBegin(){
-        if (_pollToken != null)
-            return _pollToken.getBegin();
+        if (hasCurrent())
+            return _begins != null && _cursor < _begins.length ? _begins[_cursor] : _tokens.getBegin(_cursor);
         else
             return -1;
     }
 
     /**
-     * set a token object with an element in json
-     * @param parser the current parser
-     * @param jsonToken the current jsonToken
-     * @param token the token to set
-     * @throws IOException Thrown exeception if token meet problems during parsing
-     */
-    private void setToken(JsonParser parser, JsonToken jsonToken, Token token) throws IOException {
-        if (jsonToken.equals(JsonToken.FIELD_NAME)){
-            switch (parser.getCurrentName()){
-                case F_LEMMA :
-                    token.setLemma(parser.nextTextValue());
-                    break;
-                case F_TAG :
-                    token.setPos(parser.nextTextValue());
-                    break;
-                case F_BEGIN :
-                    token.setBegin(parser.nextIntValue(0));
-                    break;
-                case F_END :
-                    token.setEnd(parser.nextIntValue(0));
-                    break;
-                default:
-                    break;
-            }
-        }
-    }
-
-    /**
-     * create new token on _tokenQueue
+     * create new token on _tokens
      * @param pos _pos value
      * @param lemma _lemma value
      * @param begin beginning offset
      * @param end ending offset
      */
     public void createToken(String pos, String lemma, int begin, int end){
-        _tokenQueue.add(new Token(pos, lemma, begin, end));
+        _tokens.add(begin, end, pos, null, lemma);
     }
-
-    /**
-     * inner Token class used by _TokenQueue field
-     */
-    public class Token {
-
-        private String _pos;
-        private String _lemma;
-        private int _begin;
-        private int _end;
-
-        /**
-         * constructor for Token class
-         * @param pos _pos value
-         * @param lemma _lemma value
-         * @param begin beginning offset
-         * @param end ending offset
-         */
-        Token(String pos, String lemma, int begin, int end) {
-            _pos = pos;
-            _lemma = lemma;
-            _begin = begin;
-            _end = end;
-        }
-
-        /**
-         * empty constructor
-         */
-        Token(){}
-
-        /**
-         * setter for _pos field
-         * @param pos pos value
-         */
-        public void setPos(String pos) {
-            _pos = pos;
-        }
-        
-        /**
-         * setter for _lemma field
-         * @param lemma lemma value
-         */
-        public void setLemma(String lemma) {
-            _lemma = lemma;
-        }
-        
-        /**
-         * setter for _begin field
-         * @param begin begin value
-         */
-        public void setBegin(int begin) {
-            _begin = begin;
-        }
-        
-        /**
-         * setter for _end field
-         * @param end end value
-         */
-        public void setEnd(int end) {
-            _end = end;
-        }
-
-        /**
-         * getter for _pos field
-         * @return return _pos
-         */
-        public String getPos() {
-            return _pos;
-        }
-
-        /**
-         * getter for _lemma field
-         * @return return _lemma
-         */
-        public String getLemma() {
-            return _lemma;
-        }
-
-        /**
-         * getter for _begin field
-         * @return return _begin
-         */
-        public int getBegin() {
-            return _begin;
-        }
-
-        /**
-         * getter for _end field
-         * @return return _end
-         */
-        public int getEnd() {
-            return _end;
-        }
-    }
-
 }
@@ -1,8 +1,7 @@
 package org.atilf.models.enrichment;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Stream;
+import java.io.IOException;
+import java.io.Writer;
 
 /**
  * this is an equivalence table used during the exportation to tei file
@@ -10,28 +9,67 @@ import java.util.stream.Stream;
  *         Created on 29/09/16.
  */
 public class SpecialChXmlEscape {
-    protected final static Map<String, String> SPEC_CH = new ConcurrentHashMap<>();
+    /*
+    the escaped characters are ascii characters, they cannot be a part of a surrogate pair : the strings are scanned
+    by char
+     */
+    private static final String[] SPEC_CH = new String['>' + 1];
 
     SpecialChXmlEscape() {
         throw new IllegalAccessError("Utility class");
     }
 
     static {
-        SPEC_CH.put("\"", "&quot;");
-        SPEC_CH.put("&", "&amp;");
-        SPEC_CH.put("'", "&apos;");
-        SPEC_CH.put("<", "&lt;");
-        SPEC_CH.put(">", "&gt;");
+        SPEC_CH['"'] = "&quot;";
+        SPEC_CH['&'] = "&amp;";
+        SPEC_CH['\''] = "&apos;";
+        SPEC_CH['<'] = "&lt;";
+        SPEC_CH['>'] = "&gt;";
     }
 
     /**
      * replace a special character to a xml escape characters
      * @param s the character
-     * @return the converted character
+     * @return the converted character, s itself if it has no special character
      */
     public static String replaceChar(String s){
-        return Stream.of(s.split(""))
-                .map(c -> SPEC_CH.getOrDefault(c, c))
-                .reduce("", String::concat);
+        int index = nextSpecialChar(s, 0);
+        if (index == -1) {
+            return s;
+        }
+        StringBuilder escaped = new StringBuilder(s.length() + 16);
+        int begin = 0;
+        do {
+            escaped.append(s, begin, index).append(SPEC_CH[s.charAt(index)]);
+            begin = index + 1;
+            index = nextSpecialChar(s, begin);
+        } while (index != -1);
+        return escaped.append(s, begin, s.length()).toString();
+    }
+
+    /**
+     * write a string with xml escape characters
+     * @param s the string
+     * @param writer the output
+     * @throws IOException thrown if the writer fails
+     */
+    public static void replaceChar(String s, Writer writer) throws IOException {
+        int begin = 0;
+        for (int index = nextSpecialChar(s, 0); index != -1; index = nextSpecialChar(s, begin)) {
+            writer.write(s, begin, index - begin);
+            writer.write(SPEC_CH[s.charAt(index)]);
+            begin = index + 1;
+        }
+        writer.write(s, begin, s.length() - begin);
+    }
+
+    private static int nextSpecialChar(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch < SPEC_CH.length && SPEC_CH[ch] != null) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
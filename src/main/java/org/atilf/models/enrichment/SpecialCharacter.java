@@ -1,31 +1,58 @@
 package org.atilf.models.enrichment;
 
-import java.nio.ByteBuffer;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Stream;
+import java.io.IOException;
+import java.io.Writer;
 
 public class SpecialCharacter extends SpecialChXmlEscape{
-    private final static Map<ByteBuffer, String> SPEC_CH = new ConcurrentHashMap<>();
     private SpecialCharacter() {
         super();
     }
 
-    static {
-        SPEC_CH.put(ByteBuffer.wrap("ʼ".getBytes()), "\'");
-        SPEC_CH.put(ByteBuffer.wrap("’".getBytes()), "\'");
-        SPEC_CH.put(ByteBuffer.wrap("՚".getBytes()), "\'");
-    }
-
     /**
      * replace a special character to a xml escape characters
      * @param s the line with special character to replace
-     * @return the converted character
+     * @return the converted character, s itself if it has no special character
      */
     public static String replaceChar(String s){
-        return Stream.of(s.split(""))
-                .map(el -> SPEC_CH.getOrDefault(ByteBuffer.wrap(el.getBytes()), el))
-                .reduce("", String::concat);
+        int index = nextSpecialChar(s, 0);
+        if (index == -1) {
+            return s;
+        }
+        char[] replaced = s.toCharArray();
+        do {
+            replaced[index] = '\'';
+            index = nextSpecialChar(s, index + 1);
+        } while (index != -1);
+        return new String(replaced);
+    }
+
+    /**
+     * write a line with the special characters replaced
+     * @param s the line
+     * @param writer the output
+     * @throws IOException thrown if the writer fails
+     */
+    public static void replaceChar(String s, Writer writer) throws IOException {
+        int begin = 0;
+        for (int index = nextSpecialChar(s, 0); index != -1; index = nextSpecialChar(s, begin)) {
+            writer.write(s, begin, index - begin);
+            writer.write('\'');
+            begin = index + 1;
+        }
+        writer.write(s, begin, s.length() - begin);
     }
-}
 
+    /*
+    the apostrophes replaced by a simple quote are in the basic multilingual plane, they cannot be a part of a
+    surrogate pair
+     */
+    private static int nextSpecialChar(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == 'ʼ' || ch == '’' || ch == '՚') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
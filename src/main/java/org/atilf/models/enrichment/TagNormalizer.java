@@ -3,10 +3,14 @@ package org.atilf.models.enrichment;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import org.atilf.resources.enrichment.ResourceCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,12 +21,37 @@ import java.util.Map;
  */
 public class TagNormalizer {
 
+    private static final ResourceCache.Codec<Map<String,String>> CODEC = new ResourceCache.Codec<Map<String,String>>() {
+        @Override
+        public void write(Map<String, String> tags, DataOutputStream out) throws IOException {
+            out.writeInt(tags.size());
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                ResourceCache.writeString(tag.getKey(), out);
+                ResourceCache.writeString(tag.getValue(), out);
+            }
+        }
+
+        @Override
+        public Map<String, String> read(ByteBuffer buffer) {
+            int size = buffer.getInt();
+            Map<String,String> tags = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                tags.put(ResourceCache.readString(buffer), ResourceCache.readString(buffer));
+            }
+            return tags;
+        }
+    };
     private  Map<String,String> _ttTag;
     private final Logger _LOGGER = LoggerFactory.getLogger(TagNormalizer.class);
 
 
+    /**
+     * constructor for TagNormalizer, the tags are compiled and shared by the ResourceCache
+     * @param resourcePath the path of the multex resource in the classpath
+     */
     public TagNormalizer(String resourcePath) {
-        _ttTag = parseResource(resourcePath);
+        _ttTag = Collections.unmodifiableMap(ResourceCache.load(resourcePath, TagNormalizer.class.getName(), CODEC,
+                () -> parseResource(resourcePath)));
 
     }
 
@@ -0,0 +1,184 @@
+package org.atilf.models.enrichment;
+
+import org.apache.commons.io.FileUtils;
+import org.atilf.module.tools.ArtifactCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the TaggingCache keeps the results of the morphology analysis of the documents between the runs of the termith
+ * process. An entry is keyed by a hash of the extracted text, of the xml file, of the language and of the TreeTagger
+ * parameters. It contains the TreeTagger output, the tokenized body and the morphology list of the document.
+ *
+ * The json morphology file is not cached : it contains the metadata of the whole corpus, it is written again from the
+ * cached TreeTagger output.
+ */
+public class TaggingCache {
+
+    private static final int VERSION = 1;
+    private static final String TREE_TAGGER_OUTPUT = "treeTaggerOutput";
+    private static final String TOKENIZE_TEI_BODY = "tokenizeTeiBody";
+    private static final String MORPHOLOGY_STAND_OFF = "morphologyStandOff";
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaggingCache.class.getName());
+
+    private final Path _folder;
+    private final String _parameters;
+    private final AtomicInteger _hits = new AtomicInteger();
+    private final AtomicInteger _misses = new AtomicInteger();
+
+    /**
+     * constructor for TaggingCache
+     * @param folder the folder of the cache, it is kept between the runs
+     * @param treeTaggerParameter the TreeTagger parameter used to tag the texts
+     * @throws IOException thrown if the folder cannot be created
+     */
+    public TaggingCache(Path folder, TreeTaggerParameter treeTaggerParameter) throws IOException {
+        _folder = folder;
+        _parameters = VERSION + "\n" + treeTaggerParameter.getLang() + "\n" + treeTaggerParameter.parse();
+        Files.createDirectories(folder);
+    }
+
+    /**
+     * compute the key of a document
+     * @param text the extracted text of the document
+     * @param xml the xml file of the document
+     * @return the hexadecimal sha-256 hash of the document and of the parameters
+     */
+    public String key(CharSequence text, CharSequence xml) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("sha-256 is not supported", e);
+        }
+        update(digest, _parameters);
+        update(digest, text);
+        update(digest, xml);
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * check if a document is in the cache
+     * @param key the key of the document
+     * @return true if the cache contains the document
+     */
+    public boolean contains(String key) {
+        return Files.isDirectory(entry(key));
+    }
+
+    /**
+     * read the entry of a document
+     * @param key the key of the document
+     * @return the entry, or null if the document is not in the cache or if its entry cannot be read
+     */
+    public Entry get(String key) {
+        Path entry = entry(key);
+        if (Files.isDirectory(entry)) {
+            try {
+                Entry cached = new Entry(
+                        ArtifactCodec.readText(entry.resolve(TREE_TAGGER_OUTPUT)),
+                        ArtifactCodec.readText(entry.resolve(TOKENIZE_TEI_BODY)),
+                        ArtifactCodec.readMorphology(entry.resolve(MORPHOLOGY_STAND_OFF))
+                );
+                _hits.incrementAndGet();
+                return cached;
+            } catch (IOException e) {
+                LOGGER.warn("cannot read the cache entry {}, the document is tagged again", entry, e);
+            }
+        }
+        _misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * add the entry of a document. The entry is written in a temporary folder moved in the cache, an entry is
+     * always complete
+     * @param key the key of the document
+     * @param treeTaggerOutput the TreeTagger output
+     * @param tokenizeTeiBody the tokenized body
+     * @param morphologyOffsetIds the morphology list
+     */
+    public void put(String key, StringBuilder treeTaggerOutput, StringBuilder tokenizeTeiBody,
+                    List<MorphologyOffsetId> morphologyOffsetIds) {
+        Path entry = entry(key);
+        Path temporary = entry.resolveSibling(key + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(temporary);
+            ArtifactCodec.writeText(treeTaggerOutput, temporary.resolve(TREE_TAGGER_OUTPUT));
+            ArtifactCodec.writeText(tokenizeTeiBody, temporary.resolve(TOKENIZE_TEI_BODY));
+            ArtifactCodec.writeMorphology(morphologyOffsetIds, temporary.resolve(MORPHOLOGY_STAND_OFF));
+            Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (Files.isDirectory(entry)) {
+                LOGGER.debug("the cache entry {} has been written by another task", entry);
+            }
+            else {
+                LOGGER.error("cannot write the cache entry {}", entry, e);
+            }
+        } finally {
+            FileUtils.deleteQuietly(temporary.toFile());
+        }
+    }
+
+    public int getHits() {
+        return _hits.get();
+    }
+
+    public int getMisses() {
+        return _misses.get();
+    }
+
+    /**
+     * the entry of a document read from the cache
+     */
+    public static class Entry {
+        private final StringBuilder _treeTaggerOutput;
+        private final StringBuilder _tokenizeTeiBody;
+        private final List<MorphologyOffsetId> _morphologyOffsetIds;
+
+        Entry(StringBuilder treeTaggerOutput, StringBuilder tokenizeTeiBody,
+              List<MorphologyOffsetId> morphologyOffsetIds) {
+            _treeTaggerOutput = treeTaggerOutput;
+            _tokenizeTeiBody = tokenizeTeiBody;
+            _morphologyOffsetIds = morphologyOffsetIds;
+        }
+
+        public StringBuilder getTreeTaggerOutput() {
+            return _treeTaggerOutput;
+        }
+
+        public StringBuilder getTokenizeTeiBody() {
+            return _tokenizeTeiBody;
+        }
+
+        public List<MorphologyOffsetId> getMorphologyOffsetIds() {
+            return _morphologyOffsetIds;
+        }
+    }
+
+    private Path entry(String key) {
+        return _folder.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static void update(MessageDigest digest, CharSequence value) {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
@@ -0,0 +1,90 @@
+package org.atilf.models.enrichment;
+
+import java.io.Serializable;
+
+/**
+ * the TermsuiteDocument is the morphology of a document handed from the tagging stage to the termsuite pipeline : the
+ * plain text, the metadata of the document in the corpus and the word annotations. The word annotations are stored
+ * as the columns of a TokenBuffer, they are read by the morphology parser without copy.
+ * @see org.atilf.module.enrichment.analyzer.TermsuiteCollectionReader
+ * @see TokenBuffer
+ */
+public class TermsuiteDocument implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+    private final String _uri;
+    private final String _text;
+    private final TextAnalyzer _textAnalyzer;
+    private final TokenBuffer _words = new TokenBuffer();
+
+    /**
+     * constructor for TermsuiteDocument
+     * @param uri the uri of the document in the terminology
+     * @param text the plain text of the document
+     * @param textAnalyzer the metadata of the document in the corpus
+     */
+    public TermsuiteDocument(String uri, String text, TextAnalyzer textAnalyzer) {
+        _uri = uri;
+        _text = text;
+        _textAnalyzer = textAnalyzer;
+    }
+
+    /**
+     * add a word annotation, the words are added in the order of the text
+     * @param begin the beginning offset of the word
+     * @param end the ending offset of the word
+     * @param tag the TreeTagger tag
+     * @param category the normalized category of the tag
+     * @param lemma the lemma
+     */
+    public void addWord(int begin, int end, String tag, String category, String lemma) {
+        _words.add(begin, end, tag, category, lemma);
+    }
+
+    public String getUri() {
+        return _uri;
+    }
+
+    public String getText() {
+        return _text;
+    }
+
+    public TextAnalyzer getTextAnalyzer() {
+        return _textAnalyzer;
+    }
+
+    /**
+     * getter for the word annotations
+     * @return the columns of the word annotations
+     */
+    public TokenBuffer getWords() {
+        return _words;
+    }
+
+    /**
+     * @return return the number of word annotations
+     */
+    public int size() {
+        return _words.size();
+    }
+
+    public int getBegin(int word) {
+        return _words.getBegin(word);
+    }
+
+    public int getEnd(int word) {
+        return _words.getEnd(word);
+    }
+
+    public String getTag(int word) {
+        return _words.getTag(word);
+    }
+
+    public String getCategory(int word) {
+        return _words.getCategory(word);
+    }
+
+    public String getLemma(int word) {
+        return _words.getLemma(word);
+    }
+}
@@ -1,11 +1,15 @@
 package org.atilf.models.enrichment;
 
+import java.io.Serializable;
+
 /**
  * the text analyzer is the metadata of one file needed for serialize json file
  * @author Simon Meoni
  *         Created on 06/09/16.
  */
-public class TextAnalyzer {
+public class TextAnalyzer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private int _documentSize;
     private int _nbOfDocs;
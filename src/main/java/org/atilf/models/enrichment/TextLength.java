@@ -0,0 +1,78 @@
+package org.atilf.models.enrichment;
+
+import java.io.Serializable;
+
+/**
+ * the TextLength is the length of an extracted text, it is recorded when the text is written : the metadata of the
+ * corpus are computed without reading the texts again
+ * @see CorpusAnalyzer
+ */
+public class TextLength implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final int _length;
+    private final int _byteLength;
+
+    /**
+     * constructor for TextLength
+     * @param length the number of characters of the text
+     * @param byteLength the number of bytes of the text encoded in UTF-8
+     */
+    public TextLength(int length, int byteLength) {
+        _length = length;
+        _byteLength = byteLength;
+    }
+
+    /**
+     * compute the length of a text, the text is not encoded
+     * @param text the text
+     * @return the length of the text
+     */
+    public static TextLength of(CharSequence text) {
+        return new TextLength(text.length(), utf8Length(text));
+    }
+
+    /**
+     * @return return the number of characters of the text
+     */
+    public int getLength() {
+        return _length;
+    }
+
+    /**
+     * @return return the number of bytes of the text encoded in UTF-8
+     */
+    public int getByteLength() {
+        return _byteLength;
+    }
+
+    /**
+     * count the bytes of the UTF-8 encoding of a text, an unpaired surrogate is encoded as a '?' by the encoder
+     * @param text the text
+     * @return the number of bytes
+     */
+    static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch < 0x80) {
+                length++;
+            }
+            else if (ch < 0x800) {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(ch) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            }
+            else if (Character.isSurrogate(ch)) {
+                length++;
+            }
+            else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
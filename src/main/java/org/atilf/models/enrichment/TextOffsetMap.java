@@ -0,0 +1,61 @@
+package org.atilf.models.enrichment;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * the TextOffsetMap gives the offset in the extracted text of each character of the text element of the xml file.
+ * The characters of the text element are numbered in reading order : the tags are skipped and an entity is one
+ * character. The extraction inserts characters which are not in the xml file (e.g. a line break after each paragraph),
+ * the map only keeps a run for each insertion : the index of the next character of the xml file and its offset.
+ */
+public class TextOffsetMap implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private int[] _indexes = new int[16];
+    private int[] _offsets = new int[16];
+    private int _size;
+
+    /**
+     * record the characters inserted by the extraction, the runs are recorded in reading order
+     * @param index the index of the next character of the text element
+     * @param offset the offset of this character in the extracted text
+     */
+    public void addInsertion(int index, int offset) {
+        if (_size > 0 && _indexes[_size - 1] == index) {
+            _offsets[_size - 1] = offset;
+            return;
+        }
+        if (_size > 0 && (index < _indexes[_size - 1] || offset - index < _offsets[_size - 1] - _indexes[_size - 1])) {
+            throw new IllegalArgumentException("the insertions must be recorded in reading order");
+        }
+        if (_size == _indexes.length) {
+            _indexes = Arrays.copyOf(_indexes, _size * 2);
+            _offsets = Arrays.copyOf(_offsets, _size * 2);
+        }
+        _indexes[_size] = index;
+        _offsets[_size] = offset;
+        _size++;
+    }
+
+    /**
+     * get the offset of a character of the text element in the extracted text
+     * @param index the index of the character in the text element
+     * @return the offset in the extracted text
+     */
+    public int offset(int index) {
+        int run = Arrays.binarySearch(_indexes, 0, _size, index);
+        if (run < 0) {
+            run = -run - 2;
+        }
+        return run < 0 ? index : _offsets[run] + index - _indexes[run];
+    }
+
+    /**
+     * get the number of runs of the map
+     * @return the number of insertions
+     */
+    public int size() {
+        return _size;
+    }
+}
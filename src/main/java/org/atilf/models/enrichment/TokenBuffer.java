@@ -0,0 +1,136 @@
+package org.atilf.models.enrichment;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * the TokenBuffer stores the word annotations of a document as columns : the offsets are int arrays, the tags, the
+ * categories and the lemmas are indexes of a dictionary of the buffer. It is the columnar store of the morphology,
+ * shared by the termsuite document and the morphology parser.
+ * @see TermsuiteDocument
+ * @see MorphologyParser
+ */
+public class TokenBuffer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 64;
+    private int _size;
+    private int[] _begins;
+    private int[] _ends;
+    private int[] _tags;
+    private int[] _categories;
+    private int[] _lemmas;
+    private String[] _strings;
+    private int _stringCount;
+    private transient Map<String, Integer> _dictionary = new HashMap<>();
+
+    public TokenBuffer() {
+        this(0, new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY],
+                new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new String[INITIAL_CAPACITY], 0);
+    }
+
+    private TokenBuffer(int size, int[] begins, int[] ends, int[] tags, int[] categories, int[] lemmas,
+                        String[] strings, int stringCount) {
+        _size = size;
+        _begins = begins;
+        _ends = ends;
+        _tags = tags;
+        _categories = categories;
+        _lemmas = lemmas;
+        _strings = strings;
+        _stringCount = stringCount;
+    }
+
+    /**
+     * add a word annotation at the end of the buffer, the words are added in the order of the text
+     * @param begin the beginning offset of the word
+     * @param end the ending offset of the word
+     * @param tag the TreeTagger tag
+     * @param category the normalized category of the tag, or null if it is unknown
+     * @param lemma the lemma
+     */
+    public void add(int begin, int end, String tag, String category, String lemma) {
+        if (_size == _begins.length) {
+            int length = Math.max(INITIAL_CAPACITY, _size * 2);
+            _begins = Arrays.copyOf(_begins, length);
+            _ends = Arrays.copyOf(_ends, length);
+            _tags = Arrays.copyOf(_tags, length);
+            _categories = Arrays.copyOf(_categories, length);
+            _lemmas = Arrays.copyOf(_lemmas, length);
+        }
+        _begins[_size] = begin;
+        _ends[_size] = end;
+        _tags[_size] = index(tag);
+        _categories[_size] = index(category);
+        _lemmas[_size] = index(lemma);
+        _size++;
+    }
+
+    private int index(String string) {
+        if (_dictionary == null) {
+            _dictionary = new HashMap<>();
+            for (int i = 0; i < _stringCount; i++) {
+                _dictionary.put(_strings[i], i);
+            }
+        }
+        Integer index = _dictionary.get(string);
+        if (index == null) {
+            if (_stringCount == _strings.length) {
+                _strings = Arrays.copyOf(_strings, Math.max(INITIAL_CAPACITY, _stringCount * 2));
+            }
+            index = _stringCount;
+            _strings[_stringCount++] = string;
+            _dictionary.put(string, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return return the number of word annotations
+     */
+    public int size() {
+        return _size;
+    }
+
+    public int getBegin(int word) {
+        return _begins[word];
+    }
+
+    public int getEnd(int word) {
+        return _ends[word];
+    }
+
+    public String getTag(int word) {
+        return _strings[_tags[word]];
+    }
+
+    public String getCategory(int word) {
+        return _strings[_categories[word]];
+    }
+
+    public String getLemma(int word) {
+        return _strings[_lemmas[word]];
+    }
+
+    /**
+     * a copy of the buffer with trimmed columns is serialized, the buffer is not modified. The dictionary is rebuilt
+     * if words are added after the deserialization
+     */
+    private Object writeReplace() {
+        if (_size == _begins.length && _stringCount == _strings.length) {
+            return this;
+        }
+        return new TokenBuffer(
+                _size,
+                Arrays.copyOf(_begins, _size),
+                Arrays.copyOf(_ends, _size),
+                Arrays.copyOf(_tags, _size),
+                Arrays.copyOf(_categories, _size),
+                Arrays.copyOf(_lemmas, _size),
+                Arrays.copyOf(_strings, _stringCount),
+                _stringCount
+        );
+    }
+}
@@ -0,0 +1,318 @@
+package org.atilf.models.enrichment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * this class keeps several long-lived TreeTagger processes. Each process reads the tokens of the documents on its
+ * standard input and writes the tagged tokens on its standard output. The documents are delimited by two sgml
+ * sentinels ignored by TreeTagger (the processes are started with the -sgml option).
+ * A process is borrowed by a thread for one document and given back to the pool after. A crashed process is
+ * restarted the next time it is borrowed, as a process which does not write any tagged token of a document during
+ * the timeout of the pool.
+ */
+public class TreeTaggerProcessPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TreeTaggerProcessPool.class.getName());
+    static final String START_SENTINEL = "<termith-document>";
+    static final String END_SENTINEL = "</termith-document>";
+    /*
+    a process is closed when its standard output is closed, this line is pushed to the queue of the process
+     */
+    private static final String END_OF_STREAM = "\u0000";
+    /*
+    TreeTagger reads a few tokens ahead before it writes a tagged token : some sentence ends are sent after the end
+    sentinel of each document to push it on the output. They are sent again each second while the output does not
+    come, e.g. if the output of TreeTagger is buffered. They also reset the context of the tagger before the next
+    document
+     */
+    private static final String FLUSH_TOKEN = ".";
+    static final int FLUSH_SIZE = 4;
+    private static final long POLL_TIMEOUT = 1000L;
+    static final long DEFAULT_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private final String _command;
+    private final long _timeout;
+    private final List<TreeTaggerProcess> _processes = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<TreeTaggerProcess> _idleProcesses = new LinkedBlockingQueue<>();
+    private volatile boolean _closed = false;
+
+    /**
+     * constructor for TreeTaggerProcessPool, the processes are started at their first use
+     * @param poolSize the number of TreeTagger processes
+     * @param treeTaggerParameter the TreeTagger parameter, the sgml option is needed to ignore the sentinels
+     */
+    public TreeTaggerProcessPool(int poolSize, TreeTaggerParameter treeTaggerParameter) {
+        this(poolSize, treeTaggerParameter, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * constructor for TreeTaggerProcessPool, the processes are started at their first use. The output of the
+     * processes is line-buffered when stdbuf is available
+     * @param poolSize the number of TreeTagger processes
+     * @param treeTaggerParameter the TreeTagger parameter, the sgml option is needed to ignore the sentinels
+     * @param timeout the time in milliseconds after which a process which does not write the tagged tokens of a
+     *                document is restarted
+     */
+    public TreeTaggerProcessPool(int poolSize, TreeTaggerParameter treeTaggerParameter, long timeout) {
+        String command = treeTaggerParameter.parse();
+        _command = "if command -v stdbuf > /dev/null 2>&1; then exec stdbuf -oL " + command + "; else exec "
+                + command + "; fi";
+        _timeout = timeout;
+        for (int i = 0; i < poolSize; i++) {
+            TreeTaggerProcess treeTaggerProcess = new TreeTaggerProcess();
+            _processes.add(treeTaggerProcess);
+            _idleProcesses.add(treeTaggerProcess);
+        }
+    }
+
+    /**
+     * borrow a process of the pool, the method waits until a process is available. A process which is not alive
+     * is restarted.
+     * @return a running TreeTagger process
+     * @throws IOException thrown if the process cannot be started
+     * @throws InterruptedException thrown if the thread is interrupted while waiting
+     */
+    public TreeTaggerProcess borrow() throws IOException, InterruptedException {
+        if (_closed) {
+            throw new IllegalStateException("the TreeTagger process pool is closed");
+        }
+        TreeTaggerProcess treeTaggerProcess = _idleProcesses.take();
+        try {
+            treeTaggerProcess.checkHealth();
+        } catch (IOException e) {
+            _idleProcesses.add(treeTaggerProcess);
+            throw e;
+        }
+        return treeTaggerProcess;
+    }
+
+    /**
+     * give back a process to the pool
+     * @param treeTaggerProcess the borrowed process
+     */
+    public void release(TreeTaggerProcess treeTaggerProcess) {
+        _idleProcesses.add(treeTaggerProcess);
+    }
+
+    /**
+     * tag a tokenized text with a process of the pool
+     * @param tokens the tokens of a text, one per line
+     * @return the output of TreeTagger, one tagged token per line
+     * @throws IOException thrown if the process has crashed during the tagging
+     * @throws InterruptedException thrown if the thread is interrupted while waiting
+     */
+    public StringBuilder tag(String tokens) throws IOException, InterruptedException {
+        return tag(stdin -> {
+            if (!tokens.isEmpty()) {
+                stdin.append(tokens).append('\n');
+            }
+        });
+    }
+
+    /**
+     * tag a text with a process of the pool, the tokens are written directly on the standard input of the process
+     * @param tokenWriter writes the tokens of a text, each token is followed by a new line
+     * @return the output of TreeTagger, one tagged token per line
+     * @throws IOException thrown if the process has crashed during the tagging
+     * @throws InterruptedException thrown if the thread is interrupted while waiting
+     */
+    public StringBuilder tag(TokenWriter tokenWriter) throws IOException, InterruptedException {
+        StringBuilder ttOut = new StringBuilder();
+        tag(tokenWriter, line -> ttOut.append(line).append("\n"));
+        return ttOut;
+    }
+
+    /**
+     * tag a text with a process of the pool, the tagged tokens are given to the tokenReader as they are read on the
+     * standard output of the process
+     * @param tokenWriter writes the tokens of a text, each token is followed by a new line
+     * @param tokenReader reads the output of TreeTagger, one tagged token per line
+     * @throws IOException thrown if the process has crashed during the tagging
+     * @throws InterruptedException thrown if the thread is interrupted while waiting
+     */
+    public void tag(TokenWriter tokenWriter, TokenReader tokenReader) throws IOException, InterruptedException {
+        TreeTaggerProcess treeTaggerProcess = borrow();
+        try {
+            treeTaggerProcess.tag(tokenWriter, tokenReader);
+        } finally {
+            release(treeTaggerProcess);
+        }
+    }
+
+    /**
+     * stop all the processes of the pool
+     */
+    @Override
+    public void close() {
+        _closed = true;
+        _processes.forEach(TreeTaggerProcess::destroy);
+    }
+
+    /**
+     * write the tokens of a text on the standard input of a TreeTagger process
+     */
+    @FunctionalInterface
+    public interface TokenWriter {
+        void write(Appendable stdin) throws IOException;
+    }
+
+    /**
+     * read the tagged tokens of a text on the standard output of a TreeTagger process
+     */
+    @FunctionalInterface
+    public interface TokenReader {
+        void read(String line) throws IOException;
+    }
+
+    /**
+     * a TreeTagger process of the pool
+     */
+    public class TreeTaggerProcess {
+        private Process _process;
+        private BufferedWriter _stdin;
+        private BlockingQueue<String> _stdout;
+
+        /**
+         * start the process if it is not running
+         */
+        void checkHealth() throws IOException {
+            if (_process != null && !_process.isAlive()) {
+                LOGGER.warn("TreeTagger process has exited with code {}, it is restarted", _process.exitValue());
+                _process = null;
+            }
+            if (_process == null) {
+                start();
+            }
+        }
+
+        private void start() throws IOException {
+            _process = new ProcessBuilder("bash", "-c", _command).start();
+            _stdin = new BufferedWriter(new OutputStreamWriter(_process.getOutputStream(), StandardCharsets.UTF_8));
+            _stdout = new LinkedBlockingQueue<>();
+            BlockingQueue<String> stdout = _stdout;
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(_process.getInputStream(), StandardCharsets.UTF_8));
+            startDaemon("treetagger-stdout", () -> {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        stdout.add(line);
+                    }
+                } catch (IOException e) {
+                    LOGGER.debug("TreeTagger standard output is closed", e);
+                } finally {
+                    stdout.add(END_OF_STREAM);
+                }
+            });
+            InputStream stderr = _process.getErrorStream();
+            startDaemon("treetagger-stderr", () -> {
+                try (BufferedReader errorReader = new BufferedReader(
+                        new InputStreamReader(stderr, StandardCharsets.UTF_8))) {
+                    errorReader.lines().forEach(line -> LOGGER.debug("TreeTagger : {}", line));
+                } catch (IOException e) {
+                    LOGGER.debug("TreeTagger error output is closed", e);
+                }
+            });
+            LOGGER.debug("TreeTagger process started : {}", _command);
+        }
+
+        private void startDaemon(String name, Runnable runnable) {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * send a text to the process and retrieve the tagged tokens. If the process crashes, it is destroyed and it
+         * will be restarted the next time it is borrowed.
+         * @param tokenWriter writes the tokens of a text, each token is followed by a new line
+         * @param tokenReader reads the output of TreeTagger, one tagged token per line
+         * @throws IOException thrown if the process has crashed during the tagging
+         * @throws InterruptedException thrown if the thread is interrupted while waiting
+         */
+        public void tag(TokenWriter tokenWriter, TokenReader tokenReader) throws IOException, InterruptedException {
+            try {
+                write(tokenWriter);
+                read(tokenReader);
+            } catch (IOException | InterruptedException e) {
+                LOGGER.warn("TreeTagger process is destroyed, it will be restarted");
+                destroy();
+                throw e;
+            }
+        }
+
+        private void write(TokenWriter tokenWriter) throws IOException {
+            _stdin.append(START_SENTINEL).append('\n');
+            tokenWriter.write(_stdin);
+            _stdin.append(END_SENTINEL).append('\n');
+            flush();
+        }
+
+        private void flush() throws IOException {
+            for (int i = 0; i < FLUSH_SIZE; i++) {
+                _stdin.append(FLUSH_TOKEN).append('\n');
+            }
+            _stdin.flush();
+        }
+
+        private void read(TokenReader tokenReader) throws IOException, InterruptedException {
+            /*
+            skip the output of the flush tokens of the previous document
+             */
+            String line = take();
+            while (!START_SENTINEL.equals(line)) {
+                line = take();
+            }
+            line = take();
+            while (!END_SENTINEL.equals(line)) {
+                tokenReader.read(line);
+                line = take();
+            }
+        }
+
+        /**
+         * retrieve the next line of the standard output. While nothing comes, the process is checked and the flush
+         * tokens are sent again each second
+         * @throws IOException thrown if the process has exited or if nothing comes during the timeout of the pool
+         */
+        private String take() throws IOException, InterruptedException {
+            long deadline = System.currentTimeMillis() + _timeout;
+            String line = _stdout.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            while (line == null) {
+                if (!_process.isAlive() && _stdout.isEmpty()) {
+                    throw new IOException("TreeTagger process has exited with code " + _process.exitValue());
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new IOException("TreeTagger process has not written anything for " + _timeout + " ms");
+                }
+                flush();
+                line = _stdout.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+            if (END_OF_STREAM.equals(line)) {
+                throw new IOException("TreeTagger process has closed its output");
+            }
+            return line;
+        }
+
+        void destroy() {
+            if (_process != null) {
+                _process.destroy();
+                _process = null;
+            }
+        }
+    }
+}
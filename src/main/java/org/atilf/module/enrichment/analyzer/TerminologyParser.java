@@ -3,6 +3,7 @@ package org.atilf.module.enrichment.analyzer;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import org.atilf.models.ArtifactHandle;
 import org.atilf.models.TermithIndex;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
 import org.atilf.module.Module;
@@ -19,21 +20,33 @@ import static eu.project.ttc.readers.JsonCasConstants.F_END;
 import static org.atilf.resources.enrichment.JsonTermResources.*;
 
 /**
- * parse termsuite json termsuite terminology
+ * parse termsuite json termsuite terminology. With a working directory, the occurrences of the terms are spilled
+ * into shards of the artifact store while the terminology is parsed : each document has its own shards and the
+ * TerminologyStandOff of a document only reads them.
  * @author Simon Meoni
  *         Created on 14/09/16.
  */
 public class TerminologyParser extends Module {
+    /*
+    the number of occurrences of a document kept in memory before they are written in a shard
+     */
+    static final int SHARD_SIZE = 4096;
+    private int _shardSize = SHARD_SIZE;
     private Path _path;
+    private Path _workingPath;
     private Map<String,List<MultiWordsOffsetId>> _standOffTerminology = new ConcurrentHashMap<>();
-    private Map<String,String> _idSource = new HashMap<>();
-    private String _currentFile = "";
+    private Map<String,List<ArtifactHandle>> _shards = new HashMap<>();
+    /*
+    the document key of each file id of the terminology, the keys are normalized once
+     */
+    private String[] _keys = new String[16];
+    private int _currentFile = -1;
     private final JsonFactory _factory = new JsonFactory();
     boolean _inTerms = false;
     boolean _inSource = false;
     boolean _inOcc = false;
     /**
-     * constructor for TerminologyParser*
+     * constructor for TerminologyParser, the occurrences are kept in memory
      * @param path the path of the terminology
      */
     TerminologyParser(Path path) {
@@ -41,22 +54,58 @@ public class TerminologyParser extends Module {
     }
 
     /**
-     * constructor for TerminologyParser
+     * constructor for TerminologyParser, the occurrences are kept in memory
      * @param termithIndex the termithIndex of a process
      */
     public TerminologyParser(TermithIndex termithIndex) {
+        this(termithIndex, null);
+    }
+
+    /**
+     * constructor for TerminologyParser
+     * @param termithIndex the termithIndex of a process
+     * @param workingPath the working directory of the shards, the occurrences are kept in memory if it is null
+     */
+    public TerminologyParser(TermithIndex termithIndex, Path workingPath) {
         super(termithIndex);
         _path = termithIndex.getJsonTerminology();
+        _workingPath = workingPath;
+    }
+
+    /**
+     * constructor for TerminologyParser
+     * @param path the path of the terminology
+     * @param workingPath the working directory of the shards
+     */
+    TerminologyParser(Path path, Path workingPath) {
+        _path = path;
+        _workingPath = workingPath;
     }
 
     /**
-     * getter for parsed terminology
+     * getter for parsed terminology, it only contains the occurrences which are not written in a shard
      * @return return Map<String, List<MultiWordsOffsetId>>
      */
     Map<String, List<MultiWordsOffsetId>> getStandOffTerminology() {
         return _standOffTerminology;
     }
 
+    /**
+     * getter for the shards of the documents
+     * @return return Map<String, List<ArtifactHandle>>
+     */
+    Map<String, List<ArtifactHandle>> getShards() {
+        return _shards;
+    }
+
+    /**
+     * set the number of occurrences of a document kept in memory before they are written in a shard
+     * @param shardSize the size of the shards
+     */
+    void setShardSize(int shardSize) {
+        _shardSize = shardSize;
+    }
+
     /**
      * parse the terminology with streaming json parser (jackson xml).
      * This method catch elements in word_annotation .
@@ -67,12 +116,11 @@ public class TerminologyParser extends Module {
      */
     @Override
     public void execute() {
-        try {
+        try (JsonParser parser = _factory.createParser(new File(_path.toString()))) {
 
             /*
             initialize local variable
              */
-            JsonParser parser = _factory.createParser(new File(_path.toString()));
             JsonToken jsonToken;
             /*
             test variables
@@ -100,6 +148,14 @@ public class TerminologyParser extends Module {
                     _inTerms = true;
                 }
             }
+            /*
+            the last occurrences of each document are written in a shard
+             */
+            if (_workingPath != null) {
+                for (String key : new ArrayList<>(_standOffTerminology.keySet())) {
+                    spill(key);
+                }
+            }
         }
         catch (Exception e){
             _logger.error("cannot parse file : ",e);
@@ -125,28 +181,38 @@ public class TerminologyParser extends Module {
     }
 
     /**
-     * add a MultiWordsOffsetId object to _standoffTerminology
+     * add a MultiWordsOffsetId object to _standoffTerminology, the occurrences of the document are written in a
+     * shard when there are _shardSize occurrences
      * @param offsetId the MultiWordsOffsetId that we want to add
+     * @throws IOException thrown an exception if the shard cannot be written
      */
-    private void fillTerminology(MultiWordsOffsetId offsetId) {
+    private void fillTerminology(MultiWordsOffsetId offsetId) throws IOException {
         /*
         the file concern by this adding
          */
-        String realId =
-                FilesUtils.nameNormalizer(_idSource.get(_currentFile));
-        /*
-          create an new entry if the file identifier does not exist in _standoffTerminology
-         */
-        if (_standOffTerminology.containsKey(realId)){
-            _standOffTerminology.get(realId).add(new MultiWordsOffsetId(offsetId));
+        String realId = _currentFile >= 0 && _currentFile < _keys.length ? _keys[_currentFile] : null;
+        if (realId == null) {
+            _logger.warn("the file {} of the term {} is not an input source", _currentFile, offsetId.getTermId());
+            return;
         }
-
-        else {
-            _standOffTerminology.put(realId,new ArrayList<>(
-                    Collections.singletonList(new MultiWordsOffsetId(offsetId))));
+        List<MultiWordsOffsetId> occurrences = _standOffTerminology.computeIfAbsent(realId, key -> new ArrayList<>());
+        occurrences.add(new MultiWordsOffsetId(offsetId));
+        if (_workingPath != null && occurrences.size() >= _shardSize) {
+            spill(realId);
         }
     }
 
+    /**
+     * write the occurrences of a document kept in memory in a new shard
+     * @param key the document
+     * @throws IOException thrown an exception if the shard cannot be written
+     */
+    private void spill(String key) throws IOException {
+        List<MultiWordsOffsetId> occurrences = _standOffTerminology.remove(key);
+        _shards.computeIfAbsent(key, k -> new ArrayList<>()).add(
+                FilesUtils.writeObject(occurrences, _workingPath, "terminologyShard", key));
+    }
+
     /**
      * parse terms occurrences
      * @param jsonToken the current jsonToken
@@ -172,7 +238,7 @@ public class TerminologyParser extends Module {
                     offsetId.setEnd(parser.nextIntValue(0));
                     break;
                 case T_FILE :
-                    _currentFile = String.valueOf(parser.nextIntValue(0));
+                    _currentFile = parser.nextIntValue(-1);
                     break;
                 default:
                     break;
@@ -182,7 +248,7 @@ public class TerminologyParser extends Module {
     }
 
     /**
-     * retrieve input source element and put it on _idSource. On the json, each file is associated to a identifier and
+     * retrieve input source element and put it on _keys. On the json, each file is associated to a identifier and
      * this information is contained by the input_source element
      * @param jsonToken the current jsonToken
      * @param parser the current parser
@@ -190,8 +256,11 @@ public class TerminologyParser extends Module {
      */
     private void extractInputSource(JsonToken jsonToken, JsonParser parser) throws IOException {
         if (jsonToken.equals(JsonToken.FIELD_NAME)) {
-            _idSource.put(parser.getCurrentName(),
-                    FilesUtils.nameNormalizer(parser.nextTextValue()));
+            int id = Integer.parseInt(parser.getCurrentName());
+            if (id >= _keys.length) {
+                _keys = Arrays.copyOf(_keys, Math.max(id + 1, _keys.length * 2));
+            }
+            _keys[id] = FilesUtils.nameNormalizer(parser.nextTextValue());
         }
     }
 
@@ -201,7 +270,12 @@ public class TerminologyParser extends Module {
     @Override
     public void run() {
         super.run();
-        _termithIndex.setTerminologyStandOff(getStandOffTerminology());
+        if (_workingPath != null) {
+            _termithIndex.getTerminologyShards().putAll(_shards);
+        }
+        else {
+            _termithIndex.setTerminologyStandOff(getStandOffTerminology());
+        }
         _logger.info("execute terminology ended");
     }
 
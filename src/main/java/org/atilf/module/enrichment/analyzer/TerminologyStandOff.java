@@ -1,16 +1,17 @@
 package org.atilf.module.enrichment.analyzer;
 
+import org.atilf.models.ArtifactHandle;
 import org.atilf.models.TermithIndex;
 import org.atilf.models.enrichment.MorphologyOffsetId;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
 import org.atilf.module.Module;
 import org.atilf.module.tools.FilesUtils;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.NavigableMap;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
 
 /**
  * this class retrieve xml:id from w elements of morphology and links to the terms occurrences.
@@ -19,16 +20,44 @@ import java.util.stream.Collectors;
  *         Created on 14/09/16.
  */
 public class TerminologyStandOff extends Module {
-    private final List<MorphologyOffsetId> _morpho;
-    private final List<MultiWordsOffsetId> _terminology;
-    private NavigableMap<Integer,List<Integer>> _beginMap = new TreeMap<>();
-    private NavigableMap<Integer,List<Integer>> _endMap = new TreeMap<>();
+    private List<MorphologyOffsetId> _morpho;
+    private List<MultiWordsOffsetId> _terminology;
+    private int[] _begins;
+    private int[] _beginBounds;
+    private int[] _beginIds;
+    private int[] _endFrom;
+    private int[] _endTo;
+    private long[] _idEnds;
     private String _id;
+    private Path _workingPath;
 
     public TerminologyStandOff(String id, TermithIndex termithIndex) {
+        this(id, termithIndex, (List<MorphologyOffsetId>) null);
+    }
+
+    /**
+     * constructor for TerminologyStandOff, the occurrences read from the shards of the file are written in the
+     * artifact store once they are linked to the morphology
+     * @param id the concerned file
+     * @param termithIndex the termithIndex of a process
+     * @param workingPath the working directory of the artifacts
+     */
+    public TerminologyStandOff(String id, TermithIndex termithIndex, Path workingPath) {
+        this(id, termithIndex);
+        _workingPath = workingPath;
+    }
+
+    /**
+     * constructor for TerminologyStandOff with a morphology already read by the caller, the occurrences are only
+     * kept by the getTerminology method
+     * @param id the concerned file
+     * @param termithIndex the termithIndex of a process
+     * @param morpho the morphology of the file, it is read by the execute method if it is null
+     */
+    public TerminologyStandOff(String id, TermithIndex termithIndex, List<MorphologyOffsetId> morpho) {
         super(termithIndex);
         _id = id;
-        _morpho = FilesUtils.readListObject(_termithIndex.getMorphologyStandOff().get(_id));
+        _morpho = morpho;
         _terminology = termithIndex.getTerminologyStandOff().get(_id);
     }
 
@@ -52,55 +81,196 @@ public class TerminologyStandOff extends Module {
     }
 
     /**
-     * the execute method calls fillNavigableMaps and retrieves for each term occurrences, words associated with them
+     * the execute method indexes the offsets of the words and retrieves for each term occurrences, words associated
+     * with them. The occurrences are visited in the order of their beginning offsets, so the words are swept once.
      */
     @Override
     public void execute() {
         _logger.debug("retrieve morphosyntax id for file : {}",_id);
-        fillNavigableMaps();
-        _terminology.forEach(
-                el -> el.setIds(retrieveMorphologyIds(el.getBegin(),el.getEnd()))
-        );
+        if (_morpho == null) {
+            _morpho = FilesUtils.readListObject(_termithIndex.getMorphologyStandOff().get(_id));
+        }
+        List<ArtifactHandle> shards = null;
+        if (_terminology == null) {
+            shards = _termithIndex.getTerminologyShards().get(_id);
+            _terminology = readShards(shards);
+        }
+        indexMorphology();
+        long[] occurrences = new long[_terminology.size()];
+        for (int i = 0; i < occurrences.length; i++) {
+            occurrences[i] = sortKey(_terminology.get(i).getBegin(), i);
+        }
+        Arrays.sort(occurrences);
+        int cursor = 0;
+        for (long occurrence : occurrences) {
+            MultiWordsOffsetId term = _terminology.get((int) occurrence);
+            while (cursor < _begins.length && _begins[cursor] < term.getBegin()) {
+                cursor++;
+            }
+            term.setIds(retrieveMorphologyIds(cursor, term.getBegin(), term.getEnd()));
+        }
+        if (_workingPath != null && shards != null) {
+            writeTerminology();
+        }
         _logger.debug("retrieve id task finished");
     }
 
     /**
-     * make intersection between the _beginMap and the _endMap
+     * read the shards of the terminology occurrences of the file written by the TerminologyParser
+     * @param shards the shards of the file, the file has no occurrence if it is null
+     * @return the terminology occurrences of the file
+     */
+    private List<MultiWordsOffsetId> readShards(List<ArtifactHandle> shards) {
+        List<MultiWordsOffsetId> terminology = new ArrayList<>();
+        if (shards != null) {
+            for (ArtifactHandle shard : shards) {
+                terminology.addAll(FilesUtils.readListObject(shard));
+            }
+        }
+        return terminology;
+    }
+
+    /**
+     * write the occurrences linked to the morphology for the TeiWriter. The shards are kept until the file is
+     * written : a resumed process links them again. The occurrences are kept in memory if they cannot be written
+     */
+    private void writeTerminology() {
+        try {
+            _termithIndex.getResolvedTerminology().put(_id,
+                    FilesUtils.writeObject(_terminology, _workingPath, "resolvedTerminology", _id));
+        } catch (IOException e) {
+            _logger.error("cannot write the terminology of the file : {}", _id, e);
+            _termithIndex.getTerminologyStandOff().put(_id, _terminology);
+        }
+    }
+
+    /**
+     * retrieve the words which begin and end inside a term occurrence. A word begins in [begin, end[ and ends in
+     * ]begin, end], as with the intersection of the ranges of two sorted maps of the offsets.
+     * @param cursor the index of the first beginning offset greater than or equal to the beginning of the term
      * @param begin the character offset of the beginning of the term
      * @param end the character offset of the end of the term
      * @return the xml:id of the w elements belongs to the term occurrences
      */
-    private List<Integer> retrieveMorphologyIds(int begin, int end) {
+    private List<Integer> retrieveMorphologyIds(int cursor, int begin, int end) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = cursor; i < _begins.length && _begins[i] < end; i++) {
+            for (int j = _beginBounds[i]; j < _beginBounds[i + 1]; j++) {
+                if (endsIn(j, begin, end)) {
+                    ids.add(_beginIds[j]);
+                }
+            }
+        }
+        return ids;
+    }
 
-        List<Integer> beginSubMap = castToIntList(_beginMap.subMap(begin, end));
-        List<Integer> endSubMap = castToIntList(_endMap.subMap(begin, false, end, true));
+    /**
+     * check if an id of a beginning offset is an id of an ending offset in ]begin, end]
+     */
+    private boolean endsIn(int beginId, int begin, int end) {
+        for (int k = _endFrom[beginId]; k < _endTo[beginId]; k++) {
+            int idEnd = (int) _idEnds[k];
+            if (idEnd > begin && idEnd <= end) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        beginSubMap.retainAll(endSubMap);
-        return beginSubMap;
+    /**
+     * index the offsets of the words in sorted primitive arrays. When several words have the same beginning (or
+     * ending) offset, the ids of the last word are kept.
+     * - _begins contains the distinct beginning offsets, the ids of _begins[i] are
+     * _beginIds[_beginBounds[i] .. _beginBounds[i + 1][
+     * - _idEnds contains the pairs (id, ending offset) sorted by id, the ending offsets of _beginIds[j] are
+     * _idEnds[_endFrom[j] .. _endTo[j][
+     */
+    private void indexMorphology() {
+        int[] beginTokens = lastTokens(true);
+        _begins = new int[beginTokens.length];
+        _beginBounds = new int[beginTokens.length + 1];
+        int size = 0;
+        for (int token : beginTokens) {
+            size += _morpho.get(token).getIds().size();
+        }
+        _beginIds = new int[size];
+        size = 0;
+        for (int i = 0; i < beginTokens.length; i++) {
+            MorphologyOffsetId word = _morpho.get(beginTokens[i]);
+            _begins[i] = word.getBegin();
+            _beginBounds[i] = size;
+            for (int id : word.getIds()) {
+                _beginIds[size++] = id;
+            }
+        }
+        _beginBounds[beginTokens.length] = size;
+
+        int[] endTokens = lastTokens(false);
+        size = 0;
+        for (int token : endTokens) {
+            size += _morpho.get(token).getIds().size();
+        }
+        _idEnds = new long[size];
+        size = 0;
+        for (int token : endTokens) {
+            MorphologyOffsetId word = _morpho.get(token);
+            for (int id : word.getIds()) {
+                _idEnds[size++] = sortKey(id, word.getEnd());
+            }
+        }
+        Arrays.sort(_idEnds);
+        _endFrom = new int[_beginIds.length];
+        _endTo = new int[_beginIds.length];
+        for (int j = 0; j < _beginIds.length; j++) {
+            _endFrom[j] = lowerBound(_idEnds, sortKey(_beginIds[j], 0));
+            _endTo[j] = lowerBound(_idEnds, sortKey(_beginIds[j] + 1L, 0));
+        }
     }
 
     /**
-     * cast TreeMap to List<Integer>
-     * @param integerListSortedMap the treeMap to cast
-     * @return the int list of id
+     * sort the words by their beginning or ending offsets
+     * @param begin true to sort the words by their beginning offsets
+     * @return the indexes of the last word of each distinct offset in the order of the offsets
      */
-    private List<Integer> castToIntList(SortedMap<Integer, List<Integer>> integerListSortedMap) {
-        return integerListSortedMap.values()
-                .stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+    private int[] lastTokens(boolean begin) {
+        long[] keys = new long[_morpho.size()];
+        for (int i = 0; i < keys.length; i++) {
+            MorphologyOffsetId word = _morpho.get(i);
+            keys[i] = sortKey(begin ? word.getBegin() : word.getEnd(), i);
+        }
+        Arrays.sort(keys);
+        int[] tokens = new int[keys.length];
+        int size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i + 1 == keys.length || (keys[i] >> 32) != (keys[i + 1] >> 32)) {
+                tokens[size++] = (int) keys[i];
+            }
+        }
+        return Arrays.copyOf(tokens, size);
     }
 
     /**
-     * - fill _beginMap with the beginning character offset of words and the associated id
-     * - fill _endMap with the ending character offset of words and the associated id
+     * pack a signed key and a positive value in a long sorted by key and then by value
      */
-    private void fillNavigableMaps() {
-        _morpho.forEach(
-                el -> {
-                    _beginMap.put(el.getBegin(),el.getIds());
-                    _endMap.put(el.getEnd(),el.getIds());
-                }
-        );
+    private static long sortKey(long key, int value) {
+        return (key << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return the index of the first element greater than or equal to the key
+     */
+    private static int lowerBound(long[] array, long key) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] < key) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
     }
 }
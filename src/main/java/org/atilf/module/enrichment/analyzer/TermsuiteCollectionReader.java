@@ -0,0 +1,112 @@
+package org.atilf.module.enrichment.analyzer;
+
+import eu.project.ttc.types.SourceDocumentInformation;
+import eu.project.ttc.types.WordAnnotation;
+import org.apache.uima.UimaContext;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.Progress;
+import org.apache.uima.util.ProgressImpl;
+import org.atilf.models.ArtifactHandle;
+import org.atilf.models.enrichment.TermsuiteDocument;
+import org.atilf.models.enrichment.TextAnalyzer;
+import org.atilf.module.tools.FilesUtils;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the TermsuiteCollectionReader gives the morphologies written by the TreeTaggerWorker tasks to the termsuite pipeline
+ * instead of the termsuite json files. A document is read from the artifact store when the pipeline asks for it and its
+ * cas is filled as the json collection reader of termsuite does.
+ * @see org.atilf.module.enrichment.analyzer.TreeTaggerWorker
+ * @see TermsuitePipelineBuilder
+ */
+public class TermsuiteCollectionReader extends JCasCollectionReader_ImplBase {
+
+    public static final String PARAM_DOCUMENTS = "documents";
+    public static final String PARAM_LANG = "lang";
+    private static final Map<String, Queue<ArtifactHandle>> DOCUMENTS = new ConcurrentHashMap<>();
+
+    @ConfigurationParameter(name = PARAM_DOCUMENTS)
+    private String _documentsId;
+
+    @ConfigurationParameter(name = PARAM_LANG)
+    private String _lang;
+
+    private Queue<ArtifactHandle> _documents;
+    private int _total;
+    private int _completed;
+
+    /**
+     * register the documents of a pipeline, the uima parameters cannot hold them
+     * @param documents the handles of the TermsuiteDocument of the corpus
+     * @return the value of the PARAM_DOCUMENTS parameter
+     */
+    public static String register(Collection<ArtifactHandle> documents) {
+        String id = UUID.randomUUID().toString();
+        DOCUMENTS.put(id, new ArrayDeque<>(documents));
+        return id;
+    }
+
+    @Override
+    public void initialize(UimaContext context) throws ResourceInitializationException {
+        super.initialize(context);
+        _documents = DOCUMENTS.remove(_documentsId);
+        if (_documents == null) {
+            throw new ResourceInitializationException(
+                    new IllegalStateException("no documents are registered for " + _documentsId));
+        }
+        _total = _documents.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !_documents.isEmpty();
+    }
+
+    @Override
+    public void getNext(JCas jCas) throws CollectionException {
+        ArtifactHandle handle = _documents.poll();
+        TermsuiteDocument document = FilesUtils.readObject(handle, TermsuiteDocument.class);
+        if (document == null) {
+            throw new CollectionException(new IllegalStateException("cannot read the morphology " + handle));
+        }
+        jCas.setDocumentLanguage(_lang);
+        jCas.setDocumentText(document.getText());
+
+        TextAnalyzer textAnalyzer = document.getTextAnalyzer();
+        SourceDocumentInformation sdi = new SourceDocumentInformation(jCas, textAnalyzer.getBegin(),
+                textAnalyzer.getEnd());
+        sdi.setUri(document.getUri());
+        sdi.setOffsetInSource(0);
+        sdi.setDocumentIndex(textAnalyzer.getDocIndex());
+        sdi.setNbDocuments(textAnalyzer.getNbOfDocs());
+        sdi.setDocumentSize(textAnalyzer.getDocumentSize());
+        sdi.setCumulatedDocumentSize(textAnalyzer.getCumulatedSize());
+        sdi.setCorpusSize(textAnalyzer.getTotalSize());
+        sdi.setLastSegment(textAnalyzer.getIsLastDoc());
+        sdi.addToIndexes();
+
+        for (int i = 0; i < document.size(); i++) {
+            WordAnnotation wordAnnotation = new WordAnnotation(jCas, document.getBegin(i), document.getEnd(i));
+            wordAnnotation.setTag(document.getTag(i));
+            wordAnnotation.setCategory(document.getCategory(i));
+            wordAnnotation.setLemma(document.getLemma(i));
+            wordAnnotation.addToIndexes();
+        }
+        _completed++;
+    }
+
+    @Override
+    public Progress[] getProgress() {
+        return new Progress[]{new ProgressImpl(_completed, _total, Progress.ENTITIES)};
+    }
+}
@@ -3,21 +3,26 @@ package org.atilf.module.enrichment.analyzer;
 import ch.qos.logback.classic.Level;
 import com.google.common.io.ByteStreams;
 import eu.project.ttc.engines.cleaner.TermProperty;
-import eu.project.ttc.engines.desc.TermSuiteCollection;
 import eu.project.ttc.tools.TermSuitePipeline;
 import eu.project.ttc.tools.cli.TermSuiteCLIUtils;
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.fit.pipeline.SimplePipeline;
 import org.atilf.models.TermithIndex;
 import org.atilf.module.Module;
+import org.atilf.module.tools.FilesUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.TreeMap;
 
 import static org.atilf.runner.TermithResourceManager.TermithResource;
 
 /**
- * build a termsuite pipeline and run it.
+ * build a termsuite pipeline and run it. The morphologies of the documents are read by a TermsuiteCollectionReader
+ * instead of the json collection of termsuite.
  * @author Simon Meoni
  *         Created on 08/09/16.
  */
@@ -25,7 +30,6 @@ public class TermsuitePipelineBuilder extends Module {
 
     private final String _outputPath;
     private final String _lang;
-    private String _jsonCorpus;
     private TermSuitePipeline _termsuitePipeline;
 
     /**
@@ -36,7 +40,6 @@ public class TermsuitePipelineBuilder extends Module {
         super(termithIndex);
         _outputPath = outputPath;
         _lang = lang;
-        _jsonCorpus = _outputPath + "/json";
         /*
         create path for terminologies in termithIndex
          */
@@ -51,14 +54,6 @@ public class TermsuitePipelineBuilder extends Module {
                  */
                 .setResourceJar(exportResource())
                 /*
-                set morphology json files folder
-                 */
-                .setCollection(
-                        TermSuiteCollection.JSON,
-                        _jsonCorpus,
-                        "UTF-8"
-                )
-                /*
                 find term candidate
                  */
                 .aeUrlFilter()
@@ -95,12 +90,32 @@ public class TermsuitePipelineBuilder extends Module {
     }
 
     /**
-     * run the termsuite pipeline
+     * run the termsuite pipeline on the morphologies of the documents, the morphologies are released when the
+     * terminology is exported
      */
     @Override
     public void execute(){
         _logger.info("Run Termsuite Pipeline");
-        _termsuitePipeline.run();
+        try {
+            /*
+            the documents are given in the order of their name as the json collection reader does
+             */
+            String documents = TermsuiteCollectionReader.register(
+                    new TreeMap<>(_termithIndex.getTermsuiteDocument()).values());
+            SimplePipeline.runPipeline(
+                    CollectionReaderFactory.createReaderDescription(
+                            TermsuiteCollectionReader.class,
+                            TermsuiteCollectionReader.PARAM_DOCUMENTS, documents,
+                            TermsuiteCollectionReader.PARAM_LANG, _lang
+                    ),
+                    _termsuitePipeline.createDescription()
+            );
+        } catch (UIMAException | IOException e) {
+            _logger.error("error during the execution of the termsuite pipeline : ", e);
+            return;
+        }
+        _termithIndex.getTermsuiteDocument().values().forEach(FilesUtils::deleteObject);
+        _termithIndex.getTermsuiteDocument().clear();
         _logger.info("Finished execution of Termsuite Pipeline, result in : {}",_outputPath);
     }
 
@@ -0,0 +1,89 @@
+package org.atilf.module.enrichment.analyzer;
+
+import org.atilf.models.TermithIndex;
+import org.atilf.models.enrichment.TaggingCache;
+import org.atilf.models.enrichment.TreeTaggerParameter;
+import org.atilf.models.enrichment.TreeTaggerProcessPool;
+import org.atilf.module.Module;
+import org.atilf.module.enrichment.analyzer.treeTaggerWorker.TreeTaggerWrapper;
+import org.atilf.module.tools.ArtifactCodec;
+import org.atilf.module.tools.FilesUtils;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * the TextTagger runs TreeTagger on an extracted text and keeps its output in the termithIndex. The output is used
+ * later by the TreeTaggerWorker which cannot write the json morphology file before that all texts are extracted. The
+ * output is written in the artifact line by line when it is read, it is never kept as a string.
+ */
+public class TextTagger extends Module {
+
+    private final String _id;
+    private final String _outputPath;
+    private final TreeTaggerParameter _treeTaggerParameter;
+    private final TreeTaggerProcessPool _treeTaggerProcessPool;
+    private TaggingCache _taggingCache;
+
+    /**
+     * @param id the name of the file in the map who contains the extracted text of the xml file
+     * @param termithIndex the termithIndex of a process
+     * @param outputPath the working directory of the termith process
+     * @param treeTaggerParameter the TreeTagger parameter
+     * @param treeTaggerProcessPool the pool of TreeTagger processes borrowed to tag the text
+     */
+    public TextTagger(String id, TermithIndex termithIndex, String outputPath,
+                      TreeTaggerParameter treeTaggerParameter, TreeTaggerProcessPool treeTaggerProcessPool) {
+        super(termithIndex);
+        _id = id;
+        _outputPath = outputPath;
+        _treeTaggerParameter = treeTaggerParameter;
+        _treeTaggerProcessPool = treeTaggerProcessPool;
+    }
+
+    /**
+     * @param id the name of the file in the map who contains the extracted text of the xml file
+     * @param termithIndex the termithIndex of a process
+     * @param outputPath the working directory of the termith process
+     * @param treeTaggerParameter the TreeTagger parameter
+     * @param treeTaggerProcessPool the pool of TreeTagger processes borrowed to tag the text
+     * @param taggingCache the cache of the documents tagged by the previous runs, the text is not tagged if the
+     *                     document is in the cache
+     */
+    public TextTagger(String id, TermithIndex termithIndex, String outputPath,
+                      TreeTaggerParameter treeTaggerParameter, TreeTaggerProcessPool treeTaggerProcessPool,
+                      TaggingCache taggingCache) {
+        this(id, termithIndex, outputPath, treeTaggerParameter, treeTaggerProcessPool);
+        _taggingCache = taggingCache;
+    }
+
+    @Override
+    public void execute() {
+        String taggingKey = _termithIndex.getTaggingKey().get(_id);
+        if (_taggingCache != null && taggingKey != null && _taggingCache.contains(taggingKey)) {
+            _logger.debug("{} is in the tagging cache", _id);
+            return;
+        }
+        StringBuilder txt = FilesUtils.readObject(_termithIndex.getExtractedText().get(_id), StringBuilder.class);
+        ArtifactCodec.LineWriter treeTaggerOutput = new ArtifactCodec.LineWriter();
+        TreeTaggerWrapper treeTaggerWrapper = new TreeTaggerWrapper(
+                txt,
+                _treeTaggerParameter,
+                _outputPath,
+                _treeTaggerProcessPool,
+                treeTaggerOutput::write
+        );
+        try {
+            _logger.debug("TreeTagger task started for : {}", _id);
+            treeTaggerWrapper.execute();
+            _termithIndex.getTreeTaggerOutput().put(_id, FilesUtils.writeLines(
+                    treeTaggerOutput, Paths.get(_outputPath), "treeTaggerOutput", _id));
+            _logger.debug("TreeTagger task finished for : {}", _id);
+        } catch (IOException e) {
+            _logger.error("error during execute TreeTagger data", e);
+        } catch (InterruptedException e) {
+            _logger.error("error during Tree Tagger Process : ", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,24 +1,32 @@
 package org.atilf.module.enrichment.analyzer;
 
+import org.atilf.models.ArtifactHandle;
 import org.atilf.models.TermithIndex;
 import org.atilf.models.enrichment.CorpusAnalyzer;
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.atilf.models.enrichment.MorphologyParser;
+import org.atilf.models.enrichment.TaggingCache;
 import org.atilf.models.enrichment.TagNormalizer;
+import org.atilf.models.enrichment.TermsuiteDocument;
 import org.atilf.models.enrichment.TextAnalyzer;
+import org.atilf.models.enrichment.TextOffsetMap;
 import org.atilf.models.enrichment.TreeTaggerParameter;
+import org.atilf.models.enrichment.TreeTaggerProcessPool;
 import org.atilf.module.Module;
 import org.atilf.module.enrichment.analyzer.treeTaggerWorker.MorphologySerializer;
 import org.atilf.module.enrichment.analyzer.treeTaggerWorker.MorphologyTokenizer;
 import org.atilf.module.enrichment.analyzer.treeTaggerWorker.TreeTaggerWrapper;
 import org.atilf.module.tools.FilesUtils;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * TreeTagger Wrapper calls two modules : TreeTaggerToJson and  MorphologyTokenizerWrapper. The first module run the
- * morphology analysis and write termsuite morphology file and the second tokenize the xml file.
+ * morphology analysis and write the morphology handed to the termsuite pipeline (and the termsuite morphology file if
+ * it is required) and the second tokenize the xml file.
  * @author Simon Meoni
  *         Created on 16/09/16.
  */
@@ -28,37 +36,45 @@ public class TreeTaggerWorker extends Module {
     private StringBuilder _txt;
     private String _jsonPath;
     private StringBuilder _xml;
+    private TextOffsetMap _offsetMap;
     private TextAnalyzer _textAnalyzer;
-    private String _outputPath;
-    private TagNormalizer _tagNormalizer;
+    private final String _outputPath;
+    private final TagNormalizer _tagNormalizer;
     private final TreeTaggerParameter _treeTaggerParameter;
+    private final TreeTaggerProcessPool _treeTaggerProcessPool;
+    private final TaggingCache _taggingCache;
+    private final boolean _morphologyJson;
     private final static String JSON = ".json";
     /**
-     *  @param termithIndex the termithIndex of the associated Thread
+     * @param termithIndex the termithIndex of the associated Thread
      * @param corpusAnalyzer this object contains the metadata used for write json file
      * @param id the name of the file in the map who contains the extracted text of the xml file
+     * @param outputPath the working directory of the termith process, the json morphology files and the artifacts
+     *                   of the document are written in it
+     * @param tagNormalizer the normalizer of the TreeTagger tags into the termsuite tags
+     * @param treeTaggerParameter the TreeTagger parameter used to tag the text
+     * @param treeTaggerProcessPool the pool of TreeTagger processes borrowed to tag the text, or null to run a
+     *                              TreeTagger process for the text
+     * @param taggingCache the cache of the documents tagged by the previous runs or null, the document is not tagged
+     *                     again if it is in the cache
+     * @param morphologyJson true to write the termsuite morphology file in the json folder
      */
     public TreeTaggerWorker(TermithIndex termithIndex, CorpusAnalyzer corpusAnalyzer, String id, String outputPath,
                             TagNormalizer tagNormalizer,
-                            TreeTaggerParameter treeTaggerParameter) {
+                            TreeTaggerParameter treeTaggerParameter,
+                            TreeTaggerProcessPool treeTaggerProcessPool,
+                            TaggingCache taggingCache,
+                            boolean morphologyJson) {
         super(termithIndex);
         _outputPath = outputPath;
         _tagNormalizer = tagNormalizer;
         _treeTaggerParameter = treeTaggerParameter;
-        _txt = FilesUtils.readObject(termithIndex.getExtractedText().get(id),StringBuilder.class);
+        _treeTaggerProcessPool = treeTaggerProcessPool;
+        _taggingCache = taggingCache;
+        _morphologyJson = morphologyJson;
         _jsonPath = outputPath + "/json/" + id + JSON;
         _textAnalyzer = corpusAnalyzer.getAnalyzedTexts().get(id);
-        _xml = FilesUtils.readFile(termithIndex.getXmlCorpus().get(id));
         _id = id;
-
-        try {
-            /*
-            delete file after reading the extracted text
-             */
-            Files.delete(termithIndex.getExtractedText().get(id));
-        } catch (IOException e) {
-            _logger.error("could not delete file",e);
-        }
     }
 
     /**
@@ -67,53 +83,93 @@ public class TreeTaggerWorker extends Module {
     @Override
     public void execute() {
         /*
-        call init method : create json folder in the working directory.
+        call init method : create json folder in the working directory if the morphology file is written.
          */
-        init();
-        /*
-        instantiate TreeTaggerToJson object
-         */
-        TreeTaggerWrapper treeTaggerWrapper = new TreeTaggerWrapper(
-                _txt,
-                _treeTaggerParameter,
-                _outputPath
-        );
-
+        if (_morphologyJson) {
+            init();
+        }
         try {
             /*
-            TreeTagger task and Json serialization
+            TreeTagger task and morphology serialization
              */
             _logger.debug("TreeTagger task started for : {}",_id);
-            treeTaggerWrapper.execute();
+            String cacheKey = _taggingCache != null ? taggingKey() : null;
+            TaggingCache.Entry cached = cacheKey != null ? _taggingCache.get(cacheKey) : null;
+            /*
+            only the text is read for a document found in the cache, it is used by the morphology serializer
+             */
+            if (cached != null) {
+                loadText();
+            }
+            else {
+                load();
+            }
+            StringBuilder ttOut = cached != null ? cached.getTreeTaggerOutput() : null;
 
             MorphologySerializer morphologySerializer = new MorphologySerializer(
-                    treeTaggerWrapper.getTtOut(),
                     _jsonPath,
                     _txt,
                     _textAnalyzer,
-                    _tagNormalizer
+                    _tagNormalizer,
+                    _morphologyJson
             );
+            if (ttOut != null) {
+                morphologySerializer.readAll(ttOut);
+            }
+            else {
+                /*
+                the output is only retained to be written in the cache
+                 */
+                StringBuilder output = cacheKey != null ? new StringBuilder() : null;
+                TreeTaggerProcessPool.TokenReader tokenReader = output == null ? morphologySerializer : line -> {
+                    output.append(line).append("\n");
+                    morphologySerializer.read(line);
+                };
+                if (!readStoredOutput(tokenReader)) {
+                    tag(tokenReader);
+                }
+                ttOut = output;
+            }
             morphologySerializer.execute();
-            _termithIndex.getSerializeJson().add(Paths.get(_jsonPath));
+            TermsuiteDocument document = morphologySerializer.getDocument();
+            if (_morphologyJson) {
+                _termithIndex.getSerializeJson().add(Paths.get(_jsonPath));
+            }
             _logger.debug("TreeTagger task finished for : {}",_id);
 
             /*
             tokenize xml file
              */
-            _logger.debug("tokenization and morphosyntax tasks started for : {}",_jsonPath);
-            File json = new File(_jsonPath);
-            MorphologyTokenizer morphologyTokenizer = new MorphologyTokenizer(_txt, _xml, json);
-            morphologyTokenizer.execute();
+            _logger.debug("tokenization and morphosyntax tasks started for : {}",_id);
+            StringBuilder tokenizeBody;
+            List<MorphologyOffsetId> morphologyOffsetIds;
+            if (cached != null) {
+                tokenizeBody = cached.getTokenizeTeiBody();
+                morphologyOffsetIds = cached.getMorphologyOffsetIds();
+            }
+            else {
+                MorphologyTokenizer morphologyTokenizer = new MorphologyTokenizer(_txt, _xml,
+                        new MorphologyParser(document), _offsetMap);
+                morphologyTokenizer.execute();
+                tokenizeBody = morphologyTokenizer.getTokenizeBuffer();
+                morphologyOffsetIds = morphologyTokenizer.getOffsetId();
+                if (cacheKey != null) {
+                    _taggingCache.put(cacheKey, ttOut, tokenizeBody, morphologyOffsetIds);
+                }
+            }
 
             /*
-            retained tokenize body and json file in the termithIndex
+            retained tokenize body and the morphology in the termithIndex
              */
-            _termithIndex.getTokenizeTeiBody().put(json.getName().replace(JSON,""),
-                    FilesUtils.writeObject(morphologyTokenizer.getTokenizeBuffer(), Paths.get(_outputPath)));
+            String key = _id;
+            _termithIndex.getTermsuiteDocument().put(key, FilesUtils.writeObject(
+                    document, Paths.get(_outputPath), "termsuiteDocument", key));
+            _termithIndex.getTokenizeTeiBody().put(key, FilesUtils.writeObject(
+                    tokenizeBody, Paths.get(_outputPath), "tokenizeTeiBody", key));
 
-            _termithIndex.getMorphologyStandOff().put(json.getName().replace(JSON,""),
-                    FilesUtils.writeObject(morphologyTokenizer.getOffsetId(), Paths.get(_outputPath)));
-            _logger.debug("tokenization and morphosyntax tasks finished file : {}",_jsonPath);
+            _termithIndex.getMorphologyStandOff().put(key, FilesUtils.writeObject(
+                    morphologyOffsetIds, Paths.get(_outputPath), "morphologyStandOff", key));
+            _logger.debug("tokenization and morphosyntax tasks finished file : {}",_id);
         } catch (IOException e) {
             _logger.error("error during execute TreeTagger data", e);
         } catch (InterruptedException e) {
@@ -124,6 +180,79 @@ public class TreeTaggerWorker extends Module {
         }
     }
 
+    /**
+     * read the output of TreeTagger line by line if the text has already been tagged (e.g. by the document pipeline)
+     * @param tokenReader reads the output of TreeTagger line by line
+     * @return false if the text is not tagged
+     * @throws IOException thrown if the reader fails
+     */
+    private boolean readStoredOutput(TreeTaggerProcessPool.TokenReader tokenReader) throws IOException {
+        ArtifactHandle treeTaggerOutput = _termithIndex.getTreeTaggerOutput().remove(_id);
+        if (treeTaggerOutput == null) {
+            return false;
+        }
+        try {
+            /*
+            the output may be lost if the process has been interrupted, the text is tagged again
+             */
+            return FilesUtils.readLines(treeTaggerOutput, tokenReader::read);
+        } finally {
+            FilesUtils.deleteObject(treeTaggerOutput);
+        }
+    }
+
+    /**
+     * run TreeTagger on the extracted text, the output is not retained
+     * @param tokenReader reads the output of TreeTagger line by line
+     */
+    private void tag(TreeTaggerProcessPool.TokenReader tokenReader) throws IOException, InterruptedException {
+        TreeTaggerWrapper treeTaggerWrapper = new TreeTaggerWrapper(
+                _txt,
+                _treeTaggerParameter,
+                _outputPath,
+                _treeTaggerProcessPool,
+                tokenReader
+        );
+        treeTaggerWrapper.execute();
+    }
+
+    /**
+     * get the tagging cache key computed when the text has been extracted. The key of a text extracted without the
+     * cache (e.g. by a previous run of an interrupted process) is computed from the document
+     * @return the key of the document
+     */
+    private String taggingKey() {
+        String key = _termithIndex.getTaggingKey().get(_id);
+        if (key == null) {
+            load();
+            key = _taggingCache.key(_txt, _xml);
+        }
+        return key;
+    }
+
+    /**
+     * read the extracted text when the task is run and not when it is submitted. The extracted text is released by
+     * the delegate when all the documents are tagged
+     */
+    private void loadText() {
+        if (_txt == null) {
+            _txt = FilesUtils.readObject(_termithIndex.getExtractedText().get(_id), StringBuilder.class);
+        }
+    }
+
+    /**
+     * read the extracted text, its offset map and the xml file of a document which is not in the tagging cache
+     */
+    private void load() {
+        if (_xml != null) {
+            return;
+        }
+        loadText();
+        ArtifactHandle offsetMap = _termithIndex.getTextOffsetMap().get(_id);
+        _offsetMap = offsetMap != null ? FilesUtils.readObject(offsetMap, TextOffsetMap.class) : null;
+        _xml = FilesUtils.readFile(_termithIndex.getXmlCorpus().get(_id));
+    }
+
     /**
      * init method create json directory according to language given by static field
      * on the TermithIndex class
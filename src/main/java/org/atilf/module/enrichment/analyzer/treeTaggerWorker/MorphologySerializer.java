@@ -1,32 +1,38 @@
 package org.atilf.module.enrichment.analyzer.treeTaggerWorker;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import org.atilf.models.enrichment.TagNormalizer;
+import org.atilf.models.enrichment.TermsuiteDocument;
 import org.atilf.models.enrichment.TextAnalyzer;
+import org.atilf.models.enrichment.TreeTaggerProcessPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.util.ArrayDeque;
-import java.util.Collections;
 
 /**
- * Serialize TreeTagger result to Termsuite json format
+ * Serialize TreeTagger result to the morphology of the termsuite pipeline. The morphology is handed to the pipeline
+ * as a TermsuiteDocument, the Termsuite json file is written on demand (e.g. to debug the pipeline). The lines of
+ * TreeTagger are read one by one as the tagger writes them and the json file is written while they are read.
  * @author Simon Meoni
  *         Created on 01/09/16.
  */
-public class MorphologySerializer {
+public class MorphologySerializer implements TreeTaggerProcessPool.TokenReader {
 
-    private ArrayDeque<String> _tokenDeque = new ArrayDeque<>();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private StringBuilder _treeTaggerOutput;
     private StringBuilder _txt;
     private String _jsonPath;
     private TextAnalyzer _textAnalyzer;
     private final Logger LOGGER = LoggerFactory.getLogger(MorphologySerializer.class.getName());
     private TagNormalizer _tagNormalizer;
+    private boolean _json;
+    private TermsuiteDocument _document;
+    private JsonGenerator _jsonGenerator;
+    private final int[] _offset = new int[]{0, 1};
 
 
     /**
@@ -38,34 +44,141 @@ public class MorphologySerializer {
      */
     public MorphologySerializer(StringBuilder treeTaggerOutput, String jsonPath, StringBuilder txt,
                                 TextAnalyzer textAnalyzer, TagNormalizer tagNormalizer) {
-        Collections.addAll(_tokenDeque, treeTaggerOutput.toString().split("\n"));
+        this(treeTaggerOutput, jsonPath, txt, textAnalyzer, tagNormalizer, true);
+    }
+
+    /**
+     * constructor for MorphologySerializer
+     * @param treeTaggerOutput treetagger output
+     * @param jsonPath the output of json file, it is the uri of the document in the terminology
+     * @param txt the plain text of the file
+     * @param textAnalyzer the termsuite json metadata
+     * @param json true to write the json file
+     */
+    public MorphologySerializer(StringBuilder treeTaggerOutput, String jsonPath, StringBuilder txt,
+                                TextAnalyzer textAnalyzer, TagNormalizer tagNormalizer, boolean json) {
+        this(jsonPath, txt, textAnalyzer, tagNormalizer, json);
+        _treeTaggerOutput = treeTaggerOutput;
+    }
+
+    /**
+     * constructor for MorphologySerializer, the lines of TreeTagger are given with the read method
+     * @param jsonPath the output of json file, it is the uri of the document in the terminology
+     * @param txt the plain text of the file
+     * @param textAnalyzer the termsuite json metadata
+     * @param json true to write the json file
+     */
+    public MorphologySerializer(String jsonPath, StringBuilder txt, TextAnalyzer textAnalyzer,
+                                TagNormalizer tagNormalizer, boolean json) {
         _tagNormalizer = tagNormalizer;
         _txt = txt;
         _jsonPath = jsonPath;
         _textAnalyzer = textAnalyzer;
+        _json = json;
+        _document = new TermsuiteDocument("file:/" + _jsonPath, _txt.toString(), _textAnalyzer);
     }
 
     /**
-     * serialize result into a json
+     * getter for the morphology of the document
+     * @return the TermsuiteDocument built by the execute method
+     */
+    public TermsuiteDocument getDocument() {
+        return _document;
+    }
+
+    /**
+     * read a line of TreeTagger : the word, its tag and its lemma separated by tabulations
+     * @param line the line
+     * @throws IOException thrown an exception if the line is malformed or if the jsonGenerator meet a problem
+     */
+    @Override
+    public void read(String line) throws IOException {
+        read(line, 0, line.length());
+    }
+
+    /**
+     * read several lines of TreeTagger, the lines are not split into strings
+     * @param treeTaggerOutput the output of TreeTagger
+     * @throws IOException thrown an exception if a line is malformed or if the jsonGenerator meet a problem
+     */
+    public void readAll(CharSequence treeTaggerOutput) throws IOException {
+        int start = 0;
+        int length = treeTaggerOutput.length();
+        while (start < length) {
+            int end = indexOf(treeTaggerOutput, '\n', start, length);
+            read(treeTaggerOutput, start, end);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * serialize the lines which remain into the TermsuiteDocument and end the json file if it is required
      * @throws IOException thrown an exception if the jsonGenerator meet a problem during the writing of the file
      */
     public void execute() throws IOException {
-        FileOutputStream fos = new FileOutputStream(_jsonPath);
-        Writer writer = new OutputStreamWriter(fos, "UTF-8");
-        JsonFactory jFactory = new JsonFactory();
-        JsonGenerator jg = jFactory.createGenerator(writer);
-        jg.useDefaultPrettyPrinter();
-        jg.writeStartObject();
-        writeSdi(jg);
-        writeTag(jg);
-        writeTermOcc(jg);
-        writeFe(jg);
-        writeText(jg);
-        jg.writeEndObject();
-        jg.flush();
-        writer.flush();
-        writer.close();
-        LOGGER.debug("write file {}",_jsonPath);
+        if (_treeTaggerOutput != null) {
+            readAll(_treeTaggerOutput);
+            _treeTaggerOutput = null;
+        }
+        if (_json) {
+            JsonGenerator jg = jsonGenerator();
+            jg.writeEndArray();
+            writeTermOcc(jg);
+            writeFe(jg);
+            writeText(jg);
+            jg.writeEndObject();
+            jg.close();
+            _jsonGenerator = null;
+            LOGGER.debug("write file {}",_jsonPath);
+        }
+    }
+
+    private void read(CharSequence line, int start, int end) throws IOException {
+        if (start == end) {
+            return;
+        }
+        int tag = indexOf(line, '\t', start, end);
+        int lemma = indexOf(line, '\t', tag + 1, end);
+        if (lemma >= end) {
+            throw new IOException("malformed TreeTagger line : " + line.subSequence(start, end));
+        }
+        int lemmaEnd = indexOf(line, '\t', lemma + 1, end);
+        String tagValue = line.subSequence(tag + 1, lemma).toString();
+        String category = _tagNormalizer.normalize(tagValue);
+        String lemmaValue = line.subSequence(lemma + 1, lemmaEnd).toString();
+
+        int[] word = addOffsets(_offset, line, start, tag);
+        _offset[0] = word[1];
+        _offset[1] = word[1] + 1;
+        _document.addWord(word[0], word[1], tagValue, category, lemmaValue);
+        if (_json) {
+            writeWord(jsonGenerator(), word[0], word[1], tagValue, category, lemmaValue);
+        }
+    }
+
+    private static int indexOf(CharSequence sequence, char ch, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (sequence.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * open the json file and write the beginning of the document, the file is opened at the first word
+     * @return the generator of the json file
+     * @throws IOException thrown an exception if the file cannot be opened
+     */
+    private JsonGenerator jsonGenerator() throws IOException {
+        if (_jsonGenerator == null) {
+            _jsonGenerator = JSON_FACTORY.createGenerator(new FileOutputStream(_jsonPath), JsonEncoding.UTF8);
+            _jsonGenerator.writeStartObject();
+            writeSdi(_jsonGenerator);
+            _jsonGenerator.writeFieldName("word_annotations");
+            _jsonGenerator.writeStartArray();
+        }
+        return _jsonGenerator;
     }
 
     /**
@@ -97,7 +210,7 @@ public class MorphologySerializer {
      */
     private void writeText(JsonGenerator jg) throws IOException {
         jg.writeFieldName("covered_text");
-        jg.writeString(_txt.toString());
+        jg.writeString(_document.getText());
 
     }
 
@@ -110,7 +223,7 @@ public class MorphologySerializer {
         jg.writeFieldName("sdi");
         jg.writeStartObject();
         jg.writeFieldName("uri");
-        jg.writeString("file:/"+ _jsonPath);
+        jg.writeString(_document.getUri());
         jg.writeFieldName("off_in_s");
         jg.writeNumber(0);
         jg.writeFieldName("document_index");
@@ -133,37 +246,32 @@ public class MorphologySerializer {
     }
 
     /**
-     * write tag element
+     * write a word in the word_annotations element
      * @param jg the current jsonGenerator
      * @throws IOException thrown an exception if the jsonGenerator meet a problem during the writing of the file
      */
-    private void writeTag(JsonGenerator jg) throws IOException {
-        Integer[] offset = new Integer[]{0,1};
-        jg.writeFieldName("word_annotations");
-        jg.writeStartArray();
-        while (!_tokenDeque.isEmpty()){
-            String[] line = _tokenDeque.poll().split("\t");
-
-            jg.writeStartObject();
-            addTag(line[1], jg);
-            addCat(line[1], jg);
-            addLemma(line[2],jg);
-            offset = addOffsets(offset,line[0],jg);
-            jg.writeEndObject();
-        }
-        jg.writeEndArray();
-
+    private void writeWord(JsonGenerator jg, int begin, int end, String tag, String category, String lemma)
+            throws IOException {
+        jg.writeStartObject();
+        addTag(tag, jg);
+        addCat(category, jg);
+        addLemma(lemma, jg);
+        jg.writeFieldName("begin");
+        jg.writeNumber(begin);
+        jg.writeFieldName("end");
+        jg.writeNumber(end);
+        jg.writeEndObject();
     }
 
     /**
      * write cat field into tag element
-     * @param token the category value
+     * @param category the normalized category value
      * @param jg the current jsonGenerator
      * @throws IOException thrown an exception if the jsonGenerator meet a problem during the writing of the file
      */
-    private void addCat(String token, JsonGenerator jg) throws IOException {
+    private void addCat(String category, JsonGenerator jg) throws IOException {
         jg.writeFieldName("cat");
-        jg.writeString(_tagNormalizer.normalize(token));
+        jg.writeString(category);
     }
 
     /**
@@ -189,45 +297,38 @@ public class MorphologySerializer {
     }
 
     /**
-     * write the offset of the of the tag into a tag element
+     * search the offsets of a word in the plain text
      * @param offset the current offset
-     * @param word the current words
-     * @param jGenerator the current json Generator
-     * @return the new character offset
-     * @throws IOException thrown an exception if the jsonGenerator meet a problem during the writing of the file
+     * @param line the line of the current word
+     * @param start the beginning of the word in the line
+     * @param length the ending of the word in the line
+     * @return the beginning and the ending offsets of the word
      */
-    private Integer[] addOffsets(Integer[] offset, String word, JsonGenerator jGenerator) throws IOException {
-        char[] letterCharArray = word.toCharArray();
+    private int[] addOffsets(int[] offset, CharSequence line, int start, int length) {
         boolean findBegin = false;
         int begin = -1;
         int end = -1;
-        int cpt = 0;
-        try {
-            while (end == -1) {
-                char ch = letterCharArray[cpt];
-
-                if (!findBegin && _txt.charAt(offset[0]) == ch) {
-                    findBegin = true;
-                    begin = offset[0];
-                }
-
-                if (cpt == letterCharArray.length - 1 && _txt.charAt(offset[0]) == ch)
-                    end = offset[1];
-
-                if (findBegin)
-                    cpt++;
-                offset[0]++;
-                offset[1]++;
+        int cpt = start;
+        while (end == -1 && cpt < length) {
+            char ch = line.charAt(cpt);
+
+            if (!findBegin && _txt.charAt(offset[0]) == ch) {
+                findBegin = true;
+                begin = offset[0];
             }
+
+            if (cpt == length - 1 && _txt.charAt(offset[0]) == ch)
+                end = offset[1];
+
+            if (findBegin)
+                cpt++;
+            offset[0]++;
+            offset[1]++;
         }
-        catch (ArrayIndexOutOfBoundsException e){
-            LOGGER.error("problem with the word: " + word, e);
+        if (end == -1) {
+            LOGGER.error("problem with the word: " + line.subSequence(start, length));
         }
-        jGenerator.writeFieldName("begin");
-        jGenerator.writeNumber(begin);
-        jGenerator.writeFieldName("end");
-        jGenerator.writeNumber(end);
-        return new Integer[]{end ,end + 1};
+        return new int[]{begin, end};
     }
 
 }
@@ -2,19 +2,20 @@ package org.atilf.module.enrichment.analyzer.treeTaggerWorker;
 
 import org.atilf.models.enrichment.MorphologyOffsetId;
 import org.atilf.models.enrichment.MorphologyParser;
+import org.atilf.models.enrichment.TextOffsetMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 /**
  * the MorphologyTokenizer tokenize the text element of the xml file according to the _morphologyParser and _txt fields.
  * the result of this module is the tokenize text element of xml file and list of id associated for all words
- * in the text element.
+ * in the text element. The characters of the xml file are read in place and the w elements are written directly in
+ * the tokenize buffer, no character is boxed or copied. The offsets of the characters in the plain text are given by
+ * the offset map of the extraction when there is one, otherwise they are aligned with the plain text.
  * @author Simon Meoni
  *         Created on 24/08/16.
  */
@@ -24,9 +25,19 @@ public class MorphologyTokenizer {
     private StringBuilder _xml;
     private StringBuilder _txt;
     private MorphologyParser _morphologyParser;
-    private Queue<Character> _xmlCharacterQueue = new LinkedList<>();
+    private TextOffsetMap _offsetMap;
     private List<MorphologyOffsetId> _offsetId = new ArrayList<>();
-    private Integer[] _offset = new Integer[2];
+    /*
+    the text element is _xml[_textBegin, _textEnd[ and _position is the index of the next character to read
+     */
+    private int _textBegin;
+    private int _textEnd;
+    private int _position;
+    /*
+    the offset of the current character in the plain text and its index in the text element
+     */
+    private int _offset;
+    private int _index;
     private StringBuilder _tokenizeBuffer = new StringBuilder();
 
 
@@ -37,9 +48,18 @@ public class MorphologyTokenizer {
      * @param json json file associated to the xml file
      */
     public MorphologyTokenizer(StringBuilder txt, StringBuilder xml, File json) {
-        _xml = xml;
-        _txt = txt;
-        _morphologyParser = new MorphologyParser(json);
+        this(txt, xml, json, null);
+    }
+
+    /**
+     * constructor for MorphologyTokenizer
+     * @param txt the extracted text of xml file
+     * @param xml the xml file
+     * @param json json file associated to the xml file
+     * @param offsetMap the offset map of the extracted text, the text is aligned without map if it is null
+     */
+    public MorphologyTokenizer(StringBuilder txt, StringBuilder xml, File json, TextOffsetMap offsetMap) {
+        this(txt, xml, new MorphologyParser(json), offsetMap);
         _morphologyParser.execute();
     }
 
@@ -50,9 +70,21 @@ public class MorphologyTokenizer {
      * @param parser the morphology parser object when the execution of parsing is externalized
      */
     MorphologyTokenizer(StringBuilder txt, StringBuilder xml, MorphologyParser parser) {
-        _xml = xml;
+        this(txt, xml, parser, null);
+    }
+
+    /**
+     * constructor for MorphologyTokenizer
+     * @param txt the extracted text of xml file
+     * @param xml the xml file
+     * @param parser the morphology parser object when the execution of parsing is externalized
+     * @param offsetMap the offset map of the extracted text or null
+     */
+    public MorphologyTokenizer(StringBuilder txt, StringBuilder xml, MorphologyParser parser, TextOffsetMap offsetMap) {
+        this(xml);
         _txt = txt;
         _morphologyParser = parser;
+        _offsetMap = offsetMap;
     }
 
     /**
@@ -61,14 +93,15 @@ public class MorphologyTokenizer {
      */
     MorphologyTokenizer(StringBuilder xml){
         _xml = xml;
+        _textEnd = xml.length();
     }
 
     /**
      * getter for xml file
-     * @return xml file content
+     * @return the text element of the xml file once it has been split, the xml file content otherwise
      */
     public StringBuilder getXml() {
-        return _xml;
+        return new StringBuilder(_xml.subSequence(_textBegin, _textEnd));
     }
 
     /**
@@ -96,24 +129,60 @@ public class MorphologyTokenizer {
     }
 
     /**
-     * keep only the text element from the xml file
+     * keep only the text element from the xml file : it begins at the first start tag of a text element which does
+     * not begin the file and it ends after the first closing text tag, before the next start tag of a text element.
      */
     void teiTextSplitter(){
-        _xml = new StringBuilder(
-                _xml.toString()
-                        .split("(?=(<text>|<text\\s.*>))")[1]
-                        .split("(?<=(</text>))")[0]
-        );
-
+        int begin = textStartTag(_xml, 1);
+        if (begin == -1) {
+            throw new IllegalArgumentException("the xml file does not contain a text element");
+        }
+        int next = textStartTag(_xml, begin + 1);
+        int end = next == -1 ? _xml.length() : next;
+        int closingTag = _xml.indexOf("</text>", begin);
+        if (closingTag != -1 && closingTag + 7 <= end) {
+            end = closingTag + 7;
+        }
+        _textBegin = begin;
+        _textEnd = end;
     }
 
     /**
-     * take all the character from text element and add it to _xmlCharacterQueue
+     * search a start tag of a text element : "<text>" or "<text" followed by a whitespace and a '>' on the same line
+     * @param xml the xml file
+     * @param from the index of the beginning of the search
+     * @return the index of the start tag or -1
      */
-    private void fillXmlCharacterQueue() {
-        for (Character c : _xml.toString().toCharArray()){
-            _xmlCharacterQueue.add(c);
+    static int textStartTag(StringBuilder xml, int from) {
+        int index = xml.indexOf("<text", from);
+        while (index != -1) {
+            int next = index + 5;
+            if (next < xml.length()) {
+                char ch = xml.charAt(next);
+                if (ch == '>' || (isWhitespace(ch) && closedOnSameLine(xml, next + 1))) {
+                    return index;
+                }
+            }
+            index = xml.indexOf("<text", index + 1);
         }
+        return -1;
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+    }
+
+    private static boolean closedOnSameLine(StringBuilder xml, int from) {
+        for (int i = from; i < xml.length(); i++) {
+            char ch = xml.charAt(i);
+            if (ch == '>') {
+                return true;
+            }
+            if (ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                return false;
+            }
+        }
+        return false;
     }
 
     /**
@@ -126,24 +195,26 @@ public class MorphologyTokenizer {
         /*
          initialize offset and id
          */
-        _offset[0] = 0;
-        _offset[1] = 1;
+        _offset = 0;
+        _index = 0;
         int id = 1;
         /*
-         get the first word of morphologyParser
+         the tokenize buffer contains the text element and a w element for each word
          */
-        _morphologyParser.pollToken();
+        _tokenizeBuffer = new StringBuilder(
+                _textEnd - _textBegin + _morphologyParser.remaining() * 32 + 16
+        );
         /*
-         the text is converted into Queue of character
+         get the first word of morphologyParser
          */
-        Character ch;
-        fillXmlCharacterQueue();
+        _morphologyParser.pollToken();
+        _position = _textBegin;
         try {
             /*
-            browse of character queue
+            browse of the characters of the text element
              */
-            while (!_xmlCharacterQueue.isEmpty()) {
-                ch = _xmlCharacterQueue.poll();
+            while (_position < _textEnd) {
+                char ch = _xml.charAt(_position++);
                 /*
                 if the character belongs to a xml tag
                  */
@@ -152,18 +223,24 @@ public class MorphologyTokenizer {
                 }
                 /*
                 update offset & check alignment of with the plain text
-                the offset is updated if the xmlCharacter is not equals to the txt character at this offset.
+                the offset is given by the offset map or updated if the xmlCharacter is not equals to the txt
+                character at this offset.
                  */
                 else {
-                    checkTextAlignment(ch);
+                    if (_offsetMap != null) {
+                        mapOffset(ch);
+                    }
+                    else {
+                        checkTextAlignment(ch);
+                    }
                     /*
                     try to inject w element
                      */
                     id = tokenInjector(ch, id);
-                    countOffset();
+                    _offset++;
                 }
 
-                if (_offset[0] > _morphologyParser.getCurrentTokenEnd()) {
+                if (_offset > _morphologyParser.getCurrentTokenEnd()) {
                     /*
                     get next token if the begin offset is superior to the ending offset of
                      */
@@ -179,21 +256,23 @@ public class MorphologyTokenizer {
     }
 
     /**
-     * increment offset
+     * read the next character of the text element
+     * @return the character
      */
-    private void countOffset() {
-        _offset[0] += 1;
-        _offset[1] += 1;
+    private char nextChar() {
+        if (_position >= _textEnd) {
+            throw new IllegalStateException("unexpected end of the text element at offset " + _offset);
+        }
+        return _xml.charAt(_position++);
     }
 
-
     /**
      * ignore xml tag and insert w tags if there is an non-closed w tag element wrote previously
      * @param ch the current character
      * @param id the current id of the current w element
      * @return the id of the current w element
      */
-    private int waitUntilTagEnd(Character ch, int id) {
+    private int waitUntilTagEnd(char ch, int id) {
 
         /*
         closed w tag
@@ -207,10 +286,9 @@ public class MorphologyTokenizer {
         /*
         write xml tag until the end of the tag is met
          */
-        while(ch != '>' ||
-                (!_xmlCharacterQueue.isEmpty() && _xmlCharacterQueue.peek() == '<') ){
+        while(ch != '>' || (_position < _textEnd && _xml.charAt(_position) == '<')){
             _tokenizeBuffer.append(ch);
-            ch = _xmlCharacterQueue.poll();
+            ch = nextChar();
         }
 
         /*
@@ -223,7 +301,7 @@ public class MorphologyTokenizer {
         write a new w tag
          */
         if(_morphologyParser.getCurrentTokenBegin() == -2){
-            _tokenizeBuffer.append("<w xml:id=\"" + "t").append(id).append("\">");
+            _tokenizeBuffer.append("<w xml:id=\"t").append(id).append("\">");
         }
 
         return id;
@@ -232,9 +310,9 @@ public class MorphologyTokenizer {
     /*
     ignore xml special character in order to not misaligned the offset
      */
-    private void checkIfSpecialChar(Character ch) {
+    private void checkIfSpecialChar(char ch) {
         if (ch == '&'){
-            while ((ch = _xmlCharacterQueue.poll()) != ';'){
+            while ((ch = nextChar()) != ';'){
                 _tokenizeBuffer.append(ch);
             }
             _tokenizeBuffer.append(ch);
@@ -248,13 +326,13 @@ public class MorphologyTokenizer {
      * @param id the current id of w element
      * @return return the w id
      */
-    private int tokenInjector(Character ch, int id) {
+    private int tokenInjector(char ch, int id) {
 
         /*
         write the open w tag
          */
-        if (_offset[0] == _morphologyParser.getCurrentTokenBegin()){
-            _tokenizeBuffer.append("<w xml:id=\"" + "t").append(id).append("\">");
+        if (_offset == _morphologyParser.getCurrentTokenBegin()){
+            _tokenizeBuffer.append("<w xml:id=\"t").append(id).append("\">");
             MorphologyOffsetId.addNewOffset(
                     _offsetId,
                     _morphologyParser.getCurrentTokenBegin(),
@@ -275,7 +353,7 @@ public class MorphologyTokenizer {
         /*
         write the closed w tag
          */
-        if (_offset[1] == _morphologyParser.getCurrentTokenEnd()){
+        if (_offset + 1 == _morphologyParser.getCurrentTokenEnd()){
             _tokenizeBuffer.append("</w>");
             _morphologyParser.pollToken();
             return id + 1;
@@ -284,13 +362,25 @@ public class MorphologyTokenizer {
 
     }
 
+    /**
+     * get the offset of the current character from the offset map, the character must be the character of the plain
+     * text at this offset. An entity is replaced in the plain text, only its first character is read
+     * @param ch the current character
+     */
+    private void mapOffset(char ch) {
+        _offset = _offsetMap.offset(_index++);
+        if (ch != '&' && (_offset >= _txt.length() || _txt.charAt(_offset) != ch)) {
+            throw new IllegalStateException("the xml file and the plain text are not aligned at offset " + _offset);
+        }
+    }
+
     /**
      * check if the offset is aligned according to the _txt field
      * @param ch the current character
      */
-    private void checkTextAlignment(Character ch){
-        while (_offset[0] < _txt.length() - 1 && _txt.charAt(_offset[0]) == '\n' && _txt.charAt(_offset[0]) != ch) {
-                countOffset();
+    private void checkTextAlignment(char ch){
+        while (_offset < _txt.length() - 1 && _txt.charAt(_offset) == '\n' && _txt.charAt(_offset) != ch) {
+                _offset++;
         }
     }
 }
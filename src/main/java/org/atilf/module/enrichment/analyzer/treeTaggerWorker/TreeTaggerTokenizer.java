@@ -0,0 +1,299 @@
+package org.atilf.module.enrichment.analyzer.treeTaggerWorker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * this class is a port of the utf8-tokenize.perl script of TreeTagger for the french (-f option) and the english
+ * (-e option) languages. Each word and punctuation of the text is written on a separate line. The sgml tags are
+ * kept as single tokens, the abbreviations (like U.S.A.) and the clitics are handled as the perl script does.
+ */
+public class TreeTaggerTokenizer {
+
+    /*
+    the perl script uses these two characters to mark the token boundaries of a line
+     */
+    private static final char SEPARATOR = '\u00ff';
+    private static final char BLANK = '\u00fe';
+    private static final String P_CHAR = "[¿¡{('`\"‚„†‡‹‘’“”•–—›»«";
+    private static final String F_CHAR = "]}'`\"),;:!?%‚„…†‡‰‹‘’“”•–—›»«";
+    private static final String FRENCH_P_CLITIC = "[dcjlmnstDCJLNMST]'|[Qq]u'|[Jj]usqu'|[Ll]orsqu'";
+    private static final String FRENCH_F_CLITIC = "-t-elles?|-t-ils?|-t-on|-ce|-elles?|-ils?|-je|-la|-les?|-leur|" +
+            "-lui|-mêmes?|-m'|-moi|-nous|-on|-toi|-tu|-t'|-vous|-en|-y|-ci|-là";
+    private static final String ENGLISH_F_CLITIC = "(:?'(s|re|ve|d|m|em|ll)|n't)";
+
+    private static final Pattern BLANK_IN_TAG = Pattern.compile("(<[^<> ]*) ([^<>]*>)");
+    private static final Pattern SGML_TAG = Pattern.compile("(<[^<>]*>)");
+    private static final Pattern SGML_TOKEN = Pattern.compile("^<.*>$");
+    private static final Pattern ELLIPSIS = Pattern.compile("(\\.\\.\\.)");
+    private static final Pattern STRONG_PUNCTUATION = Pattern.compile("([;!?])([^ ])");
+    private static final Pattern WEAK_PUNCTUATION = Pattern.compile("([.,:])([^ 0-9.])");
+    private static final Pattern ABBREVIATION = Pattern.compile("^([A-Za-z-]\\.)+$");
+    private static final Pattern PERIOD = Pattern.compile("^(..*)\\.$");
+
+    private final Pattern _pClitic;
+    private final Pattern _fClitic;
+
+    /**
+     * constructor for TreeTaggerTokenizer
+     * @param lang the language of the text, the french clitics are used for "fr" and the english clitics otherwise
+     */
+    public TreeTaggerTokenizer(String lang) {
+        if ("fr".equals(lang)) {
+            _pClitic = Pattern.compile("^(" + FRENCH_P_CLITIC + ")(.)");
+            _fClitic = Pattern.compile("(.)(" + FRENCH_F_CLITIC + ")$");
+        }
+        else {
+            _pClitic = null;
+            _fClitic = Pattern.compile("(.)(" + ENGLISH_F_CLITIC + ")$");
+        }
+    }
+
+    /**
+     * check if a text contains a sgml tag, this tag will be a token of the output
+     * @param text the text to tokenize
+     * @return true if the text contains a sgml tag
+     */
+    public static boolean containsSgmlTag(CharSequence text) {
+        return SGML_TAG.matcher(text).find();
+    }
+
+    /**
+     * tokenize a text
+     * @param text the text to tokenize
+     * @return the tokens separated by a new line
+     */
+    public String tokenize(CharSequence text) {
+        StringBuilder tokens = new StringBuilder(text.length() * 2);
+        try {
+            tokenize(text, tokens);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (tokens.length() > 0) {
+            tokens.setLength(tokens.length() - 1);
+        }
+        return tokens.toString();
+    }
+
+    /**
+     * tokenize a text and write each token followed by a new line to the output
+     * @param text the text to tokenize
+     * @param out the output, it can be the standard input of a TreeTagger process
+     * @throws IOException thrown if the output cannot be written
+     */
+    public void tokenize(CharSequence text, Appendable out) throws IOException {
+        int start = 0;
+        /*
+        delete the byte order marker
+         */
+        if (text.length() > 0 && text.charAt(0) == '\ufeff') {
+            start = 1;
+        }
+        /*
+        the perl script reads the text line by line
+         */
+        for (int i = start; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                tokenizeLine(text.subSequence(start, i + 1).toString(), out);
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            tokenizeLine(text.subSequence(start, text.length()).toString(), out);
+        }
+    }
+
+    private void tokenizeLine(String line, Appendable out) throws IOException {
+        /*
+        replace newlines and tab characters with blanks
+         */
+        line = line.replace('\n', ' ').replace('\t', ' ');
+        /*
+        replace blanks within sgml tags
+         */
+        String previous;
+        do {
+            previous = line;
+            line = BLANK_IN_TAG.matcher(line).replaceAll("$1" + SEPARATOR + "$2");
+        } while (!line.equals(previous));
+        /*
+        the other blanks become separators and the blanks of the sgml tags are restored
+         */
+        line = line.replace(' ', BLANK);
+        StringBuilder marked = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            marked.append(c == SEPARATOR ? ' ' : c == BLANK ? SEPARATOR : c);
+        }
+        /*
+        prepare sgml tags for tokenization
+         */
+        line = SGML_TAG.matcher(marked).replaceAll(SEPARATOR + "$1" + SEPARATOR);
+
+        for (String segment : splitSegments(line)) {
+            if (SGML_TOKEN.matcher(segment).matches()) {
+                out.append(segment).append('\n');
+            }
+            else {
+                tokenizeSegment(segment, out);
+            }
+        }
+    }
+
+    private String[] splitSegments(String line) {
+        int begin = 0;
+        int end = line.length();
+        if (begin < end && line.charAt(begin) == SEPARATOR) {
+            begin++;
+        }
+        if (begin < end && line.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        if (begin >= end) {
+            return new String[0];
+        }
+        return line.substring(begin, end).split(SEPARATOR + "+");
+    }
+
+    private void tokenizeSegment(String segment, Appendable out) throws IOException {
+        /*
+        insert missing blanks after punctuation
+         */
+        segment = " " + segment + " ";
+        segment = ELLIPSIS.matcher(segment).replaceAll(" ... ");
+        segment = STRONG_PUNCTUATION.matcher(segment).replaceAll("$1 $2");
+        segment = WEAK_PUNCTUATION.matcher(segment).replaceAll("$1 $2");
+
+        int i = 0;
+        int length = segment.length();
+        while (i < length) {
+            while (i < length && isSpace(segment.charAt(i))) {
+                i++;
+            }
+            int begin = i;
+            while (i < length && !isSpace(segment.charAt(i))) {
+                i++;
+            }
+            if (begin < i) {
+                tokenizeWord(segment.substring(begin, i), out);
+            }
+        }
+    }
+
+    private void tokenizeWord(String word, Appendable out) throws IOException {
+        StringBuilder suffix = new StringBuilder();
+        /*
+        separate punctuation and parentheses from words
+         */
+        boolean finished;
+        do {
+            finished = true;
+            /*
+            cut off preceding punctuation
+             */
+            if (word.codePointCount(0, word.length()) > 1 && P_CHAR.indexOf(word.charAt(0)) != -1) {
+                out.append(word.charAt(0)).append('\n');
+                word = word.substring(1);
+                finished = false;
+            }
+            /*
+            cut off trailing punctuation
+             */
+            if (word.codePointCount(0, word.length()) > 1 && F_CHAR.indexOf(word.charAt(word.length() - 1)) != -1) {
+                suffix.insert(0, word.charAt(word.length() - 1) + "\n");
+                word = word.substring(0, word.length() - 1);
+                finished = false;
+            }
+            /*
+            cut off trailing periods if punctuation precedes
+             */
+            if (word.length() > 1 && word.charAt(word.length() - 1) == '.'
+                    && F_CHAR.indexOf(word.charAt(word.length() - 2)) != -1) {
+                char punctuation = word.charAt(word.length() - 2);
+                word = word.substring(0, word.length() - 2);
+                suffix.insert(0, ".\n");
+                if (word.isEmpty()) {
+                    word = String.valueOf(punctuation);
+                }
+                else {
+                    suffix.insert(0, punctuation + "\n");
+                }
+                finished = false;
+            }
+        } while (!finished);
+
+        /*
+        abbreviations of the form A. or U.S.A.
+         */
+        if (ABBREVIATION.matcher(word).matches()) {
+            out.append(word).append('\n').append(suffix);
+            return;
+        }
+
+        /*
+        disambiguate periods
+         */
+        Matcher period = PERIOD.matcher(word);
+        if (period.matches() && !"...".equals(word)) {
+            word = period.group(1);
+            suffix.insert(0, ".\n");
+        }
+
+        /*
+        cut off clitics
+         */
+        while (word.startsWith("--") && word.length() > 2) {
+            out.append("--\n");
+            word = word.substring(2);
+        }
+        if (_pClitic != null) {
+            Matcher pClitic = _pClitic.matcher(word);
+            while (pClitic.find()) {
+                out.append(pClitic.group(1)).append('\n');
+                word = word.substring(pClitic.end(1));
+                pClitic = _pClitic.matcher(word);
+            }
+        }
+
+        while (word.endsWith("--") && word.length() > 2) {
+            suffix.insert(0, "--\n");
+            word = word.substring(0, word.length() - 2);
+        }
+        Matcher fClitic = _fClitic.matcher(word);
+        while (fClitic.find()) {
+            suffix.insert(0, fClitic.group(2) + "\n");
+            word = word.substring(0, fClitic.start(2));
+            fClitic = _fClitic.matcher(word);
+        }
+
+        out.append(word).append('\n').append(suffix);
+    }
+
+    /**
+     * the whitespace characters matched by the split function of perl
+     */
+    private static boolean isSpace(char c) {
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000b':
+            case '\f':
+            case '\r':
+            case '\u0085':
+            case '\u00a0':
+            case '\u1680':
+            case '\u2028':
+            case '\u2029':
+            case '\u202f':
+            case '\u205f':
+            case '\u3000':
+                return true;
+            default:
+                return c >= '\u2000' && c <= '\u200a';
+        }
+    }
+}
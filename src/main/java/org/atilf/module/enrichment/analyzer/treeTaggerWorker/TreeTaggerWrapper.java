@@ -2,6 +2,7 @@ package org.atilf.module.enrichment.analyzer.treeTaggerWorker;
 
 import org.apache.commons.io.IOUtils;
 import org.atilf.models.enrichment.TreeTaggerParameter;
+import org.atilf.models.enrichment.TreeTaggerProcessPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,11 +10,10 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.UUID;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 /**
- * send a text to a TreeTagger process and retrieve the result in the _ttOut field
+ * send a text to a TreeTagger process and retrieve the result in the _ttOut field or give it line by line to a
+ * TokenReader
  * @author Simon Meoni
  *         Created on 01/09/16.
  */
@@ -24,7 +24,9 @@ public class TreeTaggerWrapper {
     private final StringBuilder _txt;
     private TreeTaggerParameter _treeTaggerParameter;
     private String _outputPath;
+    private TreeTaggerProcessPool _treeTaggerProcessPool;
     private StringBuilder _ttOut = new StringBuilder();
+    private TreeTaggerProcessPool.TokenReader _tokenReader = line -> _ttOut.append(line).append("\n");
 
     /**
      * constructor for TreeTaggerWrapper
@@ -39,9 +41,39 @@ public class TreeTaggerWrapper {
         _outputPath = outputPath;
     }
 
+    /**
+     * constructor for TreeTaggerWrapper, the text is tagged by a process of the treeTaggerProcessPool
+     * @param txt the extracted text
+     * @param treeTaggerParameter the tree tagger parameter is contains on this class
+     * @param outputPath the working directory of the termith process
+     * @param treeTaggerProcessPool the pool of long-lived TreeTagger processes
+     */
+    public TreeTaggerWrapper(StringBuilder txt, TreeTaggerParameter treeTaggerParameter,
+                             String outputPath, TreeTaggerProcessPool treeTaggerProcessPool) {
+        this(txt, treeTaggerParameter, outputPath);
+        _treeTaggerProcessPool = treeTaggerProcessPool;
+    }
+
+    /**
+     * constructor for TreeTaggerWrapper, the output of TreeTagger is not retained : each line is given to the
+     * tokenReader when it is read
+     * @param txt the extracted text
+     * @param treeTaggerParameter the tree tagger parameter is contains on this class
+     * @param outputPath the working directory of the termith process
+     * @param treeTaggerProcessPool the pool of long-lived TreeTagger processes
+     * @param tokenReader reads the output of TreeTagger, one tagged token per line
+     */
+    public TreeTaggerWrapper(StringBuilder txt, TreeTaggerParameter treeTaggerParameter,
+                             String outputPath, TreeTaggerProcessPool treeTaggerProcessPool,
+                             TreeTaggerProcessPool.TokenReader tokenReader) {
+        this(txt, treeTaggerParameter, outputPath, treeTaggerProcessPool);
+        _tokenReader = tokenReader;
+    }
+
     /**
      * get the output of the treetagger process
-     * @return return a StringBuilder with the output of the treetagger process
+     * @return return a StringBuilder with the output of the treetagger process, it is empty if the output is given
+     * to a TokenReader
      */
     public StringBuilder getTtOut() {
         return _ttOut;
@@ -55,7 +87,15 @@ public class TreeTaggerWrapper {
      */
     public void execute() throws IOException, InterruptedException {
         /*
-        convert extracted text and write it to a file
+        stream the tokens to a process of the pool if the text does not contain sgml tags
+         */
+        if (_treeTaggerProcessPool != null && !TreeTaggerTokenizer.containsSgmlTag(_txt)) {
+            TreeTaggerTokenizer treeTaggerTokenizer = new TreeTaggerTokenizer(_treeTaggerParameter.getLang());
+            _treeTaggerProcessPool.tag(stdin -> treeTaggerTokenizer.tokenize(_txt, stdin), _tokenReader);
+            return;
+        }
+        /*
+        write the converted text to a file
          */
         String ttPath = writeFile(parsingText());
         /*
@@ -68,12 +108,10 @@ public class TreeTaggerWrapper {
         get the result of treetagger
          */
         BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(p.getInputStream()));
-        _ttOut =
-                bufferedReader.lines().map(String::toString).collect(Collector.of(
-                        StringBuilder::new,
-                        (stringBuilder, str) -> stringBuilder.append(str).append("\n"),
-                        StringBuilder::append)
-                );
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            _tokenReader.read(line);
+        }
 
         /*
         check if TreeTagger is not interrupted during the execution
@@ -122,30 +160,7 @@ public class TreeTaggerWrapper {
      * make each word separate by a space and punctuations in a new line.
      * @return return the execute text
      */
-    private String parsingText() throws IOException, InterruptedException {
-
-        String lang;
-        if ("fr".equals(_treeTaggerParameter.getLang())){
-            lang = "-f";
-        }
-        else {
-            lang = "-e";
-        }
-
-        String tokenizePath = writeFile(_txt.toString());
-        Process p = Runtime.getRuntime().exec(new String[]{_treeTaggerParameter.getTokenizePath(),lang,tokenizePath});
-
-        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(p.getInputStream()));
-        String collect = bufferedReader.lines().collect(Collectors.joining("\n"));
-        int exitCode = p.waitFor();
-                if (exitCode != 0) {
-            throw new InterruptedException(IOUtils.toString(p.getErrorStream(),"UTF-8"));
-
-        }
-        if (p.isAlive()){
-            p.destroy();
-        }
-        Files.delete(Paths.get(tokenizePath));
-        return collect;
+    private String parsingText() {
+        return new TreeTaggerTokenizer(_treeTaggerParameter.getLang()).tokenize(_txt);
     }
 }
@@ -0,0 +1,84 @@
+package org.atilf.module.enrichment.exporter;
+
+import org.atilf.models.TermithIndex;
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.atilf.models.enrichment.MultiWordsOffsetId;
+import org.atilf.module.Module;
+import org.atilf.module.enrichment.analyzer.TerminologyStandOff;
+import org.atilf.module.enrichment.lexical.resource.projection.PhraseologyProjector;
+import org.atilf.module.enrichment.lexical.resource.projection.TransdisciplinaryLexiconsProjector;
+import org.atilf.module.tools.FilesUtils;
+import org.atilf.resources.enrichment.ResourceProjection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the StandOffExporter runs the tasks of the TerminologyStandOff, the PhraseologyProjector, the
+ * TransdisciplinaryLexiconsProjector and the TeiWriter on a file. The morphology of the file is read once and shared
+ * by the tasks. As with the delegates, an error of a task is logged and the next tasks are run.
+ */
+public class StandOffExporter extends Module {
+
+    private final String _id;
+    private final ResourceProjection _phraseology;
+    private final ResourceProjection _transdisciplinary;
+    private final String _outputPath;
+    private List<MorphologyOffsetId> _morphologyOffsetIds;
+    private List<MultiWordsOffsetId> _multiWordsOffsetIds;
+
+    /**
+     * constructor for StandOffExporter
+     * @param id the concerned file
+     * @param termithIndex the termithIndex of a process
+     * @param phraseology the phraseology resource
+     * @param transdisciplinary the transdisciplinary resource
+     * @param outputPath the output folder of the tei files
+     */
+    public StandOffExporter(String id, TermithIndex termithIndex, ResourceProjection phraseology,
+                            ResourceProjection transdisciplinary, String outputPath) {
+        super(termithIndex);
+        _id = id;
+        _phraseology = phraseology;
+        _transdisciplinary = transdisciplinary;
+        _outputPath = outputPath;
+    }
+
+    @Override
+    protected void execute() {
+        project();
+        write();
+    }
+
+    /**
+     * read the morphology of the file, retrieve the morphology ids of the terms and project the resources. The terms
+     * are kept until the file is written
+     */
+    public void project() {
+        _morphologyOffsetIds = FilesUtils.readListObject(_termithIndex.getMorphologyStandOff().get(_id));
+        TerminologyStandOff terminologyStandOff = new TerminologyStandOff(_id, _termithIndex, _morphologyOffsetIds);
+        run(terminologyStandOff);
+        _multiWordsOffsetIds = terminologyStandOff.getTerminology();
+        _termithIndex.getPhraseoOffsetId().put(_id, new ArrayList<>());
+        run(new PhraseologyProjector(_id, _termithIndex, _phraseology, _morphologyOffsetIds));
+        _termithIndex.getTransdisciplinaryOffsetId().put(_id, new ArrayList<>());
+        run(new TransdisciplinaryLexiconsProjector(_id, _termithIndex, _transdisciplinary, _morphologyOffsetIds));
+    }
+
+    /**
+     * write the tei file with the morphology and the terms of the project method
+     */
+    public void write() {
+        run(new TeiWriter(_id, _termithIndex, _outputPath, _morphologyOffsetIds, _multiWordsOffsetIds));
+        _morphologyOffsetIds = null;
+        _multiWordsOffsetIds = null;
+    }
+
+    private void run(Module module) {
+        try {
+            module.run();
+        } catch (Exception e) {
+            _logger.error("{} failed for file : {}", module.getClass().getSimpleName(), _id, e);
+        }
+    }
+}
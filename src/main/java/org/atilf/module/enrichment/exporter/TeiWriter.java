@@ -1,19 +1,25 @@
 package org.atilf.module.enrichment.exporter;
 
+import org.atilf.models.ArtifactHandle;
 import org.atilf.models.TermithIndex;
 import org.atilf.models.enrichment.MorphologyOffsetId;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
 import org.atilf.module.Module;
 import org.atilf.module.tools.FilesUtils;
 import org.atilf.resources.enrichment.StandOffResources;
+import org.atilf.resources.enrichment.StandOffTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 import static org.atilf.models.enrichment.SpecialChXmlEscape.replaceChar;
@@ -25,14 +31,21 @@ import static org.atilf.models.enrichment.SpecialChXmlEscape.replaceChar;
  */
 public class TeiWriter extends Module{
 
+    private String _key;
     private Path _outputPath;
     private StringBuilder _tokenizeBody;
-    final StringBuilder _xmlCorpus;
+    BufferedReader _xmlCorpus;
+    /*
+    the rest of the line of the source where the text element begins
+     */
+    private String _textLine;
     BufferedWriter _bufferedWriter = null;
-    private final List<MorphologyOffsetId> _morphologyOffsetIds;
-    private final List<MultiWordsOffsetId> _multiWordsOffsetIds;
-    private final List<MultiWordsOffsetId> _resourceProjectorOffsetIds;
-    private final List<MultiWordsOffsetId> _transdisciplinaryOffsetIds;
+    private List<MorphologyOffsetId> _morphologyOffsetIds;
+    private List<MultiWordsOffsetId> _multiWordsOffsetIds;
+    private List<MultiWordsOffsetId> _resourceProjectorOffsetIds;
+    private List<MultiWordsOffsetId> _transdisciplinaryOffsetIds;
+    private final StringBuilder _target = new StringBuilder();
+    private final char[] _chars = new char[8192];
     private static final Logger LOGGER = LoggerFactory.getLogger(TeiWriter.class.getName());
 
 
@@ -43,33 +56,38 @@ public class TeiWriter extends Module{
      */
     public TeiWriter(String key,TermithIndex termithIndex, String outputhPath){
         /*
-         * read externals object and file related to the key and call the other constructor
+         * the externals objects and the file related to the key are read by the execute method
          */
-        this(
-                //xml corpus
-                FilesUtils.readFile(termithIndex.getXmlCorpus().get(key)),
-                //morphologyOffsetIds
-                FilesUtils.readListObject(termithIndex.getMorphologyStandOff().get(key)),
-                //the tokenize body
-                FilesUtils.readObject(termithIndex.getTokenizeTeiBody().get(key),StringBuilder.class),
-                //the terminology
-                termithIndex.getTerminologyStandOff().get(key),
-                termithIndex.getPhraseoOffsetId().get(key),
-                termithIndex.getTransdisciplinaryOffsetId().get(key),
-                //the write output path
-                Paths.get(outputhPath + "/" + key + ".xml")
-        );
-        try {
+        super(termithIndex);
+        _key = key;
+        _outputPath = Paths.get(outputhPath + "/" + key + ".xml");
+    }
 
-            //delete java objects files
-            Files.delete(termithIndex.getMorphologyStandOff().get(key));
-            Files.delete(termithIndex.getTokenizeTeiBody().get(key));
-        } catch (IOException e) {
-            LOGGER.error("cannot delete file",e);
-        }
+    /**
+     * constructor for TeiWriter with a morphology already read by the caller
+     * @param key the concerned file
+     * @param termithIndex the termithIndex of a process
+     * @param outputhPath the output folder
+     * @param morphologyOffsetIds the morphology of the file, it is read by the execute method if it is null
+     */
+    public TeiWriter(String key, TermithIndex termithIndex, String outputhPath,
+                     List<MorphologyOffsetId> morphologyOffsetIds) {
+        this(key, termithIndex, outputhPath);
+        _morphologyOffsetIds = morphologyOffsetIds;
+    }
 
-        _outputPath = Paths.get(outputhPath + "/" + key + ".xml");
-        _termithIndex = termithIndex;
+    /**
+     * constructor for TeiWriter with a morphology and a terminology already read by the caller
+     * @param key the concerned file
+     * @param termithIndex the termithIndex of a process
+     * @param outputhPath the output folder
+     * @param morphologyOffsetIds the morphology of the file, it is read by the execute method if it is null
+     * @param multiWordsOffsetIds the terms of the file, they are read by the execute method if they are null
+     */
+    public TeiWriter(String key, TermithIndex termithIndex, String outputhPath,
+                     List<MorphologyOffsetId> morphologyOffsetIds, List<MultiWordsOffsetId> multiWordsOffsetIds) {
+        this(key, termithIndex, outputhPath, morphologyOffsetIds);
+        _multiWordsOffsetIds = multiWordsOffsetIds;
     }
 
     /**
@@ -87,7 +105,7 @@ public class TeiWriter extends Module{
               List<MultiWordsOffsetId> transdisciplinaryOffsetIds,
               Path outputPath) {
 
-        _xmlCorpus = xmlCorpus;
+        _xmlCorpus = new BufferedReader(new StringReader(xmlCorpus.toString()));
         _morphologyOffsetIds = morphologyOffsetIds;
         _tokenizeBody = tokenizeBody;
         _multiWordsOffsetIds = multiWordsOffsetIds;
@@ -102,51 +120,167 @@ public class TeiWriter extends Module{
     }
 
     /**
-     * write the new file. Insert new standOff tags and tokenize body
+     * write the new file. The source is streamed once : its beginning is copied with the standoff namespace, the
+     * standOff elements are written before the text element, which is replaced by the tokenize body
      */
     @Override
     public void execute() {
         LOGGER.debug("writing : {}",_outputPath);
+        if (_xmlCorpus == null) {
+            load();
+        }
         try {
-            //insert standoff namespace
+            //copy the beginning of the source with the standoff namespace
             insertStandoffNs();
             //insert standoff element
             insertStandOff();
             //insert tokenize body
             insertBody();
             _bufferedWriter.close();
+            if (_key != null) {
+                complete();
+            }
         } catch (Exception e) {
             LOGGER.error("could not write file", e);
+        } finally {
+            try {
+                _xmlCorpus.close();
+            } catch (IOException e) {
+                LOGGER.error("cannot close the xml file", e);
+            }
         }
     }
 
     /**
-     * insert standoff namespace
+     * read externals object and file related to the key. The file is written in a partial file
      */
-    void insertStandoffNs(){
-        int teiTag = _xmlCorpus.indexOf("<TEI ") + 5;
-        _xmlCorpus.insert(teiTag, StandOffResources.NS.substring(0, StandOffResources.NS.length() - 1) + " ");
+    private void load() {
+        //morphologyOffsetIds
+        if (_morphologyOffsetIds == null) {
+            _morphologyOffsetIds = FilesUtils.readListObject(_termithIndex.getMorphologyStandOff().get(_key));
+        }
+        //the tokenize body
+        _tokenizeBody = FilesUtils.readObject(_termithIndex.getTokenizeTeiBody().get(_key),StringBuilder.class);
+        //the terminology
+        if (_multiWordsOffsetIds == null) {
+            _multiWordsOffsetIds = _termithIndex.getTerminologyStandOff().get(_key);
+        }
+        ArtifactHandle resolvedTerminology = _termithIndex.getResolvedTerminology().get(_key);
+        if (_multiWordsOffsetIds == null && resolvedTerminology != null) {
+            _multiWordsOffsetIds = FilesUtils.readListObject(resolvedTerminology);
+        }
+        _resourceProjectorOffsetIds = _termithIndex.getPhraseoOffsetId().get(_key);
+        _transdisciplinaryOffsetIds = _termithIndex.getTransdisciplinaryOffsetId().get(_key);
+        try {
+            //xml corpus
+            _xmlCorpus = Files.newBufferedReader(_termithIndex.getXmlCorpus().get(_key));
+            _bufferedWriter = Files.newBufferedWriter(partialPath());
+        } catch (IOException e) {
+            LOGGER.error("cannot initialize buffered writer object",e);
+        }
+    }
 
+    /**
+     * replace the written file by the partial file and release the java objects. An exported file is always complete,
+     * the file of a document interrupted during its writing is written again when the process is resumed
+     * @throws IOException thrown an exception if the partial file cannot be moved
+     */
+    private void complete() throws IOException {
+        Files.move(partialPath(), _outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        //release java objects
+        FilesUtils.deleteObject(_termithIndex.getMorphologyStandOff().get(_key));
+        FilesUtils.deleteObject(_termithIndex.getTokenizeTeiBody().get(_key));
+        ArtifactHandle resolvedTerminology = _termithIndex.getResolvedTerminology().remove(_key);
+        if (resolvedTerminology != null) {
+            FilesUtils.deleteObject(resolvedTerminology);
+        }
+        List<ArtifactHandle> shards = _termithIndex.getTerminologyShards().remove(_key);
+        if (shards != null) {
+            shards.forEach(FilesUtils::deleteObject);
+            _termithIndex.getTerminologyStandOff().remove(_key);
+        }
+    }
+
+    private Path partialPath() {
+        return _outputPath.resolveSibling(_outputPath.getFileName() + ".part");
+    }
+
+    /**
+     * copy the source until the text element and insert the standoff namespace in the TEI element. The lines are
+     * joined by a line feed
+     * @throws IOException thrown an exception if the source cannot be read or the output cannot be written
+     */
+    void insertStandoffNs() throws IOException {
+        boolean nsInserted = false;
+        String line;
+        while ((line = _xmlCorpus.readLine()) != null) {
+            int teiTag;
+            if (!nsInserted && (teiTag = line.indexOf("<TEI ")) != -1) {
+                _bufferedWriter.write(line, 0, teiTag + 5);
+                _bufferedWriter.write(StandOffResources.NS_ATTRIBUTE);
+                line = line.substring(teiTag + 5);
+                nsInserted = true;
+            }
+            int startText = searchStart(line);
+            if (startText != -1) {
+                _bufferedWriter.write(line, 0, startText);
+                _textLine = line.substring(startText);
+                return;
+            }
+            _bufferedWriter.write(line);
+            _bufferedWriter.write('\n');
+        }
+        throw new IOException("cannot find the text element");
     }
 
     /**
-     * insert tokenize body
+     * insert tokenize body and copy the source after the text element
      * @throws IOException thrown an exception if _bufferedWriter fields throws an error during writing
      */
     void insertBody() throws IOException {
-        _bufferedWriter.append(_tokenizeBody.append("\n"));
-        _bufferedWriter.append(_xmlCorpus.subSequence(_xmlCorpus.indexOf("</text>") + 7, _xmlCorpus.length()));
+        write(_bufferedWriter, _tokenizeBody);
+        _bufferedWriter.write('\n');
+
+        String line = _textLine;
+        int endText;
+        while ((endText = line.indexOf("</text>")) == -1) {
+            line = _xmlCorpus.readLine();
+            if (line == null) {
+                throw new IOException("cannot find the end of the text element");
+            }
+        }
+        _bufferedWriter.write(line, endText + 7, line.length() - endText - 7);
+        while ((line = _xmlCorpus.readLine()) != null) {
+            _bufferedWriter.write('\n');
+            _bufferedWriter.write(line);
+        }
         _bufferedWriter.flush();
     }
 
+    /**
+     * write a buffer without copying it into a string
+     * @param writer the output
+     * @param buffer the buffer
+     * @throws IOException thrown if the writer fails
+     */
+    private void write(Writer writer, StringBuilder buffer) throws IOException {
+        for (int begin = 0; begin < buffer.length(); begin += _chars.length) {
+            int end = Math.min(begin + _chars.length, buffer.length());
+            buffer.getChars(begin, end, _chars, 0);
+            writer.write(_chars, 0, end - begin);
+        }
+    }
+
     /**
      * search the beginning of the <text> element
-     * @return the begin index
+     * @param line a line of the source
+     * @return the begin index, -1 if the text element does not begin in this line
      */
-    int searchStart() {
-        int index = _xmlCorpus.indexOf("<text>");
-        if (index == -1){
-            index = _xmlCorpus.indexOf("<text ");
+    static int searchStart(String line) {
+        int index = line.indexOf("<text>");
+        int indexWithAttributes = line.indexOf("<text ");
+        if (index == -1 || (indexWithAttributes != -1 && indexWithAttributes < index)){
+            index = indexWithAttributes;
         }
         return index;
     }
@@ -156,11 +290,6 @@ public class TeiWriter extends Module{
      * @throws IOException thrown an exception if _bufferedWriter fields throws an error during writing
      */
     private void insertStandOff() throws IOException {
-        /*
-         * retrieve index of the text element
-         */
-        int startText = searchStart();
-        _bufferedWriter.append(_xmlCorpus.subSequence(0,startText));
         /*
         inject morphology
          */
@@ -191,12 +320,13 @@ public class TeiWriter extends Module{
 
     void serializeTransdisciplinary(List<MultiWordsOffsetId> transdisciplinaryOffsetIds) throws IOException {
         serializeOffsetId(transdisciplinaryOffsetIds,"lexiquesTransdisciplinaires",
-                StandOffResources.LST_SPAN,
+                StandOffResources.LST_SPAN_TEMPLATE,
                 StandOffResources.LST_TEI_HEADER);
     }
 
     void serializePhraseology(List<MultiWordsOffsetId> resourceProjectorOffsetIds) throws IOException {
-        serializeOffsetId(resourceProjectorOffsetIds,"syntagmesDefinis", StandOffResources.PH_SPAN, StandOffResources.PH_TEI_HEADER);
+        serializeOffsetId(resourceProjectorOffsetIds,"syntagmesDefinis", StandOffResources.PH_SPAN_TEMPLATE,
+                StandOffResources.PH_TEI_HEADER);
     }
 
     /**
@@ -205,11 +335,13 @@ public class TeiWriter extends Module{
      * @throws IOException thrown an exception if _bufferedWriter fields throws an error during writing
      */
     void serializeTerminology(List<MultiWordsOffsetId> multiWordsOffsetIds) throws IOException {
-        serializeOffsetId(multiWordsOffsetIds,"candidatsTermes", StandOffResources.T_SPAN, StandOffResources.T_TEI_HEADER);
+        serializeOffsetId(multiWordsOffsetIds,"candidatsTermes", StandOffResources.T_SPAN_TEMPLATE,
+                StandOffResources.T_TEI_HEADER);
     }
 
-    private void serializeOffsetId(List<? extends MultiWordsOffsetId> termOffsetIds, String type, StringBuilder
-            spanTemplate, StringBuilder teiHeaderTemplate) throws IOException {
+    private void serializeOffsetId(List<? extends MultiWordsOffsetId> termOffsetIds, String type,
+                                   StandOffTemplate spanTemplate, StringBuilder teiHeaderTemplate)
+            throws IOException {
     /*
     reorder the list
      */
@@ -217,15 +349,13 @@ public class TeiWriter extends Module{
         /*
         write the standoff element root
          */
-        _bufferedWriter.append(
-                replaceTemplate(cut(new StringBuilder(StandOffResources.STANDOFF),false),"@type",type)
-        );
+        StandOffResources.STANDOFF_START.write(_bufferedWriter, type);
         _bufferedWriter.append(teiHeaderTemplate);
 
         if (type.equals("candidatsTermes")) {
             _bufferedWriter.append(StandOffResources.T_INTERP_GRP);
         }
-        _bufferedWriter.append(cut(StandOffResources.LIST_ANNOTATION, false));
+        _bufferedWriter.write(StandOffResources.LIST_ANNOTATION_START);
         /*
         write his content
          */
@@ -233,17 +363,23 @@ public class TeiWriter extends Module{
             /*
             write a span element
              */
-            StringBuilder entry = new StringBuilder(spanTemplate);
-            replaceTemplate(entry,"@target", serializeId(token.getIds()));
-            replaceTemplate(entry, "@corresp", String.valueOf(token.getTermId()));
-            replaceTemplate(entry, "@string", replaceChar(token.getWord()));
-            _bufferedWriter.append(entry);
+            spanTemplate.write(_bufferedWriter, (writer, slot) -> {
+                if (slot == 0) {
+                    write(writer, serializeId(token.getIds(), _target));
+                }
+                else if (slot == 1) {
+                    writer.write(Integer.toString(token.getTermId()));
+                }
+                else {
+                    replaceChar(token.getWord(), writer);
+                }
+            });
         }
         /*
         write end elements
          */
-        _bufferedWriter.append(cut(StandOffResources.LIST_ANNOTATION,true));
-        _bufferedWriter.append(cut(StandOffResources.STANDOFF,true));
+        _bufferedWriter.write(StandOffResources.LIST_ANNOTATION_END);
+        _bufferedWriter.write(StandOffResources.STANDOFF_END);
     }
 
     private void sortMultiWordOffsetList(List<? extends MultiWordsOffsetId> termOffsetIds) {
@@ -256,31 +392,6 @@ public class TeiWriter extends Module{
         });
     }
 
-    /**
-     * return the start tag or the close tag of a resource from StandOffResources
-     * @return the start tag or close tag
-     */
-    StringBuilder cut(StringBuilder template, boolean closedTag) {
-        String separator = "(?<=\n)";
-        if (closedTag)
-            return new StringBuilder(template.toString().split(separator)[1]);
-        else
-            return new StringBuilder(template.toString().split(separator)[0]);
-    }
-
-    /**
-     * modify standoff element resource
-     * @param template the standoff template
-     * @param model the resource to replace
-     * @param occurrence the element who replaced the model variable
-     * @return the modified template
-     */
-    private StringBuilder replaceTemplate(StringBuilder template, String model, String occurrence) {
-        int index = template.indexOf(model);
-        template.replace(index, index + model.length(), occurrence);
-        return template;
-    }
-
     /**
      * convert MorphologyOffsetId into standoff element
      * @param morphologyOffsetIds the list of morphologyOffsetId
@@ -290,9 +401,9 @@ public class TeiWriter extends Module{
         /*
         write standOff element root
          */
-        _bufferedWriter.append(replaceTemplate(cut(StandOffResources.STANDOFF,false),"@type","wordForms"));
+        StandOffResources.STANDOFF_START.write(_bufferedWriter, "wordForms");
         _bufferedWriter.append(StandOffResources.MS_TEI_HEADER);
-        _bufferedWriter.append(cut(StandOffResources.LIST_ANNOTATION,false));
+        _bufferedWriter.write(StandOffResources.LIST_ANNOTATION_START);
         /*
         write content of standOff element
          */
@@ -300,27 +411,37 @@ public class TeiWriter extends Module{
             /*
             write span element
              */
-            StringBuilder entry = new StringBuilder(StandOffResources.MS_SPAN);
-            replaceTemplate(entry, "@target", serializeId(token.getIds()));
-            replaceTemplate(entry, "@lemma", replaceChar(token.getLemma()));
-            replaceTemplate(entry, "@pos", token.getTag());
-            _bufferedWriter.append(entry);
+            StandOffResources.MS_SPAN_TEMPLATE.write(_bufferedWriter, (writer, slot) -> {
+                if (slot == 0) {
+                    write(writer, serializeId(token.getIds(), _target));
+                }
+                else if (slot == 1) {
+                    replaceChar(token.getLemma(), writer);
+                }
+                else {
+                    writer.write(token.getTag());
+                }
+            });
         }
-        _bufferedWriter.append(cut(StandOffResources.LIST_ANNOTATION,true));
-        _bufferedWriter.append(cut(StandOffResources.STANDOFF,true));
+        _bufferedWriter.write(StandOffResources.LIST_ANNOTATION_END);
+        _bufferedWriter.write(StandOffResources.STANDOFF_END);
     }
 
     /**
-     * convert ids to xml targets
+     * convert ids to xml targets in a reused buffer
      * @param ids the id list
-     * @return the xml target
+     * @param target the buffer of the target, it is cleared
+     * @return the buffer
      */
-    String serializeId(List<Integer> ids) {
-        StringBuilder target = new StringBuilder();
+    private StringBuilder serializeId(List<Integer> ids, StringBuilder target) {
+        target.setLength(0);
         for (int id : ids) {
-            target.append("#t").append(id).append(" ");
+            if (target.length() != 0) {
+                target.append(' ');
+            }
+            target.append("#t").append(id);
         }
-        return target.substring(0,target.length() - 1);
+        return target;
     }
 
     /**
@@ -3,6 +3,7 @@ package org.atilf.module.enrichment.initializer;
 import org.atilf.models.TermithIndex;
 import org.atilf.module.Module;
 import org.atilf.module.tools.FilesUtils;
+import org.atilf.module.tools.SpecialCharacterTranslator;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -18,25 +19,45 @@ public class CorpusInitializer extends Module {
     private Path _inputPath;
     private Path _outputPath;
     private TermithIndex termithIndex;
+    private boolean _translation;
     /**
      * constructor of the class the parameter _inputPath is the _inputPath of the file that we want to treated
      * @param inputPath _inputPath of the input file
      */
     public CorpusInitializer(Path inputPath, Path outputPath,TermithIndex termithIndex) {
+        this(inputPath, outputPath, termithIndex, false);
+    }
+
+    /**
+     * constructor of the class the parameter _inputPath is the _inputPath of the file that we want to treated
+     * @param inputPath _inputPath of the input file
+     * @param outputPath the working directory
+     * @param termithIndex the termithIndex of a process
+     * @param translation true if the special characters are translated while the file is copied, otherwise the
+     *                    input file is linked in the working directory
+     */
+    public CorpusInitializer(Path inputPath, Path outputPath, TermithIndex termithIndex, boolean translation) {
         super(termithIndex);
         _inputPath = inputPath;
         _outputPath = outputPath;
         this.termithIndex = termithIndex;
+        _translation = translation;
     }
 
     /**
-     * put xml _inputPath on xmlCorpus hashMap
+     * put xml _inputPath on xmlCorpus hashMap. The input file is read once : it is translated into the working
+     * directory, or it is not read at all if it is linked
      */
     @Override
     public void execute(){
         Path outputFilePath = Paths.get(_outputPath + "/" + UUID.randomUUID().toString());
         try {
-            Files.copy(_inputPath, outputFilePath);
+            if (_translation) {
+                SpecialCharacterTranslator.translate(_inputPath.toFile(), outputFilePath.toFile());
+            }
+            else {
+                outputFilePath = link(outputFilePath);
+            }
         } catch (IOException e) {
             _logger.error("cannot copy file {}",_inputPath.toString(),e);
         }
@@ -47,4 +68,19 @@ public class CorpusInitializer extends Module {
             );
         }
     }
+
+    /**
+     * link the input file in the working directory. The input file is used if the file system does not support the
+     * hard links, the files of the corpus are not modified by the process when they are not translated
+     * @param outputFilePath the path of the link
+     * @return the path of the working file
+     */
+    private Path link(Path outputFilePath) {
+        try {
+            return Files.createLink(outputFilePath, _inputPath);
+        } catch (IOException | UnsupportedOperationException e) {
+            _logger.debug("cannot link file {}, the input file is used", _inputPath, e);
+            return _inputPath;
+        }
+    }
 }
@@ -1,18 +1,17 @@
 package org.atilf.module.enrichment.initializer;
 
 import org.atilf.models.TermithIndex;
+import org.atilf.models.enrichment.TaggingCache;
+import org.atilf.models.enrichment.TextLength;
+import org.atilf.models.enrichment.TextOffsetMap;
 import org.atilf.module.Module;
 import org.atilf.module.tools.FilesUtils;
+import org.atilf.resources.enrichment.TextExtraction;
 import org.atilf.resources.enrichment.XslResources;
+import org.atilf.resources.enrichment.XslTextExtraction;
 
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 import java.io.File;
 import java.io.IOException;
-import java.io.StringWriter;
 import java.nio.file.Path;
 
 /**
@@ -24,8 +23,10 @@ public class TextExtractor extends Module {
     private String _fileName;
     private File _file;
     private Path _out;
-    private XslResources _xslResources;
+    private TextExtraction _textExtraction;
     private StringBuilder _extractedText;
+    private TextOffsetMap _offsetMap;
+    private TaggingCache _taggingCache;
 
     /**
      * constructor for textExtractor
@@ -34,11 +35,36 @@ public class TextExtractor extends Module {
      * @param termithIndex the termithIndex of a process
      */
     public TextExtractor(String fileName, TermithIndex termithIndex, Path out, XslResources xslResources) {
+        this(fileName, termithIndex, out, new XslTextExtraction(xslResources));
+    }
+
+    /**
+     * constructor for textExtractor
+     * @param fileName Treated xml/tei _file
+     * @param termithIndex the termithIndex of a process
+     * @param out the working directory
+     * @param textExtraction the extraction selected for the run
+     */
+    public TextExtractor(String fileName, TermithIndex termithIndex, Path out, TextExtraction textExtraction) {
         super(termithIndex);
         _file = termithIndex.getXmlCorpus().get(fileName).toFile();
         _out = out;
         _fileName = fileName;
-        _xslResources = xslResources;
+        _textExtraction = textExtraction;
+    }
+
+    /**
+     * constructor for textExtractor
+     * @param fileName Treated xml/tei _file
+     * @param termithIndex the termithIndex of a process
+     * @param out the working directory
+     * @param textExtraction the extraction selected for the run
+     * @param taggingCache the tagging cache of the run or null, the key of the extracted text is computed once
+     */
+    public TextExtractor(String fileName, TermithIndex termithIndex, Path out, TextExtraction textExtraction,
+                         TaggingCache taggingCache) {
+        this(fileName, termithIndex, out, textExtraction);
+        _taggingCache = taggingCache;
     }
 
     /**
@@ -47,8 +73,17 @@ public class TextExtractor extends Module {
      * @param xslResources contains the parsed xsl stylesheet
      */
     TextExtractor(File file, XslResources xslResources) {
+        this(file, new XslTextExtraction(xslResources));
+    }
+
+    /**
+     * constructor for textExtractor
+     * @param file Treated xml/tei _file
+     * @param textExtraction the extraction of the plain text
+     */
+    TextExtractor(File file, TextExtraction textExtraction) {
         _file = file;
-        _xslResources = xslResources;
+        _textExtraction = textExtraction;
     }
 
     StringBuilder getExtractedText() {
@@ -56,41 +91,27 @@ public class TextExtractor extends Module {
     }
 
     /**
-     * this method apply an xsl stylesheet to a file given in the _file field. it extracts the plain text of the tei file
+     * getter for the offset map of the extracted text
+     * @return the map of the characters inserted by the extraction or null if the extraction does not map them
+     */
+    TextOffsetMap getOffsetMap() {
+        return _offsetMap;
+    }
+
+    /**
+     * this method extracts the plain text of the tei file given in the _file field, with the xsl stylesheet or the
+     * stax extraction. The stax extraction records the characters it inserts in the offset map of the file
      */
     @Override
     public void execute() {
-        /*
-        instantiate needed variables for transformation. The StringWriter variable is used to return
-        the result as a StringBuilder variable
-         */
-        Source input = new StreamSource(_file);
-        Transformer transformer;
-        StringWriter stringWriter = new StringWriter();
-        StreamResult streamResult = new StreamResult(stringWriter);
-        if (_logger.isDebugEnabled()) {
-            _logger.debug(
-                    "apply {} to xml file {}",
-                    _xslResources._stylesheet.toString(),
-                    input.toString()
-            );
-        }
         try {
-
-            /*
-            get new transformer
-             */
-            transformer = _xslResources._factory.newTransformer();
-            /*
-            apply the transformation
-             */
-            transformer.transform(input, streamResult);
-
-        } catch (TransformerException e) {
-            _logger.error("could not apply the xslt transformation to the file : " + _file.getAbsolutePath() + " ", e);
+            _offsetMap = _textExtraction.mapsOffsets() ? new TextOffsetMap() : null;
+            _extractedText = _textExtraction.extract(_file, _offsetMap);
+        } catch (IOException e) {
+            _logger.error("could not extract the text of the file : " + _file.getAbsolutePath() + " ", e);
+            _extractedText = new StringBuilder();
+            _offsetMap = null;
         }
-
-        _extractedText =  new StringBuilder(stringWriter.getBuffer());
     }
 
     /*
@@ -107,11 +128,21 @@ public class TextExtractor extends Module {
              */
             if (_extractedText.length() != 0) {
                 /*
-                put the result into the extractedText Map
+                put the result and its length into the extractedText Map, the length is used by the corpus analyzer
                  */
                 _termithIndex.getExtractedText().put(
                         _fileName,
-                        FilesUtils.writeObject(_extractedText, _out));
+                        FilesUtils.writeObject(_extractedText, _out, "extractedText", _fileName));
+                _termithIndex.getExtractedTextLength().put(_fileName, TextLength.of(_extractedText));
+                if (_taggingCache != null) {
+                    _termithIndex.getTaggingKey().put(_fileName,
+                            _taggingCache.key(_extractedText, FilesUtils.readFile(_file.toPath())));
+                }
+                if (_offsetMap != null) {
+                    _termithIndex.getTextOffsetMap().put(
+                            _fileName,
+                            FilesUtils.writeObject(_offsetMap, _out, "textOffsetMap", _fileName));
+                }
             }
 
             else {
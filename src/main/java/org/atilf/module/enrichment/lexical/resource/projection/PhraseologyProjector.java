@@ -5,6 +5,7 @@ import org.atilf.models.enrichment.MorphologyOffsetId;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
 import org.atilf.module.Module;
 import org.atilf.module.tools.FilesUtils;
+import org.atilf.resources.enrichment.LemmaTrie;
 import org.atilf.resources.enrichment.ResourceProjection;
 
 import java.util.ArrayList;
@@ -22,8 +23,20 @@ public class PhraseologyProjector extends Module{
     private String _id;
 
     public PhraseologyProjector(String id, TermithIndex termithIndex, ResourceProjection resourceProjection) {
-        this(id,FilesUtils.readListObject(termithIndex.getMorphologyStandOff().get(id)),termithIndex.getPhraseoOffsetId().get(id),
-                resourceProjection);
+        this(id,termithIndex,resourceProjection,null);
+    }
+
+    /**
+     * constructor for PhraseologyProjector with a morphology already read by the caller
+     * @param id the concerned file
+     * @param termithIndex the termithIndex of a process
+     * @param resourceProjection the phraseology resource
+     * @param morphologyOffset the morphology of the file, it is read by the execute method if it is null
+     */
+    public PhraseologyProjector(String id, TermithIndex termithIndex, ResourceProjection resourceProjection,
+                                List<MorphologyOffsetId> morphologyOffset) {
+        this(id,morphologyOffset,termithIndex.getPhraseoOffsetId().get(id),resourceProjection);
+        _termithIndex = termithIndex;
     }
 
     PhraseologyProjector(String id, List<MorphologyOffsetId> morphologyOffset, List<MultiWordsOffsetId> multiWordOffsetIds,
@@ -37,37 +50,59 @@ public class PhraseologyProjector extends Module{
     @Override
     protected void execute() {
         _logger.info("projection of phraseology for file : {} is started",_id);
+        loadMorphology();
         detectWords(2,5);
         _logger.info("projection of phraseology for file : {} is finished",_id);
     }
 
+    /**
+     * read the morphology of the file when the task is run and not when it is submitted
+     */
+    void loadMorphology() {
+        if (_morphologyOffset == null) {
+            _morphologyOffset = FilesUtils.readListObject(_termithIndex.getMorphologyStandOff().get(_id));
+        }
+    }
+
+    /**
+     * project the entries of the resource which contain between wordSize and wordSizeThreshold words. The entries
+     * are found with the trie of the resource, the documents with lemmas which cannot be compared as whole words are
+     * matched on the lemma strings.
+     * @param wordSize the minimum number of words of an entry
+     * @param wordSizeThreshold the maximum number of words of an entry
+     */
     void detectWords(int wordSize, int wordSizeThreshold) {
-        int memWordSize = wordSize;
-        for (MorphologyOffsetId mOffsetId : _morphologyOffset) {
-            int currentWordSize = memWordSize;
-            StringBuilder currentLemma = new StringBuilder(mOffsetId.getLemma() + " ");
-            List<MorphologyOffsetId> currentMorphologyOffsetId = new ArrayList<>();
-            currentMorphologyOffsetId.add(mOffsetId);
-            while(currentWordSize <= wordSizeThreshold){
+        LemmaTrie lemmaTrie = _resourceProjection.getLemmaTrie();
+        int[] lemmaIds = lemmaTrie.lemmaIds(_morphologyOffset);
+        if (lemmaIds == null) {
+            detectLemmas(wordSize, wordSizeThreshold);
+            return;
+        }
+        lemmaTrie.match(lemmaIds, wordSize, wordSizeThreshold, (begin, size, entry) -> {
+            _logger.debug("detection of expression : {}", entry);
+            addToProjectedData(_morphologyOffset.subList(begin, begin + size),
+                    _resourceProjection.getResourceMap().get(entry));
+        });
+    }
 
-                int wordAfter = _morphologyOffset.indexOf(mOffsetId) + currentWordSize - 1;
-                if (wordAfter < _morphologyOffset.size()) {
-                    if (currentWordSize > 1) {
-                        currentLemma.append(_morphologyOffset.get(wordAfter).getLemma()).append(" ");
-                        currentMorphologyOffsetId.add(_morphologyOffset.get(wordAfter));
-                    }
-                    String currentTrimmedLemma = currentLemma.toString().trim();
-                    if(_resourceProjection.getResourceMap().containsKey(currentTrimmedLemma)){
-                        _logger.debug("detection of expression : {}",currentLemma);
-                        addToProjectedData(currentMorphologyOffsetId,
-                                _resourceProjection.getResourceMap().get(currentTrimmedLemma));
-                    }
-                    currentWordSize++;
+    /**
+     * project the entries of the resource by building the lemma string of each sequence of words
+     * @param wordSize the minimum number of words of an entry
+     * @param wordSizeThreshold the maximum number of words of an entry
+     */
+    void detectLemmas(int wordSize, int wordSizeThreshold) {
+        for (int begin = 0; begin < _morphologyOffset.size(); begin++) {
+            StringBuilder currentLemma = new StringBuilder(_morphologyOffset.get(begin).getLemma() + " ");
+            for (int size = wordSize; size <= wordSizeThreshold && begin + size <= _morphologyOffset.size(); size++) {
+                if (size > 1) {
+                    currentLemma.append(_morphologyOffset.get(begin + size - 1).getLemma()).append(" ");
                 }
-                else {
-                    break;
+                String currentTrimmedLemma = currentLemma.toString().trim();
+                if(_resourceProjection.getResourceMap().containsKey(currentTrimmedLemma)){
+                    _logger.debug("detection of expression : {}",currentLemma);
+                    addToProjectedData(_morphologyOffset.subList(begin, begin + size),
+                            _resourceProjection.getResourceMap().get(currentTrimmedLemma));
                 }
-
             }
         }
     }
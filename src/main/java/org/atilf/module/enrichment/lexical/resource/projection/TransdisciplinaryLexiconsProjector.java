@@ -3,7 +3,6 @@ package org.atilf.module.enrichment.lexical.resource.projection;
 import org.atilf.models.TermithIndex;
 import org.atilf.models.enrichment.MorphologyOffsetId;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
-import org.atilf.module.tools.FilesUtils;
 import org.atilf.resources.enrichment.ResourceProjection;
 
 import java.util.List;
@@ -16,12 +15,26 @@ public class TransdisciplinaryLexiconsProjector extends PhraseologyProjector {
 
     public TransdisciplinaryLexiconsProjector(String id, TermithIndex termithIndex,
                                               ResourceProjection transdisciplinaryResource) {
+        this(id, termithIndex, transdisciplinaryResource, null);
+    }
+
+    /**
+     * constructor for TransdisciplinaryLexiconsProjector with a morphology already read by the caller
+     * @param id the concerned file
+     * @param termithIndex the termithIndex of a process
+     * @param transdisciplinaryResource the transdisciplinary resource
+     * @param morpho the morphology of the file, it is read by the execute method if it is null
+     */
+    public TransdisciplinaryLexiconsProjector(String id, TermithIndex termithIndex,
+                                              ResourceProjection transdisciplinaryResource,
+                                              List<MorphologyOffsetId> morpho) {
         this(
                 id,
-                FilesUtils.readListObject(termithIndex.getMorphologyStandOff().get(id)),
+                morpho,
                 termithIndex.getTransdisciplinaryOffsetId().get(id),
                 transdisciplinaryResource
         );
+        _termithIndex = termithIndex;
     }
 
     TransdisciplinaryLexiconsProjector(String id, List<MorphologyOffsetId> morpho,
@@ -32,6 +45,7 @@ public class TransdisciplinaryLexiconsProjector extends PhraseologyProjector {
 
     @Override
     protected void execute() {
+        loadMorphology();
         detectWords(1,5);
     }
 }
@@ -0,0 +1,432 @@
+package org.atilf.module.tools;
+
+import org.atilf.models.enrichment.MorphologyOffsetId;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the ArtifactCodec writes and reads the intermediate artifacts of the termith process (the extracted texts, the
+ * tokenized bodies and the morphology lists) in a versioned binary format instead of the java serialization.
+ *
+ * A file starts with a header : the magic number, the version of the format and the type of the artifact.
+ * - a text is stored as its length followed by its utf-16 chars
+ * - a text written line by line (e.g. the output of TreeTagger) is stored as its utf-8 lines, each line is followed
+ *   by a line break
+ * - a morphology list is stored as columns : a dictionary of the lemmas and tags, then the int arrays of the begins,
+ *   the ends, the lemma and tag indexes, the number of ids of each word and the flattened ids
+ *
+ * The big files are memory-mapped during the reading.
+ */
+public class ArtifactCodec {
+
+    static final int MAGIC = 0x54524D48;
+    static final short VERSION = 1;
+    static final byte TEXT = 1;
+    static final byte MORPHOLOGY = 2;
+    static final byte LINES = 3;
+    private static final int HEADER_SIZE = 4 + 2 + 1;
+    /*
+    the files smaller than this size are read in the heap, mapping them costs more than reading them
+     */
+    private static final long MAPPING_THRESHOLD = 64 * 1024;
+
+    private ArtifactCodec() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * check if an object can be written by the codec
+     * @param o the object
+     * @return true if the object is a text or a morphology list
+     */
+    static boolean isSupported(Object o) {
+        if (o instanceof CharSequence) {
+            return true;
+        }
+        if (o instanceof List) {
+            for (Object element : (List<?>) o) {
+                if (!(element instanceof MorphologyOffsetId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * write a text or a morphology list
+     * @param o the text or the morphology list
+     * @param out the output stream
+     * @throws IOException thrown if the stream cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    static void write(Object o, OutputStream out) throws IOException {
+        if (o instanceof CharSequence) {
+            ByteBuffer buffer = encodeText((CharSequence) o);
+            out.write(buffer.array(), 0, buffer.limit());
+        }
+        else {
+            writeMorphology((List<MorphologyOffsetId>) o, out);
+        }
+    }
+
+    /**
+     * write a text
+     * @param text the text
+     * @param path the path of the file
+     * @throws IOException thrown if the file cannot be written
+     */
+    public static void writeText(CharSequence text, Path path) throws IOException {
+        ByteBuffer buffer = encodeText(text);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static ByteBuffer encodeText(CharSequence text) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 + text.length() * 2);
+        writeHeader(buffer, TEXT);
+        buffer.putInt(text.length());
+        CharBuffer chars = buffer.asCharBuffer();
+        chars.append(text);
+        buffer.position(buffer.limit());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * write a morphology list
+     * @param morphologyOffsetIds the morphology list
+     * @param path the path of the file
+     * @throws IOException thrown if the file cannot be written
+     */
+    public static void writeMorphology(List<MorphologyOffsetId> morphologyOffsetIds, Path path) throws IOException {
+        try (OutputStream os = Files.newOutputStream(path)) {
+            writeMorphology(morphologyOffsetIds, os);
+        }
+    }
+
+    private static void writeMorphology(List<MorphologyOffsetId> morphologyOffsetIds, OutputStream os)
+            throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int size = morphologyOffsetIds.size();
+        int[] lemmas = new int[size];
+        int[] tags = new int[size];
+        int idCount = 0;
+        for (int i = 0; i < size; i++) {
+            MorphologyOffsetId morphologyOffsetId = morphologyOffsetIds.get(i);
+            lemmas[i] = index(dictionary, strings, morphologyOffsetId.getLemma());
+            tags[i] = index(dictionary, strings, morphologyOffsetId.getTag());
+            idCount += morphologyOffsetId.getIds().size();
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(MORPHOLOGY);
+        out.writeInt(size);
+        out.writeInt(idCount);
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            /*
+            -1 is the length of a null string
+             */
+            if (string == null) {
+                out.writeInt(-1);
+            }
+            else {
+                out.writeInt(string.length());
+                out.writeChars(string);
+            }
+        }
+        for (MorphologyOffsetId morphologyOffsetId : morphologyOffsetIds) {
+            out.writeInt(morphologyOffsetId.getBegin());
+        }
+        for (MorphologyOffsetId morphologyOffsetId : morphologyOffsetIds) {
+            out.writeInt(morphologyOffsetId.getEnd());
+        }
+        for (int lemma : lemmas) {
+            out.writeInt(lemma);
+        }
+        for (int tag : tags) {
+            out.writeInt(tag);
+        }
+        for (MorphologyOffsetId morphologyOffsetId : morphologyOffsetIds) {
+            out.writeInt(morphologyOffsetId.getIds().size());
+        }
+        for (MorphologyOffsetId morphologyOffsetId : morphologyOffsetIds) {
+            for (int id : morphologyOffsetId.getIds()) {
+                out.writeInt(id);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * read a text or a morphology list from a buffer
+     * @param buffer the buffer positioned at the beginning of the artifact
+     * @param source the name of the artifact used in the error messages
+     * @return a StringBuilder or a list of MorphologyOffsetId
+     * @throws IOException thrown if the buffer does not contain an artifact of a supported version
+     */
+    static Object read(ByteBuffer buffer, String source) throws IOException {
+        byte type = readHeader(buffer, source);
+        if (type == TEXT) {
+            return readText(buffer);
+        }
+        else if (type == MORPHOLOGY) {
+            return readMorphology(buffer);
+        }
+        else if (type == LINES) {
+            return new StringBuilder(StandardCharsets.UTF_8.decode(buffer));
+        }
+        throw new IOException("unknown artifact type " + type + " in " + source);
+    }
+
+    /**
+     * check if a buffer contains an artifact written by the codec
+     * @param buffer the buffer positioned at the beginning of the artifact
+     * @return true if the buffer starts with the magic number
+     */
+    static boolean isArtifact(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * read a text
+     * @param path the path of the file
+     * @return the text
+     * @throws IOException thrown if the file cannot be read or is not a text
+     */
+    public static StringBuilder readText(Path path) throws IOException {
+        ByteBuffer buffer = map(path);
+        if (readHeader(buffer, path.toString()) != TEXT) {
+            throw new IOException(path + " is not a text artifact");
+        }
+        return readText(buffer);
+    }
+
+    /**
+     * read a morphology list
+     * @param path the path of the file
+     * @return the morphology list
+     * @throws IOException thrown if the file cannot be read or is not a morphology list
+     */
+    public static List<MorphologyOffsetId> readMorphology(Path path) throws IOException {
+        ByteBuffer buffer = map(path);
+        if (readHeader(buffer, path.toString()) != MORPHOLOGY) {
+            throw new IOException(path + " is not a morphology artifact");
+        }
+        return readMorphology(buffer);
+    }
+
+    /**
+     * read a text written line by line, the lines are given to the reader and the text is never kept
+     * @param buffer the buffer positioned at the beginning of the artifact
+     * @param source the name of the artifact used in the error messages
+     * @param lineReader the reader of the lines
+     * @throws IOException thrown if the buffer is not a text or if the reader fails
+     */
+    static void readLines(ByteBuffer buffer, String source, LineReader lineReader) throws IOException {
+        byte type = readHeader(buffer, source);
+        if (type == TEXT) {
+            /*
+            the texts written at once are split
+             */
+            StringBuilder text = readText(buffer);
+            int start = 0;
+            while (start < text.length()) {
+                int end = text.indexOf("\n", start);
+                end = end == -1 ? text.length() : end;
+                lineReader.read(text.substring(start, end));
+                start = end + 1;
+            }
+            return;
+        }
+        else if (type != LINES) {
+            throw new IOException(source + " is not a text artifact");
+        }
+        /*
+        a line break is never a byte of a multi-byte utf-8 char, the lines are split on the bytes
+         */
+        byte[] line = new byte[256];
+        int length = 0;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                lineReader.read(new String(line, 0, length, StandardCharsets.UTF_8));
+                length = 0;
+            }
+            else {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+        if (length > 0) {
+            lineReader.read(new String(line, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * the reader of the lines of a text written line by line
+     */
+    public interface LineReader {
+        void read(String line) throws IOException;
+    }
+
+    /**
+     * the writer of a text written line by line : each line is encoded when it is written, the text is never kept as
+     * a string
+     */
+    public static class LineWriter {
+        private final Bytes _bytes = new Bytes();
+
+        public LineWriter() {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            writeHeader(header, LINES);
+            _bytes.write(header.array(), 0, HEADER_SIZE);
+        }
+
+        /**
+         * write a line followed by a line break
+         * @param line the line, without line break
+         */
+        public void write(String line) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            _bytes.write(bytes, 0, bytes.length);
+            _bytes.write('\n');
+        }
+
+        /**
+         * @return the artifact, the bytes are not copied
+         */
+        ByteBuffer toByteBuffer() {
+            return _bytes.toByteBuffer();
+        }
+
+        private static class Bytes extends ByteArrayOutputStream {
+            private Bytes() {
+                super(8 * 1024);
+            }
+
+            private ByteBuffer toByteBuffer() {
+                return ByteBuffer.wrap(buf, 0, count);
+            }
+        }
+    }
+
+    private static StringBuilder readText(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        CharBuffer chars = buffer.asCharBuffer();
+        chars.limit(length);
+        return new StringBuilder(length).append(chars);
+    }
+
+    private static List<MorphologyOffsetId> readMorphology(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        int idCount = buffer.getInt();
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length >= 0) {
+                CharBuffer chars = buffer.asCharBuffer();
+                chars.limit(length);
+                strings[i] = chars.toString();
+                buffer.position(buffer.position() + length * 2);
+            }
+        }
+        IntBuffer ints = buffer.asIntBuffer();
+        int[] begins = new int[size];
+        int[] ends = new int[size];
+        int[] lemmas = new int[size];
+        int[] tags = new int[size];
+        int[] idSizes = new int[size];
+        int[] ids = new int[idCount];
+        ints.get(begins).get(ends).get(lemmas).get(tags).get(idSizes).get(ids);
+
+        List<MorphologyOffsetId> morphologyOffsetIds = new ArrayList<>(size);
+        int id = 0;
+        for (int i = 0; i < size; i++) {
+            List<Integer> wordIds = new ArrayList<>(idSizes[i]);
+            for (int j = 0; j < idSizes[i]; j++) {
+                wordIds.add(ids[id++]);
+            }
+            morphologyOffsetIds.add(
+                    new MorphologyOffsetId(begins[i], ends[i], strings[lemmas[i]], strings[tags[i]], wordIds)
+            );
+        }
+        return morphologyOffsetIds;
+    }
+
+    private static int index(Map<String, Integer> dictionary, List<String> strings, String string) {
+        Integer index = dictionary.get(string);
+        if (index == null) {
+            index = strings.size();
+            dictionary.put(string, index);
+            strings.add(string);
+        }
+        return index;
+    }
+
+    private static void writeHeader(ByteBuffer buffer, byte type) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put(type);
+    }
+
+    private static byte readHeader(ByteBuffer buffer, String source) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException(source + " is not a termith artifact");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported version " + version + " of the artifact " + source);
+        }
+        return buffer.get();
+    }
+
+    /**
+     * map a file in memory or read it in the heap if it is small
+     * @param path the path of the file
+     * @return a buffer positioned at the beginning of the file
+     * @throws IOException thrown if the file cannot be read
+     */
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // read the whole file
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package org.atilf.module.tools;
+
+import org.atilf.models.ArtifactHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * the ArtifactStore writes the intermediate artifacts of the documents in a few append-only segment files instead of
+ * one file per artifact. Each stage (e.g. the extracted texts or the morphology lists) appends its artifacts to its
+ * own segment, a new segment is started when the current one is full. Each segment has an index file which contains
+ * the document, the offset and the length of its artifacts.
+ *
+ * The artifacts are released after their last reading, releasing an artifact twice has no effect. A full segment is
+ * deleted at once when all its artifacts are released, the current segments are deleted when the store is closed.
+ * The segments written by an interrupted process are adopted with the artifacts still used by the resumed process
+ * and deleted as the full segments.
+ */
+public class ArtifactStore {
+
+    static final String FOLDER = "artifacts";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactStore.class.getName());
+    private static final Map<Path, ArtifactStore> STORES = new ConcurrentHashMap<>();
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    /*
+    the artifacts smaller than this size are read in the heap, mapping them costs more than reading them
+     */
+    private static final int MAPPING_THRESHOLD = 64 * 1024;
+
+    private final Path _folder;
+    private final Map<String, Segment> _currentSegments = new HashMap<>();
+    private final Map<String, Integer> _segmentNumbers = new HashMap<>();
+    private final Map<Path, Segment> _segments = new ConcurrentHashMap<>();
+
+    private ArtifactStore(Path folder) {
+        _folder = folder;
+    }
+
+    /**
+     * return the store of a working directory, its segments are written in the artifacts folder
+     * @param workingPath the working directory
+     * @return the artifact store
+     */
+    public static ArtifactStore get(Path workingPath) {
+        return STORES.computeIfAbsent(workingPath.toAbsolutePath().normalize().resolve(FOLDER), ArtifactStore::new);
+    }
+
+    private static ArtifactStore of(ArtifactHandle handle) {
+        return STORES.computeIfAbsent(handle.getSegment().getParent(), ArtifactStore::new);
+    }
+
+    /**
+     * append an artifact to the current segment of a stage
+     * @param stage the name of the stage
+     * @param key the document of the artifact
+     * @param data the artifact
+     * @return the handle of the artifact
+     * @throws IOException thrown if the segment cannot be written
+     */
+    public ArtifactHandle append(String stage, String key, ByteBuffer data) throws IOException {
+        ArtifactHandle handle = null;
+        while (handle == null) {
+            handle = currentSegment(stage).append(key, data);
+        }
+        return handle;
+    }
+
+    /**
+     * read an artifact
+     * @param handle the handle of the artifact
+     * @return a buffer which contains the artifact
+     * @throws IOException thrown if the segment cannot be read
+     */
+    public static ByteBuffer read(ArtifactHandle handle) throws IOException {
+        Segment segment = of(handle)._segments.get(handle.getSegment());
+        if (segment != null) {
+            return segment.read(handle);
+        }
+        /*
+        the segment has been written by another process
+         */
+        try (FileChannel channel = FileChannel.open(handle.getSegment(), StandardOpenOption.READ)) {
+            return read(channel, handle);
+        }
+    }
+
+    /**
+     * release an artifact after its last reading, its segment is deleted if it is full and if all its artifacts are
+     * released
+     * @param handle the handle of the artifact
+     */
+    public static void release(ArtifactHandle handle) {
+        Segment segment = of(handle)._segments.get(handle.getSegment());
+        if (segment != null) {
+            segment.release(handle);
+        }
+    }
+
+    /**
+     * adopt an artifact written by an interrupted process : its segment is deleted when all its adopted artifacts
+     * are released. The artifacts of the segment which are not adopted are not used anymore
+     * @param handle the handle of an artifact kept by the resumed process
+     * @throws IOException thrown if the segment cannot be opened
+     */
+    public void adopt(ArtifactHandle handle) throws IOException {
+        Path path = handle.getSegment();
+        if (!_folder.equals(path.getParent()) || !Files.exists(path)) {
+            return;
+        }
+        synchronized (_currentSegments) {
+            Segment segment = _segments.get(path);
+            if (segment == null) {
+                segment = new Segment(path);
+                _segments.put(path, segment);
+                _segmentNumbers.merge(segment._stage, segment._number + 1, Math::max);
+            }
+            segment.adopt(handle);
+        }
+    }
+
+    /**
+     * recover the artifacts of a stage from the index files of its segments, e.g. the artifacts written by a process
+     * which has been interrupted. The artifacts whose segment is deleted are not recovered
+     * @param stage the name of the stage
+     * @return the handles of the artifacts by document
+     * @throws IOException thrown if an index file cannot be read
+     */
+    public Map<String, ArtifactHandle> recover(String stage) throws IOException {
+        Map<String, ArtifactHandle> handles = new HashMap<>();
+        if (!Files.isDirectory(_folder)) {
+            return handles;
+        }
+        Pattern indexName = Pattern.compile(Pattern.quote(stage) + "-\\d+\\.index");
+        List<Path> indexes;
+        try (Stream<Path> files = Files.list(_folder)) {
+            indexes = files.filter(path -> indexName.matcher(path.getFileName().toString()).matches())
+                    .collect(Collectors.toList());
+        }
+        for (Path index : indexes) {
+            Path segment = index.resolveSibling(index.getFileName().toString().replace(".index", ".segment"));
+            if (!Files.exists(segment)) {
+                continue;
+            }
+            for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if (fields.length == 3) {
+                    handles.put(fields[0], new ArtifactHandle(
+                            segment, fields[0], Long.parseLong(fields[1]), Integer.parseInt(fields[2])
+                    ));
+                }
+            }
+        }
+        return handles;
+    }
+
+    /**
+     * close the segments and delete the segments whose artifacts are all released
+     */
+    public void close() {
+        for (Segment segment : new ArrayList<>(_segments.values())) {
+            segment.close();
+        }
+        synchronized (_currentSegments) {
+            _currentSegments.clear();
+        }
+        STORES.remove(_folder);
+    }
+
+    private Segment currentSegment(String stage) throws IOException {
+        synchronized (_currentSegments) {
+            Segment segment = _currentSegments.get(stage);
+            if (segment == null || segment.isFull()) {
+                segment = new Segment(stage, _segmentNumbers.getOrDefault(stage, 0));
+                _segmentNumbers.put(stage, segment._number + 1);
+                _currentSegments.put(stage, segment);
+                _segments.put(segment._path, segment);
+            }
+            return segment;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, ArtifactHandle handle) throws IOException {
+        if (handle.getLength() >= MAPPING_THRESHOLD) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, handle.getOffset(), handle.getLength());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(handle.getLength());
+        long position = handle.getOffset();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                throw new IOException("unexpected end of segment for the artifact " + handle);
+            }
+            position += read;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * the segment files of a stage
+     */
+    private class Segment {
+        private final Path _path;
+        private final Path _index;
+        private final String _stage;
+        private final int _number;
+        private final FileChannel _channel;
+        private final BufferedWriter _indexWriter;
+        private long _size = 0;
+        /*
+        the offsets of the artifacts which are not released
+         */
+        private final Set<Long> _liveArtifacts = new HashSet<>();
+        private boolean _full = false;
+        private boolean _closed = false;
+
+        /**
+         * create a new segment, the numbers of the segments of a stage are not reused : the handle of a deleted
+         * segment cannot release the artifact of a new one
+         */
+        Segment(String stage, int number) throws IOException {
+            Files.createDirectories(_folder);
+            while (Files.exists(_folder.resolve(stage + "-" + number + ".segment"))) {
+                number++;
+            }
+            _stage = stage;
+            _number = number;
+            _path = _folder.resolve(stage + "-" + number + ".segment");
+            _index = _folder.resolve(stage + "-" + number + ".index");
+            _channel = FileChannel.open(_path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            _indexWriter = Files.newBufferedWriter(_index, StandardCharsets.UTF_8);
+            LOGGER.debug("new segment : {}", _path);
+        }
+
+        /**
+         * open a segment written by an interrupted process, it is full
+         */
+        Segment(Path path) throws IOException {
+            String name = path.getFileName().toString().replace(".segment", "");
+            _stage = name.substring(0, name.lastIndexOf('-'));
+            _number = Integer.parseInt(name.substring(name.lastIndexOf('-') + 1));
+            _path = path;
+            _index = path.resolveSibling(path.getFileName().toString().replace(".segment", ".index"));
+            _channel = FileChannel.open(_path, StandardOpenOption.READ);
+            _indexWriter = null;
+            _size = _channel.size();
+            _full = true;
+            LOGGER.debug("segment adopted : {}", _path);
+        }
+
+        synchronized boolean isFull() {
+            return _full || _closed;
+        }
+
+        /**
+         * append an artifact at the end of the segment
+         * @return the handle of the artifact or null if the segment is closed
+         */
+        synchronized ArtifactHandle append(String key, ByteBuffer data) throws IOException {
+            if (_closed) {
+                return null;
+            }
+            long offset = _size;
+            int length = data.remaining();
+            while (data.hasRemaining()) {
+                _size += _channel.write(data, _size);
+            }
+            _indexWriter.append(key).append('\t').append(String.valueOf(offset)).append('\t')
+                    .append(String.valueOf(length)).append('\n');
+            _indexWriter.flush();
+            _liveArtifacts.add(offset);
+            if (_size >= SEGMENT_SIZE) {
+                _full = true;
+            }
+            return new ArtifactHandle(_path, key, offset, length);
+        }
+
+        ByteBuffer read(ArtifactHandle handle) throws IOException {
+            return ArtifactStore.read(_channel, handle);
+        }
+
+        synchronized void adopt(ArtifactHandle handle) {
+            if (!_closed) {
+                _liveArtifacts.add(handle.getOffset());
+            }
+        }
+
+        synchronized void release(ArtifactHandle handle) {
+            if (!_liveArtifacts.remove(handle.getOffset())) {
+                LOGGER.debug("the artifact {} is already released", handle);
+                return;
+            }
+            if (_full && _liveArtifacts.isEmpty()) {
+                delete();
+            }
+        }
+
+        synchronized void close() {
+            if (_liveArtifacts.isEmpty()) {
+                delete();
+            }
+            else if (!_closed) {
+                /*
+                the artifacts which are not released are read with a new channel
+                 */
+                _closed = true;
+                _segments.remove(_path);
+                closeFiles();
+            }
+        }
+
+        private void delete() {
+            if (!_closed) {
+                closeFiles();
+            }
+            _closed = true;
+            _segments.remove(_path);
+            try {
+                Files.deleteIfExists(_path);
+                Files.deleteIfExists(_index);
+                LOGGER.debug("segment deleted : {}", _path);
+            } catch (IOException e) {
+                LOGGER.error("cannot delete segment {}", _path, e);
+            }
+        }
+
+        private void closeFiles() {
+            try {
+                _channel.close();
+                if (_indexWriter != null) {
+                    _indexWriter.close();
+                }
+            } catch (IOException e) {
+                LOGGER.error("cannot close segment {}", _path, e);
+            }
+        }
+    }
+}
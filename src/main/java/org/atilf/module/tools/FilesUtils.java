@@ -1,17 +1,18 @@
 package org.atilf.module.tools;
 
 import org.apache.commons.io.FileUtils;
+import org.atilf.models.ArtifactHandle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * FileUtilities group several static method in order to manipulate the file system during the different process of
@@ -85,22 +86,75 @@ public class FilesUtils {
 
 
     /**
-     * export java object to a file
+     * export java object to the artifact store of the working directory
      * @param o the java object
      * @param workingPath the path of the working directory
-     * @return the path of the file
+     * @return the handle of the artifact
      * @throws IOException thrown an exception if the object is not writable
      */
-    public static Path writeObject(Object o,Path workingPath) throws IOException {
-        Path path = Paths.get(workingPath + "/" + UUID.randomUUID().toString());
-        FileOutputStream fos = new FileOutputStream(path.toString());
-        try(ObjectOutputStream oos = new ObjectOutputStream(fos))
-        {
-            oos.writeObject(o);
+    public static ArtifactHandle writeObject(Object o,Path workingPath) throws IOException {
+        return writeObject(o, workingPath, "objects", "");
+    }
+
+    /**
+     * export java object to the segment of a stage in the artifact store of the working directory. The texts and the
+     * morphology lists are written with the binary format of the ArtifactCodec, the other objects with the java
+     * serialization
+     * @param o the java object
+     * @param workingPath the path of the working directory
+     * @param stage the name of the stage
+     * @param key the document of the object
+     * @return the handle of the artifact
+     * @throws IOException thrown an exception if the object is not writable
+     * @see ArtifactCodec
+     * @see ArtifactStore
+     */
+    public static ArtifactHandle writeObject(Object o, Path workingPath, String stage, String key)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (ArtifactCodec.isSupported(o)) {
+            ArtifactCodec.write(o, bytes);
+        }
+        else {
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(o);
+            }
+        }
+        return ArtifactStore.get(workingPath).append(stage, key, ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * export a text written line by line to the segment of a stage in the artifact store of the working directory
+     * @param lineWriter the lines of the text
+     * @param workingPath the path of the working directory
+     * @param stage the name of the stage
+     * @param key the document of the text
+     * @return the handle of the artifact
+     * @throws IOException thrown an exception if the artifact is not writable
+     * @see ArtifactCodec.LineWriter
+     */
+    public static ArtifactHandle writeLines(ArtifactCodec.LineWriter lineWriter, Path workingPath, String stage,
+                                            String key) throws IOException {
+        return ArtifactStore.get(workingPath).append(stage, key, lineWriter.toByteBuffer());
+    }
+
+    /**
+     * read a text written line by line, the text is not kept in memory
+     * @param handle the handle of the artifact
+     * @param lineReader the reader of the lines
+     * @return false if the artifact cannot be read, no line has been given to the reader
+     * @throws IOException thrown an exception if the artifact is not a text or if the reader fails
+     */
+    public static boolean readLines(ArtifactHandle handle, ArtifactCodec.LineReader lineReader) throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = ArtifactStore.read(handle);
         } catch (IOException e) {
-            LOGGER.error("could not write object : ",e);
+            LOGGER.error("could not open file : ", e);
+            return false;
         }
-        return path;
+        ArtifactCodec.readLines(buffer, handle.toString(), lineReader);
+        return true;
     }
 
     /**
@@ -127,57 +181,59 @@ public class FilesUtils {
 
     /**
      * read a list of generic object type
-     * @param filePath the path of the file
+     * @param handle the handle of the artifact
      * @param <T> the generic type T
      * @return the list of T object
      */
     @SuppressWarnings("unchecked")
-    public static <T> List<T> readListObject(Path filePath){
-        Object o = null;
-
-        try (
-                FileInputStream fis = new FileInputStream(new File(filePath.toString()));
-                ObjectInputStream in = new ObjectInputStream(fis)
-        ){
-            o = in.readObject();
-            in.close();
-        }
-        catch (IOException e) {
-            LOGGER.error("could not open file : ",e);
-
-        }
-        catch (ClassNotFoundException e) {
-            LOGGER.error("could import object : ",e);
-        }
-        return (List<T>) o;
+    public static <T> List<T> readListObject(ArtifactHandle handle){
+        return (List<T>) readObject(handle);
     }
 
     /**
      * read a generic object type
-     * @param filePath the path of the file
+     * @param handle the handle of the artifact
      * @param type the type of the object
      * @param <T> the generic type T
      * @return the T object
      */
-    public static <T>T readObject(Path filePath, Class<T> type){
+    public static <T>T readObject(ArtifactHandle handle, Class<T> type){
+        return type.cast(readObject(handle));
+    }
 
+    /**
+     * read an object written by the writeObject method
+     * @param handle the handle of the artifact
+     * @return the object
+     */
+    private static Object readObject(ArtifactHandle handle){
         Object o = null;
-        try (
-                FileInputStream fis = new FileInputStream(new File(filePath.toString()));
-                ObjectInputStream in = new ObjectInputStream(fis);
-        )
-        {
-            o = in.readObject();
-            in.close();
+        try {
+            ByteBuffer buffer = ArtifactStore.read(handle);
+            if (ArtifactCodec.isArtifact(buffer)) {
+                return ArtifactCodec.read(buffer, handle.toString());
+            }
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                o = in.readObject();
+            }
         }
         catch (IOException e) {
             LOGGER.error("could not open file : ",e);
-
         }
         catch (ClassNotFoundException e) {
             LOGGER.error("could import object : ",e);
         }
-        return type.cast(o);
+        return o;
+    }
+
+    /**
+     * release an object after its last reading
+     * @param handle the handle of the artifact
+     */
+    public static void deleteObject(ArtifactHandle handle){
+        ArtifactStore.release(handle);
     }
 
     /**
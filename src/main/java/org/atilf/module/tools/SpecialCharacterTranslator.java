@@ -5,6 +5,7 @@ import org.atilf.models.enrichment.SpecialCharacter;
 import org.atilf.module.Module;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 
@@ -23,22 +24,30 @@ public class SpecialCharacterTranslator extends Module {
     protected void execute() {
         try {
             File newFile = new File(_file.toString() + ".new");
-            FileWriter fw = new FileWriter(newFile);
-
-            Reader fr = new FileReader(_file);
-            BufferedReader br = new BufferedReader(fr);
-
-            while(br.ready()) {
-                fw.write(SpecialCharacter.replaceChar(br.readLine() + "\n"));
-            }
-
-            fw.close();
-            br.close();
-            fr.close();
+            translate(_file, newFile);
             Files.move(newFile.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING);
             _logger.info("the task for file: {} is finished", _fileName);
         } catch (IOException e) {
             _logger.error("could not write or read file",e);
         }
     }
+
+    /**
+     * write a file with the special characters replaced, the file is read once. The files are encoded in utf-8
+     * @param input the file to translate
+     * @param output the translated file
+     * @throws IOException thrown if a file cannot be read or written
+     */
+    public static void translate(File input, File output) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8));
+             BufferedReader br = new BufferedReader(
+                     new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                SpecialCharacter.replaceChar(line, bw);
+                bw.write('\n');
+            }
+        }
+    }
 }
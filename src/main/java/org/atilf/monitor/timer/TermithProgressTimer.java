@@ -16,7 +16,7 @@ import java.util.concurrent.*;
 
 public class TermithProgressTimer extends TimerTask {
 
-    private List<Future> _futures = new ArrayList<>();
+    private List<Future<?>> _futures = new ArrayList<>();
     private ScheduledExecutorService _service = Executors.newSingleThreadScheduledExecutor();
     private Logger _logger;
     private final ExecutorService _executorService;
@@ -25,7 +25,7 @@ public class TermithProgressTimer extends TimerTask {
     DecimalFormat df = new DecimalFormat("#.##");
 
 
-    public TermithProgressTimer(List<Future> futures, Class className, ExecutorService executorService) {
+    public TermithProgressTimer(List<Future<?>> futures, Class className, ExecutorService executorService) {
 
         _futures = futures;
         _logger = LoggerFactory.getLogger(this.getClass().getName() + " - " + className.getSimpleName());
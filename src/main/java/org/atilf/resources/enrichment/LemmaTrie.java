@@ -0,0 +1,153 @@
+package org.atilf.resources.enrichment;
+
+import org.atilf.models.enrichment.MorphologyOffsetId;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the LemmaTrie compiles the entries of a resource, i.e. sequences of lemmas separated by a space, into a trie over
+ * the ids of the lemmas. The projectors find the entries of a document in a single pass over its words : the trie is
+ * walked from each word up to the maximum size of an entry. The trie is immutable once it is built and can be shared
+ * by the tasks of a process.
+ */
+public class LemmaTrie {
+
+    private static final long EMPTY = -1L;
+    private final Map<String, Integer> _lemmaIds = new HashMap<>();
+    /*
+    the children of the nodes are stored in an open addressing table : the key of a child is the id of its parent
+    and the id of its lemma
+     */
+    private final long[] _keys;
+    private final int[] _children;
+    private final int _mask;
+    private final String[] _entries;
+
+    /**
+     * constructor for LemmaTrie
+     * @param entries the entries of a resource
+     */
+    public LemmaTrie(Collection<String> entries) {
+        Map<Long, Integer> children = new HashMap<>();
+        Map<Integer, String> terminals = new HashMap<>();
+        int nodes = 1;
+        for (String entry : entries) {
+            int node = 0;
+            for (String lemma : entry.split(" ", -1)) {
+                Integer lemmaId = _lemmaIds.get(lemma);
+                if (lemmaId == null) {
+                    lemmaId = _lemmaIds.size();
+                    _lemmaIds.put(lemma, lemmaId);
+                }
+                Integer child = children.get(key(node, lemmaId));
+                if (child == null) {
+                    child = nodes++;
+                    children.put(key(node, lemmaId), child);
+                }
+                node = child;
+            }
+            terminals.put(node, entry);
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(children.size(), 1) * 2) * 2;
+        _keys = new long[capacity];
+        _children = new int[capacity];
+        _mask = capacity - 1;
+        Arrays.fill(_keys, EMPTY);
+        children.forEach((key, child) -> {
+            int slot = slot(key);
+            while (_keys[slot] != EMPTY) {
+                slot = (slot + 1) & _mask;
+            }
+            _keys[slot] = key;
+            _children[slot] = child;
+        });
+        _entries = new String[nodes];
+        terminals.forEach((node, entry) -> _entries[node] = entry);
+    }
+
+    /**
+     * convert the lemmas of a document into the ids of the trie
+     * @param morphology the words of the document
+     * @return the id of the lemma of each word, -1 if the lemma is not in the trie, or null if a lemma cannot be
+     * compared as a whole word (empty, null, with a space or surrounded by control characters) : the entries of a
+     * resource are the trimmed concatenation of the lemmas, such a document is matched on the lemma strings
+     */
+    public int[] lemmaIds(List<MorphologyOffsetId> morphology) {
+        int[] lemmaIds = new int[morphology.size()];
+        int i = 0;
+        for (MorphologyOffsetId word : morphology) {
+            String lemma = word.getLemma();
+            if (lemma == null || lemma.isEmpty() || lemma.indexOf(' ') != -1 || lemma.charAt(0) <= ' ' ||
+                    lemma.charAt(lemma.length() - 1) <= ' ') {
+                return null;
+            }
+            Integer lemmaId = _lemmaIds.get(lemma);
+            lemmaIds[i++] = lemmaId == null ? -1 : lemmaId;
+        }
+        return lemmaIds;
+    }
+
+    /**
+     * find the entries of a document. The matches are given by beginning index and then by size, as the n-grams of
+     * the words would be enumerated
+     * @param lemmaIds the ids of the lemmas of the document
+     * @param minSize the minimum number of words of an entry
+     * @param maxSize the maximum number of words of an entry
+     * @param handler the handler called for each match
+     */
+    public void match(int[] lemmaIds, int minSize, int maxSize, MatchHandler handler) {
+        for (int begin = 0; begin < lemmaIds.length; begin++) {
+            int node = 0;
+            for (int size = 1; size <= maxSize && begin + size <= lemmaIds.length; size++) {
+                node = child(node, lemmaIds[begin + size - 1]);
+                if (node == -1) {
+                    break;
+                }
+                if (size >= minSize && _entries[node] != null) {
+                    handler.match(begin, size, _entries[node]);
+                }
+            }
+        }
+    }
+
+    /**
+     * the handler of the entries found in a document
+     */
+    public interface MatchHandler {
+        /**
+         * @param begin the index of the first word of the match
+         * @param size the number of words of the match
+         * @param entry the entry of the resource
+         */
+        void match(int begin, int size, String entry);
+    }
+
+    private int child(int node, int lemmaId) {
+        if (lemmaId == -1) {
+            return -1;
+        }
+        long key = key(node, lemmaId);
+        int slot = slot(key);
+        while (_keys[slot] != EMPTY) {
+            if (_keys[slot] == key) {
+                return _children[slot];
+            }
+            slot = (slot + 1) & _mask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & _mask;
+    }
+
+    private static long key(int node, int lemmaId) {
+        return ((long) node << 32) | lemmaId;
+    }
+}
@@ -0,0 +1,232 @@
+package org.atilf.resources.enrichment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * the ResourceCache keeps the lexical resources of the classpath in a compiled binary form. The json resources are
+ * parsed once : the compiled file is written in the cache folder, its name contains the sha-256 checksum of the
+ * resource, and it is memory-mapped by the next runs. A resource is loaded once per jvm, the loaded object is shared
+ * by all the threads and the runs of the jvm and must not be modified.
+ *
+ * The cache folder is given by the termith.resourceCache system property, it is a folder of the home directory of
+ * the user by default. The compiled files are not used if the folder belongs to another user.
+ */
+public class ResourceCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCache.class.getName());
+    private static final int MAGIC = 0x54524D52;
+    private static final short VERSION = 1;
+    private static final Map<String, Object> LOADED = new ConcurrentHashMap<>();
+    static final Path DEFAULT_FOLDER = Paths.get(System.getProperty("termith.resourceCache",
+            Paths.get(System.getProperty("user.home"), ".termith", "resource-cache").toString()));
+    private static volatile Path _folder = DEFAULT_FOLDER;
+
+    private ResourceCache() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * the binary form of a resource
+     * @param <T> the type of the loaded resource
+     */
+    public interface Codec<T> {
+        void write(T resource, DataOutputStream out) throws IOException;
+
+        T read(ByteBuffer buffer);
+    }
+
+    public static void setFolder(Path folder) {
+        _folder = folder;
+    }
+
+    /**
+     * load a resource of the classpath
+     * @param resourcePath the path of the resource in the classpath
+     * @param format the name of the compiled form, a resource can be compiled in several forms
+     * @param codec the codec of the compiled form
+     * @param parser the parser of the resource, it is called if the resource is not compiled
+     * @param <T> the type of the loaded resource
+     * @return the loaded resource, shared by the jvm
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T load(String resourcePath, String format, Codec<T> codec, Supplier<T> parser) {
+        if (resourcePath == null || ResourceCache.class.getClassLoader().getResource(resourcePath) == null) {
+            /*
+            the parser reports the missing resource
+             */
+            return parser.get();
+        }
+        return (T) LOADED.computeIfAbsent(format + ":" + resourcePath,
+                key -> compile(resourcePath, format, codec, parser));
+    }
+
+    /**
+     * forget the resources loaded by the jvm, the compiled files are kept
+     */
+    static void clear() {
+        LOADED.clear();
+    }
+
+    private static <T> T compile(String resourcePath, String format, Codec<T> codec, Supplier<T> parser) {
+        long start = System.nanoTime();
+        if (!isOwned(_folder)) {
+            return parser.get();
+        }
+        Path compiled;
+        try {
+            compiled = _folder.resolve(format + "-" + VERSION + "-" + checksum(resourcePath) + ".bin");
+        } catch (IOException e) {
+            LOGGER.warn("cannot compute the checksum of {}, the resource is parsed", resourcePath, e);
+            return parser.get();
+        }
+        if (Files.exists(compiled)) {
+            try {
+                T resource = read(compiled, codec);
+                LOGGER.info("{} loaded from {} in {} ms", resourcePath, compiled,
+                        (System.nanoTime() - start) / 1000000);
+                return resource;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("cannot read the compiled resource {}, the resource is parsed again", compiled, e);
+            }
+        }
+        T resource = parser.get();
+        write(resource, compiled, codec);
+        LOGGER.info("{} parsed and compiled in {} ms", resourcePath, (System.nanoTime() - start) / 1000000);
+        return resource;
+    }
+
+    /**
+     * check that the cache folder belongs to the user of the process : the compiled files written by another user
+     * are not read
+     * @param folder the cache folder, it is created if it does not exist
+     * @return true if the folder belongs to the user
+     */
+    private static boolean isOwned(Path folder) {
+        String user = System.getProperty("user.name");
+        try {
+            Files.createDirectories(folder);
+            String owner = Files.getOwner(folder).getName();
+            if (owner.equals(user) || owner.endsWith("\\" + user)) {
+                return true;
+            }
+            LOGGER.warn("the resource cache {} belongs to {}, the resources are parsed", folder, owner);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.warn("cannot check the owner of the resource cache {}, the resources are parsed", folder, e);
+        }
+        return false;
+    }
+
+    private static String checksum(String resourcePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("sha-256 is not supported", e);
+        }
+        try (InputStream in = ResourceCache.class.getClassLoader().getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                throw new IOException("cannot find " + resourcePath);
+            }
+            byte[] bytes = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(bytes)) != -1) {
+                digest.update(bytes, 0, read);
+            }
+        }
+        StringBuilder checksum = new StringBuilder();
+        for (byte b : digest.digest()) {
+            checksum.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return checksum.toString();
+    }
+
+    private static <T> T read(Path compiled, Codec<T> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 6 || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException(compiled + " is not a compiled resource");
+            }
+            return codec.read(buffer);
+        }
+    }
+
+    /**
+     * write the compiled file in a temporary file moved in the cache folder, a compiled file is always complete
+     */
+    private static <T> void write(T resource, Path compiled, Codec<T> codec) {
+        Path temporary = compiled.resolveSibling(compiled.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(compiled.getParent());
+            try (OutputStream os = Files.newOutputStream(temporary)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 64 * 1024));
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                codec.write(resource, out);
+                out.flush();
+            }
+            Files.move(temporary, compiled, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("cannot write the compiled resource {}", compiled, e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                LOGGER.debug("cannot delete {}", temporary, e);
+            }
+        }
+    }
+
+    /**
+     * write a string, -1 is the length of a null string
+     * @param string the string
+     * @param out the output of the compiled file
+     * @throws IOException thrown if the string cannot be written
+     */
+    public static void writeString(String string, DataOutputStream out) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+        }
+        else {
+            out.writeInt(string.length());
+            out.writeChars(string);
+        }
+    }
+
+    /**
+     * read a string written by writeString
+     * @param buffer the buffer of the compiled file
+     * @return the string
+     */
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        CharBuffer chars = buffer.asCharBuffer();
+        chars.limit(length);
+        String string = chars.toString();
+        buffer.position(buffer.position() + length * 2);
+        return string;
+    }
+}
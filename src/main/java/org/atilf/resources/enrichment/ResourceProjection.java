@@ -6,7 +6,9 @@ import com.fasterxml.jackson.core.JsonToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -14,18 +16,48 @@ import java.util.*;
  */
 public class ResourceProjection {
 
+    private static final ResourceCache.Codec<CompiledResource> CODEC = new CompiledResourceCodec();
     private Map<String,List<Integer>> entryIdMap = new HashMap<>();
     private Map<Integer,String> multiWordsMap = new HashMap<>();
     protected final Logger _logger = LoggerFactory.getLogger(getClass().getName());
+    private final LemmaTrie _lemmaTrie;
 
+    /**
+     * constructor for ResourceProjection, the json resource is parsed once and compiled by the ResourceCache : the
+     * resource is shared by the projections of the same class and must not be modified
+     * @param resourcePath the path of the resource in the classpath
+     */
     public ResourceProjection(String resourcePath) {
-        parseResource(resourcePath);
+        CompiledResource compiledResource = ResourceCache.load(resourcePath, getClass().getName(), CODEC, () -> {
+            parseResource(resourcePath);
+            return new CompiledResource(entryIdMap, multiWordsMap);
+        });
+        entryIdMap = compiledResource._entryIdMap;
+        multiWordsMap = compiledResource._multiWordsMap;
+        _lemmaTrie = compiledResource._lemmaTrie;
     }
 
+    /**
+     * getter for the trie of the entries, it is compiled once the resource is parsed
+     * @return the trie of the lemmas of the entries
+     */
+    public LemmaTrie getLemmaTrie() {
+        return _lemmaTrie;
+    }
+
+    /**
+     * getter for the entries of the resource with their ids, the map is read-only : the trie is compiled from its
+     * entries
+     * @return an unmodifiable view of the entries
+     */
     public Map<String, List<Integer>> getResourceMap() {
         return entryIdMap;
     }
 
+    /**
+     * getter for the multi words of the entries
+     * @return an unmodifiable view of the multi words by id
+     */
     public Map<Integer, String> getMultiWordsMap() {
         return multiWordsMap;
     }
@@ -34,7 +66,7 @@ public class ResourceProjection {
         boolean inTtComponents = false;
         boolean inForm = false;
         int memId = 0;
-        String memTtComponents = "";
+        StringBuilder memTtComponents = new StringBuilder();
         String memTextualTt = "";
         try {
 
@@ -56,15 +88,15 @@ public class ResourceProjection {
                 else if (Objects.equals(jParser.getCurrentName(), "tree_tagger_components") && jParser.getCurrentToken() == JsonToken
                         .START_ARRAY) {
                     inTtComponents = true;
-                    memTtComponents = "";
+                    memTtComponents.setLength(0);
                 }
                 else if (Objects.equals(jParser.getCurrentName(), "lemma") && inTtComponents) {
-                    memTtComponents += jParser.nextTextValue() + " ";
+                    memTtComponents.append(jParser.nextTextValue()).append(" ");
                 }
                 else if(inTtComponents && jParser.getCurrentToken() == JsonToken.END_ARRAY) {
                     inForm = false;
                     inTtComponents = false;
-                    addToPhraseologyMap(memId, memTtComponents, memTextualTt);
+                    addToPhraseologyMap(memId, memTtComponents.toString(), memTextualTt);
                 }
             }
             jParser.close();
@@ -74,7 +106,13 @@ public class ResourceProjection {
         }
     }
 
-    void addToPhraseologyMap(int memForm, String memWord, String memLibelle) {
+    /**
+     * add an entry of the resource while it is parsed, before the trie is compiled
+     * @param memForm the id of the entry
+     * @param memWord the lemmas of the entry
+     * @param memLibelle the multi words of the entry
+     */
+    protected void addToPhraseologyMap(int memForm, String memWord, String memLibelle) {
         if (!entryIdMap.containsKey(memWord.trim())){
             entryIdMap.put(memWord.trim(),new ArrayList<>());
         }
@@ -83,4 +121,64 @@ public class ResourceProjection {
             multiWordsMap.put(memForm,memLibelle);
         }
     }
+
+    /**
+     * the parsed resource and its trie
+     */
+    private static final class CompiledResource {
+        private final Map<String,List<Integer>> _entryIdMap;
+        private final Map<Integer,String> _multiWordsMap;
+        private final LemmaTrie _lemmaTrie;
+
+        private CompiledResource(Map<String, List<Integer>> entryIdMap, Map<Integer, String> multiWordsMap) {
+            entryIdMap.replaceAll((entry, ids) -> Collections.unmodifiableList(ids));
+            _entryIdMap = Collections.unmodifiableMap(entryIdMap);
+            _multiWordsMap = Collections.unmodifiableMap(multiWordsMap);
+            _lemmaTrie = new LemmaTrie(entryIdMap.keySet());
+        }
+    }
+
+    /**
+     * the binary form of a resource : the entries with their ids, then the ids with their multi words
+     */
+    private static final class CompiledResourceCodec implements ResourceCache.Codec<CompiledResource> {
+
+        @Override
+        public void write(CompiledResource resource, DataOutputStream out) throws IOException {
+            out.writeInt(resource._entryIdMap.size());
+            for (Map.Entry<String, List<Integer>> entry : resource._entryIdMap.entrySet()) {
+                ResourceCache.writeString(entry.getKey(), out);
+                out.writeInt(entry.getValue().size());
+                for (int id : entry.getValue()) {
+                    out.writeInt(id);
+                }
+            }
+            out.writeInt(resource._multiWordsMap.size());
+            for (Map.Entry<Integer, String> entry : resource._multiWordsMap.entrySet()) {
+                out.writeInt(entry.getKey());
+                ResourceCache.writeString(entry.getValue(), out);
+            }
+        }
+
+        @Override
+        public CompiledResource read(ByteBuffer buffer) {
+            int size = buffer.getInt();
+            Map<String, List<Integer>> entryIdMap = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                String entry = ResourceCache.readString(buffer);
+                List<Integer> ids = new ArrayList<>();
+                for (int j = buffer.getInt(); j > 0; j--) {
+                    ids.add(buffer.getInt());
+                }
+                entryIdMap.put(entry, ids);
+            }
+            size = buffer.getInt();
+            Map<Integer, String> multiWordsMap = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                int id = buffer.getInt();
+                multiWordsMap.put(id, ResourceCache.readString(buffer));
+            }
+            return new CompiledResource(entryIdMap, multiWordsMap);
+        }
+    }
 }
@@ -28,6 +28,18 @@ public class StandOffResources {
     public static StringBuilder T_INTERP_GRP;
     public static StringBuilder STANDOFF;
     public static StringBuilder NS;
+    /*
+    the fragments compiled once by init for the exporter
+     */
+    public static StandOffTemplate STANDOFF_START;
+    public static String STANDOFF_END;
+    public static String LIST_ANNOTATION_START;
+    public static String LIST_ANNOTATION_END;
+    public static StandOffTemplate MS_SPAN_TEMPLATE;
+    public static StandOffTemplate T_SPAN_TEMPLATE;
+    public static StandOffTemplate PH_SPAN_TEMPLATE;
+    public static StandOffTemplate LST_SPAN_TEMPLATE;
+    public static String NS_ATTRIBUTE;
 
 
     public static void init(String resourcePath){
@@ -43,6 +55,22 @@ public class StandOffResources {
          T_INTERP_GRP = indentation(readFile(resourcePath + "t-interp-grp.xml"), 2);
          STANDOFF = indentation(readFile(resourcePath + "standoff.xml"), 1);
          NS = indentation(readFile(resourcePath + "ns.txt"),0);
+         compile();
+    }
+
+    /**
+     * compile the fragments used for each element of the standoff annotation
+     */
+    private static void compile() {
+        STANDOFF_START = new StandOffTemplate(StandOffTemplate.line(STANDOFF, 0), "@type");
+        STANDOFF_END = StandOffTemplate.line(STANDOFF, 1);
+        LIST_ANNOTATION_START = StandOffTemplate.line(LIST_ANNOTATION, 0);
+        LIST_ANNOTATION_END = StandOffTemplate.line(LIST_ANNOTATION, 1);
+        MS_SPAN_TEMPLATE = new StandOffTemplate(MS_SPAN, "@target", "@lemma", "@pos");
+        T_SPAN_TEMPLATE = new StandOffTemplate(T_SPAN, "@target", "@corresp", "@string");
+        PH_SPAN_TEMPLATE = new StandOffTemplate(PH_SPAN, "@target", "@corresp", "@string");
+        LST_SPAN_TEMPLATE = new StandOffTemplate(LST_SPAN, "@target", "@corresp", "@string");
+        NS_ATTRIBUTE = NS.substring(0, NS.length() - 1) + " ";
     }
     /**
      * read a fragment
@@ -0,0 +1,105 @@
+package org.atilf.resources.enrichment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * a standoff fragment compiled into literal segments and slots. The fragment is parsed once, the exporter writes the
+ * literals and the values of the slots without copying or searching the fragment for each element
+ */
+public class StandOffTemplate {
+
+    private final String[] _literals;
+    private final int[] _slots;
+
+    /**
+     * constructor for StandOffTemplate, the first occurrence of each slot name is replaced by its value
+     * @param template the standoff fragment
+     * @param slotNames the names of the slots, e.g. @target
+     */
+    public StandOffTemplate(CharSequence template, String... slotNames) {
+        String fragment = template.toString();
+        int[] positions = new int[slotNames.length];
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < slotNames.length; i++) {
+            positions[i] = fragment.indexOf(slotNames[i]);
+            if (positions[i] == -1) {
+                throw new IllegalArgumentException("the fragment has no slot " + slotNames[i]);
+            }
+            order.add(i);
+        }
+        order.sort((o1, o2) -> Integer.compare(positions[o1], positions[o2]));
+
+        _literals = new String[slotNames.length + 1];
+        _slots = new int[slotNames.length];
+        int begin = 0;
+        for (int i = 0; i < _slots.length; i++) {
+            int slot = order.get(i);
+            if (positions[slot] < begin) {
+                throw new IllegalArgumentException("the slots " + slotNames[slot] + " overlap");
+            }
+            _literals[i] = fragment.substring(begin, positions[slot]);
+            _slots[i] = slot;
+            begin = positions[slot] + slotNames[slot].length();
+        }
+        _literals[_slots.length] = fragment.substring(begin);
+    }
+
+    /**
+     * write the fragment
+     * @param writer the output
+     * @param values the values of the slots, in the order of the slot names
+     * @throws IOException thrown if the writer fails
+     */
+    public void write(Writer writer, CharSequence... values) throws IOException {
+        for (int i = 0; i < _slots.length; i++) {
+            writer.write(_literals[i]);
+            writer.append(values[_slots[i]]);
+        }
+        writer.write(_literals[_slots.length]);
+    }
+
+    /**
+     * write the fragment, the values of the slots are written by the caller
+     * @param writer the output
+     * @param slotWriter the writer of the slots
+     * @throws IOException thrown if the writer fails
+     */
+    public void write(Writer writer, SlotWriter slotWriter) throws IOException {
+        for (int i = 0; i < _slots.length; i++) {
+            writer.write(_literals[i]);
+            slotWriter.write(writer, _slots[i]);
+        }
+        writer.write(_literals[_slots.length]);
+    }
+
+    /**
+     * the writer of the values of the slots, e.g. to escape a value while it is written
+     */
+    public interface SlotWriter {
+        /**
+         * @param writer the output
+         * @param slot the index of the slot, in the order of the slot names
+         * @throws IOException thrown if the writer fails
+         */
+        void write(Writer writer, int slot) throws IOException;
+    }
+
+    /**
+     * get a line of a fragment
+     * @param fragment the fragment
+     * @param index the index of the line
+     * @return the line with its line terminator
+     */
+    public static String line(CharSequence fragment, int index) {
+        String lines = fragment.toString();
+        int begin = 0;
+        for (int i = 0; i < index; i++) {
+            begin = lines.indexOf('\n', begin) + 1;
+        }
+        int end = lines.indexOf('\n', begin);
+        return lines.substring(begin, end == -1 ? lines.length() : end + 1);
+    }
+}
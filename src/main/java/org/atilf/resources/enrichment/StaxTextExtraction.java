@@ -0,0 +1,96 @@
+package org.atilf.resources.enrichment;
+
+import org.atilf.models.enrichment.TextOffsetMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * extract the plain text of a tei file in a single stax pass, without building a tree of the document. The text is
+ * the text content of the first text element, as the string value written by the extractText.xsl stylesheet : the
+ * text of the descendant elements is kept, a paragraph is followed by a line break, the entities are replaced and the
+ * comments are ignored. The line breaks are the only inserted characters, they are recorded in the offset map
+ */
+public class StaxTextExtraction implements TextExtraction {
+
+    /*
+    the factory is thread-safe once it is configured. The dtd and the external entities are not read : a corpus file
+    cannot include a local file or a remote resource in its text
+     */
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public StringBuilder extract(File file) throws IOException {
+        return extract(file, null);
+    }
+
+    @Override
+    public boolean mapsOffsets() {
+        return true;
+    }
+
+    @Override
+    public StringBuilder extract(File file, TextOffsetMap offsetMap) throws IOException {
+        /*
+        the text is shorter than the file, the buffer is never resized
+         */
+        StringBuilder text = new StringBuilder((int) Math.min(file.length(), Integer.MAX_VALUE - 8));
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 64 * 1024)) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+            try {
+                int depth = 0;
+                /*
+                the number of characters inserted in the text
+                 */
+                int inserted = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == START_ELEMENT) {
+                        if (depth > 0 || "text".equals(reader.getLocalName())) {
+                            depth++;
+                        }
+                    }
+                    else if (event == END_ELEMENT && depth > 0) {
+                        if (--depth == 0) {
+                            break;
+                        }
+                        if ("p".equals(reader.getLocalName())) {
+                            text.append('\n');
+                            inserted++;
+                            if (offsetMap != null) {
+                                offsetMap.addInsertion(text.length() - inserted, text.length());
+                            }
+                        }
+                    }
+                    else if (depth > 0 && (event == CHARACTERS || event == CDATA || event == SPACE)) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("could not extract the text of the file : " + file.getAbsolutePath(), e);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,59 @@
+package org.atilf.resources.enrichment;
+
+import org.atilf.models.enrichment.TextOffsetMap;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * the extraction of the plain text of a tei file, i.e. the text content of its text element. The implementation is
+ * selected per run with the textExtraction variable of the process
+ * @see XslTextExtraction
+ * @see StaxTextExtraction
+ */
+public interface TextExtraction {
+
+    /**
+     * extract the plain text of a tei file
+     * @param file the tei file
+     * @return the plain text
+     * @throws IOException thrown if the file cannot be read or parsed
+     */
+    StringBuilder extract(File file) throws IOException;
+
+    /**
+     * check if the extraction records the characters it inserts in the plain text
+     * @return true if the extraction fills a TextOffsetMap
+     */
+    default boolean mapsOffsets() {
+        return false;
+    }
+
+    /**
+     * extract the plain text of a tei file and record the characters inserted by the extraction
+     * @param file the tei file
+     * @param offsetMap the map of the inserted characters, it is left empty if the extraction does not map the
+     *                  offsets
+     * @return the plain text
+     * @throws IOException thrown if the file cannot be read or parsed
+     */
+    default StringBuilder extract(File file, TextOffsetMap offsetMap) throws IOException {
+        return extract(file);
+    }
+
+    /**
+     * create the extraction of a run
+     * @param method xslt for the xsl stylesheet or stax for the streaming extraction
+     * @param stylesheetPath the path of the xsl stylesheet in the classpath, it is not parsed by the stax extraction
+     * @return the extraction
+     */
+    static TextExtraction of(String method, String stylesheetPath) {
+        if ("stax".equalsIgnoreCase(method)) {
+            return new StaxTextExtraction();
+        }
+        else if (method == null || "xslt".equalsIgnoreCase(method)) {
+            return new XslTextExtraction(new XslResources(stylesheetPath));
+        }
+        throw new IllegalArgumentException("unknown text extraction : " + method);
+    }
+}
@@ -17,7 +17,7 @@ public class TransdisciplinaryResourceProjection extends ResourceProjection {
         boolean inTtComponents = false;
         boolean inForm = false;
         int memId = 0;
-        String memTt = "";
+        StringBuilder memTt = new StringBuilder();
         String memLemma = "";
         try {
 
@@ -41,17 +41,17 @@ public class TransdisciplinaryResourceProjection extends ResourceProjection {
                         && jParser.getCurrentToken() == JsonToken.START_ARRAY) {
                     inTtComponents = true;
                     inForm = false;
-                    memTt = "";
+                    memTt.setLength(0);
                 }
                 else if (Objects.equals(jParser.getCurrentName(), "lemma") && inTtComponents) {
-                    memTt += jParser.nextTextValue() + " ";
+                    memTt.append(jParser.nextTextValue()).append(" ");
                 }
                 else if (inTtComponents && jParser.getCurrentToken() == JsonToken.END_ARRAY) {
                     inTtComponents = false;
                 }
                 else if (!inForm && !inTtComponents && jParser.getCurrentToken() == JsonToken.END_OBJECT){
                     inTtComponents = false;
-                    addToPhraseologyMap(memId, memTt, memLemma);
+                    addToPhraseologyMap(memId, memTt.toString(), memLemma);
                 }
             }
 
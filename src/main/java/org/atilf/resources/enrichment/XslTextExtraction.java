@@ -0,0 +1,49 @@
+package org.atilf.resources.enrichment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * extract the plain text of a tei file with the extractText.xsl stylesheet
+ */
+public class XslTextExtraction implements TextExtraction {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XslTextExtraction.class.getName());
+    private final XslResources _xslResources;
+
+    /**
+     * constructor for XslTextExtraction
+     * @param xslResources contains the parsed xsl stylesheet
+     */
+    public XslTextExtraction(XslResources xslResources) {
+        _xslResources = xslResources;
+    }
+
+    @Override
+    public StringBuilder extract(File file) throws IOException {
+        /*
+        instantiate needed variables for transformation. The StringWriter variable is used to return
+        the result as a StringBuilder variable
+         */
+        Source input = new StreamSource(file);
+        StringWriter stringWriter = new StringWriter();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("apply {} to xml file {}", _xslResources._stylesheet.toString(), input.toString());
+        }
+        try {
+            _xslResources._factory.newTransformer().transform(input, new StreamResult(stringWriter));
+        } catch (TransformerException e) {
+            throw new IOException("could not apply the xslt transformation to the file : " + file.getAbsolutePath(),
+                    e);
+        }
+        return new StringBuilder(stringWriter.getBuffer());
+    }
+}
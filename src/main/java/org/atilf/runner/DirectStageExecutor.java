@@ -0,0 +1,220 @@
+package org.atilf.runner;
+
+import org.flowable.bpmn.converter.BpmnXMLConverter;
+import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.bpmn.model.EndEvent;
+import org.flowable.bpmn.model.ExclusiveGateway;
+import org.flowable.bpmn.model.FlowElement;
+import org.flowable.bpmn.model.FlowNode;
+import org.flowable.bpmn.model.ImplementationType;
+import org.flowable.bpmn.model.InclusiveGateway;
+import org.flowable.bpmn.model.ParallelGateway;
+import org.flowable.bpmn.model.SequenceFlow;
+import org.flowable.bpmn.model.ServiceTask;
+import org.flowable.bpmn.model.StartEvent;
+import org.flowable.engine.delegate.DelegateExecution;
+import org.flowable.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the DirectStageExecutor runs the delegates of a bpmn diagram one after another without the flowable engine : no
+ * database is created, no diagram is deployed and no history is written. The diagram is only read to find the order
+ * of its service tasks, the delegates read the same variables as with the flowable engine.
+ *
+ * The diagrams of termith are sequences of service tasks, the parallel branches are run one after another. The
+ * diagrams with conditional flows, sub processes or events other than the start and end events must be run by the
+ * flowable engine.
+ */
+public class DirectStageExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectStageExecutor.class.getName());
+    private final List<String> _stages;
+
+    /**
+     * constructor for DirectStageExecutor
+     * @param stages the class names of the delegates in the order of execution
+     */
+    public DirectStageExecutor(List<String> stages) {
+        _stages = new ArrayList<>(stages);
+    }
+
+    /**
+     * read the service tasks of a bpmn diagram of the classpath
+     * @param resource the path of the diagram in the classpath
+     * @return the executor of the delegates of the diagram
+     * @throws IOException thrown if the diagram cannot be found or read
+     */
+    public static DirectStageExecutor fromBpmnDiagram(String resource) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader() != null ?
+                Thread.currentThread().getContextClassLoader() : ClassLoader.getSystemClassLoader();
+        InputStream diagram = classLoader.getResourceAsStream(resource);
+        if (diagram == null) {
+            diagram = ClassLoader.getSystemClassLoader().getResourceAsStream(resource);
+        }
+        if (diagram == null) {
+            throw new IOException("cannot find the bpmn diagram " + resource);
+        }
+        try (InputStream in = diagram) {
+            return fromBpmnDiagram(in);
+        }
+    }
+
+    /**
+     * read the service tasks of a bpmn diagram
+     * @param diagram the xml of the diagram
+     * @return the executor of the delegates of the diagram
+     * @throws IOException thrown if the diagram cannot be read or cannot be run without the flowable engine
+     */
+    public static DirectStageExecutor fromBpmnDiagram(InputStream diagram) throws IOException {
+        BpmnModel model;
+        try {
+            model = new BpmnXMLConverter().convertToBpmnModel(
+                    XMLInputFactory.newInstance().createXMLStreamReader(
+                            new InputStreamReader(diagram, StandardCharsets.UTF_8))
+            );
+        } catch (XMLStreamException e) {
+            throw new IOException("cannot read the bpmn diagram", e);
+        }
+        if (model.getMainProcess() == null) {
+            throw new IOException("the bpmn diagram does not contain a process");
+        }
+        return new DirectStageExecutor(serviceTasks(model.getMainProcess().getFlowElements()));
+    }
+
+    /**
+     * sort the service tasks in the order of the sequence flows, a node is visited when all its incoming flows are
+     * visited
+     */
+    private static List<String> serviceTasks(Collection<FlowElement> flowElements) throws IOException {
+        Map<String, FlowNode> flowNodes = new HashMap<>();
+        Map<String, Integer> incomingFlows = new HashMap<>();
+        Deque<FlowNode> nodes = new ArrayDeque<>();
+        for (FlowElement flowElement : flowElements) {
+            if (flowElement instanceof StartEvent) {
+                nodes.add((FlowNode) flowElement);
+            }
+            else if (flowElement instanceof FlowNode) {
+                checkNode((FlowNode) flowElement);
+                flowNodes.put(flowElement.getId(), (FlowNode) flowElement);
+                incomingFlows.put(flowElement.getId(), ((FlowNode) flowElement).getIncomingFlows().size());
+            }
+            else if (!(flowElement instanceof SequenceFlow)) {
+                throw new IOException(flowElement.getClass().getSimpleName() + " " + flowElement.getId() +
+                        " cannot be run without the flowable engine");
+            }
+        }
+        if (nodes.isEmpty()) {
+            throw new IOException("the bpmn diagram does not contain a start event");
+        }
+
+        List<String> stages = new ArrayList<>();
+        while (!nodes.isEmpty()) {
+            FlowNode node = nodes.poll();
+            if (node instanceof ServiceTask) {
+                stages.add(((ServiceTask) node).getImplementation());
+            }
+            for (SequenceFlow sequenceFlow : node.getOutgoingFlows()) {
+                if (incomingFlows.merge(sequenceFlow.getTargetRef(), -1, Integer::sum) == 0) {
+                    nodes.add(flowNodes.get(sequenceFlow.getTargetRef()));
+                }
+            }
+        }
+        return stages;
+    }
+
+    private static void checkNode(FlowNode node) throws IOException {
+        if (node instanceof ServiceTask) {
+            ServiceTask serviceTask = (ServiceTask) node;
+            if (!ImplementationType.IMPLEMENTATION_TYPE_CLASS.equals(serviceTask.getImplementationType()) ||
+                    !serviceTask.getFieldExtensions().isEmpty()) {
+                throw new IOException("the service task " + node.getId() +
+                        " must only declare a delegate class to be run without the flowable engine");
+            }
+        }
+        else if (node instanceof ExclusiveGateway || node instanceof InclusiveGateway) {
+            /*
+            a gateway which chooses between several flows needs the flowable engine to evaluate the conditions
+             */
+            if (node.getOutgoingFlows().size() > 1 || node.getIncomingFlows().size() > 1 ||
+                    node.getOutgoingFlows().stream().anyMatch(flow -> flow.getConditionExpression() != null)) {
+                throw new IOException("the gateway " + node.getId() + " cannot be run without the flowable engine");
+            }
+        }
+        else if (!(node instanceof ParallelGateway || node instanceof EndEvent)) {
+            throw new IOException(node.getClass().getSimpleName() + " " + node.getId() +
+                    " cannot be run without the flowable engine");
+        }
+    }
+
+    /**
+     * @return the class names of the delegates in the order of execution
+     */
+    public List<String> getStages() {
+        return _stages;
+    }
+
+    /**
+     * run the delegates one after another
+     * @param variables the variables of the process, they are read and written by the delegates
+     * @throws ReflectiveOperationException thrown if a delegate cannot be instantiated
+     */
+    public void execute(Map<String, Object> variables) throws ReflectiveOperationException {
+        for (String stage : _stages) {
+            JavaDelegate delegate = (JavaDelegate) Class.forName(stage).getDeclaredConstructor().newInstance();
+            LOGGER.debug("run the stage {}", stage);
+            delegate.execute(execution(stage, variables));
+        }
+    }
+
+    /**
+     * create an execution which only gives access to the variables of the process
+     * @param stage the class name of the delegate
+     * @param variables the variables of the process
+     * @return the execution given to the delegate
+     */
+    static DelegateExecution execution(String stage, Map<String, Object> variables) {
+        return (DelegateExecution) Proxy.newProxyInstance(
+                DelegateExecution.class.getClassLoader(),
+                new Class<?>[]{DelegateExecution.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getVariable":
+                            return variables.get(args[0]);
+                        case "hasVariable":
+                            return variables.containsKey(args[0]);
+                        case "getVariables":
+                            return new HashMap<>(variables);
+                        case "setVariable":
+                            return variables.put((String) args[0], args[1]);
+                        case "getCurrentActivityId":
+                            return stage;
+                        case "toString":
+                            return "DirectExecution[" + stage + "]";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(
+                                    method.getName() + " is not supported without the flowable engine");
+                    }
+                }
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package org.atilf.runner;
 
+import org.atilf.module.tools.ArtifactStore;
 import org.flowable.engine.ProcessEngine;
 import org.flowable.engine.ProcessEngineConfiguration;
 import org.flowable.engine.RepositoryService;
@@ -9,11 +10,15 @@ import org.flowable.engine.impl.variable.CustomObjectType;
 import org.flowable.engine.impl.variable.VariableType;
 import org.flowable.engine.repository.Deployment;
 import org.flowable.engine.repository.ProcessDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used to create some Delegate inherited classes and execute each of them linearly.
@@ -24,13 +29,26 @@ public class Runner {
     private String _bpmnDiagram;
     private HashMap<String,Object> _flowableVariable = new HashMap<>();
     private List<VariableType> _variableTypes = new ArrayList<>();
+    private TermithScheduler _scheduler;
+    private Path _out;
+    private boolean _direct;
+    private static final Logger LOGGER = LoggerFactory.getLogger(Runner.class.getName());
 
-    public Runner(RunnerBuilder runnerBuilder) {
+    public Runner(RunnerBuilder runnerBuilder) throws IOException {
         _variableTypes.add(new CustomObjectType("TermithIndex",runnerBuilder._termithIndex.getClass()));
         _variableTypes.add(new CustomObjectType("Path",runnerBuilder._out.getClass()));
         _variableTypes.add(new CustomObjectType("ArrayList",List.class.getClass()));
+        _variableTypes.add(new CustomObjectType("TermithScheduler",TermithScheduler.class));
+        _variableTypes.add(new CustomObjectType("TermithCheckpoint",TermithCheckpoint.class));
 
         _bpmnDiagram = runnerBuilder._bpmnDiagram;
+        _out = runnerBuilder._out;
+        _direct = runnerBuilder._direct;
+        _scheduler = new TermithScheduler(
+                Runtime.getRuntime().availableProcessors(),
+                runnerBuilder._poolSize,
+                runnerBuilder._stageConcurrency
+        );
         _flowableVariable.put("poolSize", runnerBuilder._poolSize);
         _flowableVariable.put("thresholdMin", runnerBuilder._thresholdMin);
         _flowableVariable.put("thresholdMax", runnerBuilder._thresholdMax);
@@ -38,6 +56,14 @@ public class Runner {
         _flowableVariable.put("treeTaggerHome", runnerBuilder._treeTaggerHome);
         _flowableVariable.put("corpusSize", runnerBuilder._corpusSize);
         _flowableVariable.put("annotation", runnerBuilder._annotation);
+        _flowableVariable.put("pipelined", runnerBuilder._pipelined);
+        _flowableVariable.put("maxInFlightTasks", runnerBuilder._maxInFlightTasks > 0 ?
+                runnerBuilder._maxInFlightTasks : runnerBuilder._poolSize * 2);
+        _flowableVariable.put("minFreeHeap", runnerBuilder._minFreeHeap);
+        _flowableVariable.put("taggingCache", runnerBuilder._taggingCache);
+        _flowableVariable.put("translation", runnerBuilder._translation);
+        _flowableVariable.put("textExtraction", runnerBuilder._textExtraction);
+        _flowableVariable.put("morphologyJson", runnerBuilder._morphologyJson);
 
         _flowableVariable.put("txmInputPath", runnerBuilder._txmInputPath);
         _flowableVariable.put("learningPath", runnerBuilder._learningPath);
@@ -47,6 +73,20 @@ public class Runner {
         _flowableVariable.put("termithIndex", runnerBuilder._termithIndex);
         _flowableVariable.put("timePerformanceEvents",new ArrayList<>());
         _flowableVariable.put("memoryPerformanceEvents",new ArrayList<>());
+        _flowableVariable.put("executedDelegates",new ArrayList<>());
+        _flowableVariable.put("scheduler", _scheduler);
+
+        /*
+        a checkpoint copies the termithIndex after each delegate, it is only saved by the processes which can be
+        resumed
+         */
+        if (runnerBuilder._checkpoint || runnerBuilder._resume) {
+            TermithCheckpoint checkpoint = new TermithCheckpoint(_out);
+            if (runnerBuilder._resume) {
+                checkpoint.resume(runnerBuilder._termithIndex);
+            }
+            _flowableVariable.put("checkpoint", checkpoint);
+        }
     }
 
 
@@ -56,6 +96,24 @@ public class Runner {
      * @throws InterruptedException thrown if awaitTermination function is interrupted while waiting
      */
     public void execute(){
+        try {
+            if (_direct) {
+                executeDirectly();
+            }
+            else {
+                executeWithFlowable();
+            }
+        } finally {
+            _scheduler.close();
+            ArtifactStore.get(_out).close();
+        }
+    }
+
+    /**
+     * run the bpmn diagram with the flowable engine on an in-memory database
+     */
+    private void executeWithFlowable() {
+        long start = System.nanoTime();
         ProcessEngineConfiguration cfg = new StandaloneProcessEngineConfiguration()
                 .setCustomPreVariableTypes(_variableTypes)
                 .setJdbcUrl("jdbc:h2:mem:flowable;DB_CLOSE_DELAY=-1")
@@ -76,6 +134,26 @@ public class Runner {
                 .deploymentId(deployment.getId())
                 .singleResult();
         RuntimeService runtimeService = processEngine.getRuntimeService();
+        LOGGER.info("start-up time of the flowable engine : {} ms", elapsedMillis(start));
         runtimeService.startProcessInstanceByKey(processDefinition.getKey(),_flowableVariable);
     }
+
+    /**
+     * run the delegates of the bpmn diagram one after another without the flowable engine
+     * @see DirectStageExecutor
+     */
+    private void executeDirectly() {
+        long start = System.nanoTime();
+        try {
+            DirectStageExecutor directStageExecutor = DirectStageExecutor.fromBpmnDiagram(_bpmnDiagram);
+            LOGGER.info("start-up time of the direct executor : {} ms", elapsedMillis(start));
+            directStageExecutor.execute(_flowableVariable);
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot run " + _bpmnDiagram + " without the flowable engine", e);
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
 }
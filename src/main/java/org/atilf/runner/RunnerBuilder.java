@@ -9,6 +9,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.atilf.runner.TermithResourceManager.*;
 
@@ -20,6 +22,17 @@ public class RunnerBuilder {
     int _thresholdMin = 0;
     TermithIndex _termithIndex = new TermithIndex();
     String _bpmnDiagram;
+    boolean _pipelined = false;
+    Map<String, Integer> _stageConcurrency = new HashMap<>();
+    int _maxInFlightTasks = 0;
+    long _minFreeHeap = Runtime.getRuntime().maxMemory() / 10;
+    boolean _resume = false;
+    boolean _checkpoint = false;
+    Path _taggingCache;
+    boolean _direct = false;
+    boolean _translation = true;
+    String _textExtraction = "xslt";
+    boolean _morphologyJson = false;
 
 
     /*
@@ -63,6 +76,130 @@ public class RunnerBuilder {
         return this;
     }
 
+    public RunnerBuilder setPipelined(boolean pipelined) {
+        _pipelined = pipelined;
+        return this;
+    }
+
+    /**
+     * limit the number of tasks of a stage running at the same time, by default a stage uses all the threads of its
+     * lane in the scheduler
+     * @param stage the simple name of the delegate class
+     * @param concurrency the maximum number of running tasks
+     * @return this builder
+     */
+    public RunnerBuilder setStageConcurrency(String stage, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("the concurrency of the stage " + stage + " must be positive");
+        }
+        _stageConcurrency.put(stage, concurrency);
+        return this;
+    }
+
+    /**
+     * limit the number of tasks submitted by a delegate which are queued or running, by default twice the pool size
+     * @param maxInFlightTasks the maximum number of tasks in flight
+     * @return this builder
+     */
+    public RunnerBuilder setMaxInFlightTasks(int maxInFlightTasks) {
+        if (maxInFlightTasks <= 0) {
+            throw new IllegalArgumentException("the maximum number of tasks in flight must be positive");
+        }
+        _maxInFlightTasks = maxInFlightTasks;
+        return this;
+    }
+
+    /**
+     * a delegate waits that one of its tasks is finished before submitting a new task if the free heap is lower
+     * than this threshold, by default a tenth of the maximum heap
+     * @param minFreeHeap the minimum free heap in bytes
+     * @return this builder
+     */
+    public RunnerBuilder setMinFreeHeap(long minFreeHeap) {
+        _minFreeHeap = minFreeHeap;
+        return this;
+    }
+
+    /**
+     * resume an interrupted process : the working directory is kept, the delegates completed before the last
+     * checkpoint are not run again and the documents already processed by the interrupted delegate are skipped.
+     * Only the state of the terminology extraction process is saved in the checkpoints
+     * @param resume true to resume the process of the output folder
+     * @return this builder
+     * @see TermithCheckpoint
+     */
+    public RunnerBuilder setResume(boolean resume) {
+        _resume = resume;
+        return this;
+    }
+
+    /**
+     * save a checkpoint in the output folder after each delegate, the process can be resumed if it is interrupted.
+     * A resumed process always saves its checkpoints
+     * @param checkpoint true to save the checkpoints
+     * @return this builder
+     * @see TermithCheckpoint
+     */
+    public RunnerBuilder setCheckpoint(boolean checkpoint) {
+        _checkpoint = checkpoint;
+        return this;
+    }
+
+    /**
+     * keep the morphology of the tagged documents in a cache folder between the runs, only the new or modified
+     * documents of a corpus are tagged
+     * @param taggingCache the folder of the cache
+     * @return this builder
+     */
+    public RunnerBuilder setTaggingCache(String taggingCache) {
+        _taggingCache = Paths.get(taggingCache);
+        return this;
+    }
+
+    /**
+     * run the delegates of the bpmn diagram one after another without the flowable engine and its database
+     * @param direct true to use the direct executor
+     * @return this builder
+     * @see DirectStageExecutor
+     */
+    public RunnerBuilder setDirect(boolean direct) {
+        _direct = direct;
+        return this;
+    }
+
+    /**
+     * translate the special characters of the corpus while it is copied into the working directory. Without
+     * translation, the files of the corpus are linked into the working directory instead of being copied
+     * @param translation false to keep the special characters
+     * @return this builder
+     */
+    public RunnerBuilder setTranslation(boolean translation) {
+        _translation = translation;
+        return this;
+    }
+
+    /**
+     * select the extraction of the plain text of the corpus
+     * @param textExtraction xslt for the extractText.xsl stylesheet or stax for the streaming extraction
+     * @return this builder
+     * @see org.atilf.resources.enrichment.TextExtraction
+     */
+    public RunnerBuilder setTextExtraction(String textExtraction) {
+        _textExtraction = textExtraction;
+        return this;
+    }
+
+    /**
+     * write the termsuite json file of the morphology of each document in the json folder, the termsuite pipeline
+     * does not need them
+     * @param morphologyJson true to write the json files
+     * @return this builder
+     */
+    public RunnerBuilder setMorphologyJson(boolean morphologyJson) {
+        _morphologyJson = morphologyJson;
+        return this;
+    }
+
     public RunnerBuilder setBpmnDiagram(String bpmnDiagramFilename) {
         _bpmnDiagram = TermithResource.CUSTOM_BPMN_DIAGRAM.getPath() + bpmnDiagramFilename;
         return this;
@@ -103,7 +240,6 @@ public class RunnerBuilder {
 
     public RunnerBuilder setOut(String out) {
         _out = Paths.get(out);
-        FilesUtils.createFolder(_out);
         return this;
     }
 
@@ -139,6 +275,12 @@ public class RunnerBuilder {
     }
 
     public Runner createRunner() throws Exception {
+        /*
+        the working directory is cleaned unless an interrupted process is resumed
+         */
+        if (_out != null && (!_resume || !Files.isDirectory(_out))) {
+            FilesUtils.createFolder(_out);
+        }
         return new Runner(this);
     }
 }
@@ -0,0 +1,288 @@
+package org.atilf.runner;
+
+import org.atilf.models.ArtifactHandle;
+import org.atilf.models.TermithIndex;
+import org.atilf.models.enrichment.TextLength;
+import org.atilf.module.tools.ArtifactStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * the TermithCheckpoint saves a manifest in the working directory each time a service task of the bpmn diagram is
+ * completed. The manifest contains the completed delegates and the state of the termithIndex of the terminology
+ * extraction process (the paths of the files, the handles of the artifacts and the stand-off annotations).
+ *
+ * When a process is resumed, the completed delegates are not run again and the termithIndex is restored. The
+ * artifacts written by the interrupted delegate are recovered from the indexes of the artifact store, the delegate
+ * does not process again the documents whose artifacts are complete.
+ */
+public class TermithCheckpoint {
+
+    static final String FOLDER = "checkpoint";
+    private static final String MANIFEST = "manifest";
+    private static final int VERSION = 1;
+    private static final Logger LOGGER = LoggerFactory.getLogger(TermithCheckpoint.class.getName());
+
+    private final Path _workingPath;
+    private final Path _manifest;
+    private final List<String> _completedDelegates = new CopyOnWriteArrayList<>();
+    private boolean _incomplete = false;
+
+    /**
+     * constructor for TermithCheckpoint
+     * @param workingPath the working directory of the process
+     */
+    public TermithCheckpoint(Path workingPath) {
+        _workingPath = workingPath;
+        _manifest = workingPath.resolve(FOLDER).resolve(MANIFEST);
+    }
+
+    /**
+     * check if a delegate has been completed
+     * @param delegate the name of the delegate class
+     * @return true if the delegate has been completed
+     */
+    public boolean isCompleted(String delegate) {
+        return _completedDelegates.contains(delegate);
+    }
+
+    /**
+     * mark a delegate as completed and save the manifest. The delegates run after an incomplete delegate are not
+     * marked : they are run again on the documents completed when the process is resumed
+     * @param delegate the name of the delegate class
+     * @param termithIndex the termithIndex of the process
+     */
+    public synchronized void complete(String delegate, TermithIndex termithIndex) {
+        if (!_incomplete && !_completedDelegates.contains(delegate)) {
+            _completedDelegates.add(delegate);
+        }
+        save(delegate, termithIndex);
+    }
+
+    /**
+     * save the manifest without marking a delegate which has failed on some documents, the delegate is run again on
+     * these documents when the process is resumed
+     * @param delegate the name of the delegate class
+     * @param termithIndex the termithIndex of the process
+     */
+    public synchronized void incomplete(String delegate, TermithIndex termithIndex) {
+        _incomplete = true;
+        LOGGER.warn("{} has failed on some documents, it is run again when the process is resumed", delegate);
+        save(delegate, termithIndex);
+    }
+
+    private void save(String delegate, TermithIndex termithIndex) {
+        try {
+            save(termithIndex);
+        } catch (IOException e) {
+            LOGGER.error("cannot save the checkpoint after {}", delegate, e);
+        }
+    }
+
+    /**
+     * restore the completed delegates and the termithIndex of an interrupted process, then recover the artifacts
+     * written after the last checkpoint
+     * @param termithIndex the termithIndex to restore
+     * @throws IOException thrown if the manifest or the artifact indexes cannot be read
+     */
+    public synchronized void resume(TermithIndex termithIndex) throws IOException {
+        if (Files.exists(_manifest)) {
+            try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(_manifest))) {
+                int version = in.readInt();
+                if (version != VERSION) {
+                    throw new IOException("unsupported version " + version + " of the checkpoint " + _manifest);
+                }
+                _completedDelegates.addAll(readList(in));
+                restore(readMap(in), termithIndex);
+            } catch (ClassNotFoundException e) {
+                throw new IOException("cannot read the checkpoint " + _manifest, e);
+            }
+            LOGGER.info("resume the process after : {}", _completedDelegates);
+        }
+        else {
+            LOGGER.info("no checkpoint found in {}, the process is started from the beginning", _workingPath);
+        }
+        ArtifactStore store = ArtifactStore.get(_workingPath);
+        recover(store, "extractedText", termithIndex.getExtractedText());
+        recover(store, "textOffsetMap", termithIndex.getTextOffsetMap());
+        recover(store, "treeTaggerOutput", termithIndex.getTreeTaggerOutput());
+        recover(store, "termsuiteDocument", termithIndex.getTermsuiteDocument());
+        recover(store, "tokenizeTeiBody", termithIndex.getTokenizeTeiBody());
+        recover(store, "morphologyStandOff", termithIndex.getMorphologyStandOff());
+        /*
+        the segments of the interrupted process are deleted when the artifacts kept by the termithIndex are released
+         */
+        adopt(store, termithIndex.getExtractedText().values());
+        adopt(store, termithIndex.getTextOffsetMap().values());
+        adopt(store, termithIndex.getTreeTaggerOutput().values());
+        adopt(store, termithIndex.getTermsuiteDocument().values());
+        adopt(store, termithIndex.getTokenizeTeiBody().values());
+        adopt(store, termithIndex.getMorphologyStandOff().values());
+        for (List<ArtifactHandle> shards : termithIndex.getTerminologyShards().values()) {
+            adopt(store, shards);
+        }
+        adopt(store, termithIndex.getResolvedTerminology().values());
+    }
+
+    /**
+     * write the manifest in a temporary file moved at the place of the previous manifest, an interrupted process
+     * keeps the previous checkpoint
+     */
+    private void save(TermithIndex termithIndex) throws IOException {
+        Files.createDirectories(_manifest.getParent());
+        Path temporary = _manifest.resolveSibling(MANIFEST + ".tmp");
+        try (OutputStream os = Files.newOutputStream(temporary);
+             ObjectOutputStream out = new ObjectOutputStream(os)) {
+            out.writeInt(VERSION);
+            out.writeObject(new ArrayList<>(_completedDelegates));
+            out.writeObject(snapshot(termithIndex));
+        }
+        Files.move(temporary, _manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug("checkpoint saved : {}", _manifest);
+    }
+
+    private static HashMap<String, Serializable> snapshot(TermithIndex termithIndex) {
+        HashMap<String, Serializable> state = new HashMap<>();
+        state.put("terminologies", toStrings(termithIndex.getTerminologies()));
+        state.put("xmlCorpus", toStrings(termithIndex.getXmlCorpus()));
+        state.put("serializeJson", toStrings(termithIndex.getSerializeJson()));
+        state.put("outputFile", toStrings(termithIndex.getOutputFile()));
+        state.put("extractedText", new HashMap<>(termithIndex.getExtractedText()));
+        state.put("extractedTextLength", new HashMap<>(termithIndex.getExtractedTextLength()));
+        state.put("textOffsetMap", new HashMap<>(termithIndex.getTextOffsetMap()));
+        state.put("taggingKey", new HashMap<>(termithIndex.getTaggingKey()));
+        state.put("treeTaggerOutput", new HashMap<>(termithIndex.getTreeTaggerOutput()));
+        state.put("termsuiteDocument", new HashMap<>(termithIndex.getTermsuiteDocument()));
+        state.put("tokenizeTeiBody", new HashMap<>(termithIndex.getTokenizeTeiBody()));
+        state.put("morphologyStandOff", new HashMap<>(termithIndex.getMorphologyStandOff()));
+        state.put("terminologyStandOff", new HashMap<>(termithIndex.getTerminologyStandOff()));
+        HashMap<String, ArrayList<ArtifactHandle>> terminologyShards = new HashMap<>();
+        termithIndex.getTerminologyShards().forEach(
+                (key, shards) -> terminologyShards.put(key, new ArrayList<>(shards))
+        );
+        state.put("terminologyShards", terminologyShards);
+        state.put("resolvedTerminology", new HashMap<>(termithIndex.getResolvedTerminology()));
+        state.put("transdisciplinaryOffsetId", new HashMap<>(termithIndex.getTransdisciplinaryOffsetId()));
+        state.put("phraseoOffsetId", new HashMap<>(termithIndex.getPhraseoOffsetId()));
+        return state;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void restore(Map<String, Object> state, TermithIndex termithIndex) {
+        termithIndex.getTerminologies().addAll(toPaths((List<String>) state.get("terminologies")));
+        termithIndex.getXmlCorpus().putAll(toPaths((Map<String, String>) state.get("xmlCorpus")));
+        termithIndex.getSerializeJson().addAll(toPaths((List<String>) state.get("serializeJson")));
+        termithIndex.getOutputFile().addAll(toPaths((List<String>) state.get("outputFile")));
+        termithIndex.getExtractedText().putAll(get(state, "extractedText"));
+        /*
+        the checkpoints written before the offset maps and the text lengths have none : the tokenizer aligns the texts
+        without map and the lengths are computed from the texts
+         */
+        Map<String, TextLength> extractedTextLength = get(state, "extractedTextLength");
+        if (extractedTextLength != null) {
+            termithIndex.getExtractedTextLength().putAll(extractedTextLength);
+        }
+        Map<String, ArtifactHandle> textOffsetMap = get(state, "textOffsetMap");
+        if (textOffsetMap != null) {
+            termithIndex.getTextOffsetMap().putAll(textOffsetMap);
+        }
+        Map<String, String> taggingKey = get(state, "taggingKey");
+        if (taggingKey != null) {
+            termithIndex.getTaggingKey().putAll(taggingKey);
+        }
+        termithIndex.getTreeTaggerOutput().putAll(get(state, "treeTaggerOutput"));
+        /*
+        the documents tagged before the morphologies were handed to the termsuite pipeline are tagged again
+         */
+        Map<String, ArtifactHandle> termsuiteDocument = get(state, "termsuiteDocument");
+        if (termsuiteDocument != null) {
+            termithIndex.getTermsuiteDocument().putAll(termsuiteDocument);
+        }
+        termithIndex.getTokenizeTeiBody().putAll(get(state, "tokenizeTeiBody"));
+        termithIndex.getMorphologyStandOff().putAll(get(state, "morphologyStandOff"));
+        termithIndex.getTerminologyStandOff().putAll(get(state, "terminologyStandOff"));
+        /*
+        the shards are not recovered from the artifact store : an interrupted terminology parsing is done again
+         */
+        Map<String, List<ArtifactHandle>> terminologyShards = get(state, "terminologyShards");
+        if (terminologyShards != null) {
+            termithIndex.getTerminologyShards().putAll(terminologyShards);
+        }
+        Map<String, ArtifactHandle> resolvedTerminology = get(state, "resolvedTerminology");
+        if (resolvedTerminology != null) {
+            termithIndex.getResolvedTerminology().putAll(resolvedTerminology);
+        }
+        termithIndex.getTransdisciplinaryOffsetId().putAll(get(state, "transdisciplinaryOffsetId"));
+        termithIndex.getPhraseoOffsetId().putAll(get(state, "phraseoOffsetId"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Map<String, Object> state, String key) {
+        return (T) state.get(key);
+    }
+
+    private static void recover(ArtifactStore store, String stage, Map<String, ArtifactHandle> handles)
+            throws IOException {
+        int size = handles.size();
+        store.recover(stage).forEach(handles::putIfAbsent);
+        if (handles.size() > size) {
+            LOGGER.info("{} artifacts of the stage {} recovered", handles.size() - size, stage);
+        }
+    }
+
+    private static void adopt(ArtifactStore store, Collection<ArtifactHandle> handles) throws IOException {
+        for (ArtifactHandle handle : handles) {
+            store.adopt(handle);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> readList(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        return (List<String>) in.readObject();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readMap(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        return (Map<String, Object>) in.readObject();
+    }
+
+    private static ArrayList<String> toStrings(List<Path> paths) {
+        ArrayList<String> strings = new ArrayList<>();
+        paths.forEach(path -> strings.add(path.toString()));
+        return strings;
+    }
+
+    private static HashMap<String, String> toStrings(Map<String, Path> paths) {
+        HashMap<String, String> strings = new HashMap<>();
+        paths.forEach((key, path) -> strings.put(key, path.toString()));
+        return strings;
+    }
+
+    private static List<Path> toPaths(List<String> strings) {
+        List<Path> paths = new ArrayList<>();
+        strings.forEach(string -> paths.add(Paths.get(string)));
+        return paths;
+    }
+
+    private static Map<String, Path> toPaths(Map<String, String> strings) {
+        Map<String, Path> paths = new HashMap<>();
+        strings.forEach((key, string) -> paths.put(key, Paths.get(string)));
+        return paths;
+    }
+}
@@ -0,0 +1,305 @@
+package org.atilf.runner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The TermithScheduler is created by the runner and shared by all the delegates of a run. It contains two work
+ * stealing pools : the CPU lane for the computing tasks and the BLOCKING lane for the tasks waiting on external
+ * processes (TreeTagger, R server, ...). Each delegate gets a stage : an executor service with its own concurrency
+ * limit which submits its tasks to the pool of its lane. A stage can be shut down and awaited like a thread pool
+ * without stopping the shared pools.
+ */
+public class TermithScheduler implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TermithScheduler.class.getName());
+
+    /**
+     * the kind of work done by the tasks of a stage
+     */
+    public enum Lane {
+        CPU,
+        BLOCKING
+    }
+
+    private final Map<Lane, ForkJoinPool> _pools = new HashMap<>();
+    private final Map<Lane, Integer> _parallelism = new HashMap<>();
+    private final Map<String, Integer> _stageConcurrency;
+    private final List<Stage> _stages = new CopyOnWriteArrayList<>();
+
+    /**
+     * constructor for TermithScheduler
+     * @param cpuParallelism the number of threads of the CPU lane
+     * @param blockingParallelism the number of threads of the BLOCKING lane
+     * @param stageConcurrency the concurrency limit of some stages, the other stages use the parallelism of their
+     *                         lane
+     */
+    public TermithScheduler(int cpuParallelism, int blockingParallelism, Map<String, Integer> stageConcurrency) {
+        _parallelism.put(Lane.CPU, cpuParallelism);
+        _parallelism.put(Lane.BLOCKING, blockingParallelism);
+        _pools.put(Lane.CPU, new ForkJoinPool(cpuParallelism));
+        _pools.put(Lane.BLOCKING, new ForkJoinPool(blockingParallelism));
+        _stageConcurrency = new HashMap<>(stageConcurrency);
+    }
+
+    /**
+     * create a new stage, its concurrency limit is given by the stageConcurrency map or by the parallelism of its lane
+     * @param name the name of the stage
+     * @param lane the lane of the stage
+     * @return the executor service of the stage
+     */
+    public ExecutorService newStage(String name, Lane lane) {
+        return newStage(name, lane, _stageConcurrency.getOrDefault(name, _parallelism.get(lane)));
+    }
+
+    /**
+     * create a new stage
+     * @param name the name of the stage
+     * @param lane the lane of the stage
+     * @param concurrency the maximum number of tasks of the stage running at the same time
+     * @return the executor service of the stage
+     */
+    public ExecutorService newStage(String name, Lane lane, int concurrency) {
+        Stage stage = new Stage(name, lane, _pools.get(lane), Math.max(1, concurrency));
+        _stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * return the statistics of the stages created during the run
+     * @return the list of statistics
+     */
+    public List<StageStatistics> getStatistics() {
+        List<StageStatistics> statistics = new ArrayList<>();
+        _stages.forEach(stage -> statistics.add(stage._statistics));
+        return Collections.unmodifiableList(statistics);
+    }
+
+    /**
+     * shut down the pools of the two lanes and log the statistics of the stages
+     */
+    @Override
+    public void close() {
+        _pools.values().forEach(ForkJoinPool::shutdown);
+        _stages.forEach(stage -> LOGGER.info("{}", stage._statistics));
+    }
+
+    /**
+     * the statistics of a stage
+     */
+    public static class StageStatistics {
+        private final String _name;
+        private final Lane _lane;
+        private final int _concurrency;
+        private final AtomicInteger _submittedTasks = new AtomicInteger();
+        private final AtomicInteger _completedTasks = new AtomicInteger();
+        private final AtomicInteger _maxQueueDepth = new AtomicInteger();
+        private final AtomicLong _queueDepthSum = new AtomicLong();
+        private final AtomicLong _busyTime = new AtomicLong();
+        private volatile long _startTime = 0;
+        private volatile long _endTime = 0;
+
+        StageStatistics(String name, Lane lane, int concurrency) {
+            _name = name;
+            _lane = lane;
+            _concurrency = concurrency;
+        }
+
+        public String getName() {
+            return _name;
+        }
+
+        public Lane getLane() {
+            return _lane;
+        }
+
+        public int getSubmittedTasks() {
+            return _submittedTasks.get();
+        }
+
+        public int getCompletedTasks() {
+            return _completedTasks.get();
+        }
+
+        /**
+         * @return the maximum number of tasks waiting for a slot of the stage
+         */
+        public int getMaxQueueDepth() {
+            return _maxQueueDepth.get();
+        }
+
+        /**
+         * @return the average number of tasks waiting for a slot of the stage when a task is submitted
+         */
+        public double getAverageQueueDepth() {
+            int submittedTasks = _submittedTasks.get();
+            return submittedTasks == 0 ? 0 : (double) _queueDepthSum.get() / submittedTasks;
+        }
+
+        /**
+         * @return the ratio between the running time of the tasks and the time available for the stage, i.e. its
+         * concurrency limit multiplied by the time elapsed since its first task
+         */
+        public double getUtilisation() {
+            if (_startTime == 0) {
+                return 0;
+            }
+            long end = _endTime == 0 ? System.nanoTime() : _endTime;
+            long available = (end - _startTime) * _concurrency;
+            return available <= 0 ? 0 : (double) _busyTime.get() / available;
+        }
+
+        void submitted(int queueDepth) {
+            if (_startTime == 0) {
+                _startTime = System.nanoTime();
+            }
+            _submittedTasks.incrementAndGet();
+            _queueDepthSum.addAndGet(queueDepth);
+            _maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+        }
+
+        @Override
+        public String toString() {
+            DecimalFormat df = new DecimalFormat("#.##");
+            return _name + " [" + _lane + " lane, concurrency " + _concurrency + "] : " +
+                    _completedTasks.get() + "/" + _submittedTasks.get() + " tasks, queue depth max " +
+                    _maxQueueDepth.get() + " avg " + df.format(getAverageQueueDepth()) + ", utilisation " +
+                    df.format(getUtilisation() * 100) + "%";
+        }
+    }
+
+    /**
+     * the executor service of a stage, a task waits in the queue of the stage until a slot is free
+     */
+    private static class Stage extends AbstractExecutorService {
+        private final ForkJoinPool _pool;
+        private final int _concurrency;
+        private final Queue<Runnable> _queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger _running = new AtomicInteger();
+        private final AtomicInteger _pending = new AtomicInteger();
+        private final CountDownLatch _terminated = new CountDownLatch(1);
+        private final StageStatistics _statistics;
+        private volatile boolean _shutdown = false;
+
+        Stage(String name, Lane lane, ForkJoinPool pool, int concurrency) {
+            _pool = pool;
+            _concurrency = concurrency;
+            _statistics = new StageStatistics(name, lane, concurrency);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (_shutdown) {
+                throw new RejectedExecutionException(_statistics._name + " stage is shut down");
+            }
+            _pending.incrementAndGet();
+            _queue.add(command);
+            _statistics.submitted(_queue.size());
+            schedule();
+        }
+
+        /**
+         * send the waiting tasks to the pool while the concurrency limit is not reached
+         */
+        private void schedule() {
+            while (!_queue.isEmpty()) {
+                int running = _running.get();
+                if (running >= _concurrency) {
+                    return;
+                }
+                if (_running.compareAndSet(running, running + 1)) {
+                    Runnable task = _queue.poll();
+                    if (task == null) {
+                        _running.decrementAndGet();
+                    }
+                    else {
+                        _pool.execute(() -> run(task));
+                    }
+                }
+            }
+        }
+
+        private void run(Runnable task) {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                _statistics._busyTime.addAndGet(System.nanoTime() - start);
+                _statistics._completedTasks.incrementAndGet();
+                _running.decrementAndGet();
+                finished();
+                schedule();
+            }
+        }
+
+        private void finished() {
+            if (_pending.decrementAndGet() == 0 && _shutdown) {
+                terminate();
+            }
+        }
+
+        private synchronized void terminate() {
+            if (_terminated.getCount() != 0) {
+                _statistics._endTime = System.nanoTime();
+                _terminated.countDown();
+                LOGGER.debug("{}", _statistics);
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            _shutdown = true;
+            if (_pending.get() == 0) {
+                terminate();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            _shutdown = true;
+            List<Runnable> tasks = new ArrayList<>();
+            Runnable task;
+            while ((task = _queue.poll()) != null) {
+                tasks.add(task);
+                finished();
+            }
+            if (_pending.get() == 0) {
+                terminate();
+            }
+            return tasks;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return _shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return _terminated.getCount() == 0;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return _terminated.await(timeout, unit);
+        }
+    }
+}
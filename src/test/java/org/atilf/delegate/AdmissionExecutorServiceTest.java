@@ -0,0 +1,70 @@
+package org.atilf.delegate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdmissionExecutorServiceTest {
+
+    @Test
+    public void limitInFlightTasks() throws Exception {
+        AdmissionExecutorService executorService = new AdmissionExecutorService(
+                Executors.newFixedThreadPool(8), 3, 0
+        );
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        for (int i = 0; i < 30; i++) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            executorService.submit(() -> {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        executorService.shutdown();
+        Assert.assertTrue(executorService.awaitTermination(10L, TimeUnit.SECONDS));
+        Assert.assertTrue("no more than three tasks can be submitted and not finished", maxInFlight.get() <= 4);
+        Assert.assertEquals(0, executorService.getInFlightTasks());
+    }
+
+    @Test
+    public void waitFreeHeap() throws Exception {
+        AtomicLong freeHeap = new AtomicLong(0);
+        ExecutorService threadPool = Executors.newFixedThreadPool(2);
+        AdmissionExecutorService executorService = new AdmissionExecutorService(
+                threadPool, 10, 100, freeHeap::get
+        );
+        CountDownLatch release = new CountDownLatch(1);
+        /*
+        the first task is admitted even if the free heap is low because no other task is in flight
+         */
+        executorService.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            freeHeap.set(1000);
+        });
+
+        Thread submitter = new Thread(() -> executorService.submit(() -> {}));
+        submitter.start();
+        submitter.join(300);
+        Assert.assertTrue("the second task must wait that the first task releases memory", submitter.isAlive());
+
+        release.countDown();
+        submitter.join(10000);
+        Assert.assertFalse(submitter.isAlive());
+        executorService.shutdown();
+        Assert.assertTrue(executorService.awaitTermination(10L, TimeUnit.SECONDS));
+    }
+}
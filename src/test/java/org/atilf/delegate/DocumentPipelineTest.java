@@ -0,0 +1,134 @@
+package org.atilf.delegate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class DocumentPipelineTest {
+
+    @Test
+    public void execute() throws Exception {
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        Set<String> exported = new ConcurrentSkipListSet<>();
+        new DocumentPipeline(2)
+                .addStage("initializer", executorService, 3, file -> file.replace(".xml", ""))
+                .addStage("extractor", executorService, 2, id -> "empty".equals(id) ? null : id)
+                .addStage("tagger", executorService, 2, id -> {
+                    if ("error".equals(id)) {
+                        throw new IllegalStateException("tagger error");
+                    }
+                    return id;
+                })
+                .addStage("exporter", executorService, 1, id -> {
+                    exported.add(id);
+                    return id;
+                })
+                .execute(Arrays.asList("a.xml", "b.xml", "empty.xml", "error.xml", "c.xml", "d.xml", "e.xml"));
+        executorService.shutdown();
+
+        Assert.assertEquals("the removed and the failed documents must not reach the last stage",
+                new TreeSet<>(Arrays.asList("a", "b", "c", "d", "e")), exported);
+    }
+
+    @Test(timeout = 10000L)
+    public void failedWorker() throws Exception {
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        Set<String> exported = new ConcurrentSkipListSet<>();
+        new DocumentPipeline(1)
+                .addStage("initializer", executorService, 1, id -> id)
+                .addStage("tagger", executorService, 1, id -> {
+                    if ("error".equals(id)) {
+                        throw new Error("tagger failure");
+                    }
+                    return id;
+                })
+                .addStage("exporter", executorService, 1, id -> {
+                    exported.add(id);
+                    return id;
+                })
+                .execute(Arrays.asList("a", "error", "b", "c", "d"));
+        executorService.shutdown();
+        Assert.assertEquals("the documents after the death of the only worker must be removed",
+                new TreeSet<>(Collections.singletonList("a")), exported);
+    }
+
+    @Test(timeout = 10000L)
+    public void interruptedWorker() throws Exception {
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        Set<String> exported = new ConcurrentSkipListSet<>();
+        new DocumentPipeline(1)
+                .addStage("initializer", executorService, 1, id -> id)
+                .addStage("tagger", executorService, 1, id -> {
+                    if ("interrupted".equals(id)) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return id;
+                })
+                .addStage("exporter", executorService, 1, id -> {
+                    exported.add(id);
+                    return id;
+                })
+                .execute(Arrays.asList("a", "interrupted", "b", "c", "d"));
+        executorService.shutdown();
+        Assert.assertEquals("the next stages must finish when a stage is interrupted",
+                new TreeSet<>(Collections.singletonList("a")), exported);
+    }
+
+    @Test
+    public void overlapStages() throws Exception {
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        CountDownLatch firstExported = new CountDownLatch(1);
+        List<String> documents = Arrays.asList("first", "second");
+        new DocumentPipeline(1)
+                .addStage("initializer", executorService, 1, id -> {
+                    try {
+                        /*
+                        the second document waits that the first one has reached the last stage
+                         */
+                        if ("second".equals(id)) {
+                            Assert.assertTrue("the stages must overlap", firstExported.await(10L, TimeUnit.SECONDS));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return id;
+                })
+                .addStage("exporter", executorService, 1, id -> {
+                    firstExported.countDown();
+                    return id;
+                })
+                .execute(documents);
+        executorService.shutdown();
+        Assert.assertEquals(0, firstExported.getCount());
+    }
+
+    @Test
+    public void shareForkJoinPool() throws Exception {
+        /*
+        the blocked workers must not prevent the workers of the other stages from running
+         */
+        ForkJoinPool forkJoinPool = new ForkJoinPool(1);
+        Set<String> exported = new ConcurrentSkipListSet<>();
+        new DocumentPipeline(1)
+                .addStage("initializer", forkJoinPool, 2, id -> id)
+                .addStage("extractor", forkJoinPool, 2, id -> id)
+                .addStage("exporter", forkJoinPool, 2, id -> {
+                    exported.add(id);
+                    return id;
+                })
+                .execute(Arrays.asList("a", "b", "c", "d", "e"));
+        forkJoinPool.shutdown();
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("a", "b", "c", "d", "e")), exported);
+    }
+}
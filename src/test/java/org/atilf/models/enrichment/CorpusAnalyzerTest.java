@@ -85,4 +85,23 @@ public class CorpusAnalyzerTest {
                 _corpusAnalyzer.getAnalyzedTexts().get("3").getCumulatedSize()
         );
     }
+
+    @Test
+    public void fromLengths() throws Exception {
+        Map<String, TextLength> textLengths = new HashMap<>();
+        _extractedText.forEach((id, text) -> textLengths.put(id, TextLength.of(text)));
+        CorpusAnalyzer corpusAnalyzer = CorpusAnalyzer.fromLengths(textLengths);
+        _corpusAnalyzer = new CorpusAnalyzer(_extractedText);
+        _corpusAnalyzer.getAnalyzedTexts().forEach((id, expected) -> {
+            TextAnalyzer observed = corpusAnalyzer.getAnalyzedTexts().get(id);
+            Assert.assertEquals("the metadata must be computed from the lengths",
+                    expected.getDocumentSize(), observed.getDocumentSize());
+            Assert.assertEquals(expected.getEnd(), observed.getEnd());
+            Assert.assertEquals(expected.getDocIndex(), observed.getDocIndex());
+            Assert.assertEquals(expected.getCumulatedSize(), observed.getCumulatedSize());
+            Assert.assertEquals(expected.getTotalSize(), observed.getTotalSize());
+            Assert.assertEquals(expected.getIsLastDoc(), observed.getIsLastDoc());
+            Assert.assertEquals(3, observed.getNbOfDocs());
+        });
+    }
 }
@@ -3,11 +3,8 @@ package org.atilf.models.enrichment;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.EmptyStackException;
 
 /**
  * @author Simon Meoni
@@ -17,8 +14,6 @@ public class MorphologyParserTest {
     private static MorphologyParser _morphologyParser;
     private static MorphologyParser _expectedJsonReader;
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(MorphologyParserTest.class);
-
     @BeforeClass
     public static void setUp(){
         _morphologyParser = new MorphologyParser(new File("src/test/resources/models/enrichment/" +
@@ -32,26 +27,37 @@ public class MorphologyParserTest {
     @Test
     public void parsingTest(){
         _morphologyParser.execute();
-        while (!_expectedJsonReader.getTokenQueue().isEmpty() || !_morphologyParser.getTokenQueue().isEmpty()) {
-            try {
-
-                MorphologyParser.Token expected = _expectedJsonReader.getTokenQueue().poll();
-                MorphologyParser.Token current = _morphologyParser.getTokenQueue().poll();
-                Assert.assertEquals("tokenStack must be equals :", expected.getBegin(),
-                        current.getBegin());
-                Assert.assertEquals("tokenStack must be equals :", expected.getEnd(),
-                        current.getEnd());
-                Assert.assertEquals("tokenStack must be equals :", expected.getLemma(),
-                        current.getLemma());
-                Assert.assertEquals("tokenStack must be equals :", expected.getPos(),
-                        current.getPos());
-
-            }
-            catch (EmptyStackException e){
-                Assert.fail("stacks have not the same size");
-                LOGGER.error("stacks have not the same size :", e);
-            }
+        TokenBuffer expected = _expectedJsonReader.getTokens();
+        TokenBuffer current = _morphologyParser.getTokens();
+        Assert.assertEquals("the buffers must have the same size", expected.size(), current.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals("tokens must be equals :", expected.getBegin(i), current.getBegin(i));
+            Assert.assertEquals("tokens must be equals :", expected.getEnd(i), current.getEnd(i));
+            Assert.assertEquals("tokens must be equals :", expected.getLemma(i), current.getLemma(i));
+            Assert.assertEquals("tokens must be equals :", expected.getTag(i), current.getTag(i));
         }
     }
 
+    @Test
+    public void parseDocument(){
+        TermsuiteDocument document = new TermsuiteDocument("file:/file1.json", "", new TextAnalyzer());
+        document.addWord(22, 29, "NN", "N", "hearing");
+        document.addWord(30, 38, "N", "N", "research");
+        MorphologyParser morphologyParser = new MorphologyParser(document);
+        Assert.assertSame("the tokens are read from the document", document.getWords(),
+                morphologyParser.getTokens());
+        morphologyParser.pollToken();
+        morphologyParser.pollToken();
+        Assert.assertEquals(30, morphologyParser.getCurrentTokenBegin());
+        Assert.assertEquals(38, morphologyParser.getCurrentTokenEnd());
+        Assert.assertEquals("N", morphologyParser.getCurrentPos());
+        Assert.assertEquals("research", morphologyParser.getCurrentLemma());
+
+        morphologyParser.setCurrentTokenBegin(-2);
+        Assert.assertEquals(-2, morphologyParser.getCurrentTokenBegin());
+        Assert.assertEquals("the morphology of the document is not modified", 30, document.getBegin(1));
+        morphologyParser.pollToken();
+        Assert.assertEquals("the cursor is after the last token", -1, morphologyParser.getCurrentTokenBegin());
+    }
+
 }
@@ -3,6 +3,8 @@ package org.atilf.models.enrichment;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.StringWriter;
+
 public class SpecialChXmlEscapeTest {
     private String replacedString = "&<&>><'&\"";
     private String expectedString = "&amp;&lt;&amp;&gt;&gt;&lt;&apos;&amp;&quot;";
@@ -14,4 +16,24 @@ public class SpecialChXmlEscapeTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void replaceCharWriterTest() throws Exception {
+        StringWriter writer = new StringWriter();
+        SpecialChXmlEscape.replaceChar("l'œil < 😀 & été", writer);
+        Assert.assertEquals("these string must be equals",
+                "l&apos;œil &lt; 😀 &amp; été",
+                writer.toString()
+        );
+    }
+
+    @Test
+    public void keepStringWithoutSpecialChar() throws Exception {
+        String lemma = "chat 😀";
+        Assert.assertSame("a string without special character must not be copied",
+                lemma,
+                SpecialChXmlEscape.replaceChar(lemma)
+        );
+        Assert.assertEquals("", SpecialChXmlEscape.replaceChar(""));
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.atilf.models.enrichment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+public class SpecialCharacterTest {
+
+    @Test
+    public void replaceChar() throws Exception {
+        Assert.assertEquals("these string must be equals",
+                "l'œil d'un '<chat>'",
+                SpecialCharacter.replaceChar("lʼœil d’un ՚<chat>'")
+        );
+        String line = "<p>l'œil</p>";
+        Assert.assertSame("a line without special character must not be copied",
+                line,
+                SpecialCharacter.replaceChar(line)
+        );
+    }
+
+    @Test
+    public void replaceCharWriter() throws Exception {
+        StringWriter writer = new StringWriter();
+        SpecialCharacter.replaceChar("’a’ 😀’", writer);
+        Assert.assertEquals("these string must be equals", "'a' 😀'", writer.toString());
+    }
+}
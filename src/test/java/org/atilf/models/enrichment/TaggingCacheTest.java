@@ -0,0 +1,60 @@
+package org.atilf.models.enrichment;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaggingCacheTest {
+
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void keyDocuments() throws Exception {
+        Path folder = _temporaryFolder.getRoot().toPath();
+        TaggingCache french = new TaggingCache(folder, new TreeTaggerParameter(false, "fr", "/opt/treetagger"));
+        TaggingCache english = new TaggingCache(folder, new TreeTaggerParameter(false, "en", "/opt/treetagger"));
+
+        String key = french.key(new StringBuilder("le chat"), new StringBuilder("<TEI/>"));
+        Assert.assertEquals("the key must only depend on the document and the parameters",
+                key, french.key("le chat", "<TEI/>"));
+        Assert.assertNotEquals(key, french.key("le chien", "<TEI/>"));
+        Assert.assertNotEquals(key, french.key("le chat", "<TEI></TEI>"));
+        Assert.assertNotEquals("the language is a part of the key", key, english.key("le chat", "<TEI/>"));
+        Assert.assertNotEquals("the text and the xml must not be concatenated",
+                french.key("ab", "c"), french.key("a", "bc"));
+    }
+
+    @Test
+    public void putEntry() throws Exception {
+        TaggingCache taggingCache = new TaggingCache(_temporaryFolder.getRoot().toPath(),
+                new TreeTaggerParameter(false, "fr", "/opt/treetagger"));
+        String key = taggingCache.key("le chat", "<TEI/>");
+        Assert.assertFalse(taggingCache.contains(key));
+        Assert.assertNull(taggingCache.get(key));
+
+        List<MorphologyOffsetId> morphology = new ArrayList<>();
+        morphology.add(new MorphologyOffsetId(0, 2, "le", "DET:ART", 1));
+        morphology.add(new MorphologyOffsetId(3, 7, "chat", "NOM", 2));
+        taggingCache.put(key, new StringBuilder("le\tDET:ART\tle\nchat\tNOM\tchat\n"),
+                new StringBuilder("<w xml:id=\"t1\">le</w> <w xml:id=\"t2\">chat</w>"), morphology);
+        /*
+        a second task writing the same document keeps the first entry
+         */
+        taggingCache.put(key, new StringBuilder(), new StringBuilder(), new ArrayList<>());
+
+        Assert.assertTrue(taggingCache.contains(key));
+        TaggingCache.Entry entry = taggingCache.get(key);
+        Assert.assertEquals("le\tDET:ART\tle\nchat\tNOM\tchat\n", entry.getTreeTaggerOutput().toString());
+        Assert.assertEquals("<w xml:id=\"t1\">le</w> <w xml:id=\"t2\">chat</w>", entry.getTokenizeTeiBody().toString());
+        Assert.assertEquals(2, entry.getMorphologyOffsetIds().size());
+        Assert.assertEquals("chat", entry.getMorphologyOffsetIds().get(1).getLemma());
+        Assert.assertEquals(1, taggingCache.getHits());
+        Assert.assertEquals(1, taggingCache.getMisses());
+    }
+}
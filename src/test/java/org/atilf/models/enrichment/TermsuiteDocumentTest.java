@@ -0,0 +1,45 @@
+package org.atilf.models.enrichment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class TermsuiteDocumentTest {
+
+    @Test
+    public void serialize() throws Exception {
+        TermsuiteDocument document = new TermsuiteDocument("file:/out/json/1.json", "le chat et le chien",
+                new TextAnalyzer(19, 2, 19, 1, 19, 40, false));
+        document.addWord(0, 2, "DET:ART", "D", "le");
+        document.addWord(3, 7, "NOM", "N", "chat");
+        document.addWord(8, 10, "KON", "C", "et");
+        document.addWord(11, 13, "DET:ART", "D", "le");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(document);
+        }
+        TermsuiteDocument read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (TermsuiteDocument) in.readObject();
+        }
+        read.addWord(14, 19, "NOM", "N", "chien");
+
+        Assert.assertEquals("file:/out/json/1.json", read.getUri());
+        Assert.assertEquals("le chat et le chien", read.getText());
+        Assert.assertEquals(1, read.getTextAnalyzer().getDocIndex());
+        Assert.assertEquals(5, read.size());
+        Assert.assertEquals(11, read.getBegin(3));
+        Assert.assertEquals(13, read.getEnd(3));
+        Assert.assertEquals("DET:ART", read.getTag(3));
+        Assert.assertEquals("D", read.getCategory(3));
+        Assert.assertEquals("le", read.getLemma(3));
+        Assert.assertEquals("NOM", read.getTag(4));
+        Assert.assertEquals("chien", read.getLemma(4));
+        Assert.assertEquals(19, read.getEnd(4));
+    }
+}
@@ -0,0 +1,20 @@
+package org.atilf.models.enrichment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class TextLengthTest {
+
+    @Test
+    public void utf8Length() throws Exception {
+        String[] texts = {"", "le chat", "désambiguïsation", "l’œil", "数据 😀", "\uD83D \uDE00", "a\uD800"};
+        for (String text : texts) {
+            TextLength textLength = TextLength.of(new StringBuilder(text));
+            Assert.assertEquals("the length must be the length of the encoded text : " + text,
+                    text.getBytes(StandardCharsets.UTF_8).length, textLength.getByteLength());
+            Assert.assertEquals(text.length(), textLength.getLength());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.atilf.models.enrichment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TextOffsetMapTest {
+
+    @Test
+    public void offset() throws Exception {
+        TextOffsetMap offsetMap = new TextOffsetMap();
+        Assert.assertEquals("the offsets of a map without insertion are the indexes", 12, offsetMap.offset(12));
+
+        offsetMap.addInsertion(3, 4);
+        offsetMap.addInsertion(8, 10);
+        offsetMap.addInsertion(8, 11);
+        for (int i = 20; i < 40; i++) {
+            offsetMap.addInsertion(i, i + 3 + i);
+        }
+        Assert.assertEquals("the consecutive insertions are one run", 22, offsetMap.size());
+        Assert.assertEquals(0, offsetMap.offset(0));
+        Assert.assertEquals(2, offsetMap.offset(2));
+        Assert.assertEquals(4, offsetMap.offset(3));
+        Assert.assertEquals(8, offsetMap.offset(7));
+        Assert.assertEquals(11, offsetMap.offset(8));
+        Assert.assertEquals(22, offsetMap.offset(19));
+        Assert.assertEquals(43, offsetMap.offset(20));
+        Assert.assertEquals(81, offsetMap.offset(39));
+        Assert.assertEquals(91, offsetMap.offset(49));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectUnorderedInsertions() throws Exception {
+        TextOffsetMap offsetMap = new TextOffsetMap();
+        offsetMap.addInsertion(8, 10);
+        offsetMap.addInsertion(3, 4);
+    }
+}
@@ -0,0 +1,55 @@
+package org.atilf.models.enrichment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class TokenBufferTest {
+
+    @Test
+    public void columns() throws Exception {
+        TokenBuffer tokenBuffer = new TokenBuffer();
+        for (int i = 0; i < 100; i++) {
+            tokenBuffer.add(i * 2, i * 2 + 1, i % 2 == 0 ? "NOM" : "VER", i % 2 == 0 ? "N" : "V", "lemma" + i % 3);
+        }
+        Assert.assertEquals(100, tokenBuffer.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i * 2, tokenBuffer.getBegin(i));
+            Assert.assertEquals(i * 2 + 1, tokenBuffer.getEnd(i));
+            Assert.assertEquals(i % 2 == 0 ? "NOM" : "VER", tokenBuffer.getTag(i));
+            Assert.assertEquals(i % 2 == 0 ? "N" : "V", tokenBuffer.getCategory(i));
+            Assert.assertEquals("lemma" + i % 3, tokenBuffer.getLemma(i));
+        }
+    }
+
+    @Test
+    public void serializeTrimmedCopy() throws Exception {
+        TokenBuffer tokenBuffer = new TokenBuffer();
+        tokenBuffer.add(0, 4, "NOM", "N", "chat");
+        TokenBuffer read = copy(tokenBuffer);
+        tokenBuffer.add(5, 9, "VER", "V", "dormir");
+        read.add(5, 9, "VER", null, "dormir");
+
+        Assert.assertEquals("the serialized buffer is kept", 2, tokenBuffer.size());
+        Assert.assertEquals("dormir", tokenBuffer.getLemma(1));
+        Assert.assertEquals(2, read.size());
+        Assert.assertEquals("chat", read.getLemma(0));
+        Assert.assertEquals("N", read.getCategory(0));
+        Assert.assertNull(read.getCategory(1));
+        Assert.assertEquals(9, read.getEnd(1));
+    }
+
+    private static TokenBuffer copy(TokenBuffer tokenBuffer) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tokenBuffer);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (TokenBuffer) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.atilf.models.enrichment;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * the pool is tested with fake tree-tagger scripts : they echo the sgml lines and tag each token with TAG. As
+ * TreeTagger, the first one reads some lines ahead before it writes a line. The second one keeps its output until
+ * several flushes of the pool are written, as a TreeTagger whose output is buffered
+ */
+public class TreeTaggerProcessPoolTest {
+
+    private static TreeTaggerProcessPool _treeTaggerProcessPool;
+    private static TreeTaggerProcessPool _singleProcessPool;
+    private static TreeTaggerProcessPool _bufferedProcessPool;
+    private static TreeTaggerProcessPool _timeoutProcessPool;
+
+    @ClassRule
+    public static TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        TreeTaggerParameter treeTaggerParameter = fakeTreeTagger("lookahead",
+                "  if [ ${#buffer[@]} -gt " + TreeTaggerProcessPool.FLUSH_SIZE + " ]; then\n" +
+                "    printf '%s\\n' \"${buffer[0]}\"\n" +
+                "    buffer=(\"${buffer[@]:1}\")\n" +
+                "  fi\n");
+        _treeTaggerProcessPool = new TreeTaggerProcessPool(2, treeTaggerParameter);
+        _singleProcessPool = new TreeTaggerProcessPool(1, treeTaggerParameter);
+        _timeoutProcessPool = new TreeTaggerProcessPool(1, treeTaggerParameter, 2000L);
+        _bufferedProcessPool = new TreeTaggerProcessPool(1, fakeTreeTagger("buffered",
+                "  if [ ${#buffer[@]} -gt " + 3 * TreeTaggerProcessPool.FLUSH_SIZE + " ]; then\n" +
+                "    printf '%s\\n' \"${buffer[@]}\"\n" +
+                "    buffer=()\n" +
+                "  fi\n"));
+    }
+
+    private static TreeTaggerParameter fakeTreeTagger(String name, String output) throws IOException {
+        Path home = _temporaryFolder.newFolder(name).toPath();
+        Path treeTagger = Files.createDirectory(home.resolve("bin")).resolve("tree-tagger");
+        Files.write(treeTagger, (
+                "#!/bin/bash\n" +
+                "buffer=()\n" +
+                "while IFS= read -r line; do\n" +
+                "  case \"$line\" in\n" +
+                "    crash) exit 3;;\n" +
+                "    hang) exec sleep 60;;\n" +
+                "    \\<*\\>) buffer+=(\"$line\");;\n" +
+                "    *) buffer+=(\"$(printf '%s\\tTAG\\t%s' \"$line\" \"$line\")\");;\n" +
+                "  esac\n" +
+                output +
+                "done\n").getBytes("UTF-8"));
+        Assert.assertTrue("the fake tree-tagger must be executable", treeTagger.toFile().setExecutable(true));
+        return new TreeTaggerParameter(true, "fr", home.toAbsolutePath().toString());
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        _treeTaggerProcessPool.close();
+        _singleProcessPool.close();
+        _bufferedProcessPool.close();
+        _timeoutProcessPool.close();
+    }
+
+    @Test(timeout = 10000L)
+    public void tag() throws Exception {
+        Assert.assertEquals("this two String must be equals", "le\tTAG\tle\nchat\tTAG\tchat\n",
+                _treeTaggerProcessPool.tag("le\nchat").toString());
+        Assert.assertEquals("the flush tokens of the previous document must be skipped", "dort\tTAG\tdort\n",
+                _treeTaggerProcessPool.tag("dort").toString());
+    }
+
+    @Test
+    public void readTaggedTokens() throws Exception {
+        List<String> lines = new ArrayList<>();
+        _treeTaggerProcessPool.tag(stdin -> stdin.append("le\nchat\n"), lines::add);
+        Assert.assertEquals("each tagged token must be read once", 2, lines.size());
+        Assert.assertEquals("chat\tTAG\tchat", lines.get(1));
+    }
+
+    @Test
+    public void tagConcurrently() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<StringBuilder>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String token = "token" + i;
+            futures.add(executorService.submit(() -> _treeTaggerProcessPool.tag(token + "\n" + token)));
+        }
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals("each document must retrieve its own tokens",
+                    "token" + i + "\tTAG\ttoken" + i + "\n" + "token" + i + "\tTAG\ttoken" + i + "\n",
+                    futures.get(i).get().toString());
+        }
+        executorService.shutdown();
+    }
+
+    @Test(timeout = 20000L)
+    public void flushBufferedOutput() throws Exception {
+        Assert.assertEquals("the flush tokens must be sent again until the output comes", "le\tTAG\tle\n",
+                _bufferedProcessPool.tag("le").toString());
+        Assert.assertEquals("chat\tTAG\tchat\n", _bufferedProcessPool.tag("chat").toString());
+    }
+
+    @Test(timeout = 20000L)
+    public void restartTimedOutProcess() throws Exception {
+        try {
+            _timeoutProcessPool.tag("le\nhang");
+            Assert.fail("a process which does not answer must throw an exception");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("2000 ms"));
+        }
+        Assert.assertEquals("the process must be restarted", "chat\tTAG\tchat\n",
+                _timeoutProcessPool.tag("chat").toString());
+    }
+
+    @Test
+    public void restartCrashedProcess() throws Exception {
+        try {
+            _singleProcessPool.tag("le\ncrash");
+            Assert.fail("a crashed process must throw an exception");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("TreeTagger"));
+        }
+        Assert.assertEquals("the crashed process must be restarted", "chat\tTAG\tchat\n",
+                _singleProcessPool.tag("chat").toString());
+    }
+}
@@ -1,9 +1,13 @@
 package org.atilf.module.enrichment.analyzer;
 
+import org.atilf.models.ArtifactHandle;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
+import org.atilf.module.tools.FilesUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -19,6 +23,9 @@ public class TerminologyParserTest {
     private static TerminologyParser _terminologyParser;
     private static List<String> _expectedFile = new ArrayList<>();
 
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
     @BeforeClass
     public static void setUp(){
         _terminologyParser = new TerminologyParser(Paths.get("src/test/resources/module/enrichment/analyze/terminology.json"));
@@ -52,6 +59,47 @@ public class TerminologyParserTest {
 
     }
 
+    @Test
+    public void executeShards() throws Exception {
+        TerminologyParser terminologyParser = new TerminologyParser(
+                Paths.get("src/test/resources/module/enrichment/analyze/terminology.json"),
+                _temporaryFolder.getRoot().toPath()
+        );
+        terminologyParser.execute();
+        Assert.assertTrue("the occurrences are written in the shards",
+                terminologyParser.getStandOffTerminology().isEmpty());
+        Assert.assertEquals(2, terminologyParser.getShards().size());
+
+        List<ArtifactHandle> shards = terminologyParser.getShards().get("file1");
+        Assert.assertEquals(1, shards.size());
+        List<MultiWordsOffsetId> file1 = FilesUtils.readListObject(shards.get(0));
+        Assert.assertEquals("0 14 cuillière en bois 1", parse(file1.get(0)));
+        Assert.assertEquals("9 15 pomme de terre 2", parse(file1.get(1)));
+        List<MultiWordsOffsetId> file2 = FilesUtils.readListObject(terminologyParser.getShards().get("file2").get(0));
+        Assert.assertEquals(1, file2.size());
+        Assert.assertEquals("10 14 cuillière de bois 1", parse(file2.get(0)));
+    }
+
+    @Test
+    public void spillDuringParsing() throws Exception {
+        TerminologyParser terminologyParser = new TerminologyParser(
+                Paths.get("src/test/resources/module/enrichment/analyze/terminology.json"),
+                _temporaryFolder.getRoot().toPath()
+        );
+        terminologyParser.setShardSize(1);
+        terminologyParser.execute();
+        Assert.assertTrue(terminologyParser.getStandOffTerminology().isEmpty());
+
+        List<ArtifactHandle> shards = terminologyParser.getShards().get("file1");
+        Assert.assertEquals("each occurrence is spilled in its own shard", 2, shards.size());
+        List<MultiWordsOffsetId> first = FilesUtils.readListObject(shards.get(0));
+        List<MultiWordsOffsetId> second = FilesUtils.readListObject(shards.get(1));
+        Assert.assertEquals(1, first.size());
+        Assert.assertEquals("0 14 cuillière en bois 1", parse(first.get(0)));
+        Assert.assertEquals("9 15 pomme de terre 2", parse(second.get(0)));
+        Assert.assertEquals(1, terminologyParser.getShards().get("file2").size());
+    }
+
     private String parse(MultiWordsOffsetId offset) {
         return offset.getBegin() + " " + offset.getEnd() + " " + offset.getWord() + " " + offset.getTermId();
     }
@@ -1,13 +1,24 @@
 package org.atilf.module.enrichment.analyzer;
 
+import org.atilf.models.ArtifactHandle;
+import org.atilf.models.TermithIndex;
 import org.atilf.models.enrichment.MorphologyOffsetId;
 import org.atilf.models.enrichment.MultiWordsOffsetId;
+import org.atilf.module.tools.FilesUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * @author Simon Meoni
@@ -20,6 +31,9 @@ public class TerminologyStandOffTest {
     private static  TerminologyStandOff _observedMultiStandOff;
     private static  TerminologyStandOff _observedSymbolStandOff;
 
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
     @BeforeClass
     public static void setUp(){
         List<MorphologyOffsetId> _morphology = new ArrayList<>();
@@ -139,4 +153,108 @@ public class TerminologyStandOffTest {
 
     }
 
+    @Test
+    public void randomExecute() throws Exception {
+        Random random = new Random(42);
+        for (int document = 0; document < 50; document++) {
+            List<MorphologyOffsetId> morphology = new ArrayList<>();
+            int offset = 0;
+            for (int i = 0; i < 200; i++) {
+                /*
+                some words overlap or share an offset as the words split by TreeTagger
+                 */
+                int begin = random.nextInt(10) == 0 ? Math.max(0, offset - random.nextInt(3)) : offset;
+                int end = begin + 1 + random.nextInt(6);
+                List<Integer> ids = new ArrayList<>();
+                ids.add(i);
+                if (random.nextInt(20) == 0) {
+                    ids.add(i + 1000);
+                }
+                morphology.add(new MorphologyOffsetId(begin, end, "w", "N", ids));
+                offset = end + random.nextInt(2);
+            }
+            List<MultiWordsOffsetId> terminology = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                int begin = random.nextInt(offset);
+                terminology.add(new MultiWordsOffsetId(begin, begin + random.nextInt(30), i, "term"));
+            }
+            List<MultiWordsOffsetId> expected = terminology.stream().map(MultiWordsOffsetId::new)
+                    .collect(Collectors.toList());
+            new TerminologyStandOff(morphology, terminology).execute();
+            for (int i = 0; i < terminology.size(); i++) {
+                Assert.assertEquals("the ids must be the ids of the intersection of the offset ranges",
+                        intersection(morphology, expected.get(i).getBegin(), expected.get(i).getEnd()),
+                        terminology.get(i).getIds());
+            }
+        }
+    }
+
+    @Test
+    public void shardsExecute() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        List<MorphologyOffsetId> morphology = new ArrayList<>();
+        morphology.add(new MorphologyOffsetId(0,10,"cuillière","N",0));
+        morphology.add(new MorphologyOffsetId(11,13,"en","DET",1));
+        morphology.add(new MorphologyOffsetId(14,18,"bois","N",2));
+        List<MultiWordsOffsetId> first = new ArrayList<>();
+        first.add(new MultiWordsOffsetId(0,18,1,"cuillière en bois"));
+        List<MultiWordsOffsetId> second = new ArrayList<>();
+        second.add(new MultiWordsOffsetId(14,18,2,"bois"));
+
+        TermithIndex termithIndex = new TermithIndex();
+        termithIndex.getTerminologyShards().put("1", Arrays.asList(
+                FilesUtils.writeObject(first, workingPath, "terminologyShard", "1"),
+                FilesUtils.writeObject(second, workingPath, "terminologyShard", "1")
+        ));
+        TerminologyStandOff terminologyStandOff = new TerminologyStandOff("1", termithIndex, morphology);
+        terminologyStandOff.execute();
+
+        Assert.assertEquals("the shards of the file are read in order", 2,
+                terminologyStandOff.getTerminology().size());
+        Assert.assertEquals("[0, 1, 2]", terminologyStandOff.getTerminology().get(0).getIds().toString());
+        Assert.assertEquals("[2]", terminologyStandOff.getTerminology().get(1).getIds().toString());
+        Assert.assertTrue("the occurrences are not kept by the termithIndex",
+                termithIndex.getTerminologyStandOff().isEmpty());
+        Assert.assertTrue(termithIndex.getResolvedTerminology().isEmpty());
+    }
+
+    @Test
+    public void writeResolvedTerminology() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        List<MorphologyOffsetId> morphology = new ArrayList<>();
+        morphology.add(new MorphologyOffsetId(0,10,"cuillière","N",0));
+        morphology.add(new MorphologyOffsetId(11,13,"en","DET",1));
+        morphology.add(new MorphologyOffsetId(14,18,"bois","N",2));
+        List<MultiWordsOffsetId> terminology = new ArrayList<>();
+        terminology.add(new MultiWordsOffsetId(0,18,1,"cuillière en bois"));
+
+        TermithIndex termithIndex = new TermithIndex();
+        termithIndex.getMorphologyStandOff().put("1", FilesUtils.writeObject(morphology, workingPath));
+        ArtifactHandle shard = FilesUtils.writeObject(terminology, workingPath, "terminologyShard", "1");
+        termithIndex.getTerminologyShards().put("1", new ArrayList<>(Collections.singletonList(shard)));
+        new TerminologyStandOff("1", termithIndex, workingPath).execute();
+
+        Assert.assertTrue(termithIndex.getTerminologyStandOff().isEmpty());
+        List<MultiWordsOffsetId> resolved = FilesUtils.readListObject(termithIndex.getResolvedTerminology().get("1"));
+        Assert.assertEquals("[0, 1, 2]", resolved.get(0).getIds().toString());
+        Assert.assertEquals("the shards are kept until the file is written",
+                Collections.singletonList(shard), termithIndex.getTerminologyShards().get("1"));
+    }
+
+    /**
+     * the intersection of the ranges of the sorted maps of the beginning and ending offsets of the words
+     */
+    private static List<Integer> intersection(List<MorphologyOffsetId> morphology, int begin, int end) {
+        TreeMap<Integer, List<Integer>> beginMap = new TreeMap<>();
+        TreeMap<Integer, List<Integer>> endMap = new TreeMap<>();
+        morphology.forEach(el -> {
+            beginMap.put(el.getBegin(), el.getIds());
+            endMap.put(el.getEnd(), el.getIds());
+        });
+        List<Integer> ids = beginMap.subMap(begin, end).values().stream().flatMap(List::stream)
+                .collect(Collectors.toList());
+        ids.retainAll(endMap.subMap(begin, false, end, true).values().stream().flatMap(List::stream)
+                .collect(Collectors.toList()));
+        return ids;
+    }
 }
@@ -24,7 +24,10 @@ import static org.atilf.runner.TermithResourceManager.addToClasspath;
 public class MorphologySerializerTest {
     
     private static  MorphologySerializer _morphologySerializerLemma;
+    private static  MorphologySerializer _morphologySerializerLines;
     private static  File _jsonResFile;
+    private static  File _jsonLinesFile;
+    private static  StringBuilder _tokenLemma;
 
     @ClassRule
     public static TemporaryFolder temporaryFolder = new TemporaryFolder();
@@ -57,6 +60,11 @@ public class MorphologySerializerTest {
 
         _morphologySerializerLemma = new MorphologySerializer(tokenLemma, _jsonResFile.getAbsolutePath(),
                 lemma, corpusAnalyzer.getAnalyzedTexts().get("1"),tagNormalizer);
+
+        _tokenLemma = tokenLemma;
+        _jsonLinesFile = temporaryFolder.newFile("test2.json");
+        _morphologySerializerLines = new MorphologySerializer(_jsonLinesFile.getAbsolutePath(), lemma,
+                corpusAnalyzer.getAnalyzedTexts().get("1"), tagNormalizer, true);
     }
 
     @Test
@@ -68,4 +76,17 @@ public class MorphologySerializerTest {
         Assert.assertEquals("files content must be equals : ",expected,observed);
     }
 
+    @Test
+    public void readLinesTest() throws Exception {
+        for (String line : _tokenLemma.toString().split("\n")) {
+            _morphologySerializerLines.read(line);
+        }
+        _morphologySerializerLines.execute();
+        String observed = String.join("\n",Files.readAllLines(_jsonLinesFile.toPath()));
+        String expected = String.join("\n", Files.readAllLines(Paths.get("src/test/resources/module/enrichment/analyze/treeTaggerWorker/file1.json")));
+        expected = expected.replace("test1.json", _jsonLinesFile.getAbsolutePath());
+        Assert.assertEquals("the lines read one by one must give the same file : ",expected,observed);
+        Assert.assertEquals(9, _morphologySerializerLines.getDocument().size());
+    }
+
 }
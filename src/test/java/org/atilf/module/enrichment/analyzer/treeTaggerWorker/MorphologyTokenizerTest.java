@@ -1,6 +1,7 @@
 package org.atilf.module.enrichment.analyzer.treeTaggerWorker;
 
 import org.atilf.models.enrichment.MorphologyParser;
+import org.atilf.models.enrichment.TextOffsetMap;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -429,4 +430,47 @@ public class MorphologyTokenizerTest {
         );
     }
 
+    @Test
+    public void mapTextOffsets() throws Exception {
+        MorphologyParser morphologyParser = new MorphologyParser(new File("test"));
+        morphologyParser.createToken("N", "le", 0, 2);
+        morphologyParser.createToken("N", "chien", 3, 8);
+        morphologyParser.createToken("N", "mange", 10, 15);
+        morphologyParser.createToken("N", "&", 16, 17);
+        morphologyParser.createToken("N", "dort", 18, 22);
+        TextOffsetMap offsetMap = new TextOffsetMap();
+        offsetMap.addInsertion(8, 9);
+        offsetMap.addInsertion(21, 23);
+        MorphologyTokenizer morphologyTokenizer = new MorphologyTokenizer(
+                new StringBuilder("le chien\n\nmange & dort\n"),
+                new StringBuilder("<text><p>le chien</p>\n<p>mange &amp; dort</p></text>"),
+                morphologyParser,
+                offsetMap
+        );
+        morphologyTokenizer.teiWordTokenizer();
+        Assert.assertEquals("the offsets must be given by the offset map",
+                "<text><p><w xml:id=\"t1\">le</w> <w xml:id=\"t2\">chien</w></p>\n" +
+                        "<p><w xml:id=\"t3\">mange</w> <w xml:id=\"t4\">&amp;</w> <w xml:id=\"t5\">dort</w></p>" +
+                        "</text>",
+                morphologyTokenizer.getTokenizeBuffer().toString());
+        Assert.assertEquals(5, morphologyTokenizer.getOffsetId().size());
+    }
+
+    @Test
+    public void rejectMisalignedText() throws Exception {
+        MorphologyParser morphologyParser = new MorphologyParser(new File("test"));
+        morphologyParser.createToken("N", "le", 0, 2);
+        MorphologyTokenizer morphologyTokenizer = new MorphologyTokenizer(
+                new StringBuilder("le\nchat\n"),
+                new StringBuilder("<text><p>le</p><p>chien</p></text>"),
+                morphologyParser,
+                new TextOffsetMap()
+        );
+        try {
+            morphologyTokenizer.teiWordTokenizer();
+            Assert.fail("the text is not the text of the xml file");
+        } catch (Exception e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
 }
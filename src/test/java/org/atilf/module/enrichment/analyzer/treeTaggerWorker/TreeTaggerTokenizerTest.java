@@ -0,0 +1,104 @@
+package org.atilf.module.enrichment.analyzer.treeTaggerWorker;
+
+import org.atilf.models.enrichment.TreeTaggerParameter;
+import org.atilf.module.tools.FilesUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * the differential test compares the tokenizer with the utf8-tokenize.perl script of TreeTagger, it is skipped if
+ * TreeTagger is not installed
+ */
+public class TreeTaggerTokenizerTest {
+
+    @ClassRule
+    public static TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void tokenizeFrench() throws Exception {
+        TreeTaggerTokenizer treeTaggerTokenizer = new TreeTaggerTokenizer("fr");
+        Assert.assertEquals("the clitics must be separated", "L'\nhomme\nest\n-il\nvenu\n?",
+                treeTaggerTokenizer.tokenize("L'homme est-il venu ?"));
+        Assert.assertEquals("the parentheses and the final period must be separated", "(\ndemain\n)\n.",
+                treeTaggerTokenizer.tokenize("(demain)."));
+        Assert.assertEquals("the abbreviations must keep their periods", "U.\nS.\nA.\net\nM.\nDupont\n.",
+                treeTaggerTokenizer.tokenize("U.S.A. et M. Dupont."));
+        Assert.assertEquals("the decimal numbers must not be split", "3.5\nkm\n,\nc'\nest-à-dire",
+                treeTaggerTokenizer.tokenize("3.5 km, c'est-à-dire"));
+        Assert.assertEquals("the ellipsis must be a token", "Attendez\n...\nnon",
+                treeTaggerTokenizer.tokenize("Attendez... non"));
+        Assert.assertEquals("each line must be tokenized", "le\nchat\ndort",
+                treeTaggerTokenizer.tokenize("le chat\ndort\n"));
+    }
+
+    @Test
+    public void tokenizeEnglish() throws Exception {
+        Assert.assertEquals("the english clitics must be separated", "I\ndo\nn't\nknow\nJohn\n's\ndog\n.",
+                new TreeTaggerTokenizer("en").tokenize("I don't know John's dog."));
+    }
+
+    @Test
+    public void tokenizeSgml() throws Exception {
+        TreeTaggerTokenizer treeTaggerTokenizer = new TreeTaggerTokenizer("fr");
+        Assert.assertEquals("the sgml tags must be kept", "<hi rend=\"b\">\nmot\n</hi>",
+                treeTaggerTokenizer.tokenize("<hi rend=\"b\">mot</hi>"));
+        Assert.assertTrue(TreeTaggerTokenizer.containsSgmlTag("le <chat> dort"));
+        Assert.assertFalse(TreeTaggerTokenizer.containsSgmlTag("1 < 2"));
+    }
+
+    @Test
+    public void compareWithPerlTokenizer() throws Exception {
+        String treeTaggerHome = System.getenv("TREETAGGER_HOME");
+        Assume.assumeNotNull(treeTaggerHome);
+        String perlTokenizer = new TreeTaggerParameter(false, "fr", treeTaggerHome).getTokenizePath();
+        Assume.assumeTrue(new File(perlTokenizer).canExecute());
+
+        List<Path> corpus = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(Paths.get("src/test/resources/models/enrichment/corpusAnalyzer"))) {
+            corpus.addAll(paths.collect(Collectors.toList()));
+        }
+        try (Stream<Path> paths = Files.list(Paths.get("src/integrationTest/resources/termithTreeTagger/base"))) {
+            corpus.addAll(paths.collect(Collectors.toList()));
+        }
+        for (Path path : corpus) {
+            StringBuilder text = FilesUtils.readFile(path);
+            for (String lang : new String[]{"fr", "en"}) {
+                Assert.assertEquals("the tokens of " + path + " must be the same than the perl tokenizer tokens",
+                        perlTokenize(perlTokenizer, lang, text),
+                        new TreeTaggerTokenizer(lang).tokenize(text));
+            }
+        }
+    }
+
+    private String perlTokenize(String perlTokenizer, String lang, StringBuilder text)
+            throws IOException, InterruptedException {
+        Path input = _temporaryFolder.newFile().toPath();
+        Files.write(input, text.toString().getBytes(StandardCharsets.UTF_8));
+        Process p = Runtime.getRuntime().exec(new String[]{
+                perlTokenizer, "fr".equals(lang) ? "-f" : "-e", input.toString()
+        });
+        String tokens;
+        try (BufferedReader bufferedReader = new BufferedReader(
+                new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            tokens = bufferedReader.lines().collect(Collectors.joining("\n"));
+        }
+        Assert.assertEquals("the perl tokenizer must succeed", 0, p.waitFor());
+        return tokens;
+    }
+}
@@ -0,0 +1,61 @@
+package org.atilf.module.enrichment.exporter;
+
+import org.atilf.models.TermithIndex;
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.atilf.models.enrichment.MultiWordsOffsetId;
+import org.atilf.module.tools.ArtifactStore;
+import org.atilf.module.tools.FilesUtils;
+import org.atilf.resources.enrichment.ResourceProjection;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StandOffExporterTest {
+
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void projectWithSharedMorphology() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        TermithIndex termithIndex = new TermithIndex();
+        List<MorphologyOffsetId> morphology = new ArrayList<>();
+        morphology.add(new MorphologyOffsetId(0, 2, "le", "DET", 1));
+        morphology.add(new MorphologyOffsetId(3, 7, "chat", "NOM", 2));
+        morphology.add(new MorphologyOffsetId(8, 12, "dort", "VER", 3));
+        termithIndex.getMorphologyStandOff().put("1", FilesUtils.writeObject(morphology, workingPath));
+        List<MultiWordsOffsetId> terminology = new ArrayList<>();
+        terminology.add(new MultiWordsOffsetId(3, 12, 1, "chat dort"));
+        termithIndex.getTerminologyStandOff().put("1", terminology);
+
+        StandOffExporter standOffExporter = new StandOffExporter("1", termithIndex,
+                resource("chat dort", 7), resource("le", 9), workingPath.toString());
+        standOffExporter.project();
+
+        Assert.assertEquals("the morphology ids of the term must be retrieved",
+                "[2, 3]", termithIndex.getTerminologyStandOff().get("1").get(0).getIds().toString());
+        List<MultiWordsOffsetId> phraseology = termithIndex.getPhraseoOffsetId().get("1");
+        Assert.assertEquals(1, phraseology.size());
+        Assert.assertEquals(7, phraseology.get(0).getTermId());
+        Assert.assertEquals("[2, 3]", phraseology.get(0).getIds().toString());
+        List<MultiWordsOffsetId> transdisciplinary = termithIndex.getTransdisciplinaryOffsetId().get("1");
+        Assert.assertEquals("the transdisciplinary lexicons are projected on single words", 1,
+                transdisciplinary.size());
+        Assert.assertEquals("[1]", transdisciplinary.get(0).getIds().toString());
+        ArtifactStore.get(workingPath).close();
+    }
+
+    private static ResourceProjection resource(String lemma, int entryId) {
+        return new ResourceProjection(null) {
+            @Override
+            protected void parseResource(String resourcePath) {
+                addToPhraseologyMap(entryId, lemma, lemma);
+            }
+        };
+    }
+}
@@ -78,19 +78,20 @@ public class TeiWriterTest {
         Assert.assertEquals(
                 "these two strings must be equals",
                 "<TEI xmlns:ns=\"http://standoff.proposal\" xmlns=\"http://tei-c.org\">" +
-                        "<teiHeader/>" +
-                        "<text>au moins, le chat rouge dort</text>" +
-                        "</TEI>",
-                _teiWriter._xmlCorpus.toString()
+                        "<teiHeader/>",
+                getBufferWriter()
                 );
     }
 
     @Test
     public void insertBody() throws Exception {
+        _teiWriter.insertStandoffNs();
         _teiWriter.insertBody();
         Assert.assertEquals(
                 "these two strings must be equals",
-                "<text><w xml:id=\"t1\">au</w> <w xml:id=\"t2\">moins</w>" +
+                "<TEI xmlns:ns=\"http://standoff.proposal\" xmlns=\"http://tei-c.org\">" +
+                        "<teiHeader/>" +
+                        "<text><w xml:id=\"t1\">au</w> <w xml:id=\"t2\">moins</w>" +
                         "<w xml:id=\"t3\">,</w> <w xml:id=\"t4\">le</w> <w xml:id=\"t5\">chat</w> " +
                         "<w xml:id=\"t6\">dort</w></text>\n" +
                         "</TEI>",
@@ -103,7 +104,25 @@ public class TeiWriterTest {
         Assert.assertEquals(
                 "these two index must be equals",
                 42,
-                _teiWriter.searchStart()
+                TeiWriter.searchStart("<TEI xmlns=\"http://tei-c.org\"><teiHeader/><text>au moins</text></TEI>")
+        );
+        Assert.assertEquals(5, TeiWriter.searchStart("<TEI><text type=\"a\"><text>"));
+        Assert.assertEquals(-1, TeiWriter.searchStart("<TEI><textClass>"));
+    }
+
+    @Test
+    public void insertMultiLineBody() throws Exception {
+        _teiWriter = new TeiWriter(
+                new StringBuilder("<TEI xmlns=\"http://tei-c.org\">\n<teiHeader/>\n<text>\n<p>au moins</p>\n</text>" +
+                        "<!-- end -->\n</TEI>"),
+                null, new StringBuilder("<text/>"), null, null, null, Paths.get(observedPath));
+        _teiWriter.insertStandoffNs();
+        _teiWriter.insertBody();
+        Assert.assertEquals(
+                "the lines of the source must be copied around the tokenize body",
+                "<TEI xmlns:ns=\"http://standoff.proposal\" xmlns=\"http://tei-c.org\">\n<teiHeader/>\n<text/>\n" +
+                        "<!-- end -->\n</TEI>",
+                getBufferWriter()
         );
     }
     @Test
@@ -146,20 +165,6 @@ public class TeiWriterTest {
         );
     }
 
-    @Test
-    public void cut() throws Exception {
-        Assert.assertEquals(
-                "these two strings must be equals",
-                _teiWriter.cut(new StringBuilder("<p>\n</p>"),true).toString(),
-                "</p>"
-        );
-        Assert.assertEquals(
-                "these two strings must be equals",
-                _teiWriter.cut(new StringBuilder("<p>\n</p>"),false).toString(),
-                "<p>\n"
-        );
-    }
-
     @Test
     public void serializeMorphosyntax() throws Exception {
         _teiWriter.serializeMorphosyntax(_morphologyOffsetIds);
@@ -174,12 +179,13 @@ public class TeiWriterTest {
 
     @Test
     public void serializeId() throws Exception {
-        Assert.assertEquals(
-                "these two strings must be equals",
-                "#t1 #t2 #t3",
-                _teiWriter.serializeId(Arrays.asList(new Integer[]{1,2,3}))
+        List<MultiWordsOffsetId> phraseology = new ArrayList<>();
+        phraseology.add(new MultiWordsOffsetId(0,9,1,"au moins ,",Arrays.asList(1,2,3)));
+        _teiWriter.serializePhraseology(phraseology);
+        Assert.assertTrue(
+                "the ids of a multi words must be written as one target",
+                getBufferWriter().contains("target=\"#t1 #t2 #t3\"")
         );
-
     }
 
     public String getBufferWriter() throws IOException {
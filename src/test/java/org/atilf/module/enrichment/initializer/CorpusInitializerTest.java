@@ -0,0 +1,50 @@
+package org.atilf.module.enrichment.initializer;
+
+import org.atilf.models.TermithIndex;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class CorpusInitializerTest {
+
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void translate() throws Exception {
+        Path input = _temporaryFolder.newFile("file1.xml").toPath();
+        Files.write(input, "<p>lʼœil d’un</p>\n<p>chat</p>".getBytes(StandardCharsets.UTF_8));
+        Path out = _temporaryFolder.newFolder("out").toPath();
+        TermithIndex termithIndex = new TermithIndex();
+
+        new CorpusInitializer(input, out, termithIndex, true).execute();
+
+        Path workingFile = termithIndex.getXmlCorpus().get("file1");
+        Assert.assertEquals("the working file must be in the working directory", out, workingFile.getParent());
+        Assert.assertEquals("the special characters must be translated while the file is copied",
+                "<p>l'œil d'un</p>\n<p>chat</p>\n", new String(Files.readAllBytes(workingFile), StandardCharsets.UTF_8));
+        Assert.assertEquals("the input file must not be modified",
+                "<p>lʼœil d’un</p>\n<p>chat</p>", new String(Files.readAllBytes(input), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void link() throws Exception {
+        Path input = _temporaryFolder.newFile("file1.xml").toPath();
+        Files.write(input, Collections.singletonList("<p>d’un</p>"), StandardCharsets.UTF_8);
+        Path out = _temporaryFolder.newFolder("out").toPath();
+        TermithIndex termithIndex = new TermithIndex();
+
+        new CorpusInitializer(input, out, termithIndex, false).execute();
+
+        Path workingFile = termithIndex.getXmlCorpus().get("file1");
+        Assert.assertTrue("the working file must be the input file or a link to it",
+                Files.isSameFile(input, workingFile));
+        Assert.assertEquals(Collections.singletonList("<p>d’un</p>"), Files.readAllLines(workingFile, StandardCharsets.UTF_8));
+    }
+}
@@ -1,12 +1,21 @@
 package org.atilf.module.enrichment.initializer;
 
+import org.atilf.models.TermithIndex;
+import org.atilf.models.enrichment.TaggingCache;
+import org.atilf.models.enrichment.TreeTaggerParameter;
+import org.atilf.module.tools.FilesUtils;
+import org.atilf.resources.enrichment.StaxTextExtraction;
 import org.atilf.resources.enrichment.XslResources;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
@@ -16,6 +25,9 @@ import java.nio.file.Paths;
 public class TextExtractorTest {
     private static TextExtractor _textExtractor;
 
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
     @BeforeClass
     public static void setUp(){
         _textExtractor = new TextExtractor(new File("src/test/resources/module/enrichment/" +
@@ -32,4 +44,31 @@ public class TextExtractorTest {
         );
     }
 
+    @Test
+    public void testStaxExtraction() throws Exception {
+        TextExtractor textExtractor = new TextExtractor(new File("src/test/resources/module/enrichment/" +
+                "initializer/textExtractor/file1.xml"), new StaxTextExtraction());
+        textExtractor.execute();
+        Assert.assertEquals("the stax extraction must give the text of the xsl stylesheet",
+                new String(Files.readAllBytes(Paths.get("src/test/resources/module/enrichment/" +
+                        "initializer/textExtractor/file1.txt")), StandardCharsets.UTF_8),
+                textExtractor.getExtractedText().toString()
+        );
+    }
+
+    @Test
+    public void computeTaggingKey() throws Exception {
+        Path xml = Paths.get("src/test/resources/module/enrichment/initializer/textExtractor/file1.xml");
+        TermithIndex termithIndex = new TermithIndex();
+        termithIndex.getXmlCorpus().put("file1", xml);
+        TaggingCache taggingCache = new TaggingCache(_temporaryFolder.newFolder("cache").toPath(),
+                new TreeTaggerParameter(false, "fr", "/opt/treetagger"));
+        new TextExtractor("file1", termithIndex, _temporaryFolder.getRoot().toPath(), new StaxTextExtraction(),
+                taggingCache).run();
+        StringBuilder text = FilesUtils.readObject(termithIndex.getExtractedText().get("file1"), StringBuilder.class);
+        Assert.assertEquals("the key of the extracted text must be computed once by the extraction",
+                taggingCache.key(text, FilesUtils.readFile(xml)),
+                termithIndex.getTaggingKey().get("file1")
+        );
+    }
 }
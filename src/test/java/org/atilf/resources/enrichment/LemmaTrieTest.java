@@ -0,0 +1,82 @@
+package org.atilf.resources.enrichment;
+
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class LemmaTrieTest {
+
+    @Test
+    public void matchEntries() throws Exception {
+        LemmaTrie lemmaTrie = new LemmaTrie(Arrays.asList("à défaut de", "à tout le moins", "le", "défaut"));
+        List<String> observed = new ArrayList<>();
+        int[] lemmaIds = lemmaTrie.lemmaIds(words("le", "chat", "à", "défaut", "de", "tomates", "à", "tout", "le",
+                "moins"));
+        lemmaTrie.match(lemmaIds, 1, 5, (begin, size, entry) -> observed.add(begin + " " + size + " " + entry));
+        Assert.assertEquals("the matches must be sorted by beginning index and then by size",
+                Arrays.asList("0 1 le", "2 3 à défaut de", "3 1 défaut", "6 4 à tout le moins", "8 1 le"), observed);
+
+        observed.clear();
+        lemmaTrie.match(lemmaIds, 2, 5, (begin, size, entry) -> observed.add(begin + " " + size + " " + entry));
+        Assert.assertEquals(Arrays.asList("2 3 à défaut de", "6 4 à tout le moins"), observed);
+    }
+
+    @Test
+    public void rejectCompositeLemmas() throws Exception {
+        LemmaTrie lemmaTrie = new LemmaTrie(Arrays.asList("à le"));
+        Assert.assertNull("a lemma with a space cannot be matched as a word", lemmaTrie.lemmaIds(words("à le")));
+        Assert.assertNull(lemmaTrie.lemmaIds(words("le", "")));
+        Assert.assertArrayEquals(new int[]{-1, 1}, lemmaTrie.lemmaIds(words("chat", "le")));
+    }
+
+    @Test
+    public void matchRandomEntries() throws Exception {
+        Random random = new Random(42);
+        String[] vocabulary = {"le", "chat", "de", "à", "défaut", "tout", "moins", "par", "conséquent", "un"};
+        Set<String> entries = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            StringBuilder entry = new StringBuilder();
+            for (int j = 0, size = 1 + random.nextInt(5); j < size; j++) {
+                entry.append(vocabulary[random.nextInt(vocabulary.length)]).append(" ");
+            }
+            entries.add(entry.toString().trim());
+        }
+        LemmaTrie lemmaTrie = new LemmaTrie(entries);
+        String[] lemmas = new String[2000];
+        for (int i = 0; i < lemmas.length; i++) {
+            lemmas[i] = vocabulary[random.nextInt(vocabulary.length)];
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int begin = 0; begin < lemmas.length; begin++) {
+            StringBuilder lemma = new StringBuilder();
+            for (int size = 1; size <= 5 && begin + size <= lemmas.length; size++) {
+                lemma.append(lemmas[begin + size - 1]).append(" ");
+                if (size >= 2 && entries.contains(lemma.toString().trim())) {
+                    expected.add(begin + " " + size);
+                }
+            }
+        }
+        List<String> observed = new ArrayList<>();
+        lemmaTrie.match(lemmaTrie.lemmaIds(words(lemmas)), 2, 5, (begin, size, entry) -> {
+            Assert.assertEquals(entry, String.join(" ", Arrays.copyOfRange(lemmas, begin, begin + size)));
+            observed.add(begin + " " + size);
+        });
+        Assert.assertEquals("the trie must find the n-grams of the entries", expected, observed);
+    }
+
+    private static List<MorphologyOffsetId> words(String... lemmas) {
+        List<MorphologyOffsetId> words = new ArrayList<>();
+        for (int i = 0; i < lemmas.length; i++) {
+            words.add(new MorphologyOffsetId(0, 0, lemmas[i], "", i + 1));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,112 @@
+package org.atilf.resources.enrichment;
+
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResourceCacheTest {
+
+    private static final String RESOURCE = "resources/enrichment/resourceCache/phraseology.json";
+    private static final ResourceCache.Codec<String> CODEC = new ResourceCache.Codec<String>() {
+        @Override
+        public void write(String resource, DataOutputStream out) throws IOException {
+            ResourceCache.writeString(resource, out);
+        }
+
+        @Override
+        public String read(ByteBuffer buffer) {
+            return ResourceCache.readString(buffer);
+        }
+    };
+
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        ResourceCache.setFolder(_temporaryFolder.getRoot().toPath());
+        ResourceCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        ResourceCache.setFolder(ResourceCache.DEFAULT_FOLDER);
+        ResourceCache.clear();
+    }
+
+    @Test
+    public void parseOnce() throws Exception {
+        AtomicInteger parsed = new AtomicInteger();
+        Assert.assertEquals("compiled é", ResourceCache.load(RESOURCE, "test", CODEC, () -> {
+            parsed.incrementAndGet();
+            return "compiled é";
+        }));
+        Assert.assertEquals("the resource is loaded once per jvm", "compiled é",
+                ResourceCache.load(RESOURCE, "test", CODEC, () -> "parsed twice"));
+        File[] compiled = _temporaryFolder.getRoot().listFiles();
+        Assert.assertEquals(1, compiled.length);
+        Assert.assertTrue("the compiled file is named after the checksum of the resource",
+                compiled[0].getName().matches("test-1-[0-9a-f]{64}\\.bin"));
+
+        ResourceCache.clear();
+        Assert.assertEquals("the compiled file must be read by the next runs", "compiled é",
+                ResourceCache.load(RESOURCE, "test", CODEC, () -> "parsed twice"));
+        Assert.assertEquals(1, parsed.get());
+    }
+
+    @Test
+    public void rebuildCorruptedFile() throws Exception {
+        ResourceCache.load(RESOURCE, "test", CODEC, () -> "compiled");
+        File compiled = _temporaryFolder.getRoot().listFiles()[0];
+        Files.write(compiled.toPath(), new byte[]{1, 2, 3});
+        ResourceCache.clear();
+        Assert.assertEquals("a corrupted file is parsed again", "parsed again",
+                ResourceCache.load(RESOURCE, "test", CODEC, () -> "parsed again"));
+        ResourceCache.clear();
+        Assert.assertEquals("parsed again", ResourceCache.load(RESOURCE, "test", CODEC, () -> "parsed twice"));
+    }
+
+    @Test
+    public void parseMissingResource() throws Exception {
+        Assert.assertEquals("missing", ResourceCache.load("missing.json", "test", CODEC, () -> "missing"));
+        Assert.assertEquals("a missing resource is not compiled", 0, _temporaryFolder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void compileResourceProjection() throws Exception {
+        ResourceProjection parsed = new ResourceProjection(RESOURCE);
+        ResourceCache.clear();
+        ResourceProjection compiled = new ResourceProjection(RESOURCE);
+        Assert.assertNotSame(parsed.getResourceMap(), compiled.getResourceMap());
+        Assert.assertEquals(parsed.getResourceMap(), compiled.getResourceMap());
+        Assert.assertEquals(parsed.getMultiWordsMap(), compiled.getMultiWordsMap());
+        Assert.assertEquals(Collections.singletonList(9), compiled.getResourceMap().get("à défaut de"));
+        Assert.assertEquals("le chat dort", compiled.getMultiWordsMap().get(7));
+        Assert.assertSame("the projections share the loaded resource", compiled.getLemmaTrie(),
+                new ResourceProjection(RESOURCE).getLemmaTrie());
+        int[] lemmaIds = compiled.getLemmaTrie().lemmaIds(Arrays.asList(word("le"), word("chat"), word("dormir")));
+        List<String> matches = new ArrayList<>();
+        compiled.getLemmaTrie().match(lemmaIds, 2, 5, (begin, size, entry) -> matches.add(entry));
+        Assert.assertEquals(Collections.singletonList("le chat dormir"), matches);
+        Assert.assertTrue(Arrays.stream(lemmaIds).allMatch(id -> id >= 0));
+    }
+
+    private static MorphologyOffsetId word(String lemma) {
+        return new MorphologyOffsetId(0, 0, lemma, "", 1);
+    }
+}
@@ -0,0 +1,29 @@
+package org.atilf.resources.enrichment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+public class StandOffTemplateTest {
+
+    @Test
+    public void line() throws Exception {
+        Assert.assertEquals("the start tag keeps its line terminator", "<p>\n",
+                StandOffTemplate.line(new StringBuilder("<p>\n</p>"), 0));
+        Assert.assertEquals("</p>", StandOffTemplate.line(new StringBuilder("<p>\n</p>"), 1));
+    }
+
+    @Test
+    public void write() throws Exception {
+        StandOffTemplate template = new StandOffTemplate("<span target=\"@target\" lemma=\"@lemma\"/>",
+                "@lemma", "@target");
+        StringWriter writer = new StringWriter();
+        template.write(writer, "chat", "#t1 #t2");
+        Assert.assertEquals("<span target=\"#t1 #t2\" lemma=\"chat\"/>", writer.toString());
+
+        writer = new StringWriter();
+        template.write(writer, (out, slot) -> out.write(slot == 0 ? "dort" : "#t3"));
+        Assert.assertEquals("<span target=\"#t3\" lemma=\"dort\"/>", writer.toString());
+    }
+}
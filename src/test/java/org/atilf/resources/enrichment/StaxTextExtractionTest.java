@@ -0,0 +1,86 @@
+package org.atilf.resources.enrichment;
+
+import org.atilf.models.enrichment.TextOffsetMap;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class StaxTextExtractionTest {
+
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void extract() throws Exception {
+        Assert.assertEquals("the text content of the first text element must be extracted",
+                "\nl'œil & <le> été\na < b\n\n",
+                new StaxTextExtraction().extract(file()).toString()
+        );
+    }
+
+    @Test
+    public void mapOffsets() throws Exception {
+        TextOffsetMap offsetMap = new TextOffsetMap();
+        StringBuilder text = new StaxTextExtraction().extract(file(), offsetMap);
+        Assert.assertEquals("the line break of each paragraph is recorded", 2, offsetMap.size());
+        Assert.assertEquals(16, offsetMap.offset(16));
+        Assert.assertEquals('a', text.charAt(offsetMap.offset(17)));
+        Assert.assertEquals(18, offsetMap.offset(17));
+        Assert.assertEquals(24, offsetMap.offset(22));
+        Assert.assertEquals(text.length() - 1, offsetMap.offset(22));
+    }
+
+    @Test
+    public void extractNestedElements() throws Exception {
+        File file = file("nested.xml", "<TEI><text><body>\n  <p>le <hi rend=\"i\">chat <hi>très</hi> rouge</hi> dort" +
+                "<note place=\"foot\">une <hi>note</hi> &amp; <p>un renvoi</p></note>.</p>\n" +
+                "  <div><head>titre</head><p>&quot;fin&apos; &#x1F600;</p></div>\n</body></text></TEI>");
+        TextOffsetMap offsetMap = new TextOffsetMap();
+        StringBuilder text = new StaxTextExtraction().extract(file, offsetMap);
+        Assert.assertEquals("the text of the nested elements and of the notes must be kept in the document order",
+                "\n  le chat très rouge dortune note & un renvoi\n.\n\n  titre\"fin' \uD83D\uDE00\n\n",
+                text.toString()
+        );
+        Assert.assertEquals("the line break of a paragraph nested in a note is recorded", 3, offsetMap.size());
+        Assert.assertEquals(text.indexOf("."), offsetMap.offset(text.indexOf(".") - 1));
+    }
+
+    @Test
+    public void ignoreExternalEntities() throws Exception {
+        File secret = _temporaryFolder.newFile("secret.txt");
+        Files.write(secret.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+        File file = file("entity.xml", "<?xml version=\"1.0\"?>\n" +
+                "<!DOCTYPE TEI [<!ENTITY secret SYSTEM \"" + secret.toURI() + "\">]>\n" +
+                "<TEI><text><p>&secret;</p></text></TEI>");
+        String text;
+        try {
+            text = new StaxTextExtraction().extract(file).toString();
+        } catch (IOException e) {
+            text = "";
+        }
+        Assert.assertFalse("an external entity must not be resolved", text.contains("secret"));
+    }
+
+    private File file(String name, String content) throws Exception {
+        File file = _temporaryFolder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private File file() throws Exception {
+        File file = _temporaryFolder.newFile("file.xml");
+        Files.write(file.toPath(), ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<TEI xmlns=\"http://www.tei-c.org/ns/1.0\">\n" +
+                "<teiHeader><profileDesc><textClass>header</textClass></profileDesc></teiHeader>\n" +
+                "<text xml:lang=\"fr\">\r\n<body><p>l'<hi>œil</hi> &amp; &lt;le&gt; &#233;t&#xE9;<!-- note --></p>" +
+                "<p><![CDATA[a < b]]></p></body>\n</text>\n<text>second</text>\n</TEI>")
+                .getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,100 @@
+package org.atilf.runner;
+
+import org.atilf.delegate.Delegate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DirectStageExecutorTest {
+
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<definitions xmlns=\"http://www.omg.org/spec/BPMN/20100524/MODEL\"\n" +
+            "             xmlns:flowable=\"http://flowable.org/bpmn\"\n" +
+            "             targetNamespace=\"http://www.flowable.org/processdef\">\n" +
+            "  <process id=\"test\" isExecutable=\"true\">\n" +
+            "    <startEvent id=\"start\"/>\n";
+    private static final String FOOTER = "    <endEvent id=\"end\"/>\n" +
+            "  </process>\n" +
+            "</definitions>\n";
+
+    @Test
+    public void readServiceTasks() throws Exception {
+        DirectStageExecutor directStageExecutor = DirectStageExecutor.fromBpmnDiagram(diagram(
+                serviceTask("first", First.class) +
+                "    <parallelGateway id=\"fork\"/>\n" +
+                serviceTask("second", Second.class) +
+                serviceTask("third", Third.class) +
+                "    <parallelGateway id=\"join\"/>\n" +
+                flow("start", "first") + flow("first", "fork") + flow("fork", "second") + flow("fork", "third") +
+                flow("second", "join") + flow("third", "join") + flow("join", "end")
+        ));
+        Assert.assertEquals("the service tasks must be sorted in the order of the sequence flows",
+                Arrays.asList(First.class.getName(), Second.class.getName(), Third.class.getName()),
+                directStageExecutor.getStages());
+    }
+
+    @Test
+    public void executeDelegates() throws Exception {
+        DirectStageExecutor directStageExecutor = DirectStageExecutor.fromBpmnDiagram(diagram(
+                serviceTask("third", Third.class) + serviceTask("first", First.class) +
+                flow("start", "first") + flow("first", "third") + flow("third", "end")
+        ));
+        List<String> executed = new ArrayList<>();
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("poolSize", 1);
+        variables.put("executed", executed);
+        variables.put("timePerformanceEvents", new ArrayList<>());
+        variables.put("memoryPerformanceEvents", new ArrayList<>());
+        directStageExecutor.execute(variables);
+        Assert.assertEquals("the delegates must read the variables of the process",
+                Arrays.asList("First", "Third"), executed);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectConditionalFlows() throws Exception {
+        DirectStageExecutor.fromBpmnDiagram(diagram(
+                "    <exclusiveGateway id=\"choice\"/>\n" +
+                serviceTask("first", First.class) + serviceTask("second", Second.class) +
+                flow("start", "choice") +
+                "    <sequenceFlow id=\"choice-first\" sourceRef=\"choice\" targetRef=\"first\">\n" +
+                "      <conditionExpression>${pipelined}</conditionExpression>\n" +
+                "    </sequenceFlow>\n" +
+                flow("choice", "second") + flow("first", "end") + flow("second", "end")
+        ));
+    }
+
+    private static InputStream diagram(String elements) {
+        return new ByteArrayInputStream((HEADER + elements + FOOTER).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String serviceTask(String id, Class<?> delegate) {
+        return "    <serviceTask id=\"" + id + "\" flowable:class=\"" + delegate.getName() + "\"/>\n";
+    }
+
+    private static String flow(String source, String target) {
+        return "    <sequenceFlow id=\"" + source + "-" + target + "\" sourceRef=\"" + source + "\" targetRef=\"" +
+                target + "\"/>\n";
+    }
+
+    public static class First extends Delegate {
+        @Override
+        public void executeTasks() {
+            List<String> executed = getFlowableVariable("executed", null);
+            executed.add(getClass().getSimpleName());
+            _executorService.shutdown();
+        }
+    }
+
+    public static class Second extends First {}
+
+    public static class Third extends First {}
+}
@@ -0,0 +1,99 @@
+package org.atilf.runner;
+
+import org.atilf.models.ArtifactHandle;
+import org.atilf.models.TermithIndex;
+import org.atilf.models.enrichment.MultiWordsOffsetId;
+import org.atilf.module.tools.ArtifactStore;
+import org.atilf.module.tools.FilesUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TermithCheckpointTest {
+
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void resumeCompletedDelegates() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        TermithIndex termithIndex = new TermithIndex();
+        termithIndex.getXmlCorpus().put("1", Paths.get("/corpus/1.xml"));
+        termithIndex.getTerminologies().add(Paths.get("/out/terminology.json"));
+        ArtifactHandle text = FilesUtils.writeObject(new StringBuilder("le chat"), workingPath, "extractedText", "1");
+        termithIndex.getExtractedText().put("1", text);
+        List<MultiWordsOffsetId> terms = new ArrayList<>();
+        terms.add(new MultiWordsOffsetId(0, 7, 1, "le chat"));
+        termithIndex.getTerminologyStandOff().put("1", terms);
+        termithIndex.getTerminologyShards().put("1", new ArrayList<>());
+        termithIndex.getTerminologyShards().get("1").add(
+                FilesUtils.writeObject(terms, workingPath, "terminologyShard", "1"));
+        termithIndex.getResolvedTerminology().put("1",
+                FilesUtils.writeObject(terms, workingPath, "resolvedTerminology", "1"));
+
+        TermithCheckpoint checkpoint = new TermithCheckpoint(workingPath);
+        checkpoint.complete("CorpusInitializerDelegate", termithIndex);
+        checkpoint.complete("TextExtractorDelegate", termithIndex);
+        ArtifactStore.get(workingPath).close();
+
+        TermithIndex resumed = new TermithIndex();
+        TermithCheckpoint resumedCheckpoint = new TermithCheckpoint(workingPath);
+        resumedCheckpoint.resume(resumed);
+        Assert.assertTrue(resumedCheckpoint.isCompleted("CorpusInitializerDelegate"));
+        Assert.assertTrue(resumedCheckpoint.isCompleted("TextExtractorDelegate"));
+        Assert.assertFalse(resumedCheckpoint.isCompleted("TreeTaggerWorkerDelegate"));
+        Assert.assertEquals(termithIndex.getXmlCorpus(), resumed.getXmlCorpus());
+        Assert.assertEquals(termithIndex.getTerminologies(), resumed.getTerminologies());
+        Assert.assertEquals("le chat",
+                FilesUtils.readObject(resumed.getExtractedText().get("1"), StringBuilder.class).toString());
+        Assert.assertEquals("le chat", resumed.getTerminologyStandOff().get("1").get(0).getWord());
+        List<MultiWordsOffsetId> shard = FilesUtils.readListObject(resumed.getTerminologyShards().get("1").get(0));
+        Assert.assertEquals("le chat", shard.get(0).getWord());
+        List<MultiWordsOffsetId> resolved = FilesUtils.readListObject(resumed.getResolvedTerminology().get("1"));
+        Assert.assertEquals("le chat", resolved.get(0).getWord());
+    }
+
+    @Test
+    public void recoverInterruptedDelegate() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        TermithIndex termithIndex = new TermithIndex();
+        new TermithCheckpoint(workingPath).complete("TextExtractorDelegate", termithIndex);
+        /*
+        the artifacts written after the last checkpoint are recovered from the indexes of the artifact store
+         */
+        FilesUtils.writeObject(new StringBuilder("body"), workingPath, "tokenizeTeiBody", "1");
+        FilesUtils.writeObject(new ArrayList<>(), workingPath, "morphologyStandOff", "1");
+        FilesUtils.writeObject(new StringBuilder("body"), workingPath, "tokenizeTeiBody", "2");
+        ArtifactStore.get(workingPath).close();
+
+        TermithIndex resumed = new TermithIndex();
+        new TermithCheckpoint(workingPath).resume(resumed);
+        Assert.assertEquals(2, resumed.getTokenizeTeiBody().size());
+        Assert.assertEquals(1, resumed.getMorphologyStandOff().size());
+        Assert.assertEquals("body",
+                FilesUtils.readObject(resumed.getTokenizeTeiBody().get("2"), StringBuilder.class).toString());
+    }
+
+    @Test
+    public void resumeIncompleteDelegate() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        TermithIndex termithIndex = new TermithIndex();
+        TermithCheckpoint checkpoint = new TermithCheckpoint(workingPath);
+        checkpoint.complete("TextExtractorDelegate", termithIndex);
+        checkpoint.incomplete("TreeTaggerWorkerDelegate", termithIndex);
+        checkpoint.complete("TerminologyParserDelegate", termithIndex);
+        ArtifactStore.get(workingPath).close();
+
+        TermithCheckpoint resumedCheckpoint = new TermithCheckpoint(workingPath);
+        resumedCheckpoint.resume(new TermithIndex());
+        Assert.assertTrue(resumedCheckpoint.isCompleted("TextExtractorDelegate"));
+        Assert.assertFalse(resumedCheckpoint.isCompleted("TreeTaggerWorkerDelegate"));
+        Assert.assertFalse(resumedCheckpoint.isCompleted("TerminologyParserDelegate"));
+    }
+}
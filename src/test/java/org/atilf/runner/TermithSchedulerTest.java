@@ -0,0 +1,80 @@
+package org.atilf.runner;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TermithSchedulerTest {
+
+    @Test
+    public void limitStageConcurrency() throws Exception {
+        Map<String, Integer> stageConcurrency = new HashMap<>();
+        stageConcurrency.put("limited", 2);
+        try (TermithScheduler scheduler = new TermithScheduler(4, 4, stageConcurrency)) {
+            ExecutorService stage = scheduler.newStage("limited", TermithScheduler.Lane.CPU);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            for (int i = 0; i < 20; i++) {
+                stage.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                });
+            }
+            stage.shutdown();
+            Assert.assertTrue(stage.awaitTermination(10L, TimeUnit.SECONDS));
+            Assert.assertTrue(stage.isTerminated());
+            Assert.assertTrue("the stage must not run more than two tasks at the same time", maxRunning.get() <= 2);
+
+            TermithScheduler.StageStatistics statistics = scheduler.getStatistics().get(0);
+            Assert.assertEquals("limited", statistics.getName());
+            Assert.assertEquals(20, statistics.getSubmittedTasks());
+            Assert.assertEquals(20, statistics.getCompletedTasks());
+            Assert.assertTrue("the tasks must have waited in the queue of the stage", statistics.getMaxQueueDepth() > 1);
+            Assert.assertTrue(statistics.getUtilisation() > 0 && statistics.getUtilisation() <= 1);
+        }
+    }
+
+    @Test
+    public void shareLanes() throws Exception {
+        try (TermithScheduler scheduler = new TermithScheduler(2, 2, Collections.emptyMap())) {
+            ExecutorService first = scheduler.newStage("first", TermithScheduler.Lane.BLOCKING);
+            ExecutorService second = scheduler.newStage("second", TermithScheduler.Lane.BLOCKING);
+            CountDownLatch secondFinished = new CountDownLatch(1);
+            first.submit(() -> {
+                try {
+                    Assert.assertTrue(secondFinished.await(10L, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            second.submit(secondFinished::countDown);
+            second.shutdown();
+            Assert.assertTrue("a stage must terminate without waiting the other stages of its lane",
+                    second.awaitTermination(10L, TimeUnit.SECONDS));
+            first.shutdown();
+            Assert.assertTrue(first.awaitTermination(10L, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void terminateEmptyStage() throws Exception {
+        try (TermithScheduler scheduler = new TermithScheduler(1, 1, Collections.emptyMap())) {
+            ExecutorService stage = scheduler.newStage("empty", TermithScheduler.Lane.CPU);
+            Assert.assertFalse(stage.isTerminated());
+            stage.shutdown();
+            Assert.assertTrue(stage.isTerminated());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.atilf.tools;
+
+import org.atilf.models.ArtifactHandle;
+import org.atilf.models.enrichment.MorphologyOffsetId;
+import org.atilf.module.tools.ArtifactCodec;
+import org.atilf.module.tools.FilesUtils;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ArtifactCodecTest {
+
+    @ClassRule
+    public static TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void writeText() throws Exception {
+        StringBuilder text = new StringBuilder("le chat dort\nœuvre « élève » 😀");
+        ArtifactHandle handle = FilesUtils.writeObject(text, _temporaryFolder.getRoot().toPath());
+        Assert.assertEquals("the text must be the same after reading", text.toString(),
+                FilesUtils.readObject(handle, StringBuilder.class).toString());
+
+        /*
+        the big texts are memory-mapped
+         */
+        StringBuilder bigText = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            bigText.append("mot").append(i).append(' ');
+        }
+        handle = FilesUtils.writeObject(bigText, _temporaryFolder.getRoot().toPath());
+        Assert.assertEquals(bigText.toString(), FilesUtils.readObject(handle, StringBuilder.class).toString());
+
+        Path path = _temporaryFolder.newFile().toPath();
+        ArtifactCodec.writeText(bigText, path);
+        Assert.assertEquals(bigText.toString(), ArtifactCodec.readText(path).toString());
+    }
+
+    @Test
+    public void writeMorphology() throws Exception {
+        List<MorphologyOffsetId> morphology = new ArrayList<>();
+        morphology.add(new MorphologyOffsetId(0, 2, "au", "PRP", 1));
+        morphology.add(new MorphologyOffsetId(3, 8, "moins", "ADV", new ArrayList<>(Arrays.asList(2, 3))));
+        morphology.add(new MorphologyOffsetId(8, 9, ",", "PUN", 4));
+        morphology.add(new MorphologyOffsetId(10, 12, "au", null, 5));
+
+        ArtifactHandle handle = FilesUtils.writeObject(morphology, _temporaryFolder.getRoot().toPath());
+        List<MorphologyOffsetId> observed = FilesUtils.readListObject(handle);
+        Assert.assertEquals(morphology.size(), observed.size());
+        for (int i = 0; i < morphology.size(); i++) {
+            Assert.assertEquals(morphology.get(i).getBegin(), observed.get(i).getBegin());
+            Assert.assertEquals(morphology.get(i).getEnd(), observed.get(i).getEnd());
+            Assert.assertEquals(morphology.get(i).getLemma(), observed.get(i).getLemma());
+            Assert.assertEquals(morphology.get(i).getTag(), observed.get(i).getTag());
+            Assert.assertEquals(morphology.get(i).getIds(), observed.get(i).getIds());
+        }
+        observed.get(0).getIds().add(6);
+        Assert.assertEquals("the ids must be modifiable", Arrays.asList(1, 6), observed.get(0).getIds());
+
+        handle = FilesUtils.writeObject(new ArrayList<MorphologyOffsetId>(), _temporaryFolder.getRoot().toPath());
+        Assert.assertTrue(FilesUtils.readListObject(handle).isEmpty());
+    }
+
+    @Test
+    public void writeLines() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        ArtifactCodec.LineWriter lineWriter = new ArtifactCodec.LineWriter();
+        lineWriter.write("le\tDET:ART\tle");
+        lineWriter.write("");
+        lineWriter.write("élève\tNOM\télève 😀");
+        ArtifactHandle handle = FilesUtils.writeLines(lineWriter, workingPath, "treeTaggerOutput", "1");
+        List<String> lines = new ArrayList<>();
+        Assert.assertTrue(FilesUtils.readLines(handle, lines::add));
+        Assert.assertEquals(Arrays.asList("le\tDET:ART\tle", "", "élève\tNOM\télève 😀"), lines);
+        Assert.assertEquals("the lines can be read as a text", "le\tDET:ART\tle\n\nélève\tNOM\télève 😀\n",
+                FilesUtils.readObject(handle, StringBuilder.class).toString());
+
+        /*
+        the texts written at once are read line by line
+         */
+        handle = FilesUtils.writeObject(new StringBuilder("chat\tNOM\tchat\ndort\tVER\tdormir\n"), workingPath);
+        lines.clear();
+        Assert.assertTrue(FilesUtils.readLines(handle, lines::add));
+        Assert.assertEquals(Arrays.asList("chat\tNOM\tchat", "dort\tVER\tdormir"), lines);
+    }
+
+    @Test
+    public void readSerializedObject() throws Exception {
+        /*
+        the other objects use the java serialization
+         */
+        Map<String, Integer> map = new HashMap<>();
+        map.put("chat", 1);
+        ArtifactHandle handle = FilesUtils.writeObject(map, _temporaryFolder.getRoot().toPath());
+        Assert.assertEquals(map, FilesUtils.readObject(handle, HashMap.class));
+    }
+}
@@ -0,0 +1,131 @@
+package org.atilf.tools;
+
+import org.atilf.models.ArtifactHandle;
+import org.atilf.module.tools.ArtifactStore;
+import org.atilf.module.tools.FilesUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ArtifactStoreTest {
+
+    @Rule
+    public TemporaryFolder _temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void appendArtifacts() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        ArtifactHandle first = FilesUtils.writeObject(new StringBuilder("le chat"), workingPath, "extractedText", "1");
+        ArtifactHandle second = FilesUtils.writeObject(new StringBuilder("dort"), workingPath, "extractedText", "2");
+
+        Assert.assertEquals("the artifacts of a stage must be written in the same segment",
+                first.getSegment(), second.getSegment());
+        Assert.assertEquals(first.getOffset() + first.getLength(), second.getOffset());
+        Assert.assertEquals("dort", FilesUtils.readObject(second, StringBuilder.class).toString());
+        Assert.assertEquals("le chat", FilesUtils.readObject(first, StringBuilder.class).toString());
+
+        Path index = index(first);
+        List<String> expected = Arrays.asList(
+                "1\t" + first.getOffset() + "\t" + first.getLength(),
+                "2\t" + second.getOffset() + "\t" + second.getLength()
+        );
+        Assert.assertEquals("the index must contain the document, the offset and the length of the artifacts",
+                expected, Files.readAllLines(index));
+
+        ArtifactHandle other = FilesUtils.writeObject(new ArrayList<>(), workingPath, "morphologyStandOff", "1");
+        Assert.assertNotEquals(first.getSegment(), other.getSegment());
+        ArtifactStore.get(workingPath).close();
+    }
+
+    @Test
+    public void deleteReleasedSegments() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        ArtifactStore store = ArtifactStore.get(workingPath);
+        ArtifactHandle released = store.append("tokenizeTeiBody", "1", ByteBuffer.wrap(bytes("le chat")));
+        ArtifactHandle kept = store.append("treeTaggerOutput", "1", ByteBuffer.wrap(bytes("dort")));
+        FilesUtils.deleteObject(released);
+        Assert.assertTrue("the current segment must be kept until the store is closed",
+                Files.exists(released.getSegment()));
+
+        store.close();
+        Assert.assertFalse("a segment whose artifacts are all released must be deleted",
+                Files.exists(released.getSegment()));
+        Assert.assertFalse(Files.exists(index(released)));
+        Assert.assertTrue(Files.exists(kept.getSegment()));
+
+        ByteBuffer buffer = ArtifactStore.read(kept);
+        byte[] observed = new byte[buffer.remaining()];
+        buffer.get(observed);
+        Assert.assertEquals("an artifact must be readable after the store is closed",
+                "dort", new String(observed, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void releaseTwice() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        ArtifactStore store = ArtifactStore.get(workingPath);
+        ArtifactHandle released = store.append("tokenizeTeiBody", "1", ByteBuffer.wrap(bytes("le chat")));
+        ArtifactHandle kept = store.append("tokenizeTeiBody", "2", ByteBuffer.wrap(bytes("dort")));
+        FilesUtils.deleteObject(released);
+        FilesUtils.deleteObject(released);
+
+        store.close();
+        Assert.assertTrue("a second release must not release another artifact of the segment",
+                Files.exists(kept.getSegment()));
+        Assert.assertEquals("dort", new String(array(ArtifactStore.read(kept)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void deleteAdoptedSegments() throws Exception {
+        Path workingPath = _temporaryFolder.getRoot().toPath();
+        ArtifactStore store = ArtifactStore.get(workingPath);
+        ArtifactHandle first = store.append("morphologyStandOff", "1", ByteBuffer.wrap(bytes("le chat")));
+        ArtifactHandle second = store.append("morphologyStandOff", "2", ByteBuffer.wrap(bytes("dort")));
+        store.append("morphologyStandOff", "3", ByteBuffer.wrap(bytes("abandoned")));
+        store.close();
+
+        /*
+        the resumed process keeps the two first artifacts
+         */
+        ArtifactStore resumed = ArtifactStore.get(workingPath);
+        resumed.adopt(first);
+        resumed.adopt(second);
+        FilesUtils.deleteObject(first);
+        FilesUtils.deleteObject(first);
+        Assert.assertTrue(Files.exists(second.getSegment()));
+        Assert.assertEquals("dort", new String(array(ArtifactStore.read(second)), StandardCharsets.UTF_8));
+
+        FilesUtils.deleteObject(second);
+        Assert.assertFalse("an adopted segment must be deleted when its adopted artifacts are released",
+                Files.exists(second.getSegment()));
+        Assert.assertFalse(Files.exists(index(second)));
+        ArtifactHandle next = resumed.append("morphologyStandOff", "4", ByteBuffer.wrap(bytes("chat")));
+        Assert.assertNotEquals("the number of a deleted segment must not be reused",
+                second.getSegment(), next.getSegment());
+        resumed.close();
+    }
+
+    private static byte[] array(ByteBuffer buffer) {
+        byte[] array = new byte[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Path index(ArtifactHandle handle) {
+        String segment = handle.getSegment().getFileName().toString();
+        return handle.getSegment().resolveSibling(segment.replace(".segment", ".index"));
+    }
+}